@@ -1,100 +1,138 @@
 package rocks.inspectit.ocelot.agentcommunication;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
 import rocks.inspectit.ocelot.commons.models.command.Command;
 import rocks.inspectit.ocelot.config.model.AgentCommandSettings;
 import rocks.inspectit.ocelot.config.model.InspectitServerSettings;
 
 import javax.annotation.PostConstruct;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.TimeUnit;
 
 /**
  * This class manages commands for agents. It provides functionality to add commands for specific agents or retrieve
  * commands for specific agents. Once a command is retrieved it is deleted.
+ * <p>
+ * Agents waiting for a command are not blocking any thread: their requests are represented by {@link DeferredResult}s,
+ * which are completed as soon as a command is added for the respective agent or the polling timeout elapses.
+ * <p>
+ * The number of queued, delivered, dropped and expired commands is exposed as metrics.
  */
 @Slf4j
 @Service
-public class AgentCommandManager {
+public class AgentCommandManager implements MeterBinder {
+
+    /**
+     * The interval in which expired commands are removed.
+     */
+    private static final long CLEANUP_INTERVAL_MS = 10000;
+
+    private static final String METRIC_PREFIX = "inspectit.agent.commands.";
 
     @Autowired
     private InspectitServerSettings configuration;
 
     @VisibleForTesting
-    LoadingCache<String, BlockingQueue<Command>> agentCommandCache;
+    AgentCommandQueues commandQueues;
 
     @PostConstruct
     public void postConstruct() {
         AgentCommandSettings commandSettings = configuration.getAgentCommand();
-        long commandTimeout = commandSettings.getCommandTimeout().toMillis();
-        int commandQueueSize = commandSettings.getCommandQueueSize();
+        commandQueues = new AgentCommandQueues(commandSettings.getCommandQueueSize(), commandSettings.getCommandTimeout(), configuration.getMaxAgents(), System::nanoTime);
+    }
 
-        agentCommandCache = CacheBuilder.newBuilder()
-                .maximumSize(1000)
-                .expireAfterWrite(commandTimeout, TimeUnit.MILLISECONDS)
-                .build(new CacheLoader<String, BlockingQueue<Command>>() {
-                    @Override
-                    public BlockingQueue<Command> load(String key) {
-                        return new LinkedBlockingQueue<>(commandQueueSize);
-                    }
-                });
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(METRIC_PREFIX + "queued", commandQueues, AgentCommandQueues::getQueuedCommands)
+                .description("The number of commands currently queued for agents")
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + "waiting-agents", commandQueues, AgentCommandQueues::getWaitingAgentCount)
+                .description("The number of agents currently waiting for a command")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + "delivered", commandQueues, AgentCommandQueues::getDeliveredCommands)
+                .description("The number of commands delivered to agents")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + "dropped", commandQueues, AgentCommandQueues::getDroppedCommands)
+                .description("The number of commands dropped because the queue of the agent was full")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + "expired", commandQueues, AgentCommandQueues::getExpiredCommands)
+                .description("The number of commands which expired before they were fetched by the agent")
+                .register(registry);
     }
 
     /**
      * Takes a String resembling the id of an agent and an instance of {@link Command} and adds the command with
      * the given id as key.
+     * If the queue of the agent is full, the command is dropped.
      *
      * @param agentId The id of the agent the command is meant for.
      * @param command An instance of the command to be executed.
      */
-    public void addCommand(String agentId, Command command) throws ExecutionException {
+    public void addCommand(String agentId, Command command) {
         if (agentId == null) {
             throw new IllegalArgumentException("Agent id may never be null!");
         }
 
         if (command != null) {
-            BlockingQueue<Command> commandList = agentCommandCache.get(agentId);
-            boolean success = commandList.offer(command);
+            boolean success = commandQueues.add(agentId, command);
+            if (!success) {
+                log.warn("Command {} for agent '{}' has been dropped because the command queue of the agent is full.", command.getCommandId(), agentId);
+            }
         }
     }
 
     /**
      * Takes a String resembling the id of an agent and returns a command. The commands are ordered by the fifo-principle.
      * The command is then deleted from the queue.
-     * Returns null if the agentId is null or if there are no commands to return.
+     * Returns null if there are no commands to return.
      *
-     * @param agentId        The ID of the agent for which the command should to be returned.
-     * @param waitForCommand Whether it should be waited until a command appears
+     * @param agentId The ID of the agent for which the command should to be returned.
      *
      * @return The {@link Command} object next in queue for the agent with the given id.
      */
-    public Command getCommand(String agentId, boolean waitForCommand) {
-        try {
-            BlockingQueue<Command> commandQueue = agentCommandCache.get(agentId);
-            Command command;
-            if (waitForCommand) {
-                AgentCommandSettings commandSettings = configuration.getAgentCommand();
-                long timeout = commandSettings.getAgentPollingTimeout().toMillis();
-                command = commandQueue.poll(timeout, TimeUnit.MILLISECONDS);
-            } else {
-                command = commandQueue.poll();
-            }
+    public Command getCommand(String agentId) {
+        return commandQueues.poll(agentId);
+    }
 
-            if (command == null) {
-                agentCommandCache.invalidate(agentId);
-            }
-            return command;
-        } catch (ExecutionException | InterruptedException e) {
-            log.error("Exception while getting an agent command.", e);
-            return null;
+    /**
+     * Returns a {@link DeferredResult} which is completed with the next command for the agent with the given id.
+     * If a command is already queued, the result is completed immediately. Otherwise, it is completed as soon as a command
+     * is added for the agent. If no command is added within the configured agent polling timeout, the result is completed
+     * with an empty response. No thread is blocked while waiting.
+     * <p>
+     * If the agent already has a pending request, the previous request is completed with an empty response.
+     *
+     * @param agentId The ID of the agent for which the command should to be returned.
+     *
+     * @return The result which will contain the next command for the agent or an empty response.
+     */
+    public DeferredResult<ResponseEntity<Command>> awaitCommand(String agentId) {
+        long timeout = configuration.getAgentCommand().getAgentPollingTimeout().toMillis();
+        DeferredResult<ResponseEntity<Command>> result = new DeferredResult<>(timeout, ResponseEntity.noContent()
+                .build());
+        result.onCompletion(() -> commandQueues.removePendingRequest(agentId, result));
+
+        Command command = commandQueues.pollOrRegister(agentId, result);
+        if (command != null) {
+            result.setResult(ResponseEntity.ok().body(command));
         }
+        return result;
+    }
+
+    /**
+     * Removes commands which have not been fetched within the command timeout, as well as the entries of agents
+     * which neither have queued commands nor are waiting for one.
+     */
+    @Scheduled(fixedDelay = CLEANUP_INTERVAL_MS)
+    public void removeExpiredCommands() {
+        commandQueues.removeExpiredCommands();
     }
 }
@@ -0,0 +1,341 @@
+package rocks.inspectit.ocelot.agentcommunication;
+
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+import rocks.inspectit.ocelot.commons.models.command.Command;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Stores the command queues and the pending command requests of all agents.
+ * <p>
+ * The agents are distributed over a fixed number of shards, each of them guarded by its own lock, so that agents of
+ * different shards do not contend with each other. Within a shard, adding a command, taking a command and handing a
+ * command over to a pending request are atomic.
+ * <p>
+ * The entry of an agent only exists as long as the agent has queued commands or a pending request, so idle agents do
+ * not occupy any memory. Commands which have not been fetched within the command timeout are never delivered and are
+ * removed by {@link #removeExpiredCommands()}.
+ */
+class AgentCommandQueues {
+
+    /**
+     * The number of shards, has to be a power of two.
+     */
+    private static final int SHARD_COUNT = 64;
+
+    private static final ResponseEntity<Command> NO_COMMAND = ResponseEntity.noContent().build();
+
+    private final Shard[] shards = new Shard[SHARD_COUNT];
+
+    /**
+     * The maximum number of queued commands per agent.
+     */
+    private final int maxQueueSize;
+
+    /**
+     * Commands which have been queued for longer than this duration are expired.
+     */
+    private final long commandTimeoutNanos;
+
+    /**
+     * The source of the current time in nanoseconds.
+     */
+    private final LongSupplier nanoTime;
+
+    private final AtomicLong queuedCommands = new AtomicLong();
+
+    private final LongAdder deliveredCommands = new LongAdder();
+
+    private final LongAdder droppedCommands = new LongAdder();
+
+    private final LongAdder expiredCommands = new LongAdder();
+
+    /**
+     * @param maxQueueSize   the maximum number of queued commands per agent
+     * @param commandTimeout the duration after which queued commands expire
+     * @param expectedAgents the expected number of agents, used for the initial sizing of the shards
+     * @param nanoTime       the source of the current time in nanoseconds
+     */
+    AgentCommandQueues(int maxQueueSize, Duration commandTimeout, int expectedAgents, LongSupplier nanoTime) {
+        this.maxQueueSize = maxQueueSize;
+        this.commandTimeoutNanos = commandTimeout.toNanos();
+        this.nanoTime = nanoTime;
+        int initialShardCapacity = Math.max(16, expectedAgents / SHARD_COUNT * 4 / 3);
+        for (int i = 0; i < SHARD_COUNT; i++) {
+            shards[i] = new Shard(initialShardCapacity);
+        }
+    }
+
+    /**
+     * Hands the given command over to the pending request of the agent. If the agent has no pending request,
+     * the command is appended to its queue.
+     *
+     * @param agentId the id of the agent
+     * @param command the command to add
+     *
+     * @return false, if the command has been dropped because the queue of the agent is full
+     */
+    boolean add(String agentId, Command command) {
+        Shard shard = getShard(agentId);
+        ResponseEntity<Command> response = ResponseEntity.ok().body(command);
+        while (true) {
+            DeferredResult<ResponseEntity<Command>> pendingRequest;
+            synchronized (shard) {
+                AgentEntry entry = shard.entries.computeIfAbsent(agentId, id -> new AgentEntry());
+                pendingRequest = entry.pendingRequest;
+                if (pendingRequest == null) {
+                    if (entry.commands.size() >= maxQueueSize) {
+                        shard.removeIfUnused(agentId, entry);
+                        droppedCommands.increment();
+                        return false;
+                    }
+                    entry.commands.add(new QueuedCommand(command, nanoTime.getAsLong()));
+                    queuedCommands.incrementAndGet();
+                    return true;
+                }
+                entry.pendingRequest = null;
+                shard.removeIfUnused(agentId, entry);
+            }
+            // the pending request might have timed out in the meantime, in this case we try again
+            if (pendingRequest.setResult(response)) {
+                deliveredCommands.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Takes the next command from the queue of the given agent.
+     *
+     * @param agentId the id of the agent
+     *
+     * @return the next command or null if there is none
+     */
+    Command poll(String agentId) {
+        Shard shard = getShard(agentId);
+        synchronized (shard) {
+            AgentEntry entry = shard.entries.get(agentId);
+            if (entry == null) {
+                return null;
+            }
+            Command command = pollCommand(entry);
+            shard.removeIfUnused(agentId, entry);
+            return command;
+        }
+    }
+
+    /**
+     * Takes the next command from the queue of the given agent. If there is none, the given request is registered
+     * as pending request of the agent, so that it is completed by the next {@link #add(String, Command)}.
+     * A previously pending request of the agent is completed without a command.
+     *
+     * @param agentId the id of the agent
+     * @param request the request to complete with the next command
+     *
+     * @return the next command or null if the request has been registered as pending request
+     */
+    Command pollOrRegister(String agentId, DeferredResult<ResponseEntity<Command>> request) {
+        Shard shard = getShard(agentId);
+        DeferredResult<ResponseEntity<Command>> previousRequest;
+        synchronized (shard) {
+            AgentEntry entry = shard.entries.computeIfAbsent(agentId, id -> new AgentEntry());
+            Command command = pollCommand(entry);
+            if (command != null) {
+                shard.removeIfUnused(agentId, entry);
+                return command;
+            }
+            previousRequest = entry.pendingRequest;
+            entry.pendingRequest = request;
+        }
+        if (previousRequest != null) {
+            previousRequest.setResult(NO_COMMAND);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the given request if it is still registered as pending request of the agent.
+     *
+     * @param agentId the id of the agent
+     * @param request the request to remove
+     */
+    void removePendingRequest(String agentId, DeferredResult<ResponseEntity<Command>> request) {
+        Shard shard = getShard(agentId);
+        synchronized (shard) {
+            AgentEntry entry = shard.entries.get(agentId);
+            if (entry != null && entry.pendingRequest == request) {
+                entry.pendingRequest = null;
+                shard.removeIfUnused(agentId, entry);
+            }
+        }
+    }
+
+    /**
+     * Removes all expired commands as well as pending requests which have already been completed.
+     * Afterwards, entries of agents without commands and pending requests are removed.
+     */
+    void removeExpiredCommands() {
+        long now = nanoTime.getAsLong();
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                Iterator<AgentEntry> entries = shard.entries.values().iterator();
+                while (entries.hasNext()) {
+                    AgentEntry entry = entries.next();
+                    // the commands are ordered by their insertion time, so only the head has to be checked
+                    while (!entry.commands.isEmpty() && isExpired(entry.commands.peek(), now)) {
+                        entry.commands.poll();
+                        queuedCommands.decrementAndGet();
+                        expiredCommands.increment();
+                    }
+                    if (entry.pendingRequest != null && entry.pendingRequest.isSetOrExpired()) {
+                        entry.pendingRequest = null;
+                    }
+                    if (entry.isUnused()) {
+                        entries.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of agents which currently have queued commands or a pending request
+     */
+    int getAgentCount() {
+        int count = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                count += shard.entries.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of agents which currently have a pending request
+     */
+    int getWaitingAgentCount() {
+        int count = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                for (AgentEntry entry : shard.entries.values()) {
+                    if (entry.pendingRequest != null) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of currently queued commands
+     */
+    long getQueuedCommands() {
+        return queuedCommands.get();
+    }
+
+    /**
+     * @return the total number of commands which have been delivered to agents
+     */
+    long getDeliveredCommands() {
+        return deliveredCommands.sum();
+    }
+
+    /**
+     * @return the total number of commands which have been dropped because the queue of the agent was full
+     */
+    long getDroppedCommands() {
+        return droppedCommands.sum();
+    }
+
+    /**
+     * @return the total number of commands which have expired before being fetched by the agent
+     */
+    long getExpiredCommands() {
+        return expiredCommands.sum();
+    }
+
+    /**
+     * Takes the next not expired command from the given entry. Expired commands are discarded.
+     * Must be called while holding the lock of the entry's shard.
+     */
+    private Command pollCommand(AgentEntry entry) {
+        long now = nanoTime.getAsLong();
+        QueuedCommand queued;
+        while ((queued = entry.commands.poll()) != null) {
+            queuedCommands.decrementAndGet();
+            if (isExpired(queued, now)) {
+                expiredCommands.increment();
+            } else {
+                deliveredCommands.increment();
+                return queued.command;
+            }
+        }
+        return null;
+    }
+
+    private boolean isExpired(QueuedCommand command, long now) {
+        return now - command.queuedAt > commandTimeoutNanos;
+    }
+
+    private Shard getShard(String agentId) {
+        int hash = agentId.hashCode();
+        // spread the higher bits, as the ids of agents often only differ in their last characters
+        hash ^= (hash >>> 16);
+        return shards[hash & (SHARD_COUNT - 1)];
+    }
+
+    /**
+     * A subset of the agents, all accesses have to synchronize on the shard itself.
+     */
+    private static class Shard {
+
+        private final Map<String, AgentEntry> entries;
+
+        private Shard(int initialCapacity) {
+            entries = new HashMap<>(initialCapacity);
+        }
+
+        private void removeIfUnused(String agentId, AgentEntry entry) {
+            if (entry.isUnused()) {
+                entries.remove(agentId);
+            }
+        }
+    }
+
+    /**
+     * The queued commands and the pending request of a single agent.
+     * A pending request only exists if there are no queued commands.
+     */
+    private static class AgentEntry {
+
+        private final ArrayDeque<QueuedCommand> commands = new ArrayDeque<>();
+
+        private DeferredResult<ResponseEntity<Command>> pendingRequest;
+
+        private boolean isUnused() {
+            return commands.isEmpty() && pendingRequest == null;
+        }
+    }
+
+    @AllArgsConstructor
+    private static class QueuedCommand {
+
+        private final Command command;
+
+        /**
+         * The time in nanoseconds at which the command has been queued.
+         */
+        private final long queuedAt;
+    }
+}
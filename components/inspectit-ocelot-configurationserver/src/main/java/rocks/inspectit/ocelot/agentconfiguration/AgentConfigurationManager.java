@@ -4,6 +4,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
@@ -16,12 +17,10 @@ import rocks.inspectit.ocelot.mappings.AgentMappingSerializer;
 import rocks.inspectit.ocelot.mappings.model.AgentMapping;
 
 import javax.annotation.PostConstruct;
-import java.util.Collections;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * Manager responsible for serving the agent configuration based on the set of {@link AgentMapping}s.
@@ -31,9 +30,9 @@ import java.util.concurrent.TimeUnit;
 public class AgentConfigurationManager {
 
     /**
-     * Used as maker in {@link #attributesToConfigurationCache} to mark attribute-maps for which no mapping matches.
+     * Used as maker in {@link ConfigurationState#attributesToMappingCache} to mark attribute-maps for which no mapping matches.
      */
-    private static final AgentConfiguration NO_MATCHING_MAPPING = AgentConfiguration.builder().configYaml("").build();
+    private static final int NO_MATCHING_MAPPING = -1;
 
     @Autowired
     @VisibleForTesting
@@ -49,17 +48,10 @@ public class AgentConfigurationManager {
     private FileManager fileManager;
 
     /**
-     * List of current AgentConfigurations for retrieval of AgentConfiguration corresponding to AgentMapping in
-     * {@link AgentConfigurationManager#getConfigurationForMapping(AgentMapping)}.
+     * The current configurations together with the structures used to look them up.
+     * Replaced as a whole, so that readers always see a consistent state.
      */
-    private List<AgentConfiguration> currentConfigurations;
-
-    /**
-     * Cache mapping attribute-maps to configurations.
-     * This is a loading cache which has all mappings with their configurations in-memory.
-     * If the mappings or any configuration file change, this cache is replaced with a new one.
-     */
-    private LoadingCache<Map<String, String>, AgentConfiguration> attributesToConfigurationCache;
+    private volatile ConfigurationState currentState;
 
     /**
      * Active task used for reloading the configuration asynchronously.
@@ -89,8 +81,9 @@ public class AgentConfigurationManager {
      * @return the configuration for this agent or null if the attributes match no mapping
      */
     public AgentConfiguration getConfiguration(Map<String, String> agentAttributes) {
-        AgentConfiguration myConfig = attributesToConfigurationCache.getUnchecked(agentAttributes);
-        return myConfig == NO_MATCHING_MAPPING ? null : myConfig;
+        ConfigurationState state = currentState;
+        int mappingIndex = state.attributesToMappingCache.getUnchecked(agentAttributes);
+        return mappingIndex == NO_MATCHING_MAPPING ? null : state.configurations.get(mappingIndex);
     }
 
     /**
@@ -101,32 +94,70 @@ public class AgentConfigurationManager {
      * @return The configuration for this AgentMapping or null if no configuration for that mapping is found.
      */
     public AgentConfiguration getConfigurationForMapping(AgentMapping agentMapping) {
-        Optional<AgentConfiguration> myConfig = currentConfigurations.stream()
-                .filter(config -> config.getMapping().equals(agentMapping))
-                .findFirst();
-        return myConfig.orElse(null);
+        return currentState.configurationsByMapping.get(agentMapping);
     }
 
     /**
-     * Replaces {@link #attributesToConfigurationCache} with a new cache which is backed by the given list of configurations.
+     * Replaces the current configurations with the given list of configurations.
      * The order of the list is used as priority, e.g. configurations coming first have a higher priority.
+     * <p>
+     * If the mappings themselves did not change, only the contents of the configurations did, the cached decisions
+     * which mapping applies to which agent are still valid and are therefore kept. Otherwise, a new cache backed by
+     * an {@link AgentMappingIndex} of the new mappings is created.
      *
      * @param newConfigurations the new ordered list of configurations
      */
-    private synchronized void replaceConfigurations(List<AgentConfiguration> newConfigurations) {
-        currentConfigurations = newConfigurations;
-        attributesToConfigurationCache = CacheBuilder.newBuilder()
-                .maximumSize(config.getMaxAgents())
-                .expireAfterAccess(config.getAgentEvictionDelay().toMillis(), TimeUnit.MILLISECONDS)
-                .build(new CacheLoader<Map<String, String>, AgentConfiguration>() {
-                    @Override
-                    public AgentConfiguration load(Map<String, String> agentAttributes) {
-                        return newConfigurations.stream()
-                                .filter(configuration -> configuration.getMapping().matchesAttributes(agentAttributes))
-                                .findFirst()
-                                .orElse(NO_MATCHING_MAPPING);
-                    }
-                });
+    @VisibleForTesting
+    synchronized void replaceConfigurations(List<AgentConfiguration> newConfigurations) {
+        List<AgentMapping> newMappings = newConfigurations.stream()
+                .map(AgentConfiguration::getMapping)
+                .collect(Collectors.toList());
+
+        LoadingCache<Map<String, String>, Integer> mappingCache;
+        if (currentState != null && currentState.mappings.equals(newMappings)) {
+            mappingCache = currentState.attributesToMappingCache;
+        } else {
+            AgentMappingIndex mappingIndex = new AgentMappingIndex(newMappings);
+            mappingCache = CacheBuilder.newBuilder()
+                    .maximumSize(config.getMaxAgents())
+                    .expireAfterAccess(config.getAgentEvictionDelay().toMillis(), TimeUnit.MILLISECONDS)
+                    .build(new CacheLoader<Map<String, String>, Integer>() {
+                        @Override
+                        public Integer load(Map<String, String> agentAttributes) {
+                            return mappingIndex.findFirstMatch(agentAttributes);
+                        }
+                    });
+        }
+
+        Map<AgentMapping, AgentConfiguration> configurationsByMapping = new HashMap<>();
+        for (AgentConfiguration configuration : newConfigurations) {
+            configurationsByMapping.putIfAbsent(configuration.getMapping(), configuration);
+        }
+
+        currentState = new ConfigurationState(newConfigurations, newMappings, configurationsByMapping, mappingCache);
     }
 
+    @AllArgsConstructor
+    private static class ConfigurationState {
+
+        /**
+         * The configurations ordered by their priority.
+         */
+        private final List<AgentConfiguration> configurations;
+
+        /**
+         * The mappings of the {@link #configurations}, in the same order.
+         */
+        private final List<AgentMapping> mappings;
+
+        /**
+         * The configurations by their mapping, used by {@link AgentConfigurationManager#getConfigurationForMapping(AgentMapping)}.
+         */
+        private final Map<AgentMapping, AgentConfiguration> configurationsByMapping;
+
+        /**
+         * Cache mapping attribute-maps to the index of the first matching configuration in {@link #configurations}.
+         */
+        private final LoadingCache<Map<String, String>, Integer> attributesToMappingCache;
+    }
 }
@@ -165,11 +165,9 @@ class AgentConfigurationReloadTask extends CancellableTask<List<AgentConfigurati
      * @return the merged structure
      */
     private Object loadAndMergeYaml(AbstractFileAccessor fileAccessor, Object toMerge, String path) {
-        Yaml yaml = new Yaml();
-        String src = fileAccessor.readConfigurationFile(path).orElse("");
-
         try {
-            Map<String, Object> loadedYaml = yaml.load(src);
+            // the parsed structure is cached and shared, the merging does not modify it
+            Map<String, Object> loadedYaml = (Map<String, Object>) fileAccessor.parseConfigurationFile(path);
             if (toMerge == null) {
                 return loadedYaml;
             } else {
@@ -0,0 +1,204 @@
+package rocks.inspectit.ocelot.agentconfiguration;
+
+import rocks.inspectit.ocelot.mappings.model.AgentMapping;
+
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Resolves the first {@link AgentMapping} of an ordered list of mappings which matches the attributes of an agent.
+ * <p>
+ * Instead of checking the patterns of all mappings one after the other, the mappings are indexed by one of their attribute
+ * patterns, if it is a literal value (e.g. {@code my-service}) or starts with a literal prefix (e.g. {@code my-service-.*}).
+ * For the attributes of an agent, the index is used to narrow down the mappings which can match at all. Only these
+ * candidates and the mappings which could not be indexed are then checked completely, in the order of their priority.
+ * <p>
+ * As the patterns are matched case-insensitive, the index is based on the lower-case values. Only ASCII literals are
+ * indexed, because these are the only characters which are matched case-insensitive by the patterns.
+ */
+class AgentMappingIndex {
+
+    /**
+     * Characters which have a special meaning in regular expressions.
+     */
+    private static final String META_CHARACTERS = "\\^$.|?*+()[]{}";
+
+    /**
+     * Characters which quantify the preceding character.
+     */
+    private static final String QUANTIFIERS = "?*+{";
+
+    /**
+     * The indexed mappings, ordered by their priority.
+     */
+    private final List<AgentMapping> mappings;
+
+    /**
+     * The compiled attribute patterns of each mapping, in the order of the mappings.
+     * Null for mappings containing invalid patterns.
+     */
+    private final List<Map<String, Pattern>> mappingPatterns = new ArrayList<>();
+
+    /**
+     * The indices of all mappings which could not be indexed, therefore they are candidates for all agents.
+     */
+    private final BitSet unindexedMappings = new BitSet();
+
+    /**
+     * Attribute key to lower-case literal value to the indices of the mappings requiring exactly this value.
+     */
+    private final Map<String, Map<String, BitSet>> literalIndex = new HashMap<>();
+
+    /**
+     * Attribute key to lower-case prefix to the indices of the mappings requiring a value starting with this prefix.
+     */
+    private final Map<String, Map<String, BitSet>> prefixIndex = new HashMap<>();
+
+    /**
+     * Attribute key to the distinct lengths of the prefixes in {@link #prefixIndex}.
+     */
+    private final Map<String, SortedSet<Integer>> prefixLengths = new HashMap<>();
+
+    /**
+     * @param mappings the mappings to index, ordered by their priority
+     */
+    AgentMappingIndex(List<AgentMapping> mappings) {
+        this.mappings = mappings;
+        for (int i = 0; i < mappings.size(); i++) {
+            Map<String, String> attributes = mappings.get(i).getAttributes();
+            Map<String, Pattern> patterns = compilePatterns(attributes);
+            mappingPatterns.add(patterns);
+            if (patterns == null) {
+                unindexedMappings.set(i);
+                continue;
+            }
+
+            String bestKey = null;
+            String bestPrefix = null;
+            boolean bestIsLiteral = false;
+            for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+                String pattern = attribute.getValue();
+                int prefixLength = getLiteralPrefixLength(pattern);
+                boolean isLiteral = prefixLength == pattern.length();
+                String prefix = pattern.substring(0, prefixLength);
+                // literal values are more selective than prefixes, longer prefixes more selective than shorter ones
+                boolean isBetter = isLiteral ? !bestIsLiteral : !bestIsLiteral && (bestPrefix == null || prefix.length() > bestPrefix.length());
+                if (!prefix.isEmpty() && isAscii(prefix) && isBetter) {
+                    bestKey = attribute.getKey();
+                    bestPrefix = prefix;
+                    bestIsLiteral = isLiteral;
+                }
+            }
+
+            if (bestKey == null) {
+                unindexedMappings.set(i);
+            } else if (bestIsLiteral) {
+                addToIndex(literalIndex, bestKey, toLowerCase(bestPrefix), i);
+            } else {
+                addToIndex(prefixIndex, bestKey, toLowerCase(bestPrefix), i);
+                prefixLengths.computeIfAbsent(bestKey, key -> new TreeSet<>()).add(bestPrefix.length());
+            }
+        }
+    }
+
+    /**
+     * Finds the first mapping matching the given agent attributes.
+     * A mapping matches if all of its attribute patterns match the corresponding agent attribute,
+     * whereby missing agent attributes are treated as empty string.
+     *
+     * @param agentAttributes the attributes of the agent
+     *
+     * @return the index of the first matching mapping, -1 if none matches
+     */
+    int findFirstMatch(Map<String, String> agentAttributes) {
+        BitSet candidates = (BitSet) unindexedMappings.clone();
+        literalIndex.forEach((key, index) -> {
+            BitSet matchingMappings = index.get(toLowerCase(agentAttributes.getOrDefault(key, "")));
+            if (matchingMappings != null) {
+                candidates.or(matchingMappings);
+            }
+        });
+        prefixIndex.forEach((key, index) -> {
+            String value = toLowerCase(agentAttributes.getOrDefault(key, ""));
+            for (int length : prefixLengths.get(key)) {
+                if (length > value.length()) {
+                    break;
+                }
+                BitSet matchingMappings = index.get(value.substring(0, length));
+                if (matchingMappings != null) {
+                    candidates.or(matchingMappings);
+                }
+            }
+        });
+
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            Map<String, Pattern> patterns = mappingPatterns.get(i);
+            // mappings with invalid patterns are checked as before, so that they fail in the same way
+            boolean matches = patterns == null ? mappings.get(i).matchesAttributes(agentAttributes) : matches(patterns, agentAttributes);
+            if (matches) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Map<String, Pattern> compilePatterns(Map<String, String> attributes) {
+        Map<String, Pattern> patterns = new HashMap<>();
+        try {
+            attributes.forEach((key, pattern) -> patterns.put(key, Pattern.compile(pattern, Pattern.CASE_INSENSITIVE)));
+        } catch (PatternSyntaxException e) {
+            return null;
+        }
+        return patterns;
+    }
+
+    private static boolean matches(Map<String, Pattern> patterns, Map<String, String> agentAttributes) {
+        for (Map.Entry<String, Pattern> pattern : patterns.entrySet()) {
+            String value = agentAttributes.getOrDefault(pattern.getKey(), "");
+            if (!pattern.getValue().matcher(value).matches()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void addToIndex(Map<String, Map<String, BitSet>> index, String key, String value, int mappingIndex) {
+        index.computeIfAbsent(key, k -> new HashMap<>()).computeIfAbsent(value, v -> new BitSet()).set(mappingIndex);
+    }
+
+    /**
+     * Determines the length of the literal prefix of the given pattern, which each value matching the pattern has to start with.
+     * Patterns containing alternations have no literal prefix, as the prefix would only apply to the first alternative.
+     *
+     * @param pattern the regular expression
+     *
+     * @return the length of the literal prefix, the length of the pattern if the pattern is a literal
+     */
+    private static int getLiteralPrefixLength(String pattern) {
+        if (pattern.indexOf('|') != -1) {
+            return 0;
+        }
+        for (int i = 0; i < pattern.length(); i++) {
+            char current = pattern.charAt(i);
+            if (META_CHARACTERS.indexOf(current) != -1) {
+                // a quantified character is not part of the prefix, e.g. "ab?" only requires "a"
+                return QUANTIFIERS.indexOf(current) != -1 ? Math.max(0, i - 1) : i;
+            }
+        }
+        return pattern.length();
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 127) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String toLowerCase(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -7,6 +7,7 @@ import org.apache.commons.lang3.StringUtils;
 
 import javax.validation.constraints.NotBlank;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Container class for storing meta information about an agent that fetched a HTTP configuration.
@@ -72,6 +73,16 @@ public class AgentMetaInformation {
         }
     }
 
+    /**
+     * Returns the agent id contained in the given headers without creating a {@link AgentMetaInformation} instance.
+     *
+     * @param headers the header values of the potential agent
+     * @return the agent id or <code>null</code> if the headers are not belonging to an agent
+     */
+    public static String getAgentId(Map<String, String> headers) {
+        return headers == null ? null : headers.get(HEADER_AGENT_ID);
+    }
+
     /**
      * The agent id.
      */
@@ -108,6 +119,24 @@ public class AgentMetaInformation {
      */
     private String serviceStates;
 
+    /**
+     * Checks whether this meta information has been created based on headers with the same values as the given ones,
+     * so that it does not have to be created again.
+     *
+     * @param headers the header values of the agent
+     *
+     * @return true, if all header values used by this meta information are equal to the given ones
+     */
+    public boolean isBasedOn(Map<String, String> headers) {
+        return Objects.equals(agentId, headers.get(HEADER_AGENT_ID))
+                && Objects.equals(agentVersion, headers.get(HEADER_AGENT_VERSION))
+                && Objects.equals(javaVersion, headers.get(HEADER_JAVA_VERSION))
+                && Objects.equals(startTime, headers.get(HEADER_START_TIME))
+                && Objects.equals(vmName, headers.get(HEADER_VM_NAME))
+                && Objects.equals(vmVendor, headers.get(HEADER_VM_VENDOR))
+                && Objects.equals(serviceStates, headers.get(HEADER_SERVICE_STATES));
+    }
+
     private AgentMetaInformation(Map<String, String> headers) {
         Preconditions.checkArgument(StringUtils.isNotBlank(headers.get(HEADER_AGENT_ID)), "It is required that the given map contains an agent header!");
 
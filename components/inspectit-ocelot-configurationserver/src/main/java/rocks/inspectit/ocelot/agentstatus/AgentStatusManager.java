@@ -3,22 +3,30 @@ package rocks.inspectit.ocelot.agentstatus;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import rocks.inspectit.ocelot.agentconfiguration.AgentConfiguration;
 import rocks.inspectit.ocelot.commons.models.health.AgentHealth;
 import rocks.inspectit.ocelot.config.model.InspectitServerSettings;
+import rocks.inspectit.ocelot.mappings.model.AgentMapping;
 
 import javax.annotation.PostConstruct;
-import java.util.Collection;
-import java.util.Date;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 /**
  * Holds a history when agents last fetched their configuration.
  * This is useful for detecting which agents are active.
+ * <p>
+ * The status of each agent is stored as compact {@link AgentStatusRecord}, which is updated in-place on each
+ * configuration fetch. The meta information of an agent is only parsed again if the corresponding headers changed.
  */
 @Component
 @Slf4j
@@ -29,6 +37,11 @@ public class AgentStatusManager {
      */
     private static final String HEADER_AGENT_HEALTH = "x-ocelot-health";
 
+    /**
+     * The number of segments of the status cache, each of them guarded by its own lock.
+     */
+    private static final int CACHE_CONCURRENCY_LEVEL = 16;
+
     @Autowired
     @VisibleForTesting
     InspectitServerSettings config;
@@ -36,9 +49,26 @@ public class AgentStatusManager {
     /**
      * Cache storing the most recent status for each agent or client. The key represents the agent id or a set of attributes
      * in case the configuration was not fetched by an agent (in case no agent id is specified).
-     * This cache is limited in size and has an expiration based on {@link #config}.
+     * This cache is limited in size and evicts agents which did not fetch their configuration for the duration
+     * configured in {@link #config}.
+     */
+    private Cache<Object, AgentStatusRecord> attributesToAgentStatusCache;
+
+    /**
+     * Used to share the attribute maps between agents with equal attributes.
+     */
+    private final Interner<Map<String, String>> attributesInterner = Interners.newWeakInterner();
+
+    /**
+     * Incremented whenever a status is added to or removed from {@link #attributesToAgentStatusCache}.
+     */
+    private final AtomicLong statusesModificationCount = new AtomicLong();
+
+    /**
+     * All statuses ordered by their sort key, so that the statuses do not have to be sorted on every page request.
+     * Only valid as long as its modification count equals {@link #statusesModificationCount}.
      */
-    private Cache<Object, AgentStatus> attributesToAgentStatusCache;
+    private volatile SortedStatuses sortedStatuses;
 
     /**
      * Clears the connection history.
@@ -47,8 +77,12 @@ public class AgentStatusManager {
     public void reset() {
         attributesToAgentStatusCache = CacheBuilder.newBuilder()
                 .maximumSize(config.getMaxAgents())
-                .expireAfterWrite(config.getAgentEvictionDelay().toMillis(), TimeUnit.MILLISECONDS)
+                .concurrencyLevel(CACHE_CONCURRENCY_LEVEL)
+                // each fetch of the configuration accesses the status of the agent
+                .expireAfterAccess(config.getAgentEvictionDelay().toMillis(), TimeUnit.MILLISECONDS)
+                .removalListener(notification -> statusesModificationCount.incrementAndGet())
                 .build();
+        statusesModificationCount.incrementAndGet();
     }
 
     /**
@@ -59,38 +93,55 @@ public class AgentStatusManager {
      * @param resultConfiguration the configuration sent to the agent, can be null if no matching mapping exists.
      */
     public void notifyAgentConfigurationFetched(Map<String, String> agentAttributes, Map<String, String> headers, AgentConfiguration resultConfiguration) {
-        AgentMetaInformation metaInformation = AgentMetaInformation.of(headers);
-
-        AgentStatus agentStatus = AgentStatus.builder()
-                .metaInformation(metaInformation)
-                .attributes(agentAttributes)
-                .lastConfigFetch(new Date())
-                .mappingName(resultConfiguration == null ? null : resultConfiguration.getMapping().getName())
-                .sourceBranch(resultConfiguration == null ? null : resultConfiguration.getMapping()
-                        .getSourceBranch()
-                        .getBranchName())
-                .build();
+        String agentId = AgentMetaInformation.getAgentId(headers);
 
         Object statusKey;
-        if (metaInformation != null) {
-            statusKey = metaInformation.getAgentId();
+        if (agentId != null) {
+            statusKey = agentId;
         } else {
             statusKey = agentAttributes;
         }
 
+        AgentStatusRecord status = attributesToAgentStatusCache.getIfPresent(statusKey);
+        if (status == null) {
+            AgentStatusRecord newStatus = new AgentStatusRecord(statusKey.toString(), intern(agentAttributes));
+            status = attributesToAgentStatusCache.asMap().putIfAbsent(statusKey, newStatus);
+            if (status == null) {
+                status = newStatus;
+                statusesModificationCount.incrementAndGet();
+            }
+        } else if (!status.getAttributes().equals(agentAttributes)) {
+            status.setAttributes(intern(agentAttributes));
+        }
+
+        AgentMetaInformation metaInformation = status.getMetaInformation();
+        if (metaInformation == null ? agentId != null : !metaInformation.isBasedOn(headers)) {
+            status.setMetaInformation(AgentMetaInformation.of(headers));
+        }
+
+        status.setLastConfigFetch(System.currentTimeMillis());
+        if (resultConfiguration == null) {
+            status.setMapping(null, null);
+        } else {
+            AgentMapping mapping = resultConfiguration.getMapping();
+            status.setMapping(mapping.getName(), mapping.getSourceBranch());
+        }
+
         if (headers.containsKey(HEADER_AGENT_HEALTH)) {
             AgentHealth agentHealth = AgentHealth.valueOf(headers.get(HEADER_AGENT_HEALTH));
-            agentStatus.setHealth(agentHealth);
-            logHealthIfChanged(statusKey, agentHealth);
+            logHealthIfChanged(statusKey, status.getHealth(), agentHealth);
+            status.setHealth(agentHealth);
+        } else {
+            status.setHealth(null);
         }
-
-        attributesToAgentStatusCache.put(statusKey, agentStatus);
     }
 
-    private void logHealthIfChanged(Object statusKey, AgentHealth agentHealth) {
-        AgentStatus lastStatus = attributesToAgentStatusCache.getIfPresent(statusKey);
+    private Map<String, String> intern(Map<String, String> attributes) {
+        return attributesInterner.intern(Collections.unmodifiableMap(new HashMap<>(attributes)));
+    }
 
-        if (lastStatus == null || lastStatus.getHealth() != agentHealth) {
+    private void logHealthIfChanged(Object statusKey, AgentHealth lastHealth, AgentHealth agentHealth) {
+        if (lastHealth != agentHealth) {
             log.info("Health of agent {} changed to {}.", statusKey, agentHealth);
         }
     }
@@ -99,6 +150,70 @@ public class AgentStatusManager {
      * @return a collection of all agent statuses since {@link #reset()} was called.
      */
     public Collection<AgentStatus> getAgentStatuses() {
-        return attributesToAgentStatusCache.asMap().values();
+        return attributesToAgentStatusCache.asMap()
+                .values()
+                .stream()
+                .map(AgentStatusRecord::toAgentStatus)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns a single page of the agent statuses matching the given filter. The statuses are ordered by the agent id,
+     * respectively the attributes for clients which are no agents.
+     * The statuses are only sorted again if statuses have been added or removed since the last request.
+     *
+     * @param filter   only statuses whose agent id, attribute values or mapping name contain this string (ignoring the case)
+     *                 are returned, all statuses are returned if it is empty or null
+     * @param page     the index of the page to return, starting at 0
+     * @param pageSize the maximum number of statuses per page
+     *
+     * @return the statuses of the requested page
+     */
+    public AgentStatusPage getAgentStatuses(String filter, int page, int pageSize) {
+        if (page < 0 || pageSize <= 0) {
+            throw new IllegalArgumentException("The page must not be negative and the page size must be positive.");
+        }
+
+        List<AgentStatusRecord> matchingStatuses = getSortedStatuses();
+        if (!StringUtils.isEmpty(filter)) {
+            matchingStatuses = matchingStatuses.stream().filter(status -> status.matches(filter)).collect(Collectors.toList());
+        }
+
+        long from = Math.min((long) page * pageSize, matchingStatuses.size());
+        long to = Math.min(from + pageSize, matchingStatuses.size());
+        List<AgentStatus> statuses = matchingStatuses.subList((int) from, (int) to)
+                .stream()
+                .map(AgentStatusRecord::toAgentStatus)
+                .collect(Collectors.toList());
+
+        return new AgentStatusPage(statuses, matchingStatuses.size(), page, pageSize);
+    }
+
+    /**
+     * @return all statuses ordered by their sort key, only sorted again if statuses have been added or removed
+     */
+    private List<AgentStatusRecord> getSortedStatuses() {
+        // removes expired statuses, which increments the modification count
+        attributesToAgentStatusCache.cleanUp();
+        long modificationCount = statusesModificationCount.get();
+        SortedStatuses current = sortedStatuses;
+        if (current == null || current.getModificationCount() != modificationCount) {
+            List<AgentStatusRecord> statuses = new ArrayList<>(attributesToAgentStatusCache.asMap().values());
+            statuses.sort(Comparator.comparing(AgentStatusRecord::getSortKey));
+            current = new SortedStatuses(modificationCount, Collections.unmodifiableList(statuses));
+            sortedStatuses = current;
+        }
+        return current.getStatuses();
+    }
+
+    /**
+     * The statuses ordered by their sort key at the given modification count.
+     */
+    @Value
+    private static class SortedStatuses {
+
+        long modificationCount;
+
+        List<AgentStatusRecord> statuses;
     }
 }
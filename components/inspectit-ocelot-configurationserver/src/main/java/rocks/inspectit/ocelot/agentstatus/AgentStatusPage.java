@@ -0,0 +1,32 @@
+package rocks.inspectit.ocelot.agentstatus;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * A single page of the agent statuses matching a query.
+ */
+@Value
+public class AgentStatusPage {
+
+    /**
+     * The statuses on this page.
+     */
+    private List<AgentStatus> statuses;
+
+    /**
+     * The total number of statuses matching the query.
+     */
+    private int totalCount;
+
+    /**
+     * The index of this page, starting at 0.
+     */
+    private int page;
+
+    /**
+     * The maximum number of statuses per page.
+     */
+    private int pageSize;
+}
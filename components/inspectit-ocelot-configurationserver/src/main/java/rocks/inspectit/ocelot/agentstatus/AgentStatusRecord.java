@@ -0,0 +1,100 @@
+package rocks.inspectit.ocelot.agentstatus;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.commons.lang3.StringUtils;
+import rocks.inspectit.ocelot.commons.models.health.AgentHealth;
+import rocks.inspectit.ocelot.file.versioning.Branch;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * The compact internal representation of the status of a single agent, which is updated in-place whenever the agent
+ * fetches its configuration. {@link AgentStatus} instances are only created when the status is queried.
+ * <p>
+ * The attribute maps are interned by the {@link AgentStatusManager}, so that agents with equal attributes share the same map.
+ * The fields are updated without locking, concurrent updates of the same agent result in the values of one of the updates.
+ */
+class AgentStatusRecord {
+
+    /**
+     * The key identifying this record, used for ordering the records.
+     */
+    @Getter
+    private final String sortKey;
+
+    @Getter
+    @Setter(AccessLevel.PACKAGE)
+    private volatile Map<String, String> attributes;
+
+    @Getter
+    @Setter(AccessLevel.PACKAGE)
+    private volatile AgentMetaInformation metaInformation;
+
+    /**
+     * The last point in time when the agent fetched the configuration in milliseconds since epoch.
+     */
+    @Getter
+    @Setter(AccessLevel.PACKAGE)
+    private volatile long lastConfigFetch;
+
+    @Getter
+    private volatile String mappingName;
+
+    private volatile Branch sourceBranch;
+
+    @Getter
+    @Setter(AccessLevel.PACKAGE)
+    private volatile AgentHealth health;
+
+    AgentStatusRecord(String sortKey, Map<String, String> attributes) {
+        this.sortKey = sortKey;
+        this.attributes = attributes;
+    }
+
+    void setMapping(String mappingName, Branch sourceBranch) {
+        this.mappingName = mappingName;
+        this.sourceBranch = sourceBranch;
+    }
+
+    /**
+     * Checks whether the agent id, one of the attribute values or the mapping name of this record contains the
+     * given filter, ignoring the case.
+     *
+     * @param filter the filter to check
+     *
+     * @return true, if the filter is contained
+     */
+    boolean matches(String filter) {
+        AgentMetaInformation meta = metaInformation;
+        if (meta != null && StringUtils.containsIgnoreCase(meta.getAgentId(), filter)) {
+            return true;
+        }
+        if (StringUtils.containsIgnoreCase(mappingName, filter)) {
+            return true;
+        }
+        for (String value : attributes.values()) {
+            if (StringUtils.containsIgnoreCase(value, filter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return a new {@link AgentStatus} representing the current state of this record
+     */
+    AgentStatus toAgentStatus() {
+        Branch branch = sourceBranch;
+        return AgentStatus.builder()
+                .metaInformation(metaInformation)
+                .attributes(attributes)
+                .lastConfigFetch(new Date(lastConfigFetch))
+                .mappingName(mappingName)
+                .sourceBranch(branch == null ? null : branch.getBranchName())
+                .health(health)
+                .build();
+    }
+}
@@ -9,12 +9,12 @@ import rocks.inspectit.ocelot.file.FileManager;
 import rocks.inspectit.ocelot.file.accessor.git.RevisionAccess;
 
 import javax.annotation.PostConstruct;
-import java.util.Collection;
-import java.util.Collections;
 import java.util.concurrent.ExecutorService;
 
 /**
- * Caches the workspace revision.
+ * Caches the keys of the configuration files of the workspace revision as {@link ConfigurationKeyTrie}, which is used
+ * for autocompletion. On workspace changes, the trie is updated in the background for the changed files only, the
+ * previous trie is used until the update has finished.
  */
 @Slf4j
 @Component
@@ -32,34 +32,24 @@ public class ConfigurationFilesCache {
     private ConfigurationFilesCacheReloadTask activeReloadTask;
 
     /**
-     * The current parsed contents of all configuration files.
+     * The merged keys of all configuration files.
      */
-    private Collection<Object> parsedContents = Collections.emptyList();
+    private volatile ConfigurationKeyTrie keyTrie = ConfigurationKeyTrie.empty();
 
     /**
-     * Returns the most recently loaded .yaml and .yml files as a list of Objects. Each Object resembles the corresponding
-     * files root element. All following elements are then appended to this root element.
-     * The objects are either nested Lists or Maps.
-     * e.g.: the file x.yaml is loaded with the content
-     * root:<br>
-     * listOne:<br>
-     * - valueOne<br>
-     * - valueTwo<br>
-     * setOne:<br>
-     * valueThree
-     * In the returned list there would be the Map "root" containing a key "root", which contains Map containing
-     * a key "listOne" with a list containing the elements "valueOne" and "valueTwo". Element "setOne" would only contain
-     * the value "valueThree".
+     * Returns the most recently loaded keys of all .yaml and .yml files, including the default configuration.
+     * Each node of the returned trie contains the keys of the maps, the string elements of the lists and the string
+     * values, which can be found under its path in any of the files.
      *
-     * @return A Collection containing all loaded .yaml and .yml files root elements as Maps or Lists.
+     * @return the trie of the configuration keys
      */
-    public Collection<Object> getParsedContents() {
-        return parsedContents;
+    public ConfigurationKeyTrie getKeyTrie() {
+        return keyTrie;
     }
 
     /**
      * Loads all .yaml and .yml files. The files are loaded from the "configuration" folder of the server and from the
-     * "files" folder of the working directory. The files contents are parsed into either nested Lists or Maps.
+     * "files" folder of the working directory. Only files which have changed since the last load are parsed again.
      */
     @PostConstruct
     @EventListener(WorkspaceChangedEvent.class)
@@ -68,7 +58,7 @@ public class ConfigurationFilesCache {
         if (activeReloadTask != null) {
             activeReloadTask.cancel();
         }
-        activeReloadTask = new ConfigurationFilesCacheReloadTask(fileAccess, (configs) -> parsedContents = configs);
+        activeReloadTask = new ConfigurationFilesCacheReloadTask(fileAccess, keyTrie, (trie) -> keyTrie = trie);
         executor.submit(activeReloadTask);
     }
 
@@ -4,23 +4,20 @@ import com.google.common.annotations.VisibleForTesting;
 import lombok.extern.slf4j.Slf4j;
 import org.yaml.snakeyaml.Yaml;
 import rocks.inspectit.ocelot.config.loaders.ConfigFileLoader;
-import rocks.inspectit.ocelot.file.FileInfo;
-import rocks.inspectit.ocelot.file.accessor.AbstractFileAccessor;
+import rocks.inspectit.ocelot.file.accessor.git.RevisionAccess;
 import rocks.inspectit.ocelot.utils.CancellableTask;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-import java.util.Optional;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 /**
- * Loads all configuration files of the given revision and parses them.
+ * Updates the {@link ConfigurationKeyTrie} to the configuration files of the given revision. Only the files which have
+ * been added, changed or removed compared to the previous trie are parsed and applied.
  */
 @Slf4j
-public class ConfigurationFilesCacheReloadTask extends CancellableTask<Collection<Object>> {
+public class ConfigurationFilesCacheReloadTask extends CancellableTask<ConfigurationKeyTrie> {
 
     /**
      * Predicate to check if a given file path ends with .yml or .yaml.
@@ -28,33 +25,57 @@ public class ConfigurationFilesCacheReloadTask extends CancellableTask<Collectio
     private static final Predicate<String> HAS_YAML_ENDING = filePath -> filePath.toLowerCase()
             .endsWith(".yml") || filePath.toLowerCase().endsWith(".yaml");
 
-    private AbstractFileAccessor fileAccess;
+    /**
+     * Prefix of the paths used for the default configuration files in the trie, so that they cannot collide with
+     * the paths of the configuration files.
+     */
+    private static final String DEFAULT_CONFIG_PREFIX = "<default>/";
+
+    /**
+     * Id used for the default configuration files, which never change.
+     */
+    private static final String DEFAULT_CONFIG_ID = "default";
 
-    public ConfigurationFilesCacheReloadTask(AbstractFileAccessor fileAccess, Consumer<Collection<Object>> onLoadCallback) {
+    private RevisionAccess fileAccess;
+
+    private ConfigurationKeyTrie previousTrie;
+
+    /**
+     * @param fileAccess     the revision to load
+     * @param previousTrie   the trie of the previously loaded revision
+     * @param onLoadCallback invoked with the updated trie
+     */
+    public ConfigurationFilesCacheReloadTask(RevisionAccess fileAccess, ConfigurationKeyTrie previousTrie, Consumer<ConfigurationKeyTrie> onLoadCallback) {
         super(onLoadCallback);
         this.fileAccess = fileAccess;
+        this.previousTrie = previousTrie;
     }
 
     @Override
     public void run() {
         try {
-            List<Object> parsedFileContents = new ArrayList<>();
-            List<String> filePaths = getAllPaths();
-            for (String path : filePaths) {
+            Map<String, String> previousFileIds = previousTrie.getFileIds();
+            boolean defaultsLoaded = previousFileIds.keySet().removeIf(path -> path.startsWith(DEFAULT_CONFIG_PREFIX));
+            ConfigurationKeyTrie.Builder builder = previousTrie.toBuilder();
+
+            for (Map.Entry<String, String> fileId : getYamlFileIds().entrySet()) {
                 if (isCanceled()) {
                     return;
                 }
-                Object parsed = loadYamlFile(path);
-                if (parsed != null) {
-                    parsedFileContents.add(parsed);
+                String path = fileId.getKey();
+                if (!fileId.getValue().equals(previousFileIds.remove(path))) {
+                    builder.putFile(path, fileId.getValue(), loadYamlFile(path));
                 }
             }
-            ConfigFileLoader.getDefaultConfigFiles()
-                    .values()
-                    .stream()
-                    .map(this::parseYaml)
-                    .forEach(parsedFileContents::add);
-            onTaskSuccess(parsedFileContents);
+            // the remaining files do not exist anymore
+            previousFileIds.keySet().forEach(builder::removeFile);
+
+            if (!defaultsLoaded) {
+                ConfigFileLoader.getDefaultConfigFiles()
+                        .forEach((path, content) -> builder.putFile(DEFAULT_CONFIG_PREFIX + path, DEFAULT_CONFIG_ID, parseYaml(content)));
+            }
+
+            onTaskSuccess(builder.build());
         } catch (Exception e) {
             log.error("Error refreshing cache for autocompleter", e);
         }
@@ -90,8 +111,7 @@ public class ConfigurationFilesCacheReloadTask extends CancellableTask<Collectio
     @VisibleForTesting
     Object loadYamlFile(String path) {
         try {
-            Optional<String> src = fileAccess.readConfigurationFile(path);
-            return src.map(this::parseYaml).orElse(null);
+            return fileAccess.parseConfigurationFile(path);
         } catch (Exception e) {
             log.warn("Unable to load file with path {}", path);
             return null;
@@ -99,23 +119,18 @@ public class ConfigurationFilesCacheReloadTask extends CancellableTask<Collectio
     }
 
     /**
-     * Searches in the current directory for files with .yml or .yaml ending. Returns all paths to those files as a
-     * lexicographically ordered List of Strings.
+     * Determines the ids of all configuration files with .yml or .yaml ending.
      *
-     * @return A list of all found paths to .yml or .yaml files.
+     * @return the content ids of all found .yml or .yaml files by their paths.
      */
     @VisibleForTesting
-    List<String> getAllPaths() {
-        try {
-            List<FileInfo> fileInfos = fileAccess.listConfigurationFiles("");
-
-            return fileInfos.stream()
-                    .flatMap(file -> file.getAbsoluteFilePaths(""))
-                    .filter(HAS_YAML_ENDING)
-                    .sorted()
-                    .collect(Collectors.toList());
-        } catch (Exception e) {
-            return new ArrayList<>();
-        }
+    Map<String, String> getYamlFileIds() {
+        Map<String, String> yamlFileIds = new LinkedHashMap<>();
+        fileAccess.getConfigurationFileIds().forEach((path, id) -> {
+            if (HAS_YAML_ENDING.test(path)) {
+                yamlFileIds.put(path, id);
+            }
+        });
+        return yamlFileIds;
     }
 }
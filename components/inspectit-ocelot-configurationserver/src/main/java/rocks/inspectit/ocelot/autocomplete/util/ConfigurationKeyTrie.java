@@ -0,0 +1,260 @@
+package rocks.inspectit.ocelot.autocomplete.util;
+
+import java.util.*;
+
+/**
+ * Merged trie of the keys of all parsed configuration files, which is used for answering autocomplete requests.
+ * <p>
+ * Each node represents a path in the configuration files. Map keys and list indices are the children of a node. The
+ * suggestions of a node are the keys of the maps, the string elements of the lists and the string values found at
+ * its path in any of the files. Suggestions and nodes are reference counted, so that the contributions of a single
+ * file can be removed again when the file changes.
+ * <p>
+ * Instances are immutable and can be queried concurrently. Changes are done by a {@link Builder}, which only copies
+ * the nodes which are touched by the changed files, all other nodes are shared with the previous trie.
+ */
+public class ConfigurationKeyTrie {
+
+    private static final ConfigurationKeyTrie EMPTY = new ConfigurationKeyTrie(new Node(), Collections.emptyMap());
+
+    private static final String WILDCARD = "*";
+
+    private final Node root;
+
+    /**
+     * The files contained in this trie, by their path.
+     */
+    private final Map<String, ParsedFile> files;
+
+    private ConfigurationKeyTrie(Node root, Map<String, ParsedFile> files) {
+        this.root = root;
+        this.files = files;
+    }
+
+    /**
+     * @return a trie not containing any files
+     */
+    public static ConfigurationKeyTrie empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns all suggestions to which the given path could be extended. The path may contain {@code *} as wildcard for
+     * any map key or list index.
+     * e.g.: The file a.yaml contains the path inspectit: path: to: my: attribute.
+     * The list {"inspectit","path"} is given as attribute to this method.
+     * The method returns a list containing "to".
+     *
+     * @param path the path as list of its segments
+     *
+     * @return the distinct suggestions for the given path
+     */
+    public List<String> getKeys(List<String> path) {
+        Collection<Node> currentNodes = Collections.singletonList(root);
+        for (String segment : path) {
+            List<Node> nextNodes = new ArrayList<>();
+            for (Node node : currentNodes) {
+                if (WILDCARD.equals(segment)) {
+                    nextNodes.addAll(node.children.values());
+                } else {
+                    Node child = node.children.get(segment);
+                    if (child != null) {
+                        nextNodes.add(child);
+                    }
+                }
+            }
+            if (nextNodes.isEmpty()) {
+                return Collections.emptyList();
+            }
+            currentNodes = nextNodes;
+        }
+
+        Set<String> keys = new LinkedHashSet<>();
+        currentNodes.forEach(node -> keys.addAll(node.suggestions.keySet()));
+        return new ArrayList<>(keys);
+    }
+
+    /**
+     * @return the ids of the contained files by their paths, used to determine which files have changed
+     */
+    public Map<String, String> getFileIds() {
+        Map<String, String> fileIds = new HashMap<>();
+        files.forEach((path, file) -> fileIds.put(path, file.id));
+        return fileIds;
+    }
+
+    /**
+     * @return a builder for deriving a new trie from this one
+     */
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    /**
+     * Builder for applying file changes to a trie, without modifying the trie itself.
+     */
+    public static class Builder {
+
+        /**
+         * The nodes which have been copied by this builder and therefore can be modified.
+         */
+        private final Set<Node> ownedNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private final Node root;
+
+        private final Map<String, ParsedFile> files;
+
+        private Builder(ConfigurationKeyTrie trie) {
+            root = trie.root.copy();
+            ownedNodes.add(root);
+            files = new HashMap<>(trie.files);
+        }
+
+        /**
+         * Adds the given file, replacing the previous contents of a file with the same path.
+         *
+         * @param path    the path of the file
+         * @param id      the id of the file's content, e.g. the id of its blob
+         * @param content the parsed content of the file consisting of nested maps and lists, can be null
+         *
+         * @return this builder
+         */
+        public Builder putFile(String path, String id, Object content) {
+            removeFile(path);
+            files.put(path, new ParsedFile(id, content));
+            apply(root, content, 1);
+            return this;
+        }
+
+        /**
+         * Removes the file with the given path, in case it is contained.
+         *
+         * @param path the path of the file
+         *
+         * @return this builder
+         */
+        public Builder removeFile(String path) {
+            ParsedFile previous = files.remove(path);
+            if (previous != null) {
+                apply(root, previous.content, -1);
+            }
+            return this;
+        }
+
+        /**
+         * Creates the new trie. The builder must not be used afterwards, as the new trie shares its nodes.
+         *
+         * @return the new trie
+         */
+        public ConfigurationKeyTrie build() {
+            return new ConfigurationKeyTrie(root, new HashMap<>(files));
+        }
+
+        /**
+         * Adds (delta = 1) or removes (delta = -1) the contributions of the given value to the given owned node.
+         */
+        private void apply(Node node, Object value, int delta) {
+            if (value instanceof Map) {
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    if (entry.getKey() instanceof String) {
+                        String key = (String) entry.getKey();
+                        node.updateSuggestion(key, delta);
+                        applyToChild(node, key, entry.getValue(), delta);
+                    }
+                }
+            } else if (value instanceof List) {
+                List<?> list = (List<?>) value;
+                for (int i = 0; i < list.size(); i++) {
+                    Object element = list.get(i);
+                    if (element instanceof String) {
+                        node.updateSuggestion((String) element, delta);
+                    }
+                    applyToChild(node, String.valueOf(i), element, delta);
+                }
+            } else if (value instanceof String) {
+                node.updateSuggestion((String) value, delta);
+            }
+        }
+
+        private void applyToChild(Node parent, String key, Object value, int delta) {
+            Node child = parent.children.get(key);
+            if (child == null) {
+                if (delta < 0) {
+                    return;
+                }
+                child = new Node();
+                ownedNodes.add(child);
+                parent.children.put(key, child);
+            } else if (!ownedNodes.contains(child)) {
+                child = child.copy();
+                ownedNodes.add(child);
+                parent.children.put(key, child);
+            }
+
+            child.references += delta;
+            if (child.references <= 0) {
+                parent.children.remove(key);
+            } else {
+                apply(child, value, delta);
+            }
+        }
+    }
+
+    /**
+     * A node of the trie.
+     */
+    private static class Node {
+
+        private final Map<String, Node> children;
+
+        /**
+         * The suggestions of this node mapped to the number of their occurrences.
+         */
+        private final Map<String, Integer> suggestions;
+
+        /**
+         * The number of occurrences of this node's path in all files.
+         */
+        private int references;
+
+        private Node() {
+            children = new LinkedHashMap<>();
+            suggestions = new LinkedHashMap<>();
+        }
+
+        private Node(Node other) {
+            children = new LinkedHashMap<>(other.children);
+            suggestions = new LinkedHashMap<>(other.suggestions);
+            references = other.references;
+        }
+
+        private Node copy() {
+            return new Node(this);
+        }
+
+        private void updateSuggestion(String suggestion, int delta) {
+            suggestions.compute(suggestion, (key, count) -> {
+                int newCount = (count == null ? 0 : count) + delta;
+                return newCount > 0 ? newCount : null;
+            });
+        }
+    }
+
+    /**
+     * A file contained in the trie.
+     */
+    private static class ParsedFile {
+
+        private final String id;
+
+        /**
+         * The parsed content, which is required to remove the file's contributions again.
+         */
+        private final Object content;
+
+        private ParsedFile(String id, Object content) {
+            this.id = id;
+            this.content = content;
+        }
+    }
+}
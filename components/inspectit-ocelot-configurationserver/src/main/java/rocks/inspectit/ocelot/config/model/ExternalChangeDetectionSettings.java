@@ -0,0 +1,40 @@
+package rocks.inspectit.ocelot.config.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+
+/**
+ * Settings for detecting commits to the workspace or live branch which have not been done by the configuration server,
+ * e.g. by a manual commit or another configuration server sharing the same repository.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ExternalChangeDetectionSettings {
+
+    /**
+     * Whether the refs of the Git repository should be watched for changes using the file system's notifications.
+     */
+    @Builder.Default
+    private boolean watchRefs = true;
+
+    /**
+     * The delay after a ref change has been noticed until the branches are checked. Further ref changes within this
+     * delay do not cause additional checks.
+     */
+    @Builder.Default
+    private Duration debounceDelay = Duration.ofMillis(500);
+
+    /**
+     * The interval in which the branches are checked independent of any ref change notifications. This acts as
+     * fallback in case notifications are not supported, e.g. by some network file systems, which also do not notify about
+     * changes done by other hosts.
+     */
+    @Builder.Default
+    private Duration pollInterval = Duration.ofSeconds(5);
+}
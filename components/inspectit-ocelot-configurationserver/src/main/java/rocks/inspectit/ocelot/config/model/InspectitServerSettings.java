@@ -83,4 +83,10 @@ public class InspectitServerSettings {
     @Valid
     @Builder.Default
     private RemoteConfigurationsSettings remoteConfigurations = RemoteConfigurationsSettings.builder().build();
+
+    /**
+     * Settings for detecting changes of the Git repository which have not been done by the configuration server.
+     */
+    @Builder.Default
+    private ExternalChangeDetectionSettings externalChangeDetection = ExternalChangeDetectionSettings.builder().build();
 }
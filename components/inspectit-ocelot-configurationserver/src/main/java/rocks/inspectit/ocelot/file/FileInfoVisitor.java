@@ -11,6 +11,7 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.StringReader;
 import java.lang.reflect.Type;
 import java.nio.file.FileVisitResult;
 import java.nio.file.FileVisitor;
@@ -44,7 +45,7 @@ public class FileInfoVisitor implements FileVisitor<Path> {
     /**
      * Gson instance for JSON deserialization.
      */
-    private final Gson gson = new Gson();
+    private static final Gson GSON = new Gson();
 
     @Override
     public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attrs) throws IOException {
@@ -106,39 +107,57 @@ public class FileInfoVisitor implements FileVisitor<Path> {
      *
      * @return {@link FileInfo.Type}.UI_FILE if the given file is a ui-file. Otherwise {@link FileInfo.Type}.FILE is returned.
      */
-    private FileInfo.Type resolveFileType(File file) throws IOException {
+    public static FileInfo.Type resolveFileType(File file) throws IOException {
         try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String firstLine = reader.readLine();
+            return resolveFileTypeFromFirstLine(reader.readLine());
+        }
+    }
 
-            if (firstLine == null) {
-                return FileInfo.Type.FILE;
-            } else {
-                firstLine = firstLine.trim();
-            }
+    /**
+     * Resolves the type of a file with the given content in the same way as {@link #resolveFileType(File)}.
+     *
+     * @param content The content of the file.
+     *
+     * @return {@link FileInfo.Type}.UI_FILE if the given content is the one of a ui-file. Otherwise {@link FileInfo.Type}.FILE is returned.
+     */
+    public static FileInfo.Type resolveFileType(String content) {
+        try (BufferedReader reader = new BufferedReader(new StringReader(content))) {
+            return resolveFileTypeFromFirstLine(reader.readLine());
+        } catch (IOException e) {
+            // cannot happen when reading a string
+            return FileInfo.Type.FILE;
+        }
+    }
+
+    private static FileInfo.Type resolveFileTypeFromFirstLine(String firstLine) {
+        if (firstLine == null) {
+            return FileInfo.Type.FILE;
+        } else {
+            firstLine = firstLine.trim();
+        }
+
+        FileInfo.Type fileType = FileInfo.Type.FILE;
+        if (StringUtils.length(firstLine) > 1) {
+            // Remove comment-character from line. In case the line has a different format, we assume it was
+            // done by the use, so we don't care whether it can parsed or not.
+            String rawJson = firstLine.substring(1);
 
-            FileInfo.Type fileType = FileInfo.Type.FILE;
-            if (StringUtils.length(firstLine) > 1) {
-                // Remove comment-character from line. In case the line has a different format, we assume it was
-                // done by the use, so we don't care whether it can parsed or not.
-                String rawJson = firstLine.substring(1);
-
-                try {
-                    Map<String, String> jsonMap = gson.fromJson(rawJson, TYPE_MAP);
-                    if (jsonMap == null || !jsonMap.containsKey("type")) {
-                        return fileType;
-                    }
-
-                    // Build a String from the type-value which corresponds to the Enum-Naming scheme.
-                    String typeString = "UI_" + jsonMap.get("type").toUpperCase().replace("-", "_");
-                    if (EnumUtils.isValidEnum(FileInfo.Type.class, typeString)) {
-                        fileType = FileInfo.Type.valueOf(typeString);
-                    }
-                } catch (JsonSyntaxException ignored) {
+            try {
+                Map<String, String> jsonMap = GSON.fromJson(rawJson, TYPE_MAP);
+                if (jsonMap == null || !jsonMap.containsKey("type")) {
+                    return fileType;
                 }
-            }
 
-            return fileType;
+                // Build a String from the type-value which corresponds to the Enum-Naming scheme.
+                String typeString = "UI_" + jsonMap.get("type").toUpperCase().replace("-", "_");
+                if (EnumUtils.isValidEnum(FileInfo.Type.class, typeString)) {
+                    fileType = FileInfo.Type.valueOf(typeString);
+                }
+            } catch (JsonSyntaxException ignored) {
+            }
         }
+
+        return fileType;
     }
 
     @Override
@@ -10,6 +10,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 import rocks.inspectit.ocelot.config.model.InspectitServerSettings;
+import rocks.inspectit.ocelot.file.accessor.AbstractFileAccessor;
 import rocks.inspectit.ocelot.file.accessor.git.CachingRevisionAccess;
 import rocks.inspectit.ocelot.file.accessor.git.RevisionAccess;
 import rocks.inspectit.ocelot.file.accessor.workingdirectory.AbstractWorkingDirectoryAccessor;
@@ -22,6 +23,7 @@ import rocks.inspectit.ocelot.file.versioning.model.ConfigurationPromotion;
 import rocks.inspectit.ocelot.file.versioning.model.WorkspaceDiff;
 import rocks.inspectit.ocelot.file.versioning.model.WorkspaceVersion;
 
+import javax.annotation.PreDestroy;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -82,7 +84,14 @@ public class FileManager {
         versioningManager.initialize();
 
         AutoCommitWorkingDirectoryProxy autoCommitWDProxy = new AutoCommitWorkingDirectoryProxy(workingDirectoryLock.writeLock(), workingDirectoryAccessorImpl, versioningManager);
-        workingDirectoryAccessor = new CachingWorkingDirectoryAccessor(autoCommitWDProxy);
+        Path filesDirectory = workingDirectory.resolve(AbstractFileAccessor.CONFIGURATION_FILES_SUBFOLDER);
+        workingDirectoryAccessor = new CachingWorkingDirectoryAccessor(autoCommitWDProxy, filesDirectory);
+        workingDirectoryAccessor.startWatching();
+    }
+
+    @PreDestroy
+    public void destroy() throws IOException {
+        workingDirectoryAccessor.close();
     }
 
     /**
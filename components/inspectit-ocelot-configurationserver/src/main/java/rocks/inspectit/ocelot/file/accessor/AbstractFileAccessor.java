@@ -1,6 +1,7 @@
 package rocks.inspectit.ocelot.file.accessor;
 
 import lombok.extern.slf4j.Slf4j;
+import org.yaml.snakeyaml.Yaml;
 import rocks.inspectit.ocelot.file.FileInfo;
 
 import java.io.IOException;
@@ -113,6 +114,24 @@ public abstract class AbstractFileAccessor {
         }
     }
 
+    /**
+     * Reads and parses the specified YAML configuration file. Implementations may cache and share the parsed structure,
+     * thus, it must not be modified.
+     *
+     * @param file the configuration file to parse
+     *
+     * @return the parsed structure of nested maps and lists, null if the file is empty, does not exist or cannot be read
+     *
+     * @throws org.yaml.snakeyaml.error.YAMLException if the file does not contain valid YAML
+     */
+    public Object parseConfigurationFile(String file) {
+        Optional<String> content = readConfigurationFile(file);
+        if (!content.isPresent()) {
+            return null;
+        }
+        return new Yaml().load(content.get());
+    }
+
     /**
      * Lists all configuration files and directories which are located under the specified path
      * (also in sub directories). The listing will be resolved recursively.
@@ -0,0 +1,104 @@
+package rocks.inspectit.ocelot.file.accessor.git;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.Getter;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.yaml.snakeyaml.Yaml;
+import rocks.inspectit.ocelot.file.accessor.AbstractFileAccessor;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Bounded cache for the contents of git blobs, keyed by their {@link ObjectId}.
+ * <p>
+ * Blobs are immutable and their id is the hash of their content, so a cached entry never becomes stale and can be
+ * shared by all revisions containing the same file content. Besides the raw content, each entry lazily holds the
+ * parsed YAML structure of the content, so that unchanged files are neither read nor parsed again.
+ */
+class BlobCache {
+
+    private final Cache<ObjectId, CachedBlob> cache;
+
+    /**
+     * @param maximumBytes the maximum total size of the raw contents held by this cache
+     */
+    BlobCache(long maximumBytes) {
+        cache = CacheBuilder.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((ObjectId blobId, CachedBlob blob) -> blob.getContent().length)
+                .build();
+    }
+
+    /**
+     * Returns the cached blob with the given id. If it is not cached yet, it is loaded from the given repository.
+     *
+     * @param repository the repository containing the blob
+     * @param blobId     the id of the blob
+     *
+     * @return the cached blob
+     *
+     * @throws IOException in case the blob cannot be read from the repository
+     */
+    CachedBlob get(Repository repository, ObjectId blobId) throws IOException {
+        try {
+            return cache.get(blobId, () -> new CachedBlob(repository.open(blobId).getBytes()));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * The content of a single blob.
+     */
+    static class CachedBlob {
+
+        /**
+         * The raw content of the blob, which must not be modified.
+         */
+        @Getter
+        private final byte[] content;
+
+        private volatile boolean yamlParsed;
+
+        private volatile Object yaml;
+
+        private CachedBlob(byte[] content) {
+            this.content = content;
+        }
+
+        /**
+         * Returns the content parsed as YAML. The content is parsed on the first call, in case it is invalid, the
+         * exception is thrown again on each call. The returned structure is shared and therefore unmodifiable.
+         *
+         * @return the parsed structure of nested maps and lists, null if the content is empty
+         */
+        Object getYaml() {
+            if (!yamlParsed) {
+                Object parsed = new Yaml().load(new String(content, AbstractFileAccessor.FILE_ENCODING));
+                yaml = toUnmodifiable(parsed);
+                yamlParsed = true;
+            }
+            return yaml;
+        }
+
+        private static Object toUnmodifiable(Object value) {
+            if (value instanceof Map) {
+                Map<Object, Object> result = new LinkedHashMap<>();
+                ((Map<?, ?>) value).forEach((key, element) -> result.put(key, toUnmodifiable(element)));
+                return Collections.unmodifiableMap(result);
+            } else if (value instanceof List) {
+                List<Object> result = new ArrayList<>();
+                ((List<?>) value).forEach(element -> result.add(toUnmodifiable(element)));
+                return Collections.unmodifiableList(result);
+            }
+            return value;
+        }
+    }
+}
@@ -4,20 +4,15 @@ import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
 import rocks.inspectit.ocelot.file.FileInfo;
 
-import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Decorates {@link RevisionAccess} with a cache to make subsequent lookups of the same files faster.
+ * Decorates {@link RevisionAccess} with a cache to make subsequent listings of the same directories faster.
+ * The contents of the files are already cached by the {@link RevisionAccess} itself.
  */
 public class CachingRevisionAccess extends RevisionAccess {
 
-    /**
-     * Maps file paths to their cached contents
-     */
-    private ConcurrentHashMap<String, byte[]> fileContentsCache = new ConcurrentHashMap<>();
-
     /**
      * Maps directory paths to their cached contents
      */
@@ -33,21 +28,6 @@ public class CachingRevisionAccess extends RevisionAccess {
         super(repository, revCommit);
     }
 
-    @Override
-    protected byte[] readFile(String path) throws IOException {
-        if (path != null) {
-            byte[] cached = fileContentsCache.get(path);
-            if (cached != null) {
-                return cached;
-            }
-            byte[] contents = super.readFile(path);
-            fileContentsCache.put(path, contents);
-            return contents;
-        } else {
-            return super.readFile(null);
-        }
-    }
-
     @Override
     protected List<FileInfo> listFiles(String path) {
         if (path != null) {
@@ -4,7 +4,6 @@ import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.jgit.lib.ObjectId;
-import org.eclipse.jgit.lib.ObjectLoader;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevTree;
@@ -18,10 +17,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 /**
  * Accessor to access specific Git revision/commits. Using this class ensures that all operations will be executed
@@ -30,6 +26,17 @@ import java.util.Optional;
 @Slf4j
 public class RevisionAccess extends AbstractFileAccessor {
 
+    /**
+     * The maximum total size of the blob contents held by the {@link #BLOB_CACHE}.
+     */
+    private static final long BLOB_CACHE_MAX_BYTES = 64 * 1024 * 1024;
+
+    /**
+     * Cache for the contents of the blobs, which is shared by all revisions, so that files which did not change between
+     * revisions are neither read nor parsed again.
+     */
+    private static final BlobCache BLOB_CACHE = new BlobCache(BLOB_CACHE_MAX_BYTES);
+
     /**
      * The repository to use.
      */
@@ -40,6 +47,11 @@ public class RevisionAccess extends AbstractFileAccessor {
      */
     private RevCommit revCommit;
 
+    /**
+     * The index of the files of the commit, created on first use.
+     */
+    private volatile TreeIndex treeIndex;
+
     /**
      * Constructor.
      * Always resolves the commit.
@@ -206,26 +218,125 @@ public class RevisionAccess extends AbstractFileAccessor {
 
     @Override
     protected byte[] readFile(String path) throws IOException {
-        try (TreeWalk treeWalk = TreeWalk.forPath(repository, path, revCommit.getTree())) {
-            if (treeWalk == null) {
-                throw new FileNotFoundException("Did not find expected file '" + path + "' in git repository");
-            }
+        return getBlob(path).getContent();
+    }
 
-            if (treeWalk.isSubtree()) {
-                throw new IllegalArgumentException("Target must be a file but found directory: " + path);
+    /**
+     * Reads and parses the specified YAML configuration file. As the parsed structure is cached by the id of the
+     * file's blob, it is shared with all other revisions containing the same file content and must not be modified.
+     *
+     * @param file the configuration file to parse
+     *
+     * @return the parsed structure of nested maps and lists, null if the file is empty, does not exist or cannot be read
+     *
+     * @throws org.yaml.snakeyaml.error.YAMLException if the file does not contain valid YAML
+     */
+    @Override
+    public Object parseConfigurationFile(String file) {
+        String targetPath = verifyPath(CONFIGURATION_FILES_SUBFOLDER, file);
+
+        BlobCache.CachedBlob blob;
+        try {
+            blob = getBlob(targetPath);
+        } catch (Exception e) {
+            log.error("File '{}' could not been loaded.", targetPath, e);
+            return null;
+        }
+        return blob.getYaml();
+    }
+
+    /**
+     * Lists the ids of the git blobs of all configuration files of this revision. As blobs are immutable, the id
+     * of a file only changes if its content changes.
+     *
+     * @return the blob ids (as hex strings) by the paths of the configuration files relative to the configuration
+     * files directory, in the order of the repository tree
+     */
+    public Map<String, String> getConfigurationFileIds() {
+        TreeIndex index;
+        try {
+            index = getTreeIndex();
+        } catch (IOException e) {
+            log.error("Exception while listing the configuration file ids of revision {}.", getRevisionId(), e);
+            return Collections.emptyMap();
+        }
+
+        Map<String, String> fileIds = new LinkedHashMap<>();
+        String prefix = CONFIGURATION_FILES_SUBFOLDER + "/";
+        index.getFiles().forEach((path, blobId) -> {
+            if (path.startsWith(prefix)) {
+                fileIds.put(path.substring(prefix.length()), blobId.name());
             }
+        });
+        return fileIds;
+    }
+
+    /**
+     * Returns the cached blob of the file with the given path.
+     *
+     * @param path the path of the file relative to the repository root
+     *
+     * @return the cached blob
+     *
+     * @throws IOException in case the file does not exist or cannot be read
+     */
+    private BlobCache.CachedBlob getBlob(String path) throws IOException {
+        TreeIndex index = getTreeIndex();
+        if (index.getDirectories().contains(path)) {
+            throw new IllegalArgumentException("Target must be a file but found directory: " + path);
+        }
 
-            ObjectId objectId = treeWalk.getObjectId(0);
-            ObjectLoader loader = repository.open(objectId);
+        ObjectId blobId = index.getFiles().get(path);
+        if (blobId == null) {
+            throw new FileNotFoundException("Did not find expected file '" + path + "' in git repository");
+        }
+        return BLOB_CACHE.get(repository, blobId);
+    }
+
+    /**
+     * Returns the index of all files of this revision. The index is created by a single walk over the commit's tree
+     * on the first call, so that subsequent lookups of paths do not have to walk the tree again.
+     *
+     * @return the index of the files of this revision
+     *
+     * @throws IOException in case the tree cannot be read
+     */
+    private TreeIndex getTreeIndex() throws IOException {
+        TreeIndex index = treeIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = treeIndex;
+                if (index == null) {
+                    index = createTreeIndex();
+                    treeIndex = index;
+                }
+            }
+        }
+        return index;
+    }
 
-            return loader.getBytes();
+    private TreeIndex createTreeIndex() throws IOException {
+        Map<String, ObjectId> files = new LinkedHashMap<>();
+        Set<String> directories = new HashSet<>();
+        try (TreeWalk treeWalk = new TreeWalk(repository)) {
+            treeWalk.addTree(revCommit.getTree());
+            treeWalk.setRecursive(true);
+            while (treeWalk.next()) {
+                String path = treeWalk.getPathString();
+                files.put(path, treeWalk.getObjectId(0));
+                for (int i = path.indexOf('/'); i != -1; i = path.indexOf('/', i + 1)) {
+                    directories.add(path.substring(0, i));
+                }
+            }
         }
+        return new TreeIndex(files, directories);
     }
 
     @Override
     protected boolean exists(String path) {
-        try (TreeWalk treeWalk = TreeWalk.forPath(repository, path, revCommit.getTree())) {
-            return treeWalk != null;
+        try {
+            TreeIndex index = getTreeIndex();
+            return index.getFiles().containsKey(path) || index.getDirectories().contains(path);
         } catch (Exception e) {
             log.error("Assuming file {} does not exist due to exception", path, e);
             return false;
@@ -234,8 +345,8 @@ public class RevisionAccess extends AbstractFileAccessor {
 
     @Override
     protected boolean isDirectory(String path) {
-        try (TreeWalk treeWalk = TreeWalk.forPath(repository, path, revCommit.getTree())) {
-            return treeWalk != null && treeWalk.isSubtree();
+        try {
+            return getTreeIndex().getDirectories().contains(path);
         } catch (Exception e) {
             log.error("Could not read file {} from git repository", path, e);
             return false;
@@ -321,6 +432,20 @@ public class RevisionAccess extends AbstractFileAccessor {
         return false;
     }
 
+    /**
+     * The paths of all files and directories of a commit, relative to the repository root.
+     */
+    @Value
+    private static class TreeIndex {
+
+        /**
+         * The ids of the blobs by the paths of the files, in the order of the repository tree.
+         */
+        Map<String, ObjectId> files;
+
+        Set<String> directories;
+    }
+
     /**
      * Container used for finding the commonAncestor
      */
@@ -1,108 +1,155 @@
 package rocks.inspectit.ocelot.file.accessor.workingdirectory;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import lombok.experimental.Delegate;
 import lombok.extern.slf4j.Slf4j;
 import rocks.inspectit.ocelot.file.FileInfo;
+import rocks.inspectit.ocelot.file.FileInfoVisitor;
 
+import java.io.Closeable;
 import java.io.IOException;
-import java.time.Duration;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
 
 /**
- * Proxy for {@link AbstractWorkingDirectoryAccessor}. Caches the result of listFiles(String path) and retains it
- * for one day. Caches up to 10 different paths. Invalidates the cache as soon as a writing operation is executed.
- * These operations are: writeFile, createDirectory, move, delete.
+ * Proxy for {@link AbstractWorkingDirectoryAccessor}. Holds the configuration files and directories as in-memory
+ * {@link ConfigurationFileTree}, so that listing files does not require walking the working directory.
+ * <p>
+ * The tree is loaded on the first listing and afterwards updated incrementally by the writing operations:
+ * writeFile, createDirectory, move, delete. Modifications which are not done via this accessor are detected using a
+ * {@link WorkingDirectoryWatcher}, if the configuration files directory is specified. In addition, the tree can be
+ * discarded completely via {@link #invalidateCache()}.
  */
 @Slf4j
-public class CachingWorkingDirectoryAccessor extends AbstractWorkingDirectoryAccessor {
+public class CachingWorkingDirectoryAccessor extends AbstractWorkingDirectoryAccessor implements Closeable {
 
-    /**
-     * Timeout used for the LoadingCache.
-     */
-    private static final Duration TIMEOUT_DURATION = Duration.ofDays(1);
+    @VisibleForTesting
+    ConfigurationFileTree fileTree = new ConfigurationFileTree();
 
-    /**
-     * Size used for the LoadingCache.
-     */
-    private static final long CACHE_SIZE = 10;
+    @Delegate(excludes = ExcludedListMethods.class)
+    private final AbstractWorkingDirectoryAccessor workingDirectoryAccessor;
 
     /**
-     * LoadingCache for the workspace. The keys represent a path, the values contains a List of {@link FileInfo}
-     * instances, each of which resembles a file present in the workspace under the given path,
+     * The directory containing the configuration files, null if external modifications should not be detected.
      */
-    @VisibleForTesting
-    LoadingCache<String, List<FileInfo>> workspaceCache;
+    private final Path filesDirectory;
 
-    @Delegate(excludes = ExcludedListMethods.class)
-    private final AbstractWorkingDirectoryAccessor workingDirectoryAccessor;
+    private WorkingDirectoryWatcher watcher;
 
     public CachingWorkingDirectoryAccessor(AbstractWorkingDirectoryAccessor autoCommitWorkingDirectoryProxy) {
+        this(autoCommitWorkingDirectoryProxy, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param autoCommitWorkingDirectoryProxy the accessor to delegate to
+     * @param filesDirectory                  the directory containing the configuration files which is watched for
+     *                                        external modifications, can be null
+     */
+    public CachingWorkingDirectoryAccessor(AbstractWorkingDirectoryAccessor autoCommitWorkingDirectoryProxy, Path filesDirectory) {
         this.workingDirectoryAccessor = autoCommitWorkingDirectoryProxy;
+        this.filesDirectory = filesDirectory;
+    }
 
-        workspaceCache = CacheBuilder.newBuilder()
-                .maximumSize(CACHE_SIZE)
-                .expireAfterWrite(TIMEOUT_DURATION.toMillis(), TimeUnit.MILLISECONDS)
-                .build(new CacheLoader<String, List<FileInfo>>() {
-                    @Override
-                    public List<FileInfo> load(String path) {
-                        return workingDirectoryAccessor.listConfigurationFiles(path);
-                    }
-                });
+    /**
+     * Starts watching the configuration files directory for external modifications. Without the watching, the
+     * file tree only reflects external modifications after {@link #invalidateCache()} has been called.
+     */
+    public void startWatching() {
+        if (filesDirectory == null || watcher != null) {
+            return;
+        }
+        try {
+            Files.createDirectories(filesDirectory);
+            watcher = new WorkingDirectoryWatcher(filesDirectory, this::refresh, this::invalidateCache);
+            watcher.start();
+        } catch (IOException e) {
+            log.warn("Could not watch the working directory for external modifications.", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+        }
     }
 
     /**
      * Invalidates the current cache.
      */
     public void invalidateCache() {
-        workspaceCache.invalidateAll();
+        fileTree.invalidate();
     }
 
     @Override
     public List<FileInfo> listConfigurationFiles(String path) {
-        try {
-            return workspaceCache.get(path);
-        } catch (ExecutionException e) {
-            log.error("An Exception occurred while reading path {} from working directory: {}", path, e.getMessage());
-        }
-        return Collections.emptyList();
+        List<String> segments = ConfigurationFileTree.toSegments(path);
+        return fileTree.list(segments, () -> workingDirectoryAccessor.listConfigurationFiles(""));
     }
 
     @Override
     public void writeAgentMappings(String content) throws IOException {
+        // the agent mappings are not part of the configuration files
         workingDirectoryAccessor.writeAgentMappings(content);
-        workspaceCache.invalidateAll();
     }
 
     @Override
     public void writeConfigurationFile(String file, String content) throws IOException {
         workingDirectoryAccessor.writeConfigurationFile(file, content);
-        workspaceCache.invalidateAll();
+        fileTree.putFile(ConfigurationFileTree.toSegments(file), FileInfoVisitor.resolveFileType(content));
     }
 
     @Override
     public void createConfigurationDirectory(String directory) throws IOException {
         workingDirectoryAccessor.createConfigurationDirectory(directory);
-        workspaceCache.invalidateAll();
+        fileTree.putDirectory(ConfigurationFileTree.toSegments(directory));
     }
 
     @Override
     public void moveConfiguration(String source, String target) throws IOException {
         workingDirectoryAccessor.moveConfiguration(source, target);
-        workspaceCache.invalidateAll();
-
+        fileTree.move(ConfigurationFileTree.toSegments(source), ConfigurationFileTree.toSegments(target));
     }
 
     @Override
     public void deleteConfiguration(String path) throws IOException {
         workingDirectoryAccessor.deleteConfiguration(path);
-        workspaceCache.invalidateAll();
+        fileTree.delete(ConfigurationFileTree.toSegments(path));
+    }
+
+    /**
+     * Updates the file tree to the current state of the given path on disk.
+     *
+     * @param relativePath the changed path relative to the {@link #filesDirectory}
+     */
+    private void refresh(Path relativePath) {
+        fileTree.refresh(ConfigurationFileTree.toSegments(relativePath), segments -> readFileInfo(relativePath));
+    }
+
+    private FileInfo readFileInfo(Path relativePath) {
+        Path path = filesDirectory.resolve(relativePath);
+        String name = path.getFileName().toString();
+        try {
+            if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                FileInfoVisitor visitor = new FileInfoVisitor();
+                Files.walkFileTree(path, visitor);
+                return FileInfo.builder()
+                        .name(name)
+                        .type(FileInfo.Type.DIRECTORY)
+                        .children(visitor.getFileInfos())
+                        .build();
+            } else if (Files.isRegularFile(path)) {
+                return FileInfo.builder().name(name).type(FileInfoVisitor.resolveFileType(path.toFile())).build();
+            }
+        } catch (IOException e) {
+            log.debug("Could not read changed path '{}' in working directory.", path, e);
+        }
+        return null;
     }
 
     /**
@@ -0,0 +1,313 @@
+package rocks.inspectit.ocelot.file.accessor.workingdirectory;
+
+import org.apache.commons.lang3.StringUtils;
+import rocks.inspectit.ocelot.file.FileInfo;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * In-memory representation of the configuration files and directories in the working directory. The tree is loaded
+ * once and afterwards updated incrementally for each modification, so that listing a directory only requires to
+ * copy the listed part of the tree.
+ * <p>
+ * Paths are passed as lists of their segments, relative to the configuration files directory, see {@link #toSegments(String)}.
+ * Same as the {@link rocks.inspectit.ocelot.file.FileInfoVisitor}, hidden directories (starting with a dot) are not
+ * part of the tree.
+ */
+class ConfigurationFileTree {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * The configuration files directory, null if the tree has not been loaded yet or has been invalidated.
+     */
+    private Node root;
+
+    /**
+     * Converts the given path relative to the configuration files directory into its normalized segments.
+     *
+     * @param path the path, may be empty or null for the configuration files directory itself
+     *
+     * @return the segments of the path
+     *
+     * @throws IllegalArgumentException if the path is absolute or escapes the configuration files directory
+     */
+    static List<String> toSegments(String path) {
+        if (StringUtils.isEmpty(path)) {
+            return Collections.emptyList();
+        }
+        return toSegments(Paths.get(path));
+    }
+
+    /**
+     * @see #toSegments(String)
+     */
+    static List<String> toSegments(Path path) {
+        Path normalizedPath = path.normalize();
+        if (normalizedPath.isAbsolute() || normalizedPath.startsWith("..")) {
+            throw new IllegalArgumentException("User path escapes the base path: " + path);
+        }
+
+        List<String> segments = new ArrayList<>();
+        for (Path name : normalizedPath) {
+            if (!name.toString().isEmpty()) {
+                segments.add(name.toString());
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Lists the files and directories located under the given path. If the tree is not loaded, it is loaded using the
+     * given supplier, which has to return the listing of the whole configuration files directory.
+     *
+     * @param path   the path of the directory to list
+     * @param loader supplier for loading the whole tree
+     *
+     * @return the files and directories under the given path, an empty list if the path is not a directory
+     */
+    List<FileInfo> list(List<String> path, Supplier<List<FileInfo>> loader) {
+        lock.readLock().lock();
+        try {
+            if (root != null) {
+                return listChildren(path);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (root == null) {
+                // the tree is loaded while holding the lock, so that no modifications are missed while loading
+                root = toNode(FileInfo.Type.DIRECTORY, loader.get());
+            }
+            return listChildren(path);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<FileInfo> listChildren(List<String> path) {
+        Node directory = find(path);
+        if (directory == null || directory.children == null) {
+            return Collections.emptyList();
+        }
+        return toFileInfos(directory);
+    }
+
+    /**
+     * Discards the tree, so that it is loaded again on the next listing.
+     */
+    void invalidate() {
+        lock.writeLock().lock();
+        try {
+            root = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or updates the file with the given path, including its parent directories.
+     *
+     * @param path the path of the file
+     * @param type the type of the file
+     */
+    void putFile(List<String> path, FileInfo.Type type) {
+        if (path.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Node parent = getOrCreateDirectory(path.subList(0, path.size() - 1));
+            if (parent != null) {
+                parent.children.put(path.get(path.size() - 1), new Node(type));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the directory with the given path, including its parent directories.
+     *
+     * @param path the path of the directory
+     */
+    void putDirectory(List<String> path) {
+        lock.writeLock().lock();
+        try {
+            getOrCreateDirectory(path);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves the file or directory with the given path, including all its contents. In case the source is not part of
+     * the tree, e.g. because the tree was loaded after the source has been moved on disk, the tree is invalidated.
+     *
+     * @param source the current path
+     * @param target the new path
+     */
+    void move(List<String> source, List<String> target) {
+        if (source.isEmpty() || target.isEmpty()) {
+            invalidate();
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (root == null) {
+                return;
+            }
+            Node node = remove(source);
+            if (node == null) {
+                if (find(target) == null) {
+                    root = null;
+                }
+                return;
+            }
+            Node targetParent = getOrCreateDirectory(target.subList(0, target.size() - 1));
+            if (targetParent != null && !isHiddenDirectory(target.get(target.size() - 1), node)) {
+                targetParent.children.put(target.get(target.size() - 1), node);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the file or directory with the given path, including all its contents.
+     *
+     * @param path the path to remove
+     */
+    void delete(List<String> path) {
+        lock.writeLock().lock();
+        try {
+            remove(path);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Updates the given path to its current state on disk, which is read using the given function. The function is
+     * called while holding the lock of the tree, so that the state cannot be outdated by a concurrent modification of
+     * the tree.
+     *
+     * @param path       the path to update
+     * @param fileReader function returning the current state of the path, null if the path does not exist
+     */
+    void refresh(List<String> path, Function<List<String>, FileInfo> fileReader) {
+        if (path.isEmpty()) {
+            invalidate();
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (root == null) {
+                return;
+            }
+            FileInfo fileInfo = fileReader.apply(path);
+            if (fileInfo == null) {
+                remove(path);
+                return;
+            }
+            Node parent = getOrCreateDirectory(path.subList(0, path.size() - 1));
+            Node node = toNode(fileInfo.getType(), fileInfo.getChildren());
+            if (parent != null && !isHiddenDirectory(path.get(path.size() - 1), node)) {
+                parent.children.put(path.get(path.size() - 1), node);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Node find(List<String> path) {
+        Node current = root;
+        for (String segment : path) {
+            if (current == null || current.children == null) {
+                return null;
+            }
+            current = current.children.get(segment);
+        }
+        return current;
+    }
+
+    private Node remove(List<String> path) {
+        if (path.isEmpty()) {
+            return null;
+        }
+        Node parent = find(path.subList(0, path.size() - 1));
+        if (parent == null || parent.children == null) {
+            return null;
+        }
+        return parent.children.remove(path.get(path.size() - 1));
+    }
+
+    /**
+     * Returns the directory with the given path, missing directories are created. Returns null if the tree is not
+     * loaded, the path is hidden or one of its segments is a file.
+     */
+    private Node getOrCreateDirectory(List<String> path) {
+        Node current = root;
+        for (String segment : path) {
+            if (current == null || current.children == null || segment.startsWith(".")) {
+                return null;
+            }
+            current = current.children.computeIfAbsent(segment, name -> new Node(FileInfo.Type.DIRECTORY));
+        }
+        return current == null || current.children == null ? null : current;
+    }
+
+    private static boolean isHiddenDirectory(String name, Node node) {
+        return node.children != null && name.startsWith(".");
+    }
+
+    private static Node toNode(FileInfo.Type type, List<FileInfo> children) {
+        Node node = new Node(type);
+        if (node.children != null && children != null) {
+            for (FileInfo child : children) {
+                node.children.put(child.getName(), toNode(child.getType(), child.getChildren()));
+            }
+        }
+        return node;
+    }
+
+    private static List<FileInfo> toFileInfos(Node directory) {
+        List<FileInfo> result = new ArrayList<>(directory.children.size());
+        directory.children.forEach((name, node) -> {
+            FileInfo.FileInfoBuilder builder = FileInfo.builder().name(name).type(node.type);
+            if (node.children != null) {
+                builder.children(toFileInfos(node));
+            }
+            result.add(builder.build());
+        });
+        return result;
+    }
+
+    /**
+     * A file or directory of the tree.
+     */
+    private static class Node {
+
+        private final FileInfo.Type type;
+
+        /**
+         * The contents of the directory ordered by their name, null for files.
+         */
+        private final SortedMap<String, Node> children;
+
+        private Node(FileInfo.Type type) {
+            this.type = type;
+            children = type == FileInfo.Type.DIRECTORY ? new TreeMap<>() : null;
+        }
+    }
+}
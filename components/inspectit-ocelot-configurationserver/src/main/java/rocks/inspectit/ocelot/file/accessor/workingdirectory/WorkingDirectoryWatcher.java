@@ -0,0 +1,123 @@
+package rocks.inspectit.ocelot.file.accessor.workingdirectory;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watches a directory and all its (non-hidden) subdirectories for changes using a {@link WatchService}. This is used to
+ * detect modifications of the working directory which are not done by the configuration server itself.
+ * <p>
+ * The listener is notified with the path of each created, modified or deleted file or directory, relative to the
+ * watched directory. In case events have been lost, the overflow listener is notified instead.
+ */
+@Slf4j
+class WorkingDirectoryWatcher implements Closeable {
+
+    private final Path directory;
+
+    private final Consumer<Path> changeListener;
+
+    private final Runnable overflowListener;
+
+    /**
+     * The watched directories by their watch keys.
+     */
+    private final Map<WatchKey, Path> watchedDirectories = new ConcurrentHashMap<>();
+
+    private WatchService watchService;
+
+    /**
+     * @param directory        the directory to watch
+     * @param changeListener   invoked with the relative path of each changed file or directory
+     * @param overflowListener invoked in case events have been lost
+     */
+    WorkingDirectoryWatcher(Path directory, Consumer<Path> changeListener, Runnable overflowListener) {
+        this.directory = directory;
+        this.changeListener = changeListener;
+        this.overflowListener = overflowListener;
+    }
+
+    /**
+     * Registers the directory and starts watching it in a separate daemon thread.
+     *
+     * @throws IOException in case the directory cannot be watched
+     */
+    void start() throws IOException {
+        watchService = directory.getFileSystem().newWatchService();
+        registerAll(directory);
+
+        Thread thread = new Thread(this::processEvents, "inspectit-working-directory-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void registerAll(Path start) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (!dir.equals(directory) && Files.isHidden(dir)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                WatchKey key = dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+                watchedDirectories.put(key, dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                // the file may have been deleted in the meantime
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void processEvents() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            Path watchedDirectory = watchedDirectories.get(key);
+            for (WatchEvent<?> event : key.pollEvents()) {
+                try {
+                    if (event.kind() == OVERFLOW || watchedDirectory == null) {
+                        overflowListener.run();
+                        continue;
+                    }
+
+                    Path changedPath = watchedDirectory.resolve((Path) event.context());
+                    if (event.kind() == ENTRY_CREATE && Files.isDirectory(changedPath, LinkOption.NOFOLLOW_LINKS)) {
+                        registerAll(changedPath);
+                    }
+                    changeListener.accept(directory.relativize(changedPath));
+                } catch (Exception e) {
+                    log.error("Could not process change in working directory, reloading it completely.", e);
+                    overflowListener.run();
+                }
+            }
+
+            if (!key.reset()) {
+                watchedDirectories.remove(key);
+            }
+        }
+    }
+}
@@ -1,23 +1,42 @@
 package rocks.inspectit.ocelot.file.versioning;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jgit.lib.Constants;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import rocks.inspectit.ocelot.config.model.ExternalChangeDetectionSettings;
+import rocks.inspectit.ocelot.config.model.InspectitServerSettings;
 import rocks.inspectit.ocelot.events.ConfigurationPromotionEvent;
 import rocks.inspectit.ocelot.events.WorkspaceChangedEvent;
 import rocks.inspectit.ocelot.file.FileManager;
 import rocks.inspectit.ocelot.file.accessor.git.RevisionAccess;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.nio.file.StandardWatchEventKinds.*;
 
 /**
  * Monitors the workspace and the live branch for changes.
  * If the ID changes without any event (e.g. an external commit happened on the file system),
  * a corresponding change event will be fired.
+ * <p>
+ * The branches are checked whenever the refs of the Git repository (the loose refs of the branches or the packed-refs
+ * file) are modified, which is noticed via a {@link WatchService}. Multiple modifications within the debounce delay
+ * result in a single check. In addition, the branches are checked in a fixed interval as fallback, in case the file
+ * system does not deliver notifications.
  */
+@Slf4j
 @Component
 public class ExternalChangeDetector {
 
@@ -37,11 +56,27 @@ public class ExternalChangeDetector {
 
     private ApplicationEventPublisher publisher;
 
+    private InspectitServerSettings settings;
+
+    /**
+     * Executor used for the debounced and periodic checks.
+     */
+    private ScheduledExecutorService executor;
+
+    /**
+     * True, if a check has been scheduled due to a ref change and has not been started yet.
+     * The flag is cleared when the check starts, so that ref changes during a running check result in another check.
+     */
+    private final AtomicBoolean checkScheduled = new AtomicBoolean();
+
+    private WatchService watchService;
+
     @VisibleForTesting
     @Autowired
-    ExternalChangeDetector(FileManager fileManager, ApplicationEventPublisher publisher) {
+    ExternalChangeDetector(FileManager fileManager, ApplicationEventPublisher publisher, InspectitServerSettings settings) {
         this.fileManager = fileManager;
         this.publisher = publisher;
+        this.settings = settings;
     }
 
     @PostConstruct
@@ -49,18 +84,115 @@ public class ExternalChangeDetector {
     void init() {
         latestWorkspaceId = fileManager.getWorkspaceRevision().getRevisionId();
         latestLiveId = fileManager.getLiveRevision().getRevisionId();
+
+        ExternalChangeDetectionSettings detectionSettings = settings.getExternalChangeDetection();
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setDaemon(true)
+                .setNameFormat("inspectit-external-change-detector")
+                .build());
+
+        long pollInterval = detectionSettings.getPollInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::checkForUpdatesSafe, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+
+        if (detectionSettings.isWatchRefs()) {
+            try {
+                watchRefs(Paths.get(settings.getWorkingDirectory()).toAbsolutePath().normalize().resolve(Constants.DOT_GIT));
+            } catch (IOException e) {
+                log.warn("Could not watch the refs of the Git repository, external changes are only detected every {}.", detectionSettings.getPollInterval(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    @VisibleForTesting
+    void shutdown() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Starts watching the directory containing the packed-refs file and the directory containing the loose refs of
+     * the branches.
+     */
+    private void watchRefs(Path gitDirectory) throws IOException {
+        Path headsDirectory = gitDirectory.resolve(Constants.R_HEADS);
+        Files.createDirectories(headsDirectory);
+
+        watchService = gitDirectory.getFileSystem().newWatchService();
+        WatchKey gitDirectoryKey = gitDirectory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        headsDirectory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+
+        Thread thread = new Thread(() -> processRefEvents(gitDirectoryKey), "inspectit-git-ref-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void processRefEvents(WatchKey gitDirectoryKey) {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            boolean refsChanged = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    refsChanged = true;
+                } else {
+                    String fileName = event.context().toString();
+                    // in the git directory, only the packed-refs are relevant, in the heads directory all branches
+                    refsChanged |= key != gitDirectoryKey || fileName.equals(Constants.PACKED_REFS);
+                }
+            }
+            if (refsChanged) {
+                scheduleCheck();
+            }
+            key.reset();
+        }
+    }
+
+    /**
+     * Schedules a check after the debounce delay, in case no check is already pending.
+     * If a check is currently running, the new check is executed after it.
+     */
+    @VisibleForTesting
+    void scheduleCheck() {
+        if (checkScheduled.compareAndSet(false, true)) {
+            long delay = settings.getExternalChangeDetection().getDebounceDelay().toMillis();
+            executor.schedule(this::runScheduledCheck, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void runScheduledCheck() {
+        // ref changes from now on may not be seen by this check, so they have to schedule a new one
+        checkScheduled.set(false);
+        checkForUpdatesSafe();
+    }
+
+    private void checkForUpdatesSafe() {
+        try {
+            checkForUpdates();
+        } catch (Exception e) {
+            log.error("Could not check the Git repository for external changes.", e);
+        }
     }
 
     @VisibleForTesting
-    @Scheduled(fixedDelay = 5000)
     synchronized void checkForUpdates() {
         RevisionAccess currentLiveRevision = fileManager.getLiveRevision();
         if (!currentLiveRevision.getRevisionId().equals(latestLiveId)) {
+            latestLiveId = currentLiveRevision.getRevisionId();
             publisher.publishEvent(new ConfigurationPromotionEvent(this, currentLiveRevision));
         }
 
         RevisionAccess currentWorkspaceRevision = fileManager.getWorkspaceRevision();
         if (!currentWorkspaceRevision.getRevisionId().equals(latestWorkspaceId)) {
+            latestWorkspaceId = currentWorkspaceRevision.getRevisionId();
             publisher.publishEvent(new WorkspaceChangedEvent(this, currentWorkspaceRevision));
         }
     }
@@ -0,0 +1,347 @@
+package rocks.inspectit.ocelot.file.versioning;
+
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.revwalk.filter.RevFilter;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+import rocks.inspectit.ocelot.file.accessor.AbstractFileAccessor;
+import rocks.inspectit.ocelot.file.versioning.model.SimpleDiffEntry;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Determines the authors who are responsible for the changes of the entries of a workspace diff.
+ * <p>
+ * The authors of all entries are determined together by walking the first-parent history of the new commit only once.
+ * For each visited commit, the changes of the files which are still of interest are determined by a single tree diff
+ * against its parent. Files are compared by their blob ids, so that no file contents have to be read.
+ * <p>
+ * The authors are determined as follows:
+ * <ul>
+ * <li>added files: all authors who modified the file since it has been added, including the adding author</li>
+ * <li>modified files: all authors who modified the file since the common ancestor of the new commit and the last
+ * commit changing the file on the base branch. The search stops early if the file's content equals its base content.</li>
+ * <li>deleted files: the author who deleted the file most recently since this common ancestor</li>
+ * </ul>
+ */
+@Slf4j
+class ModifyingAuthorsResolver {
+
+    private final Repository repository;
+
+    ModifyingAuthorsResolver(Repository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Determines the modifying authors of the given diff entries.
+     *
+     * @param entries      the diff entries with file names relative to the configuration files directory
+     * @param baseCommitId the base commit of the diff, usually the live branch
+     * @param newCommitId  the new commit of the diff, usually the workspace branch
+     *
+     * @return the authors by the file names of the given entries
+     */
+    Map<String, List<String>> resolve(Collection<SimpleDiffEntry> entries, ObjectId baseCommitId, ObjectId newCommitId) throws IOException {
+        List<FileAttribution> attributions = new ArrayList<>();
+        for (SimpleDiffEntry entry : entries) {
+            DiffEntry.ChangeType type = entry.getType();
+            if (type == DiffEntry.ChangeType.ADD || type == DiffEntry.ChangeType.MODIFY || type == DiffEntry.ChangeType.DELETE) {
+                attributions.add(new FileAttribution(entry.getFile(), type));
+            } else {
+                log.warn("Unsupported change type for author lookup encountered: {}", type);
+            }
+        }
+
+        try (RevWalk walk = new RevWalk(repository)) {
+            RevCommit baseCommit = walk.parseCommit(baseCommitId);
+            RevCommit newCommit = walk.parseCommit(newCommitId);
+
+            List<FileAttribution> baseDependent = attributions.stream()
+                    .filter(attribution -> attribution.type != DiffEntry.ChangeType.ADD)
+                    .collect(Collectors.toList());
+            resolveBaseStates(walk, baseCommit, baseDependent);
+            resolveCommonAncestors(newCommit, baseDependent);
+            walkNewHistory(walk, newCommit, attributions);
+        }
+
+        Map<String, List<String>> result = new HashMap<>();
+        attributions.forEach(attribution -> result.put(attribution.file, new ArrayList<>(attribution.authors)));
+        return result;
+    }
+
+    /**
+     * Walks the history of the base commit to find the last commit changing each of the given files and the files'
+     * blob ids in the base commit.
+     */
+    private void resolveBaseStates(RevWalk walk, RevCommit baseCommit, List<FileAttribution> attributions) throws IOException {
+        Map<String, FileAttribution> pending = byPath(attributions);
+        RevCommit current = baseCommit;
+        while (current != null && !pending.isEmpty()) {
+            RevCommit parent = getParent(walk, current);
+            for (Map.Entry<String, ObjectId[]> change : diff(parent, current, pending.keySet()).entrySet()) {
+                ObjectId newId = change.getValue()[1];
+                if (newId != null) {
+                    // the file has been added or modified in this commit
+                    FileAttribution attribution = pending.remove(change.getKey());
+                    attribution.lastChangingBaseCommit = current;
+                    attribution.baseBlobId = newId;
+                }
+            }
+            current = parent;
+        }
+    }
+
+    /**
+     * Determines the common ancestors of the new commit and the last changing commits of the given files. Ancestors
+     * are only computed once per distinct last changing commit.
+     */
+    private void resolveCommonAncestors(RevCommit newCommit, List<FileAttribution> attributions) throws IOException {
+        Map<RevCommit, RevCommit> ancestors = new HashMap<>();
+        try (RevWalk mergeBaseWalk = new RevWalk(repository)) {
+            mergeBaseWalk.setRevFilter(RevFilter.MERGE_BASE);
+            for (FileAttribution attribution : attributions) {
+                RevCommit lastChanging = attribution.lastChangingBaseCommit;
+                if (lastChanging == null) {
+                    continue;
+                }
+                if (!ancestors.containsKey(lastChanging)) {
+                    mergeBaseWalk.reset();
+                    mergeBaseWalk.markStart(mergeBaseWalk.parseCommit(lastChanging));
+                    mergeBaseWalk.markStart(mergeBaseWalk.parseCommit(newCommit));
+                    RevCommit mergeBase = mergeBaseWalk.next();
+                    if (mergeBase == null) {
+                        log.warn("No common ancestor found for commits {} and {}.", lastChanging.name(), newCommit.name());
+                    }
+                    ancestors.put(lastChanging, mergeBase);
+                }
+                RevCommit ancestor = ancestors.get(lastChanging);
+                if (ancestor != null) {
+                    attribution.commonAncestor = ancestor.copy();
+                    attribution.previousAuthor = ancestor.getAuthorIdent().getName();
+                }
+            }
+        }
+    }
+
+    /**
+     * Walks the first-parent history of the new commit once and collects the authors of all given files.
+     */
+    private void walkNewHistory(RevWalk walk, RevCommit newCommit, List<FileAttribution> attributions) throws IOException {
+        Map<String, FileAttribution> pending = byPath(attributions);
+        readBlobIds(newCommit, pending.values().stream()
+                .filter(attribution -> attribution.type == DiffEntry.ChangeType.MODIFY)
+                .collect(Collectors.toMap(attribution -> attribution.path, attribution -> attribution)));
+
+        RevCommit current = newCommit;
+        while (current != null && !pending.isEmpty()) {
+            RevCommit commit = current;
+            pending.values().removeIf(attribution -> {
+                boolean reachedAncestor = commit.equals(attribution.commonAncestor);
+                if (reachedAncestor && attribution.type == DiffEntry.ChangeType.DELETE) {
+                    // in case an amend happened, this will be the correct user
+                    attribution.addAuthor(attribution.previousAuthor);
+                }
+                return reachedAncestor;
+            });
+            if (pending.isEmpty()) {
+                break;
+            }
+
+            RevCommit parent = getParent(walk, current);
+            Map<String, ObjectId[]> changes = diff(parent, current, pending.keySet());
+            String author = current.getAuthorIdent().getName();
+            pending.values().removeIf(attribution -> attribution.processCommit(author, changes.get(attribution.path), parent != null));
+            current = parent;
+        }
+
+        // the root commit has been reached
+        pending.values()
+                .stream()
+                .filter(attribution -> attribution.type == DiffEntry.ChangeType.DELETE)
+                .forEach(attribution -> attribution.addAuthor(attribution.previousAuthor));
+    }
+
+    private RevCommit getParent(RevWalk walk, RevCommit commit) throws IOException {
+        if (commit.getParentCount() == 0) {
+            return null;
+        }
+        return walk.parseCommit(commit.getParent(0));
+    }
+
+    /**
+     * Determines the changes of the given paths between the given commits.
+     *
+     * @return the old and new blob id of each changed path, null if the file does not exist
+     */
+    private Map<String, ObjectId[]> diff(RevCommit oldCommit, RevCommit newCommit, Set<String> paths) throws IOException {
+        if (paths.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, ObjectId[]> changes = new HashMap<>();
+        try (TreeWalk treeWalk = new TreeWalk(repository)) {
+            if (oldCommit != null) {
+                treeWalk.addTree(oldCommit.getTree());
+            } else {
+                treeWalk.addTree(new EmptyTreeIterator());
+            }
+            treeWalk.addTree(newCommit.getTree());
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(AndTreeFilter.create(PathFilterGroup.createFromStrings(paths), TreeFilter.ANY_DIFF));
+            while (treeWalk.next()) {
+                ObjectId oldId = getBlobId(treeWalk, 0);
+                ObjectId newId = getBlobId(treeWalk, 1);
+                // changes of the file mode only are not relevant
+                if (!Objects.equals(oldId, newId)) {
+                    changes.put(treeWalk.getPathString(), new ObjectId[]{oldId, newId});
+                }
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Sets the current blob ids of the given files to their blob ids in the given commit.
+     */
+    private void readBlobIds(RevCommit commit, Map<String, FileAttribution> attributions) throws IOException {
+        if (attributions.isEmpty()) {
+            return;
+        }
+        try (TreeWalk treeWalk = new TreeWalk(repository)) {
+            treeWalk.addTree(commit.getTree());
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(PathFilterGroup.createFromStrings(attributions.keySet()));
+            while (treeWalk.next()) {
+                FileAttribution attribution = attributions.get(treeWalk.getPathString());
+                if (attribution != null) {
+                    attribution.currentBlobId = getBlobId(treeWalk, 0);
+                }
+            }
+        }
+    }
+
+    private ObjectId getBlobId(TreeWalk treeWalk, int index) {
+        FileMode mode = treeWalk.getFileMode(index);
+        if (mode == FileMode.MISSING || (mode.getBits() & FileMode.TYPE_MASK) == FileMode.TYPE_TREE) {
+            return null;
+        }
+        return treeWalk.getObjectId(index);
+    }
+
+    private Map<String, FileAttribution> byPath(Collection<FileAttribution> attributions) {
+        Map<String, FileAttribution> result = new LinkedHashMap<>();
+        attributions.forEach(attribution -> result.put(attribution.path, attribution));
+        return result;
+    }
+
+    /**
+     * The state of the author lookup of a single file.
+     */
+    private static class FileAttribution {
+
+        /**
+         * The file name as used in the diff entry.
+         */
+        private final String file;
+
+        /**
+         * The path of the file in the repository.
+         */
+        private final String path;
+
+        private final DiffEntry.ChangeType type;
+
+        private final Set<String> authors = new LinkedHashSet<>();
+
+        /**
+         * The last commit changing the file in the history of the base commit.
+         */
+        private RevCommit lastChangingBaseCommit;
+
+        /**
+         * The blob id of the file in the base commit.
+         */
+        private ObjectId baseBlobId;
+
+        /**
+         * The common ancestor of the new commit and the {@link #lastChangingBaseCommit}, at which the walk stops.
+         */
+        private ObjectId commonAncestor;
+
+        /**
+         * The author of the previously visited commit, used for deleted files.
+         */
+        private String previousAuthor;
+
+        /**
+         * The blob id of the file in the currently visited commit, used for modified files.
+         */
+        private ObjectId currentBlobId;
+
+        private FileAttribution(String file, DiffEntry.ChangeType type) {
+            this.file = file;
+            this.type = type;
+            String relativePath = file.startsWith("/") ? file.substring(1) : file;
+            path = AbstractFileAccessor.CONFIGURATION_FILES_SUBFOLDER + "/" + relativePath;
+        }
+
+        private void addAuthor(String author) {
+            if (author != null) {
+                authors.add(author);
+            }
+        }
+
+        /**
+         * Processes the change of the file in a commit of the new branch's history.
+         *
+         * @param author    the author of the commit
+         * @param change    the old and new blob id of the file, null if the file was not changed by the commit
+         * @param hasParent whether the commit has a parent
+         *
+         * @return true, if the authors of the file have been determined completely
+         */
+        private boolean processCommit(String author, ObjectId[] change, boolean hasParent) {
+            Predicate<Integer> exists = index -> change != null && change[index] != null;
+            switch (type) {
+                case ADD:
+                case MODIFY:
+                    if (exists.test(1)) {
+                        addAuthor(author);
+                        if (!exists.test(0)) {
+                            // the file has been added, no need to take previous changes into account
+                            return true;
+                        }
+                    }
+                    if (type == DiffEntry.ChangeType.MODIFY) {
+                        if (change != null) {
+                            currentBlobId = change[0];
+                        }
+                        // we have reached a revision where the content is in the original state, no need to look further
+                        return !hasParent || (currentBlobId != null && currentBlobId.equals(baseBlobId));
+                    }
+                    return !hasParent;
+                case DELETE:
+                    if (exists.test(0) && !exists.test(1)) {
+                        addAuthor(author);
+                        return true;
+                    }
+                    previousAuthor = author;
+                    return false;
+                default:
+                    return true;
+            }
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package rocks.inspectit.ocelot.file.versioning;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.jgit.api.*;
@@ -37,6 +41,7 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -49,11 +54,6 @@ import java.util.stream.StreamSupport;
 @Slf4j
 public class VersioningManager {
 
-    /**
-     * Exception message in case a expected parent does not exist.
-     */
-    private static final String EXPECTED_PARENT_EXIST = "Expected parent to exist";
-
     /**
      * The tag name used for marking which commit has been used for the last remote sync.
      */
@@ -96,6 +96,13 @@ public class VersioningManager {
     @Setter
     private long amendTimeout = Duration.ofMinutes(10).toMillis();
 
+    /**
+     * Cache for the modifying authors of the files of workspace diffs, keyed by the compared commit pair.
+     */
+    private final Cache<List<ObjectId>, Map<String, List<String>>> modifyingAuthorsCache = CacheBuilder.newBuilder()
+            .maximumSize(16)
+            .build();
+
     /**
      * Remote configuration manager for interacting with the remote repository for configuration files.
      */
@@ -555,12 +562,21 @@ public class VersioningManager {
         }
 
         // fill in the file's authors who did a modification to it
+        Map<String, List<String>> modifyingAuthors;
+        if (deletingAuthor == null) {
+            modifyingAuthors = getModifyingAuthors(simpleDiffEntries, oldCommit, newCommit);
+        } else {
+            List<SimpleDiffEntry> nonDeletions = simpleDiffEntries.stream()
+                    .filter(entry -> entry.getType() != DiffEntry.ChangeType.DELETE)
+                    .collect(Collectors.toList());
+            modifyingAuthors = new ModifyingAuthorsResolver(git.getRepository()).resolve(nonDeletions, oldCommit, newCommit);
+        }
         simpleDiffEntries.forEach(entry -> {
             List<String> authors;
             if (deletingAuthor != null && entry.getType() == DiffEntry.ChangeType.DELETE) {
                 authors = Collections.singletonList(deletingAuthor.getName());
             } else {
-                authors = getModifyingAuthors(entry, oldCommit, newCommit);
+                authors = new ArrayList<>(modifyingAuthors.getOrDefault(entry.getFile(), Collections.emptyList()));
             }
             entry.setAuthors(authors);
         });
@@ -572,133 +588,34 @@ public class VersioningManager {
                 .build();
     }
 
-    @VisibleForTesting
-    List<String> getModifyingAuthors(SimpleDiffEntry entry, ObjectId baseCommitId, ObjectId newCommitId) {
-        RevCommit baseCommit = getCommit(baseCommitId);
-        RevCommit newCommit = getCommit(newCommitId);
-        switch (entry.getType()) {
-            case ADD:
-                return new ArrayList<>(findAuthorsSinceAddition(entry.getFile(), newCommit));
-            case MODIFY:
-                return new ArrayList<>(findModifyingAuthors(entry.getFile(), baseCommit, newCommit));
-            case DELETE:
-                return Collections.singletonList(findDeletingAuthor(entry.getFile(), baseCommit, newCommit));
-            default:
-                log.warn("Unsupported change type for author lookup encountered: {}", entry.getType());
-                return Collections.emptyList();
-        }
-    }
-
-    /**
-     * Finds all authors who have modified a file since a certain base revision.
-     *
-     * @param file       the name of the file to check.
-     * @param baseCommit A commit on the live branch onto which the newCommit will be merged
-     * @param newCommit  A commit on the workspace branch containing file modifications
-     *
-     * @return A list of authors who have modified the file.
-     */
-    private Collection<String> findModifyingAuthors(String file, RevCommit baseCommit, RevCommit newCommit) {
-        RevisionAccess newRevision = new RevisionAccess(git.getRepository(), newCommit);
-        RevisionAccess baseRevision = new RevisionAccess(git.getRepository(), baseCommit);
-        //move "baseRevision" to the last commit where this file was touched (potentially the root commit).
-        baseRevision = findLastChangingRevision(file, baseRevision);
-
-        Set<String> authors = new HashSet<>();
-        String baseContent = baseRevision.readConfigurationFile(file).get();
-        //Find all persons who added or modified the file since the last promotion.
-        RevisionAccess commonAncestor = newRevision.getCommonAncestor(baseRevision);
-        while (!newRevision.getRevisionId().equals(commonAncestor.getRevisionId())) {
-            if (newRevision.isConfigurationFileModified(file)) {
-                authors.add(newRevision.getAuthorName());
-            } else if (newRevision.isConfigurationFileAdded(file)) {
-                authors.add(newRevision.getAuthorName());
-                break; //THe file has been added, no need to take previous changes into account
-            }
-            newRevision = newRevision.getPreviousRevision()
-                    .orElseThrow(() -> new IllegalStateException(EXPECTED_PARENT_EXIST));
-            if (newRevision.configurationFileExists(file) && newRevision.readConfigurationFile(file)
-                    .get()
-                    .equals(baseContent)) {
-                break; // we have reached a revision where the content is in the original state, no need to look further
-            }
-        }
-        return authors;
-    }
-
-    /**
-     * Walks back in history to the point where the given file was added.
-     * On the way, all authors which have modifies the file are remembered.
-     *
-     * @param file      the file to check
-     * @param newCommit the commit to start looking from, usually on the workspace
-     *
-     * @return the list of authors who have modified the file since it's addition including the author adding the file
-     */
-    private Collection<String> findAuthorsSinceAddition(String file, RevCommit newCommit) {
-        RevisionAccess newRevision = new RevisionAccess(git.getRepository(), newCommit);
-        Set<String> authors = new HashSet<>();
-        //Find all persons who edited the file since it was added
-        while (!newRevision.isConfigurationFileAdded(file)) {
-            if (newRevision.isConfigurationFileModified(file)) {
-                authors.add(newRevision.getAuthorName());
-            }
-            newRevision = newRevision.getPreviousRevision()
-                    .orElseThrow(() -> new IllegalStateException(EXPECTED_PARENT_EXIST));
-        }
-        authors.add(newRevision.getAuthorName()); //Also add the name of the person who added the file
-        return authors;
-    }
-
     /**
-     * Finds the most recent revision originating from "newCommit" in which the given file was deleted.
-     * Does not walk past the common ancestor of "newCommit" and "baseCommit".
-     * <p>
-     * Returns the author of this revision.
+     * Determines the modifying authors of all given diff entries in a single walk through the history. The result is
+     * cached per commit pair, because the history of existing commits never changes.
      *
-     * @param file       the file to check
-     * @param baseCommit the commit to comapre agains, usually the live branch
-     * @param newCommit  the commit in which the provided file does not exist anymore, usually on the workspace
+     * @param entries      the entries of the diff between the given commits
+     * @param baseCommitId the base commit of the diff, usually the live branch
+     * @param newCommitId  the new commit of the diff, usually the workspace branch
      *
-     * @return the author of the revision which is responsible for the deletion.
+     * @return the authors by the file names of the given entries
      */
-    private String findDeletingAuthor(String file, RevCommit baseCommit, RevCommit newCommit) {
-        RevisionAccess newRevision = new RevisionAccess(git.getRepository(), newCommit);
-        RevisionAccess baseRevision = new RevisionAccess(git.getRepository(), baseCommit);
-        //move "baseRevision" to the last commit where this file was touched (potentially the root commit).
-        baseRevision = findLastChangingRevision(file, baseRevision);
-
-        RevisionAccess commonAncestor = baseRevision.getCommonAncestor(newRevision);
-        RevisionAccess previous = commonAncestor;
-        //find the person who deleted the file most recently
-        while (!newRevision.getRevisionId().equals(commonAncestor.getRevisionId())) {
-            if (newRevision.isConfigurationFileDeleted(file)) {
-                return newRevision.getAuthorName();
-            }
-            previous = newRevision;
-            newRevision = newRevision.getPreviousRevision()
-                    .orElseThrow(() -> new IllegalStateException(EXPECTED_PARENT_EXIST));
+    private Map<String, List<String>> getModifyingAuthors(List<SimpleDiffEntry> entries, ObjectId baseCommitId, ObjectId newCommitId) throws IOException {
+        List<ObjectId> commitPair = Arrays.asList(baseCommitId.copy(), newCommitId.copy());
+        try {
+            return modifyingAuthorsCache.get(commitPair, () -> new ModifyingAuthorsResolver(git.getRepository()).resolve(entries, baseCommitId, newCommitId));
+        } catch (ExecutionException e) {
+            Throwables.throwIfInstanceOf(e.getCause(), IOException.class);
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IllegalStateException(e.getCause());
+        } catch (UncheckedExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw e;
         }
-        return previous.getAuthorName(); //in case an amend happened, this will be the correct user
     }
 
-    /**
-     * Walks backwards in history starting at the given revision.
-     * Stops at the first revision which either adds or modifies the given file.
-     * <p>
-     * If the provided revision already modified/adds the given file, it is returned unchanged.
-     *
-     * @param file         the file to look for
-     * @param baseRevision the starting revision to walk backwards from
-     *
-     * @return a revision which either modifies or adds the given file.
-     */
-    private RevisionAccess findLastChangingRevision(String file, RevisionAccess baseRevision) {
-        while (!baseRevision.isConfigurationFileAdded(file) && !baseRevision.isConfigurationFileModified(file)) {
-            baseRevision = baseRevision.getPreviousRevision()
-                    .orElseThrow(() -> new IllegalStateException(EXPECTED_PARENT_EXIST));
-        }
-        return baseRevision;
+    @VisibleForTesting
+    List<String> getModifyingAuthors(SimpleDiffEntry entry, ObjectId baseCommitId, ObjectId newCommitId) throws IOException {
+        Map<String, List<String>> authors = new ModifyingAuthorsResolver(git.getRepository()).resolve(Collections.singletonList(entry), baseCommitId, newCommitId);
+        return authors.getOrDefault(entry.getFile(), Collections.emptyList());
     }
 
     /**
@@ -74,16 +74,18 @@ public class AgentController extends AbstractBaseController {
     /**
      * Returns the command next up in line for the agent with the given id.
      * If no command exists for the given agent, an empty request is returned.
+     * If the agent wants to wait for a command, the request is completed asynchronously as soon as a command is available
+     * or the polling timeout elapses, so that waiting agents do not occupy any request threads.
      *
      * @param headers the standard request headers of the agent. Must at least contain the key x-ocelot-agent-id.
      *
      * @return Returns either a ResponseEntity with the next command as payload or an empty payload.
      */
     @PostMapping(value = "agent/command", produces = "application/json")
-    public ResponseEntity<Command> fetchCommand(@RequestHeader Map<String, String> headers, @RequestParam(required = false, name = "wait-for-command") boolean waitForCommand, @RequestBody(required = false) CommandResponse response) {
+    public DeferredResult<ResponseEntity<Command>> fetchCommand(@RequestHeader Map<String, String> headers, @RequestParam(required = false, name = "wait-for-command") boolean waitForCommand, @RequestBody(required = false) CommandResponse response) {
         String agentId = headers.get("x-ocelot-agent-id");
         if (agentId == null) {
-            return ResponseEntity.badRequest().build();
+            return completedResult(ResponseEntity.badRequest().build());
         }
 
         if (response != null) {
@@ -94,15 +96,25 @@ public class AgentController extends AbstractBaseController {
             }
         }
 
-        Command nextCommand = agentCommandManager.getCommand(agentId, waitForCommand);
+        if (waitForCommand) {
+            return agentCommandManager.awaitCommand(agentId);
+        }
+
+        Command nextCommand = agentCommandManager.getCommand(agentId);
 
         if (nextCommand == null) {
-            return ResponseEntity.noContent().build();
+            return completedResult(ResponseEntity.noContent().build());
         } else {
-            return ResponseEntity.ok().body(nextCommand);
+            return completedResult(ResponseEntity.ok().body(nextCommand));
         }
     }
 
+    private <T> DeferredResult<T> completedResult(T result) {
+        DeferredResult<T> deferredResult = new DeferredResult<>();
+        deferredResult.setResult(result);
+        return deferredResult;
+    }
+
     /**
      * Returns the data for building the downloadable support archive for the agent with the given name in the frontend.
      *
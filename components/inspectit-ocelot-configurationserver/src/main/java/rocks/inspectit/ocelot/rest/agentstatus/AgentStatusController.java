@@ -2,6 +2,7 @@ package rocks.inspectit.ocelot.rest.agentstatus;
 
 import io.swagger.v3.oas.annotations.Operation;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -9,6 +10,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import rocks.inspectit.ocelot.agentstatus.AgentStatus;
 import rocks.inspectit.ocelot.agentstatus.AgentStatusManager;
+import rocks.inspectit.ocelot.agentstatus.AgentStatusPage;
 import rocks.inspectit.ocelot.rest.AbstractBaseController;
 import rocks.inspectit.ocelot.security.config.UserRoleConfiguration;
 
@@ -31,6 +33,15 @@ public class AgentStatusController extends AbstractBaseController {
         return statusManager.getAgentStatuses();
     }
 
+    @Operation(summary = "Fetch a Page of Agent Statuses", description = "Gives a single page of the connected agents, ordered by their id and optionally filtered by their id, attribute values or mapping name")
+    @GetMapping(value = "agentstatus/page")
+    public ResponseEntity<AgentStatusPage> getAgentStatusPage(@RequestParam(value = "filter", required = false) String filter, @RequestParam(value = "page", defaultValue = "0") int page, @RequestParam(value = "page-size", defaultValue = "100") int pageSize) {
+        if (page < 0 || pageSize <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(statusManager.getAgentStatuses(filter, page, pageSize));
+    }
+
     @Secured(UserRoleConfiguration.WRITE_ACCESS_ROLE)
     @Operation(summary = "Clear the List of Agent Statuses", description = "Clears the list of connected agents")
     @DeleteMapping(value = "agentstatus")
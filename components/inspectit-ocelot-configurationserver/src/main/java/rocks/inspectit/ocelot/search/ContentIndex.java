@@ -0,0 +1,229 @@
+package rocks.inspectit.ocelot.search;
+
+import lombok.Getter;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * In-memory trigram index over the contents of the configuration files of a revision.
+ * <p>
+ * For each sequence of three characters, the index holds the set of files containing it. A file can only contain a
+ * query if it contains all trigrams of the query, so only these candidate files have to be checked by the search.
+ * As the search is case-insensitive for ASCII characters, the trigrams are built from the contents with ASCII characters
+ * converted to lower case.
+ * <p>
+ * The index is updated incrementally: only files whose blob id changed are read and indexed again.
+ * This class is not thread-safe, the {@link FileContentSearchEngine} synchronizes all accesses.
+ */
+class ContentIndex {
+
+    /**
+     * The indexed files in the order of the repository tree.
+     */
+    @Getter
+    private List<IndexedFile> files = Collections.emptyList();
+
+    /**
+     * The indexed files by their path.
+     */
+    private Map<String, IndexedFile> filesByPath = new HashMap<>();
+
+    /**
+     * The trigrams mapped to the ids of the files containing them.
+     */
+    private final Map<Long, BitSet> trigramIndex = new HashMap<>();
+
+    /**
+     * File ids which have been released by removed files and can be reused, so that the ids and therefore the bit sets
+     * stay compact.
+     */
+    private final BitSet freeIds = new BitSet();
+
+    private int nextId = 0;
+
+    /**
+     * Updates the index to represent the given files. Files whose blob id did not change are not read again.
+     *
+     * @param fileIds    the blob ids by the paths of all files, in the order of the repository tree
+     * @param fileReader function for reading the content of a file, returns an empty optional if it cannot be read
+     */
+    void update(Map<String, String> fileIds, Function<String, Optional<String>> fileReader) {
+        List<IndexedFile> newFiles = new ArrayList<>(fileIds.size());
+        Map<String, IndexedFile> newFilesByPath = new HashMap<>();
+        for (Map.Entry<String, String> fileId : fileIds.entrySet()) {
+            String path = fileId.getKey();
+            IndexedFile file = filesByPath.remove(path);
+            if (file == null || !file.getBlobId().equals(fileId.getValue())) {
+                if (file != null) {
+                    remove(file);
+                }
+                file = fileReader.apply(path).map(content -> add(path, fileId.getValue(), content)).orElse(null);
+            }
+            if (file != null) {
+                newFiles.add(file);
+                newFilesByPath.put(path, file);
+            }
+        }
+        // the remaining files do not exist anymore
+        filesByPath.values().forEach(this::remove);
+
+        files = newFiles;
+        filesByPath = newFilesByPath;
+    }
+
+    /**
+     * Determines the files which may contain the given query, as they contain all of its trigrams.
+     * For queries shorter than three characters, all files are candidates.
+     *
+     * @param query the query
+     *
+     * @return the candidate files in the order of the repository tree
+     */
+    List<IndexedFile> getCandidates(String query) {
+        String normalizedQuery = toLowerCaseAscii(query);
+        BitSet candidates = null;
+        for (int i = 0; i + 2 < normalizedQuery.length(); i++) {
+            BitSet fileIds = trigramIndex.get(trigram(normalizedQuery, i));
+            if (fileIds == null) {
+                return Collections.emptyList();
+            }
+            if (candidates == null) {
+                candidates = (BitSet) fileIds.clone();
+            } else {
+                candidates.and(fileIds);
+            }
+        }
+        if (candidates == null) {
+            return files;
+        }
+
+        List<IndexedFile> result = new ArrayList<>();
+        for (IndexedFile file : files) {
+            if (candidates.get(file.id)) {
+                result.add(file);
+            }
+        }
+        return result;
+    }
+
+    private IndexedFile add(String path, String blobId, String content) {
+        int id = freeIds.isEmpty() ? nextId++ : freeIds.nextSetBit(0);
+        freeIds.clear(id);
+        IndexedFile file = new IndexedFile(id, path, blobId, content);
+        for (long trigram : getTrigrams(content)) {
+            trigramIndex.computeIfAbsent(trigram, t -> new BitSet()).set(id);
+        }
+        return file;
+    }
+
+    private void remove(IndexedFile file) {
+        for (long trigram : getTrigrams(file.getContent())) {
+            BitSet fileIds = trigramIndex.get(trigram);
+            if (fileIds != null) {
+                fileIds.clear(file.id);
+                if (fileIds.isEmpty()) {
+                    trigramIndex.remove(trigram);
+                }
+            }
+        }
+        freeIds.set(file.id);
+    }
+
+    private static Set<Long> getTrigrams(String content) {
+        String normalizedContent = toLowerCaseAscii(content);
+        Set<Long> trigrams = new HashSet<>();
+        for (int i = 0; i + 2 < normalizedContent.length(); i++) {
+            trigrams.add(trigram(normalizedContent, i));
+        }
+        return trigrams;
+    }
+
+    private static long trigram(String value, int index) {
+        return ((long) value.charAt(index) << 32) | ((long) value.charAt(index + 1) << 16) | value.charAt(index + 2);
+    }
+
+    /**
+     * Converts only the ASCII characters to lower case, same as the case-insensitive matching of the search.
+     */
+    private static String toLowerCaseAscii(String value) {
+        char[] chars = value.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] >= 'A' && chars[i] <= 'Z') {
+                chars[i] = (char) (chars[i] + ('a' - 'A'));
+            }
+        }
+        return new String(chars);
+    }
+
+    /**
+     * A file contained in the index, including the offsets of its lines.
+     */
+    static class IndexedFile {
+
+        private final int id;
+
+        @Getter
+        private final String path;
+
+        @Getter
+        private final String blobId;
+
+        @Getter
+        private final String content;
+
+        /**
+         * The start index of each line in the {@link #content}.
+         */
+        private final int[] lineStarts;
+
+        private IndexedFile(int id, String path, String blobId, String content) {
+            this.id = id;
+            this.path = path;
+            this.blobId = blobId;
+            this.content = content;
+            lineStarts = computeLineStarts(content);
+        }
+
+        private static int[] computeLineStarts(String content) {
+            int count = 1;
+            for (int i = content.indexOf('\n'); i != -1 && i + 1 < content.length(); i = content.indexOf('\n', i + 1)) {
+                count++;
+            }
+            int[] starts = new int[count];
+            int line = 1;
+            for (int i = content.indexOf('\n'); i != -1 && i + 1 < content.length(); i = content.indexOf('\n', i + 1)) {
+                starts[line++] = i + 1;
+            }
+            return starts;
+        }
+
+        /**
+         * @param position an index in the content
+         *
+         * @return the number of the line containing the given index, starting at 0
+         */
+        int getLineNumber(int position) {
+            int index = Arrays.binarySearch(lineStarts, position);
+            return index >= 0 ? index : -index - 2;
+        }
+
+        /**
+         * @param lineNumber the number of the line
+         *
+         * @return the index in the content where the given line starts
+         */
+        int getLineStart(int lineNumber) {
+            return lineStarts[lineNumber];
+        }
+
+        /**
+         * @param lineNumber the number of the line
+         *
+         * @return the index in the content after the end of the given line, including its line break
+         */
+        int getLineEnd(int lineNumber) {
+            return lineNumber + 1 < lineStarts.length ? lineStarts[lineNumber + 1] : content.length();
+        }
+    }
+}
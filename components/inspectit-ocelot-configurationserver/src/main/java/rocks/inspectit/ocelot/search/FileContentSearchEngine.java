@@ -1,29 +1,53 @@
 package rocks.inspectit.ocelot.search;
 
-import lombok.Value;
+import com.google.common.annotations.VisibleForTesting;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
-import rocks.inspectit.ocelot.file.FileInfo;
+import rocks.inspectit.ocelot.events.WorkspaceChangedEvent;
 import rocks.inspectit.ocelot.file.FileManager;
 import rocks.inspectit.ocelot.file.accessor.git.RevisionAccess;
+import rocks.inspectit.ocelot.search.ContentIndex.IndexedFile;
 
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * Component to search for a specific pattern in the configuration files.
+ * <p>
+ * The contents of the configuration files of the workspace revision are held in a {@link ContentIndex}, which is updated
+ * incrementally whenever the workspace changes. A search therefore only has to scan the files which contain all
+ * trigrams of the query, instead of reading and scanning all files of the revision.
  */
+@Slf4j
 @Component
 public class FileContentSearchEngine {
 
     @Autowired
     private FileManager fileManager;
 
+    private final ContentIndex index = new ContentIndex();
+
+    private final ReadWriteLock indexLock = new ReentrantReadWriteLock();
+
+    /**
+     * The id of the revision represented by the {@link #index}.
+     */
+    private volatile String indexedRevisionId;
+
+    /**
+     * Updates the index as soon as the workspace changes, so that the next search does not have to do it.
+     */
+    @EventListener(WorkspaceChangedEvent.class)
+    public void workspaceChanged(WorkspaceChangedEvent event) {
+        updateIndex(event.getWorkspaceRevision());
+    }
+
     /**
      * Searches in all files in the current Workspace Revision of the server for the given query. The minimum amount of
      * returned entries is the amount that could be found, the maximum amount of returned entries is defined by the
@@ -44,146 +68,98 @@ public class FileContentSearchEngine {
             return Collections.emptyList();
         }
 
-        return search(query, limit, fileManager.getWorkspaceRevision(), retrieveFirstLine);
+        updateIndex(fileManager.getWorkspaceRevision());
+        return searchIndex(query, limit, retrieveFirstLine);
+    }
+
+    /**
+     * Brings the index up to date with the given revision. Only files whose content changed since the last update are
+     * read and indexed again.
+     *
+     * @param revisionAccess the accessor for fetching the files
+     */
+    @VisibleForTesting
+    void updateIndex(RevisionAccess revisionAccess) {
+        String revisionId = revisionAccess.getRevisionId();
+        if (revisionId != null && revisionId.equals(indexedRevisionId)) {
+            return;
+        }
+        indexLock.writeLock().lock();
+        try {
+            if (revisionId == null || !revisionId.equals(indexedRevisionId)) {
+                long start = System.nanoTime();
+                index.update(revisionAccess.getConfigurationFileIds(), revisionAccess::readConfigurationFile);
+                indexedRevisionId = revisionId;
+                log.debug("Updated search index to revision {} in {} ms.", revisionId, (System.nanoTime() - start) / 1000000);
+            }
+        } finally {
+            indexLock.writeLock().unlock();
+        }
     }
 
     /**
-     * Searches in all configuration files which can be accessed by the given {@link RevisionAccess} for the specified
-     * query string. The amount of results can be limited using the limit argument.
+     * Searches in all indexed configuration files for the specified query string. The amount of results can be
+     * limited using the limit argument.
      *
      * @param query             the query string to look for
      * @param limit             the maximum amount of results
-     * @param revisionAccess    the accessor for fetching the files
      * @param retrieveFirstLine If true, the first line of a match is added to the SearchResult
      *
      * @return a list of {@link SearchResult} representing the matches
      */
-    private List<SearchResult> search(String query, int limit, RevisionAccess revisionAccess, boolean retrieveFirstLine) {
+    private List<SearchResult> searchIndex(String query, int limit, boolean retrieveFirstLine) {
         Pattern queryPattern = Pattern.compile(Pattern.quote(query), Pattern.CASE_INSENSITIVE);
-        List<FileInfo> files = revisionAccess.listConfigurationFiles("");
-
-        AtomicInteger limitCounter = new AtomicInteger(limit);
-
-        List<SearchResult> result = files.stream()
-                .map(fileInfo -> fileInfo.getAbsoluteFilePaths(""))
-                .reduce(Stream.empty(), Stream::concat)
-                .map(filename -> {
-                    Optional<String> content = revisionAccess.readConfigurationFile(filename);
-                    return content.map(fileContent -> findQuery(filename, fileContent, queryPattern, limitCounter, retrieveFirstLine));
-                })
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .flatMap(Collection::stream)
-                .collect(Collectors.toList());
+        int[] limitCounter = {limit};
 
+        List<SearchResult> result = new ArrayList<>();
+        indexLock.readLock().lock();
+        try {
+            for (IndexedFile file : index.getCandidates(query)) {
+                findQuery(file, queryPattern, limitCounter, retrieveFirstLine, result);
+            }
+        } finally {
+            indexLock.readLock().unlock();
+        }
         return result;
     }
 
     /**
-     * Searches in the specified content for the specified query pattern. The passed content represents the content of the
-     * file with the specified name.
+     * Searches in the content of the specified file for the specified query pattern.
      *
-     * @param fileName          the filename of the current file
-     * @param content           the file's content
+     * @param file              the file to search in
      * @param queryPattern      the pattern to search for
      * @param limitCounter      the amount of results to add
      * @param retrieveFirstLine If true, the first line of a match is added to the SearchResult
-     *
-     * @return a list of {@link SearchResult} representing the matches
+     * @param results           the list to add the {@link SearchResult}s representing the matches to
      */
-    private List<SearchResult> findQuery(String fileName, String content, Pattern queryPattern, AtomicInteger limitCounter, boolean retrieveFirstLine) {
+    private void findQuery(IndexedFile file, Pattern queryPattern, int[] limitCounter, boolean retrieveFirstLine, List<SearchResult> results) {
+        String content = file.getContent();
         if (StringUtils.isEmpty(content)) {
-            return Collections.emptyList();
+            return;
         }
 
-        List<SearchResult> results = new ArrayList<>();
-
-        List<Line> lines = getLines(content);
-
-        ListIterator<Line> listIterator = lines.listIterator();
-        Line currentLine = listIterator.next();
-
         Matcher matcher = queryPattern.matcher(content);
-        while (matcher.find() && limitCounter.decrementAndGet() >= 0) {
-            SearchResult.SearchResultBuilder searchResultBuilder = SearchResult.builder().file(fileName);
+        while (matcher.find() && --limitCounter[0] >= 0) {
+            SearchResult.SearchResultBuilder searchResultBuilder = SearchResult.builder().file(file.getPath());
             int start = matcher.start();
             int end = matcher.end();
 
-            while (start >= currentLine.getEndIndex()) {
-                currentLine = listIterator.next();
-            }
-            searchResultBuilder.startLine(currentLine.getLineNumber());
-            searchResultBuilder.startColumn(start - currentLine.getStartIndex());
+            int startLine = file.getLineNumber(start);
+            searchResultBuilder.startLine(startLine);
+            searchResultBuilder.startColumn(start - file.getLineStart(startLine));
 
             if (retrieveFirstLine) {
-                String firstLine = content.substring(currentLine.getStartIndex(), currentLine.getEndIndex());
+                String firstLine = content.substring(file.getLineStart(startLine), file.getLineEnd(startLine));
                 firstLine = firstLine.replace("\n", "").replace("\r", "");
                 searchResultBuilder.firstLine(firstLine);
             }
 
-            while (end > currentLine.getEndIndex()) {
-                currentLine = listIterator.next();
-            }
-            searchResultBuilder.endLine(currentLine.getLineNumber());
-            searchResultBuilder.endColumn(end - currentLine.getStartIndex());
+            // the match ends in the line containing its last character
+            int endLine = file.getLineNumber(end - 1);
+            searchResultBuilder.endLine(endLine);
+            searchResultBuilder.endColumn(end - file.getLineStart(endLine));
 
             results.add(searchResultBuilder.build());
         }
-
-        return results;
-    }
-
-    /**
-     * Extracts a list of {@link Line}s of the given content.
-     *
-     * @param content the content used as basis
-     *
-     * @return list of {@link Line}s representing the content
-     */
-    private List<Line> getLines(String content) {
-        if (StringUtils.isEmpty(content)) {
-            return Collections.emptyList();
-        }
-
-        List<Line> result = new LinkedList<>();
-        int lineNumber = 0;
-        int startIndex = 0;
-        do {
-            int nextIndex = content.indexOf("\n", startIndex) + 1;
-
-            // in case there are no further line breaks
-            if (nextIndex == 0) {
-                nextIndex = content.length();
-            }
-
-            Line line = new Line(lineNumber++, startIndex, nextIndex);
-            result.add(line);
-
-            startIndex = nextIndex;
-        } while (startIndex < content.length());
-
-        return result;
-    }
-
-    /**
-     * Class for representing a line in a string.
-     */
-    @Value
-    private class Line {
-
-        /**
-         * The line number.
-         */
-        int lineNumber;
-
-        /**
-         * The absolute index where the line is starting.
-         */
-        int startIndex;
-
-        /**
-         * The absolute end index where the line is ending.
-         */
-        int endIndex;
     }
 }
@@ -1,5 +1,6 @@
 package rocks.inspectit.ocelot.agentcommunication;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -8,16 +9,16 @@ import org.mockito.Answers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
 import rocks.inspectit.ocelot.commons.models.command.Command;
 import rocks.inspectit.ocelot.config.model.InspectitServerSettings;
 
 import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.LinkedBlockingQueue;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -42,20 +43,19 @@ public class AgentCommandManagerTest {
     class AddCommand {
 
         @Test
-        public void addCommandNewAgent() throws ExecutionException {
+        public void addCommandNewAgent() {
             Command mockAgentCommand = mock(Command.class);
             String agentId = "test-agent";
 
             agentCommandManager.addCommand(agentId, mockAgentCommand);
 
-            Map<String, BlockingQueue<Command>> result = agentCommandManager.agentCommandCache.asMap();
-            assertThat(result).containsOnlyKeys(agentId);
-            BlockingQueue<Command> commandList = result.get(agentId);
-            assertThat(commandList).containsExactly(mockAgentCommand);
+            assertThat(agentCommandManager.commandQueues.getAgentCount()).isEqualTo(1);
+            assertThat(agentCommandManager.commandQueues.getQueuedCommands()).isEqualTo(1);
+            assertThat(agentCommandManager.getCommand(agentId)).isSameAs(mockAgentCommand);
         }
 
         @Test
-        public void throwsExeptionOnNullId() throws ExecutionException {
+        public void throwsExeptionOnNullId() {
             Command mockAgentCommand = mock(Command.class);
 
             try {
@@ -67,13 +67,33 @@ public class AgentCommandManagerTest {
         }
 
         @Test
-        public void ignoresNullCommand() throws ExecutionException {
+        public void ignoresNullCommand() {
             String agentId = "test-agent";
 
             agentCommandManager.addCommand(agentId, null);
 
-            Map<String, BlockingQueue<Command>> result = agentCommandManager.agentCommandCache.asMap();
-            assertThat(result).isEmpty();
+            assertThat(agentCommandManager.commandQueues.getAgentCount()).isZero();
+        }
+
+        @Test
+        public void dropsCommandIfQueueIsFull() {
+            String agentId = "test-agent";
+            for (int i = 0; i < 11; i++) {
+                agentCommandManager.addCommand(agentId, mock(Command.class));
+            }
+
+            assertThat(agentCommandManager.commandQueues.getQueuedCommands()).isEqualTo(10);
+            assertThat(agentCommandManager.commandQueues.getDroppedCommands()).isEqualTo(1);
+        }
+
+        @Test
+        public void agentsDoNotShareQueues() {
+            for (int i = 0; i < 1000; i++) {
+                agentCommandManager.addCommand("agent-" + i, mock(Command.class));
+            }
+
+            assertThat(agentCommandManager.commandQueues.getAgentCount()).isEqualTo(1000);
+            assertThat(agentCommandManager.commandQueues.getDroppedCommands()).isZero();
         }
     }
 
@@ -84,7 +104,7 @@ public class AgentCommandManagerTest {
         public void noCommandPresent() {
             String agentId = "test-agent";
 
-            Command result = agentCommandManager.getCommand(agentId, false);
+            Command result = agentCommandManager.getCommand(agentId);
 
             assertThat(result).isEqualTo(null);
         }
@@ -93,31 +113,157 @@ public class AgentCommandManagerTest {
         public void commandPresent() {
             Command mockAgentCommand = mock(Command.class);
             String agentId = "test-agent";
-            BlockingQueue<Command> list = new LinkedBlockingQueue<>();
-            list.add(mockAgentCommand);
-            agentCommandManager.agentCommandCache.put(agentId, list);
+            agentCommandManager.addCommand(agentId, mockAgentCommand);
 
-            Command result = agentCommandManager.getCommand(agentId, false);
-            // simulate periodic command fetch that invalidates the command-cache
-            agentCommandManager.getCommand(agentId, false);
+            Command result = agentCommandManager.getCommand(agentId);
 
             assertThat(result).isEqualTo(mockAgentCommand);
-            assertThat(agentCommandManager.agentCommandCache.asMap()).isEmpty();
+            assertThat(agentCommandManager.commandQueues.getAgentCount()).isZero();
+            assertThat(agentCommandManager.commandQueues.getDeliveredCommands()).isEqualTo(1);
         }
 
         @Test
         public void commandOfDifferentAgentPresent() {
             Command mockAgentCommand = mock(Command.class);
             String agentId = "not-the-test-agent";
-            BlockingQueue<Command> list = new LinkedBlockingQueue<>();
-            list.add(mockAgentCommand);
-            agentCommandManager.agentCommandCache.put(agentId, list);
+            agentCommandManager.addCommand(agentId, mockAgentCommand);
 
-            Command result = agentCommandManager.getCommand("test-agent", false);
+            Command result = agentCommandManager.getCommand("test-agent");
 
             assertThat(result).isEqualTo(null);
-            assertThat(agentCommandManager.agentCommandCache.asMap()).containsOnlyKeys(agentId);
+            assertThat(agentCommandManager.getCommand(agentId)).isSameAs(mockAgentCommand);
+        }
+
+        @Test
+        public void commandsReturnedInOrder() {
+            Command first = mock(Command.class);
+            Command second = mock(Command.class);
+            String agentId = "test-agent";
+            agentCommandManager.addCommand(agentId, first);
+            agentCommandManager.addCommand(agentId, second);
+
+            assertThat(agentCommandManager.getCommand(agentId)).isSameAs(first);
+            assertThat(agentCommandManager.getCommand(agentId)).isSameAs(second);
+            assertThat(agentCommandManager.getCommand(agentId)).isNull();
+        }
+    }
+
+    @Nested
+    class AwaitCommand {
+
+        @BeforeEach
+        public void beforeEach() {
+            lenient().when(configuration.getAgentCommand().getAgentPollingTimeout()).thenReturn(Duration.ofSeconds(30));
+        }
+
+        @SuppressWarnings("unchecked")
+        private ResponseEntity<Command> getResponse(DeferredResult<ResponseEntity<Command>> result) {
+            return (ResponseEntity<Command>) result.getResult();
+        }
+
+        @Test
+        public void commandAlreadyPresent() {
+            Command mockAgentCommand = mock(Command.class);
+            String agentId = "test-agent";
+            agentCommandManager.addCommand(agentId, mockAgentCommand);
+
+            DeferredResult<ResponseEntity<Command>> result = agentCommandManager.awaitCommand(agentId);
+
+            assertThat(result.hasResult()).isTrue();
+            assertThat(getResponse(result).getBody()).isSameAs(mockAgentCommand);
+            assertThat(agentCommandManager.commandQueues.getWaitingAgentCount()).isZero();
+        }
+
+        @Test
+        public void commandAddedWhileWaiting() {
+            Command mockAgentCommand = mock(Command.class);
+            String agentId = "test-agent";
+
+            DeferredResult<ResponseEntity<Command>> result = agentCommandManager.awaitCommand(agentId);
+
+            assertThat(result.hasResult()).isFalse();
+            assertThat(agentCommandManager.commandQueues.getWaitingAgentCount()).isEqualTo(1);
+
+            agentCommandManager.addCommand(agentId, mockAgentCommand);
+
+            assertThat(result.hasResult()).isTrue();
+            assertThat(getResponse(result).getBody()).isSameAs(mockAgentCommand);
+            assertThat(agentCommandManager.commandQueues.getWaitingAgentCount()).isZero();
+            assertThat(agentCommandManager.getCommand(agentId)).isNull();
+        }
+
+        @Test
+        public void commandOfDifferentAgentAdded() {
+            Command mockAgentCommand = mock(Command.class);
+
+            DeferredResult<ResponseEntity<Command>> result = agentCommandManager.awaitCommand("test-agent");
+            agentCommandManager.addCommand("not-the-test-agent", mockAgentCommand);
+
+            assertThat(result.hasResult()).isFalse();
+            assertThat(agentCommandManager.getCommand("not-the-test-agent")).isSameAs(mockAgentCommand);
+        }
+
+        @Test
+        public void newRequestReplacesPendingRequest() {
+            String agentId = "test-agent";
+
+            DeferredResult<ResponseEntity<Command>> first = agentCommandManager.awaitCommand(agentId);
+            DeferredResult<ResponseEntity<Command>> second = agentCommandManager.awaitCommand(agentId);
+
+            assertThat(first.hasResult()).isTrue();
+            assertThat(getResponse(first).getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+            assertThat(second.hasResult()).isFalse();
+            assertThat(agentCommandManager.commandQueues.getWaitingAgentCount()).isEqualTo(1);
+
+            agentCommandManager.addCommand(agentId, mock(Command.class));
+
+            assertThat(second.hasResult()).isTrue();
+        }
+
+        @Test
+        public void commandQueuedIfRequestAlreadyCompleted() {
+            Command mockAgentCommand = mock(Command.class);
+            String agentId = "test-agent";
+            DeferredResult<ResponseEntity<Command>> result = agentCommandManager.awaitCommand(agentId);
+            // simulate the timeout of the request
+            result.setResult(ResponseEntity.noContent().build());
+
+            agentCommandManager.addCommand(agentId, mockAgentCommand);
+
+            assertThat(agentCommandManager.commandQueues.getWaitingAgentCount()).isZero();
+            assertThat(agentCommandManager.getCommand(agentId)).isSameAs(mockAgentCommand);
+        }
+
+        @Test
+        public void completedRequestRemoved() {
+            String agentId = "test-agent";
+            DeferredResult<ResponseEntity<Command>> result = agentCommandManager.awaitCommand(agentId);
+            result.setResult(ResponseEntity.noContent().build());
+
+            agentCommandManager.removeExpiredCommands();
+
+            assertThat(agentCommandManager.commandQueues.getWaitingAgentCount()).isZero();
+            assertThat(agentCommandManager.commandQueues.getAgentCount()).isZero();
         }
     }
 
+    @Nested
+    class BindTo {
+
+        @Test
+        public void metricsRegistered() {
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            agentCommandManager.bindTo(registry);
+
+            agentCommandManager.addCommand("test-agent", mock(Command.class));
+            agentCommandManager.addCommand("test-agent", mock(Command.class));
+            agentCommandManager.getCommand("test-agent");
+
+            assertThat(registry.get("inspectit.agent.commands.queued").gauge().value()).isEqualTo(1);
+            assertThat(registry.get("inspectit.agent.commands.delivered").functionCounter().count()).isEqualTo(1);
+            assertThat(registry.get("inspectit.agent.commands.dropped").functionCounter().count()).isZero();
+            assertThat(registry.get("inspectit.agent.commands.expired").functionCounter().count()).isZero();
+            assertThat(registry.get("inspectit.agent.commands.waiting-agents").gauge().value()).isZero();
+        }
+    }
 }
@@ -0,0 +1,122 @@
+package rocks.inspectit.ocelot.agentcommunication;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+import rocks.inspectit.ocelot.commons.models.command.Command;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class AgentCommandQueuesTest {
+
+    private final AtomicLong currentTime = new AtomicLong();
+
+    private AgentCommandQueues queues;
+
+    @BeforeEach
+    public void init() {
+        queues = new AgentCommandQueues(10, Duration.ofNanos(100), 100, currentTime::get);
+    }
+
+    @Nested
+    class Expiration {
+
+        @Test
+        public void expiredCommandNotDelivered() {
+            Command expired = mock(Command.class);
+            Command valid = mock(Command.class);
+            queues.add("agent", expired);
+            currentTime.set(50);
+            queues.add("agent", valid);
+            currentTime.set(120);
+
+            assertThat(queues.poll("agent")).isSameAs(valid);
+            assertThat(queues.getExpiredCommands()).isEqualTo(1);
+            assertThat(queues.getDeliveredCommands()).isEqualTo(1);
+            assertThat(queues.getQueuedCommands()).isZero();
+        }
+
+        @Test
+        public void expiredCommandsRemoved() {
+            queues.add("first", mock(Command.class));
+            queues.add("second", mock(Command.class));
+            currentTime.set(50);
+            queues.add("second", mock(Command.class));
+            currentTime.set(120);
+
+            queues.removeExpiredCommands();
+
+            assertThat(queues.getExpiredCommands()).isEqualTo(2);
+            assertThat(queues.getQueuedCommands()).isEqualTo(1);
+            assertThat(queues.getAgentCount()).isEqualTo(1);
+        }
+
+        @Test
+        public void pendingRequestNotRemoved() {
+            queues.pollOrRegister("agent", new DeferredResult<>());
+            currentTime.set(1000);
+
+            queues.removeExpiredCommands();
+
+            assertThat(queues.getWaitingAgentCount()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    class Concurrency {
+
+        @Test
+        public void noCommandLostWhileAddingAndPolling() throws Exception {
+            int agents = 20;
+            int commandsPerAgent = 5000;
+            Command command = mock(Command.class);
+            AgentCommandQueues unboundedQueues = new AgentCommandQueues(Integer.MAX_VALUE, Duration.ofHours(1), agents, System::nanoTime);
+            ExecutorService executor = Executors.newFixedThreadPool(2 * agents);
+            try {
+                List<Future<Integer>> received = new ArrayList<>();
+                for (int i = 0; i < agents; i++) {
+                    String agentId = "agent-" + i;
+                    executor.submit(() -> {
+                        for (int c = 0; c < commandsPerAgent; c++) {
+                            unboundedQueues.add(agentId, command);
+                        }
+                    });
+                    received.add(executor.submit(() -> {
+                        int count = 0;
+                        while (count < commandsPerAgent) {
+                            DeferredResult<ResponseEntity<Command>> request = new DeferredResult<>();
+                            if (unboundedQueues.pollOrRegister(agentId, request) != null || request.hasResult()) {
+                                count++;
+                            } else {
+                                unboundedQueues.removePendingRequest(agentId, request);
+                                // the request might have been completed before it was removed
+                                if (request.hasResult() && ((ResponseEntity<?>) request.getResult()).hasBody()) {
+                                    count++;
+                                }
+                            }
+                        }
+                        return count;
+                    }));
+                }
+
+                for (Future<Integer> count : received) {
+                    assertThat(count.get(60, TimeUnit.SECONDS)).isEqualTo(commandsPerAgent);
+                }
+                assertThat(unboundedQueues.getQueuedCommands()).isZero();
+                assertThat(unboundedQueues.getDeliveredCommands()).isEqualTo((long) agents * commandsPerAgent);
+                assertThat(unboundedQueues.getAgentCount()).isZero();
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+}
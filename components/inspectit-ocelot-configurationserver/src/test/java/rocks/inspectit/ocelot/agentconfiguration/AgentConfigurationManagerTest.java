@@ -16,6 +16,7 @@ import rocks.inspectit.ocelot.mappings.model.AgentMapping;
 
 import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 
@@ -133,4 +134,44 @@ public class AgentConfigurationManagerTest {
         }
 
     }
+
+    @Nested
+    class ReplaceConfigurations {
+
+        private final AgentMapping mapping = AgentMapping.builder().attribute("service", "test").source("test.yml").build();
+
+        @BeforeEach
+        void setupConfig() {
+            configManager.config = InspectitServerSettings.builder()
+                    .agentEvictionDelay(Duration.ofDays(1))
+                    .maxAgents(1000)
+                    .build();
+        }
+
+        @Test
+        void cachedDecisionKeptForUnchangedMappings() {
+            configManager.replaceConfigurations(Collections.singletonList(AgentConfiguration.builder().mapping(mapping).configYaml("a: 1").build()));
+            configManager.getConfiguration(ImmutableMap.of("service", "test"));
+
+            AgentConfiguration newConfiguration = AgentConfiguration.builder().mapping(mapping).configYaml("a: 2").build();
+            configManager.replaceConfigurations(Collections.singletonList(newConfiguration));
+
+            assertThat(configManager.getConfiguration(ImmutableMap.of("service", "test"))).isSameAs(newConfiguration);
+            assertThat(configManager.getConfigurationForMapping(mapping)).isSameAs(newConfiguration);
+        }
+
+        @Test
+        void mappingChangesApplied() {
+            configManager.replaceConfigurations(Collections.singletonList(AgentConfiguration.builder().mapping(mapping).configYaml("a: 1").build()));
+            configManager.getConfiguration(ImmutableMap.of("service", "test"));
+
+            AgentMapping changedMapping = mapping.toBuilder().clearAttributes().attribute("service", "other").build();
+            AgentConfiguration newConfiguration = AgentConfiguration.builder().mapping(changedMapping).configYaml("a: 2").build();
+            configManager.replaceConfigurations(Collections.singletonList(newConfiguration));
+
+            assertThat(configManager.getConfiguration(ImmutableMap.of("service", "test"))).isNull();
+            assertThat(configManager.getConfiguration(ImmutableMap.of("service", "other"))).isSameAs(newConfiguration);
+            assertThat(configManager.getConfigurationForMapping(mapping)).isNull();
+        }
+    }
 }
@@ -8,6 +8,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.yaml.snakeyaml.Yaml;
 import rocks.inspectit.ocelot.file.FileInfo;
 import rocks.inspectit.ocelot.file.FileManager;
 import rocks.inspectit.ocelot.file.accessor.git.RevisionAccess;
@@ -50,6 +51,13 @@ public class AgentConfigurationReloadTaskTest {
     public void beforeEach() {
         lenient().when(fileManager.getWorkspaceRevision()).thenReturn(workspaceAccessor);
         lenient().when(fileManager.getLiveRevision()).thenReturn(liveAccessor);
+        // parse the files read via the mocked accessors, the caching of the parsed files is tested by the RevisionAccess
+        lenient().when(workspaceAccessor.parseConfigurationFile(anyString())).thenAnswer(invocation -> parse(workspaceAccessor, invocation.getArgument(0)));
+        lenient().when(liveAccessor.parseConfigurationFile(anyString())).thenAnswer(invocation -> parse(liveAccessor, invocation.getArgument(0)));
+    }
+
+    private static Object parse(RevisionAccess accessor, String path) {
+        return accessor.readConfigurationFile(path).map(content -> (Object) new Yaml().load(content)).orElse(null);
     }
 
     @Nested
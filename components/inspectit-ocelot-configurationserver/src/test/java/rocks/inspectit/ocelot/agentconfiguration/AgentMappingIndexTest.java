@@ -0,0 +1,113 @@
+package rocks.inspectit.ocelot.agentconfiguration;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import rocks.inspectit.ocelot.mappings.model.AgentMapping;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AgentMappingIndexTest {
+
+    private static AgentMapping mapping(String... attributes) {
+        AgentMapping.AgentMappingBuilder builder = AgentMapping.builder();
+        for (int i = 0; i < attributes.length; i += 2) {
+            builder.attribute(attributes[i], attributes[i + 1]);
+        }
+        return builder.build();
+    }
+
+    @Nested
+    class FindFirstMatch {
+
+        @Test
+        void noMappings() {
+            AgentMappingIndex index = new AgentMappingIndex(Collections.emptyList());
+
+            assertThat(index.findFirstMatch(ImmutableMap.of("service", "test"))).isEqualTo(-1);
+        }
+
+        @Test
+        void literalMatchedCaseInsensitive() {
+            AgentMappingIndex index = new AgentMappingIndex(Arrays.asList(mapping("service", "other"), mapping("service", "My-Service")));
+
+            assertThat(index.findFirstMatch(ImmutableMap.of("service", "my-service"))).isEqualTo(1);
+            assertThat(index.findFirstMatch(ImmutableMap.of("service", "MY-SERVICE"))).isEqualTo(1);
+            assertThat(index.findFirstMatch(ImmutableMap.of("service", "my-service-2"))).isEqualTo(-1);
+        }
+
+        @Test
+        void prefixMatched() {
+            AgentMappingIndex index = new AgentMappingIndex(Arrays.asList(mapping("service", "shop-\\d+"), mapping("service", "shop.*"), mapping("service", "shops?")));
+
+            assertThat(index.findFirstMatch(ImmutableMap.of("service", "shop-12"))).isEqualTo(0);
+            assertThat(index.findFirstMatch(ImmutableMap.of("service", "shop-abc"))).isEqualTo(1);
+            assertThat(index.findFirstMatch(ImmutableMap.of("service", "Shop"))).isEqualTo(1);
+            assertThat(index.findFirstMatch(ImmutableMap.of("service", "sho"))).isEqualTo(-1);
+        }
+
+        @Test
+        void priorityRespectedAcrossIndexedAndUnindexedMappings() {
+            AgentMappingIndex index = new AgentMappingIndex(Arrays.asList(mapping("service", "test"), mapping("service", ".*"), mapping("service", "other")));
+
+            assertThat(index.findFirstMatch(ImmutableMap.of("service", "test"))).isEqualTo(0);
+            assertThat(index.findFirstMatch(ImmutableMap.of("service", "other"))).isEqualTo(1);
+        }
+
+        @Test
+        void allAttributesChecked() {
+            AgentMappingIndex index = new AgentMappingIndex(Collections.singletonList(mapping("service", "test", "application", "my.*")));
+
+            assertThat(index.findFirstMatch(ImmutableMap.of("service", "test", "application", "myApp"))).isEqualTo(0);
+            assertThat(index.findFirstMatch(ImmutableMap.of("service", "test", "application", "foo"))).isEqualTo(-1);
+            assertThat(index.findFirstMatch(ImmutableMap.of("service", "test"))).isEqualTo(-1);
+        }
+
+        @Test
+        void missingAttributeTreatedAsEmpty() {
+            AgentMappingIndex index = new AgentMappingIndex(Arrays.asList(mapping("service", "test"), mapping("service", ".*"), mapping()));
+
+            assertThat(index.findFirstMatch(ImmutableMap.of("application", "app"))).isEqualTo(1);
+            assertThat(index.findFirstMatch(Collections.emptyMap())).isEqualTo(1);
+        }
+
+        @Test
+        void alternationsNotIndexedByPrefix() {
+            AgentMappingIndex index = new AgentMappingIndex(Collections.singletonList(mapping("service", "shop|cart")));
+
+            assertThat(index.findFirstMatch(ImmutableMap.of("service", "cart"))).isEqualTo(0);
+        }
+
+        @Test
+        void sameResultAsMatchingAllMappings() {
+            String[] patterns = {"test", "test-.*", "test-\\d+", "te?st", ".*-prod", "(?-i)Test", "abc", "ab+c", "a[bc]", "\\Qa.b\\E", "prod.*"};
+            String[] values = {"test", "TEST", "tst", "test-1", "test-a", "a-prod", "Test", "abc", "abbc", "ab", "a.b", "axb", "production", ""};
+            Random random = new Random(42);
+            List<AgentMapping> mappings = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                mappings.add(mapping("service", patterns[random.nextInt(patterns.length)], "env", patterns[random.nextInt(patterns.length)]));
+            }
+            AgentMappingIndex index = new AgentMappingIndex(mappings);
+
+            for (String service : values) {
+                for (String env : values) {
+                    Map<String, String> attributes = ImmutableMap.of("service", service, "env", env);
+                    int expected = -1;
+                    for (int i = 0; i < mappings.size() && expected == -1; i++) {
+                        if (mappings.get(i).matchesAttributes(attributes)) {
+                            expected = i;
+                        }
+                    }
+                    assertThat(index.findFirstMatch(attributes)).as(attributes.toString()).isEqualTo(expected);
+                }
+            }
+        }
+    }
+}
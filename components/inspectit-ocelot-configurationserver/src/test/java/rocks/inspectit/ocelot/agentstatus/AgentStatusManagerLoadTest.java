@@ -0,0 +1,107 @@
+package rocks.inspectit.ocelot.agentstatus;
+
+import com.google.common.collect.ImmutableMap;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import rocks.inspectit.ocelot.agentconfiguration.AgentConfiguration;
+import rocks.inspectit.ocelot.config.model.InspectitServerSettings;
+import rocks.inspectit.ocelot.mappings.model.AgentMapping;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Simulates a large fleet of agents periodically fetching their configuration and measures the time required for
+ * updating and querying their statuses as well as the heap used by the statuses.
+ * <p>
+ * The number of simulated agents can be changed via the system property {@code inspectit.loadtest.agents}.
+ * The test is not part of the regular test run, it is executed via the {@code loadTest} task.
+ */
+@Slf4j
+@Tag("load")
+public class AgentStatusManagerLoadTest {
+
+    private static final int AGENT_COUNT = Integer.getInteger("inspectit.loadtest.agents", 100000);
+
+    private static final int POLL_ROUNDS = 5;
+
+    private AgentStatusManager manager;
+
+    private List<Map<String, String>> agentHeaders;
+
+    private List<Map<String, String>> agentAttributes;
+
+    private AgentConfiguration configuration;
+
+    @BeforeEach
+    void init() {
+        manager = new AgentStatusManager();
+        manager.config = InspectitServerSettings.builder()
+                .maxAgents(AGENT_COUNT * 2)
+                .agentEvictionDelay(Duration.ofDays(1))
+                .build();
+        manager.reset();
+
+        agentHeaders = new ArrayList<>();
+        agentAttributes = new ArrayList<>();
+        for (int i = 0; i < AGENT_COUNT; i++) {
+            Map<String, String> headers = new HashMap<>();
+            headers.put("x-ocelot-agent-id", "agent-" + i);
+            headers.put("x-ocelot-agent-version", "2.0.0");
+            headers.put("x-ocelot-java-version", "11.0.2");
+            headers.put("x-ocelot-start-time", String.valueOf(1600000000000L + i));
+            headers.put("x-ocelot-vm-name", "OpenJDK 64-Bit Server VM");
+            headers.put("x-ocelot-vm-vendor", "Oracle Corporation");
+            headers.put("x-ocelot-health", "OK");
+            agentHeaders.add(headers);
+            // agents of the same service share their attributes
+            agentAttributes.add(ImmutableMap.of("service", "service-" + (i % 500)));
+        }
+        configuration = AgentConfiguration.builder()
+                .mapping(AgentMapping.builder().name("default").build())
+                .configYaml("")
+                .build();
+    }
+
+    @Test
+    void simulateFleet() {
+        long heapBefore = getUsedHeap();
+
+        for (int round = 0; round < POLL_ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < AGENT_COUNT; i++) {
+                // the requests of agents always contain new header and attribute maps
+                manager.notifyAgentConfigurationFetched(new HashMap<>(agentAttributes.get(i)), new HashMap<>(agentHeaders.get(i)), configuration);
+            }
+            long duration = System.nanoTime() - start;
+            log.info("Round {}: updated the statuses of {} agents in {}ms ({}ns per update)", round, AGENT_COUNT, TimeUnit.NANOSECONDS.toMillis(duration), duration / AGENT_COUNT);
+        }
+
+        long heapAfter = getUsedHeap();
+        log.info("The statuses of {} agents use about {}MB of heap ({} bytes per agent)", AGENT_COUNT, (heapAfter - heapBefore) / (1024 * 1024), (heapAfter - heapBefore) / AGENT_COUNT);
+
+        long start = System.nanoTime();
+        AgentStatusPage page = manager.getAgentStatuses("service-499", 0, 50);
+        log.info("Querying a filtered page took {}ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        assertThat(page.getTotalCount()).isEqualTo(AGENT_COUNT / 500);
+        assertThat(page.getStatuses()).hasSize(Math.min(50, AGENT_COUNT / 500));
+        assertThat(manager.getAgentStatuses()).hasSize(AGENT_COUNT);
+    }
+
+    private static long getUsedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -8,6 +8,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 import rocks.inspectit.ocelot.agentconfiguration.AgentConfiguration;
+import rocks.inspectit.ocelot.commons.models.health.AgentHealth;
 import rocks.inspectit.ocelot.config.model.InspectitServerSettings;
 import rocks.inspectit.ocelot.file.versioning.Branch;
 import rocks.inspectit.ocelot.mappings.model.AgentMapping;
@@ -15,9 +16,12 @@ import rocks.inspectit.ocelot.mappings.model.AgentMapping;
 import java.time.Duration;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @ExtendWith(MockitoExtension.class)
 public class AgentStatusManagerTest {
@@ -116,5 +120,125 @@ public class AgentStatusManagerTest {
                 assertThat(status.getLastConfigFetch()).isAfter(firstFetch);
             });
         }
+
+        @Test
+        void metaInformationOnlyCreatedIfHeadersChanged() {
+            Map<String, String> attributes = ImmutableMap.of("service", "test");
+            Map<String, String> headers = ImmutableMap.of(HEADER_AGENT_ID, "aid", "x-ocelot-agent-version", "1.0");
+
+            manager.notifyAgentConfigurationFetched(attributes, headers, null);
+            AgentMetaInformation first = manager.getAgentStatuses().iterator().next().getMetaInformation();
+            manager.notifyAgentConfigurationFetched(attributes, new HashMap<>(headers), null);
+            AgentMetaInformation second = manager.getAgentStatuses().iterator().next().getMetaInformation();
+            manager.notifyAgentConfigurationFetched(attributes, ImmutableMap.of(HEADER_AGENT_ID, "aid", "x-ocelot-agent-version", "2.0"), null);
+            AgentMetaInformation third = manager.getAgentStatuses().iterator().next().getMetaInformation();
+
+            assertThat(second).isSameAs(first);
+            assertThat(third.getAgentVersion()).isEqualTo("2.0");
+        }
+
+        @Test
+        void equalAttributesShared() {
+            manager.notifyAgentConfigurationFetched(new HashMap<>(ImmutableMap.of("service", "test")), Collections.singletonMap(HEADER_AGENT_ID, "first"), null);
+            manager.notifyAgentConfigurationFetched(new HashMap<>(ImmutableMap.of("service", "test")), Collections.singletonMap(HEADER_AGENT_ID, "second"), null);
+
+            assertThat(manager.getAgentStatuses()).hasSize(2);
+            Iterator<AgentStatus> statuses = manager.getAgentStatuses().iterator();
+            assertThat(statuses.next().getAttributes()).isSameAs(statuses.next().getAttributes());
+        }
+
+        @Test
+        void healthReset() {
+            Map<String, String> attributes = ImmutableMap.of("service", "test");
+            manager.notifyAgentConfigurationFetched(attributes, ImmutableMap.of(HEADER_AGENT_ID, "aid", "x-ocelot-health", "WARNING"), null);
+
+            assertThat(manager.getAgentStatuses().iterator().next().getHealth()).isEqualTo(AgentHealth.WARNING);
+
+            manager.notifyAgentConfigurationFetched(attributes, Collections.singletonMap(HEADER_AGENT_ID, "aid"), null);
+
+            assertThat(manager.getAgentStatuses().iterator().next().getHealth()).isNull();
+        }
+    }
+
+    @Nested
+    class GetAgentStatusesPaged {
+
+        @BeforeEach
+        void addAgents() {
+            manager.config = InspectitServerSettings.builder()
+                    .maxAgents(1000)
+                    .agentEvictionDelay(Duration.ofDays(1))
+                    .build();
+            manager.reset();
+
+            AgentMapping agentMapping = AgentMapping.builder().name("special-mapping").build();
+            AgentConfiguration config = AgentConfiguration.builder().mapping(agentMapping).configYaml("").build();
+            for (int i = 0; i < 25; i++) {
+                String id = String.format("agent-%02d", i);
+                manager.notifyAgentConfigurationFetched(ImmutableMap.of("service", i % 2 == 0 ? "even" : "odd"), Collections.singletonMap(HEADER_AGENT_ID, id), i == 7 ? config : null);
+            }
+        }
+
+        @Test
+        void pagesOrderedById() {
+            AgentStatusPage first = manager.getAgentStatuses(null, 0, 10);
+            AgentStatusPage last = manager.getAgentStatuses(null, 2, 10);
+
+            assertThat(first.getTotalCount()).isEqualTo(25);
+            assertThat(first.getStatuses()).extracting(status -> status.getMetaInformation().getAgentId())
+                    .startsWith("agent-00", "agent-01")
+                    .hasSize(10);
+            assertThat(last.getStatuses()).extracting(status -> status.getMetaInformation().getAgentId())
+                    .containsExactly("agent-20", "agent-21", "agent-22", "agent-23", "agent-24");
+        }
+
+        @Test
+        void addedAgentsIncludedInLaterPages() {
+            manager.getAgentStatuses(null, 0, 10);
+
+            manager.notifyAgentConfigurationFetched(ImmutableMap.of("service", "new"), Collections.singletonMap(HEADER_AGENT_ID, "agent-000"), null);
+            AgentStatusPage page = manager.getAgentStatuses(null, 0, 10);
+
+            assertThat(page.getTotalCount()).isEqualTo(26);
+            assertThat(page.getStatuses()).extracting(status -> status.getMetaInformation().getAgentId())
+                    .startsWith("agent-00", "agent-000", "agent-01");
+        }
+
+        @Test
+        void resetAgentsNotIncludedInLaterPages() {
+            manager.getAgentStatuses(null, 0, 10);
+
+            manager.reset();
+
+            assertThat(manager.getAgentStatuses(null, 0, 10).getTotalCount()).isZero();
+        }
+
+        @Test
+        void pageBeyondEnd() {
+            AgentStatusPage page = manager.getAgentStatuses(null, 5, 10);
+
+            assertThat(page.getTotalCount()).isEqualTo(25);
+            assertThat(page.getStatuses()).isEmpty();
+        }
+
+        @Test
+        void filteredByAttributeValue() {
+            AgentStatusPage page = manager.getAgentStatuses("ODD", 0, 100);
+
+            assertThat(page.getTotalCount()).isEqualTo(12);
+        }
+
+        @Test
+        void filteredByIdAndMappingName() {
+            assertThat(manager.getAgentStatuses("agent-1", 0, 100).getTotalCount()).isEqualTo(10);
+            assertThat(manager.getAgentStatuses("special", 0, 100).getStatuses()).extracting(status -> status.getMetaInformation().getAgentId())
+                    .containsExactly("agent-07");
+        }
+
+        @Test
+        void invalidPage() {
+            assertThatThrownBy(() -> manager.getAgentStatuses(null, -1, 10)).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> manager.getAgentStatuses(null, 0, 0)).isInstanceOf(IllegalArgumentException.class);
+        }
     }
 }
@@ -0,0 +1,129 @@
+package rocks.inspectit.ocelot.autocomplete.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.Yaml;
+import rocks.inspectit.ocelot.file.accessor.git.RevisionAccess;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Simulates a workspace containing a large number of YAML configuration files and measures the time required for
+ * building the autocomplete trie, updating it after a few files changed and answering autocomplete requests.
+ * <p>
+ * The number of simulated files can be changed via the system property {@code inspectit.loadtest.files}.
+ * The test is not part of the regular test run, it is executed via the {@code loadTest} task.
+ */
+@Slf4j
+@Tag("load")
+public class ConfigurationFilesCacheLoadTest {
+
+    private static final int FILE_COUNT = Integer.getInteger("inspectit.loadtest.files", 10000);
+
+    private static final int CHANGED_FILES = 10;
+
+    private static final int QUERY_ROUNDS = 100;
+
+    private static final List<String> SCOPES_PATH = Arrays.asList("inspectit", "instrumentation", "scopes");
+
+    private static final List<String> RULE_SCOPES_PATH = Arrays.asList("inspectit", "instrumentation", "rules", "*", "scopes");
+
+    private Map<String, Object> parsedContents;
+
+    private Map<String, String> fileIds;
+
+    @BeforeEach
+    void init() {
+        parsedContents = new LinkedHashMap<>();
+        fileIds = new LinkedHashMap<>();
+        Yaml yaml = new Yaml();
+        for (int i = 0; i < FILE_COUNT; i++) {
+            String path = "services/service-" + (i % 100) + "/config-" + i + ".yml";
+            parsedContents.put(path, yaml.load(createYaml("s_scope_" + i, i)));
+            fileIds.put(path, "blob-" + i);
+        }
+    }
+
+    private static String createYaml(String scope, int index) {
+        return "inspectit:\n" +
+                "  instrumentation:\n" +
+                "    scopes:\n" +
+                "      '" + scope + "':\n" +
+                "        type:\n" +
+                "          name: com.example.service.Controller" + index + "\n" +
+                "    rules:\n" +
+                "      'r_rule_" + index + "':\n" +
+                "        scopes:\n" +
+                "          '" + scope + "': true\n";
+    }
+
+    private RevisionAccess mockRevision() {
+        RevisionAccess revision = mock(RevisionAccess.class);
+        when(revision.getConfigurationFileIds()).thenReturn(new LinkedHashMap<>(fileIds));
+        when(revision.parseConfigurationFile(anyString())).thenAnswer(invocation -> parsedContents.get(invocation.<String>getArgument(0)));
+        return revision;
+    }
+
+    private ConfigurationKeyTrie reload(RevisionAccess revision, ConfigurationKeyTrie previousTrie) {
+        ConfigurationKeyTrie[] result = new ConfigurationKeyTrie[1];
+        new ConfigurationFilesCacheReloadTask(revision, previousTrie, trie -> result[0] = trie).run();
+        return result[0];
+    }
+
+    @Test
+    void autocompleteLargeWorkspace() {
+        long start = System.nanoTime();
+        ConfigurationKeyTrie trie = reload(mockRevision(), ConfigurationKeyTrie.empty());
+        log.info("Building the trie of {} files took {}ms", FILE_COUNT, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        measureQuery(trie, SCOPES_PATH, FILE_COUNT);
+        measureQuery(trie, RULE_SCOPES_PATH, FILE_COUNT);
+
+        Yaml yaml = new Yaml();
+        for (int i = 0; i < CHANGED_FILES; i++) {
+            String path = "services/service-" + i + "/config-" + i + ".yml";
+            parsedContents.put(path, yaml.load(createYaml("s_changed_" + i, i)));
+            fileIds.put(path, "blob-changed-" + i);
+        }
+        RevisionAccess secondRevision = mockRevision();
+
+        start = System.nanoTime();
+        ConfigurationKeyTrie updatedTrie = reload(secondRevision, trie);
+        log.info("Updating the trie after {} files changed took {}ms", CHANGED_FILES, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        verify(secondRevision, times(CHANGED_FILES)).parseConfigurationFile(anyString());
+        assertThat(countGeneratedScopes(updatedTrie.getKeys(SCOPES_PATH))).isEqualTo(FILE_COUNT);
+        assertThat(updatedTrie.getKeys(SCOPES_PATH)).contains("s_changed_0").doesNotContain("s_scope_0");
+        // the previous trie is still usable while the update is running
+        assertThat(trie.getKeys(SCOPES_PATH)).contains("s_scope_0").doesNotContain("s_changed_0");
+    }
+
+    private void measureQuery(ConfigurationKeyTrie trie, List<String> path, int expectedKeys) {
+        List<String> keys = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERY_ROUNDS; i++) {
+            keys = trie.getKeys(path);
+        }
+        long duration = (System.nanoTime() - start) / QUERY_ROUNDS;
+
+        log.info("Querying the keys of '{}' took {}us ({} keys)", String.join(".", path), TimeUnit.NANOSECONDS.toMicros(duration), keys.size());
+        assertThat(countGeneratedScopes(keys)).isEqualTo(expectedKeys);
+    }
+
+    /**
+     * Counts the scopes of the simulated files, ignoring the scopes of the default configuration.
+     */
+    private static long countGeneratedScopes(List<String> keys) {
+        return keys.stream().filter(key -> key.startsWith("s_scope_") || key.startsWith("s_changed_")).count();
+    }
+}
@@ -1,19 +1,17 @@
 package rocks.inspectit.ocelot.autocomplete.util;
 
+import com.google.common.collect.ImmutableMap;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
-import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.error.YAMLException;
-import rocks.inspectit.ocelot.file.FileInfo;
-import rocks.inspectit.ocelot.file.accessor.AbstractFileAccessor;
+import rocks.inspectit.ocelot.file.accessor.git.RevisionAccess;
 
-import java.io.IOException;
 import java.util.*;
-import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -25,13 +23,17 @@ public class ConfigurationFilesCacheReloadTaskTest {
     ConfigurationFilesCacheReloadTask reloadTask;
 
     @Mock
-    AbstractFileAccessor fileAccessor;
+    RevisionAccess fileAccessor;
 
-    private Collection<Object> resultHolder;
+    private ConfigurationKeyTrie resultHolder;
 
     @BeforeEach
     public void setup() {
-        reloadTask = new ConfigurationFilesCacheReloadTask(fileAccessor, (result) -> resultHolder = result);
+        reloadTask = new ConfigurationFilesCacheReloadTask(fileAccessor, ConfigurationKeyTrie.empty(), (result) -> resultHolder = result);
+    }
+
+    private static Object parse(String content) {
+        return new Yaml().load(content);
     }
 
     @Nested
@@ -40,8 +42,8 @@ public class ConfigurationFilesCacheReloadTaskTest {
         @Test
         public void testLoadYaml() {
             String testPath = "mockPath";
-            String yamlContent = "i am a:\n        - test\n        - yaml";
-            when(fileAccessor.readConfigurationFile(any())).thenReturn(Optional.of(yamlContent));
+            Object parsed = parse("i am a:\n        - test\n        - yaml");
+            when(fileAccessor.parseConfigurationFile(any())).thenReturn(parsed);
 
             Object output = reloadTask.loadYamlFile(testPath);
 
@@ -52,7 +54,7 @@ public class ConfigurationFilesCacheReloadTaskTest {
         @Test
         public void fileManagerReturnsNull() {
             String testPath = "mockPath";
-            when(fileAccessor.readConfigurationFile(any())).thenReturn(Optional.empty());
+            when(fileAccessor.parseConfigurationFile(any())).thenReturn(null);
 
             Object output = reloadTask.loadYamlFile(testPath);
 
@@ -62,49 +64,37 @@ public class ConfigurationFilesCacheReloadTaskTest {
         @Test
         public void exceptionOnYamlParsing() {
             String testPath = "mockPath";
-            String yamlContent = "foo:bar";
-            when(fileAccessor.readConfigurationFile(any())).thenReturn(Optional.of(yamlContent));
-            ConfigurationFilesCacheReloadTask spyReloadTask = spy(reloadTask);
-            when(spyReloadTask.parseYaml("mockPath")).thenThrow(new YAMLException("test"));
+            when(fileAccessor.parseConfigurationFile(any())).thenThrow(new YAMLException("test"));
 
-            Object output = spyReloadTask.loadYamlFile(testPath);
+            Object output = reloadTask.loadYamlFile(testPath);
 
             assertThat(output).isEqualTo(null);
         }
     }
 
     @Nested
-    public class GetAllPaths {
+    public class GetYamlFileIds {
 
         @Test
-        public void getYamlPaths() throws IOException {
-            FileInfo mockFileInfo = Mockito.mock(FileInfo.class);
-            Stream<String> streamA = Stream.of("path/a.yml");
-            when(mockFileInfo.getAbsoluteFilePaths(any())).thenReturn(streamA);
-            FileInfo mockFileInfo2 = Mockito.mock(FileInfo.class);
-            Stream<String> streamB = Stream.of("path/b.yaml");
-            when(mockFileInfo2.getAbsoluteFilePaths(any())).thenReturn(streamB);
-            List<FileInfo> mockInfoList = Arrays.asList(mockFileInfo, mockFileInfo2);
-            when(fileAccessor.listConfigurationFiles("")).thenReturn(mockInfoList);
-
-            List<String> paths = reloadTask.getAllPaths();
-
-            assertThat(paths.size()).isEqualTo(2);
-            assertThat(paths.contains("path/a.yml")).isTrue();
-            assertThat(paths.contains("path/b.yaml")).isTrue();
+        public void getYamlPaths() {
+            when(fileAccessor.getConfigurationFileIds()).thenReturn(ImmutableMap.of("path/a.yml", "a", "path/b.yaml", "b"));
+
+            Map<String, String> fileIds = reloadTask.getYamlFileIds();
+
+            assertThat(fileIds).containsOnly(entry("path/a.yml", "a"), entry("path/b.yaml", "b"));
         }
 
         @Test
         public void containsNonYamlFile() {
-            FileInfo mockFileInfo = Mockito.mock(FileInfo.class);
-            Stream<String> streamA = Stream.of("path/a.xml");
-            when(mockFileInfo.getAbsoluteFilePaths(any())).thenReturn(streamA);
-            List<FileInfo> mockInfoList = Arrays.asList(mockFileInfo);
-            when(fileAccessor.listConfigurationFiles("")).thenReturn(mockInfoList);
+            when(fileAccessor.getConfigurationFileIds()).thenReturn(ImmutableMap.of("path/a.xml", "a"));
 
-            List<String> paths = reloadTask.getAllPaths();
+            Map<String, String> fileIds = reloadTask.getYamlFileIds();
 
-            assertThat(paths.size()).isEqualTo(0);
+            assertThat(fileIds).isEmpty();
+        }
+
+        private Map.Entry<String, String> entry(String key, String value) {
+            return new AbstractMap.SimpleEntry<>(key, value);
         }
     }
 
@@ -112,28 +102,50 @@ public class ConfigurationFilesCacheReloadTaskTest {
     public class Run {
 
         @Test
-        public void testYamlLoadingMap() throws IOException {
-            String yamlContent1 = "i am a:\n        - test\n        - yaml";
-            String yamlContent2 = "so:\n    am: i";
-            when(fileAccessor.readConfigurationFile(any())).thenReturn(Optional.of(yamlContent1), Optional.of(yamlContent2));
-            FileInfo mockFileInfo1 = mock(FileInfo.class);
-            when(mockFileInfo1.getAbsoluteFilePaths("")).thenReturn(Stream.of("a.yaml"));
-            FileInfo mockFileInfo2 = mock(FileInfo.class);
-            when(mockFileInfo2.getAbsoluteFilePaths("")).thenReturn(Stream.of("b.yaml"));
-            when(fileAccessor.listConfigurationFiles("")).thenReturn(Arrays.asList(mockFileInfo1, mockFileInfo2));
-            List<String> list = Arrays.asList("test", "yaml");
-            LinkedHashMap<String, Object> firstElement = new LinkedHashMap<>();
-            firstElement.put("i am a", list);
-            LinkedHashMap<String, Object> secondElement = new LinkedHashMap<>();
-            LinkedHashMap<String, Object> map2 = new LinkedHashMap<>();
-            map2.put("am", "i");
-            secondElement.put("so", map2);
+        public void testYamlLoadingMap() {
+            when(fileAccessor.getConfigurationFileIds()).thenReturn(ImmutableMap.of("a.yaml", "a", "b.yaml", "b"));
+            when(fileAccessor.parseConfigurationFile("a.yaml")).thenReturn(parse("i am a:\n        - test\n        - yaml"));
+            when(fileAccessor.parseConfigurationFile("b.yaml")).thenReturn(parse("so:\n    am: i"));
+
+            reloadTask.run();
+
+            assertThat(resultHolder.getKeys(Collections.emptyList())).contains("i am a", "so", "inspectit");
+            assertThat(resultHolder.getKeys(Arrays.asList("i am a", "*"))).containsExactly("test", "yaml");
+            assertThat(resultHolder.getKeys(Arrays.asList("so", "am"))).containsExactly("i");
+        }
+
+        @Test
+        public void onlyChangedFilesAreParsed() {
+            when(fileAccessor.getConfigurationFileIds()).thenReturn(ImmutableMap.of("a.yaml", "a", "b.yaml", "b"));
+            when(fileAccessor.parseConfigurationFile("a.yaml")).thenReturn(parse("first: a"));
+            when(fileAccessor.parseConfigurationFile("b.yaml")).thenReturn(parse("second: b"));
+            reloadTask.run();
+            ConfigurationKeyTrie firstTrie = resultHolder;
+
+            RevisionAccess secondRevision = mock(RevisionAccess.class);
+            when(secondRevision.getConfigurationFileIds()).thenReturn(ImmutableMap.of("b.yaml", "b2", "c.yaml", "c"));
+            when(secondRevision.parseConfigurationFile("b.yaml")).thenReturn(parse("changed: b"));
+            when(secondRevision.parseConfigurationFile("c.yaml")).thenReturn(parse("third: c"));
+            new ConfigurationFilesCacheReloadTask(secondRevision, firstTrie, (result) -> resultHolder = result).run();
+
+            assertThat(resultHolder.getKeys(Collections.emptyList())).contains("changed", "third")
+                    .doesNotContain("first", "second");
+            assertThat(firstTrie.getKeys(Collections.emptyList())).contains("first", "second")
+                    .doesNotContain("changed", "third");
+            verify(secondRevision).getConfigurationFileIds();
+            verify(secondRevision).parseConfigurationFile("b.yaml");
+            verify(secondRevision).parseConfigurationFile("c.yaml");
+            verifyNoMoreInteractions(secondRevision);
+        }
+
+        @Test
+        public void canceled() {
+            when(fileAccessor.getConfigurationFileIds()).thenReturn(ImmutableMap.of("a.yaml", "a"));
 
+            reloadTask.cancel();
             reloadTask.run();
 
-            assertThat(resultHolder.contains(firstElement)).isTrue();
-            assertThat(resultHolder.contains(secondElement)).isTrue();
+            assertThat(resultHolder).isNull();
         }
     }
 }
-
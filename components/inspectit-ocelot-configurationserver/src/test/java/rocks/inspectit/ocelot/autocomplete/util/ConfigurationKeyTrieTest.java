@@ -0,0 +1,119 @@
+package rocks.inspectit.ocelot.autocomplete.util;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.Yaml;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConfigurationKeyTrieTest {
+
+    private static Object parse(String content) {
+        return new Yaml().load(content);
+    }
+
+    @Nested
+    public class GetKeys {
+
+        @Test
+        public void mergedFiles() {
+            ConfigurationKeyTrie trie = ConfigurationKeyTrie.empty()
+                    .toBuilder()
+                    .putFile("a.yml", "a", parse("inspectit:\n  scopes:\n    s_a: {}\n    s_shared: {}"))
+                    .putFile("b.yml", "b", parse("inspectit:\n  scopes:\n    s_b: {}\n    s_shared: {}"))
+                    .build();
+
+            assertThat(trie.getKeys(Arrays.asList("inspectit", "scopes"))).containsExactlyInAnyOrder("s_a", "s_b", "s_shared");
+        }
+
+        @Test
+        public void unknownPath() {
+            ConfigurationKeyTrie trie = ConfigurationKeyTrie.empty()
+                    .toBuilder()
+                    .putFile("a.yml", "a", parse("inspectit:\n  scopes:\n    s_a: {}"))
+                    .build();
+
+            assertThat(trie.getKeys(Arrays.asList("inspectit", "rules"))).isEmpty();
+            assertThat(trie.getKeys(Arrays.asList("inspectit", "scopes", "s_a", "type"))).isEmpty();
+        }
+
+        @Test
+        public void listElements() {
+            ConfigurationKeyTrie trie = ConfigurationKeyTrie.empty()
+                    .toBuilder()
+                    .putFile("a.yml", "a", parse("list:\n- first\n- nested: value"))
+                    .build();
+
+            assertThat(trie.getKeys(Collections.singletonList("list"))).containsExactly("first");
+            assertThat(trie.getKeys(Arrays.asList("list", "0"))).containsExactly("first");
+            assertThat(trie.getKeys(Arrays.asList("list", "1"))).containsExactly("nested");
+            assertThat(trie.getKeys(Arrays.asList("list", "*", "nested"))).containsExactly("value");
+        }
+    }
+
+    @Nested
+    public class Builder {
+
+        @Test
+        public void removeFile() {
+            ConfigurationKeyTrie trie = ConfigurationKeyTrie.empty()
+                    .toBuilder()
+                    .putFile("a.yml", "a", parse("inspectit:\n  scopes:\n    s_a: {}\n    s_shared: {}"))
+                    .putFile("b.yml", "b", parse("inspectit:\n  scopes:\n    s_b: {}\n    s_shared: {}"))
+                    .build();
+
+            ConfigurationKeyTrie result = trie.toBuilder().removeFile("a.yml").build();
+
+            assertThat(result.getKeys(Arrays.asList("inspectit", "scopes"))).containsExactlyInAnyOrder("s_b", "s_shared");
+            assertThat(result.getFileIds()).containsOnlyKeys("b.yml");
+        }
+
+        @Test
+        public void removeLastFile() {
+            ConfigurationKeyTrie trie = ConfigurationKeyTrie.empty()
+                    .toBuilder()
+                    .putFile("a.yml", "a", parse("inspectit:\n  scopes:\n    s_a: {}"))
+                    .build();
+
+            ConfigurationKeyTrie result = trie.toBuilder().removeFile("a.yml").build();
+
+            assertThat(result.getKeys(Collections.emptyList())).isEmpty();
+            assertThat(result.getKeys(Collections.singletonList("inspectit"))).isEmpty();
+        }
+
+        @Test
+        public void replaceFile() {
+            ConfigurationKeyTrie trie = ConfigurationKeyTrie.empty()
+                    .toBuilder()
+                    .putFile("a.yml", "a", parse("inspectit:\n  scopes:\n    s_old: {}"))
+                    .build();
+
+            ConfigurationKeyTrie result = trie.toBuilder()
+                    .putFile("a.yml", "a2", parse("inspectit:\n  scopes:\n    s_new: {}"))
+                    .build();
+
+            assertThat(result.getKeys(Arrays.asList("inspectit", "scopes"))).containsExactly("s_new");
+            assertThat(result.getFileIds()).containsEntry("a.yml", "a2");
+        }
+
+        @Test
+        public void previousTrieIsNotModified() {
+            ConfigurationKeyTrie trie = ConfigurationKeyTrie.empty()
+                    .toBuilder()
+                    .putFile("a.yml", "a", parse("inspectit:\n  scopes:\n    s_a: {}"))
+                    .build();
+
+            trie.toBuilder()
+                    .removeFile("a.yml")
+                    .putFile("b.yml", "b", parse("inspectit:\n  scopes:\n    s_b: {}"))
+                    .build();
+
+            assertThat(trie.getKeys(Arrays.asList("inspectit", "scopes"))).containsExactly("s_a");
+            assertThat(trie.getFileIds()).containsOnlyKeys("a.yml");
+            assertThat(ConfigurationKeyTrie.empty().getKeys(Collections.emptyList())).isEmpty();
+        }
+    }
+}
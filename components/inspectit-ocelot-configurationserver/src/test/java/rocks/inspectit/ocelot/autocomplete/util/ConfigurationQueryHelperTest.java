@@ -21,6 +21,15 @@ public class ConfigurationQueryHelperTest {
     @InjectMocks
     private ConfigurationQueryHelper configurationQueryHelper;
 
+    private static ConfigurationKeyTrie trie(Collection<Object> parsedContents) {
+        ConfigurationKeyTrie.Builder builder = ConfigurationKeyTrie.empty().toBuilder();
+        int index = 0;
+        for (Object content : parsedContents) {
+            builder.putFile("file-" + index++, "id", content);
+        }
+        return builder.build();
+    }
+
     @Nested
     public class GetKeysForPath {
 
@@ -37,7 +46,7 @@ public class ConfigurationQueryHelperTest {
             inspectit.put("instrumentation", instrumentation);
             topLevelMap.put("inspectit", inspectit);
             Collection<Object> mockData = Collections.singletonList(topLevelMap);
-            when(configurationFilesCache.getParsedContents()).thenReturn(mockData);
+            when(configurationFilesCache.getKeyTrie()).thenReturn(trie(mockData));
 
             List<String> output = configurationQueryHelper.getKeysForPath(propertyPath);
 
@@ -59,7 +68,7 @@ public class ConfigurationQueryHelperTest {
             inspectit.put("metrics", metrics);
             topLevelMap.put("inspectit", inspectit);
             Collection<Object> mockData = Collections.singletonList(topLevelMap);
-            when(configurationFilesCache.getParsedContents()).thenReturn(mockData);
+            when(configurationFilesCache.getKeyTrie()).thenReturn(trie(mockData));
 
             List<String> output = configurationQueryHelper.getKeysForPath(propertyPath);
 
@@ -80,7 +89,7 @@ public class ConfigurationQueryHelperTest {
             inspectit.put("metrics", metrics);
             topLevelMap.put("inspectit", inspectit);
             Collection<Object> mockData = Collections.singletonList(topLevelMap);
-            when(configurationFilesCache.getParsedContents()).thenReturn(mockData);
+            when(configurationFilesCache.getKeyTrie()).thenReturn(trie(mockData));
 
             List<?> output = configurationQueryHelper.getKeysForPath(propertyPath);
 
@@ -106,7 +115,7 @@ public class ConfigurationQueryHelperTest {
             inspectit.put("list", list);
             topLevelMap.put("inspectit", inspectit);
             Collection<Object> mockData = Collections.singletonList(topLevelMap);
-            when(configurationFilesCache.getParsedContents()).thenReturn(mockData);
+            when(configurationFilesCache.getKeyTrie()).thenReturn(trie(mockData));
 
             List<String> output = configurationQueryHelper.getKeysForPath(propertyPath);
 
@@ -127,7 +136,7 @@ public class ConfigurationQueryHelperTest {
             inspectit.put("exampleList", list);
             topLevelMap.put("inspectit", inspectit);
             Collection<Object> mockData = Collections.singletonList(topLevelMap);
-            when(configurationFilesCache.getParsedContents()).thenReturn(mockData);
+            when(configurationFilesCache.getKeyTrie()).thenReturn(trie(mockData));
 
             List<String> output = configurationQueryHelper.getKeysForPath(propertyPath);
 
@@ -144,7 +153,7 @@ public class ConfigurationQueryHelperTest {
             inspectit.put("exampleList", list);
             topLevelMap.put("inspectit", inspectit);
             Collection<Object> mockData = Collections.singletonList(topLevelMap);
-            when(configurationFilesCache.getParsedContents()).thenReturn(mockData);
+            when(configurationFilesCache.getKeyTrie()).thenReturn(trie(mockData));
 
             List<String> output = configurationQueryHelper.getKeysForPath(propertyPath);
 
@@ -162,7 +171,7 @@ public class ConfigurationQueryHelperTest {
             inspectit.put("exampleList", list);
             topLevelMap.put("inspectit", inspectit);
             Collection<Object> mockData = Collections.singletonList(topLevelMap);
-            when(configurationFilesCache.getParsedContents()).thenReturn(mockData);
+            when(configurationFilesCache.getKeyTrie()).thenReturn(trie(mockData));
 
             List<?> output = configurationQueryHelper.getKeysForPath(propertyPath);
 
@@ -178,7 +187,7 @@ public class ConfigurationQueryHelperTest {
             inspectit.put("exampleList", list);
             topLevelMap.put("inspectit", inspectit);
             Collection<Object> mockData = Collections.singletonList(topLevelMap);
-            when(configurationFilesCache.getParsedContents()).thenReturn(mockData);
+            when(configurationFilesCache.getKeyTrie()).thenReturn(trie(mockData));
 
             List<?> output = configurationQueryHelper.getKeysForPath(propertyPath);
 
@@ -194,7 +203,7 @@ public class ConfigurationQueryHelperTest {
             inspectit.put("exampleList", list);
             topLevelMap.put("inspectit", inspectit);
             Collection<Object> mockData = Collections.singletonList(topLevelMap);
-            when(configurationFilesCache.getParsedContents()).thenReturn(mockData);
+            when(configurationFilesCache.getKeyTrie()).thenReturn(trie(mockData));
 
             List<?> output = configurationQueryHelper.getKeysForPath(propertyPath);
 
@@ -8,6 +8,7 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
+import org.yaml.snakeyaml.error.YAMLException;
 import rocks.inspectit.ocelot.config.model.InspectitServerSettings;
 import rocks.inspectit.ocelot.file.FileInfo;
 import rocks.inspectit.ocelot.file.FileTestBase;
@@ -16,7 +17,9 @@ import rocks.inspectit.ocelot.file.versioning.VersioningManager;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -312,4 +315,84 @@ class RevisionAccessIntTest extends FileTestBase {
             assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> revision.configurationFileExists(".."));
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    class GetConfigurationFileIds {
+
+        @Test
+        public void listFileIds() {
+            Map<String, String> result = revision.getConfigurationFileIds();
+
+            assertThat(result).containsOnlyKeys("file_a.yml", "sub/file_z.yml");
+            assertThat(result.values()).allSatisfy(id -> assertThat(id).hasSize(40));
+        }
+
+        @Test
+        public void idsOfChangedFiles() {
+            Map<String, String> liveIds = revision.getConfigurationFileIds();
+            Map<String, String> workspaceIds = versioningManager.getWorkspaceRevision().getConfigurationFileIds();
+
+            assertThat(workspaceIds).containsOnlyKeys("file_a.yml", "file_b.yml");
+            assertThat(workspaceIds.get("file_a.yml")).isNotEqualTo(liveIds.get("file_a.yml"));
+        }
+    }
+
+    @Nested
+    class ParseConfigurationFile {
+
+        @Test
+        public void parseFile() throws GitAPIException {
+            createTestFiles("files/file_c.yml=key: value");
+            versioningManager.commitAllChanges("third");
+
+            Object result = versioningManager.getWorkspaceRevision().parseConfigurationFile("file_c.yml");
+
+            assertThat(result).isEqualTo(Collections.singletonMap("key", "value"));
+        }
+
+        @Test
+        public void parsedStructureIsUnmodifiable() throws GitAPIException {
+            createTestFiles("files/file_c.yml=key: value");
+            versioningManager.commitAllChanges("third");
+
+            Map<String, Object> result = (Map<String, Object>) versioningManager.getWorkspaceRevision()
+                    .parseConfigurationFile("file_c.yml");
+
+            assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() -> result.put("key", "other"));
+        }
+
+        @Test
+        public void unchangedFileIsSharedBetweenRevisions() throws GitAPIException {
+            createTestFiles("files/file_c.yml=key: value", "files/file_d.yml=key: first");
+            versioningManager.commitAllChanges("third");
+            RevisionAccess firstRevision = versioningManager.getWorkspaceRevision();
+            Object unchangedFirst = firstRevision.parseConfigurationFile("file_c.yml");
+            Object changedFirst = firstRevision.parseConfigurationFile("file_d.yml");
+
+            createTestFiles("files/file_d.yml=key: second");
+            versioningManager.commitAllChanges("fourth");
+            RevisionAccess secondRevision = versioningManager.getWorkspaceRevision();
+
+            assertThat(secondRevision.getRevisionId()).isNotEqualTo(firstRevision.getRevisionId());
+            assertThat(secondRevision.parseConfigurationFile("file_c.yml")).isSameAs(unchangedFirst);
+            assertThat(secondRevision.parseConfigurationFile("file_d.yml")).isNotEqualTo(changedFirst)
+                    .isEqualTo(Collections.singletonMap("key", "second"));
+        }
+
+        @Test
+        public void fileNotExisting() {
+            Object result = revision.parseConfigurationFile("not_existing.yml");
+
+            assertThat(result).isNull();
+        }
+
+        @Test
+        public void invalidFile() throws GitAPIException {
+            createTestFiles("files/file_c.yml=key:\tvalue");
+            versioningManager.commitAllChanges("third");
+            RevisionAccess workspaceRevision = versioningManager.getWorkspaceRevision();
+
+            assertThatExceptionOfType(YAMLException.class).isThrownBy(() -> workspaceRevision.parseConfigurationFile("file_c.yml"));
+        }
+    }
+}
@@ -1,32 +1,58 @@
 package rocks.inspectit.ocelot.file.accessor.workingdirectory;
 
-import com.google.common.cache.LoadingCache;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import rocks.inspectit.ocelot.file.FileInfo;
+import rocks.inspectit.ocelot.file.FileTestBase;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class CachingWorkingDirectoryAccessorTest {
 
-    @InjectMocks
     CachingWorkingDirectoryAccessor directoryCache;
 
     @Mock
     AutoCommitWorkingDirectoryProxy autoCommitWorkingDirectoryProxy;
 
+    @BeforeEach
+    void init() {
+        directoryCache = new CachingWorkingDirectoryAccessor(autoCommitWorkingDirectoryProxy);
+    }
+
+    private void initialFiles(FileInfo... files) {
+        doReturn(Arrays.asList(files)).when(autoCommitWorkingDirectoryProxy).listConfigurationFiles("");
+        directoryCache.listConfigurationFiles("");
+    }
+
+    private static FileInfo file(String name) {
+        return FileInfo.builder().name(name).type(FileInfo.Type.FILE).build();
+    }
+
+    private static FileInfo directory(String name, FileInfo... children) {
+        return FileInfo.builder().name(name).type(FileInfo.Type.DIRECTORY).children(Arrays.asList(children)).build();
+    }
+
     @Nested
     class ListConfigurationFiles {
 
@@ -37,34 +63,43 @@ public class CachingWorkingDirectoryAccessorTest {
             List<FileInfo> result = directoryCache.listConfigurationFiles("");
 
             assertThat(result).isEmpty();
-            assertThat(directoryCache.workspaceCache.asMap().size()).isEqualTo(1);
             verify(autoCommitWorkingDirectoryProxy).listConfigurationFiles("");
             verifyNoMoreInteractions(autoCommitWorkingDirectoryProxy);
         }
 
         @Test
         void resultAlreadyCached() {
-            doReturn(Collections.emptyList()).when(autoCommitWorkingDirectoryProxy).listConfigurationFiles(any());
+            initialFiles(directory("dir", file("a.yml")));
 
-            //first call for caching
-            directoryCache.listConfigurationFiles("");
             List<FileInfo> result = directoryCache.listConfigurationFiles("");
+            List<FileInfo> subResult = directoryCache.listConfigurationFiles("dir");
 
-            assertThat(result).isEmpty();
-            assertThat(directoryCache.workspaceCache.asMap().size()).isEqualTo(1);
+            assertThat(result).containsExactly(directory("dir", file("a.yml")));
+            assertThat(subResult).containsExactly(file("a.yml"));
             verify(autoCommitWorkingDirectoryProxy).listConfigurationFiles("");
             verifyNoMoreInteractions(autoCommitWorkingDirectoryProxy);
         }
 
         @Test
-        void catchesException() throws ExecutionException {
-            LoadingCache<String, List<FileInfo>> mockCache = mock(LoadingCache.class);
-            when(mockCache.get(any())).thenThrow(ExecutionException.class);
-            directoryCache.workspaceCache = mockCache;
+        void listFileOrMissingDirectory() {
+            initialFiles(file("a.yml"));
 
-            List<FileInfo> result = directoryCache.listConfigurationFiles("");
+            assertThat(directoryCache.listConfigurationFiles("a.yml")).isEmpty();
+            assertThat(directoryCache.listConfigurationFiles("missing")).isEmpty();
+        }
 
-            assertThat(result).isEmpty();
+        @Test
+        void resultIsNotShared() {
+            initialFiles(directory("dir", file("a.yml")));
+
+            directoryCache.listConfigurationFiles("").get(0).getChildren().clear();
+
+            assertThat(directoryCache.listConfigurationFiles("dir")).containsExactly(file("a.yml"));
+        }
+
+        @Test
+        void invalidPath() {
+            assertThatThrownBy(() -> directoryCache.listConfigurationFiles("../secret")).isInstanceOf(IllegalArgumentException.class);
         }
     }
 
@@ -72,32 +107,56 @@ public class CachingWorkingDirectoryAccessorTest {
     class WriteAgentMappings {
 
         @Test
-        void invalidates() throws IOException {
-            doNothing().when(autoCommitWorkingDirectoryProxy).writeAgentMappings(any());
-            LoadingCache<String, List<FileInfo>> mockCache = mock(LoadingCache.class);
-            directoryCache.workspaceCache = mockCache;
+        void doesNotReload() throws IOException {
+            initialFiles(file("a.yml"));
 
             directoryCache.writeAgentMappings("");
+            List<FileInfo> result = directoryCache.listConfigurationFiles("");
 
-            verify(mockCache).invalidateAll();
-            verifyNoMoreInteractions(mockCache);
+            assertThat(result).containsExactly(file("a.yml"));
+            verify(autoCommitWorkingDirectoryProxy).writeAgentMappings("");
+            verify(autoCommitWorkingDirectoryProxy).listConfigurationFiles("");
+            verifyNoMoreInteractions(autoCommitWorkingDirectoryProxy);
         }
     }
 
-
     @Nested
     class WriteConfigurationFile {
 
         @Test
-        void invalidates() throws IOException {
-            doNothing().when(autoCommitWorkingDirectoryProxy).writeConfigurationFile(any(), any());
-            LoadingCache<String, List<FileInfo>> mockCache = mock(LoadingCache.class);
-            directoryCache.workspaceCache = mockCache;
+        void addsFile() throws IOException {
+            initialFiles(file("a.yml"));
 
-            directoryCache.writeConfigurationFile("","");
+            directoryCache.writeConfigurationFile("dir/b.yml", "key: value");
+            List<FileInfo> result = directoryCache.listConfigurationFiles("");
 
-            verify(mockCache).invalidateAll();
-            verifyNoMoreInteractions(mockCache);
+            assertThat(result).containsExactly(file("a.yml"), directory("dir", file("b.yml")));
+            verify(autoCommitWorkingDirectoryProxy).writeConfigurationFile("dir/b.yml", "key: value");
+            verify(autoCommitWorkingDirectoryProxy).listConfigurationFiles("");
+            verifyNoMoreInteractions(autoCommitWorkingDirectoryProxy);
+        }
+
+        @Test
+        void updatesFileType() throws IOException {
+            initialFiles(file("a.yml"));
+
+            directoryCache.writeConfigurationFile("a.yml", "# {\"type\": \"method-configuration\"}\nkey: value");
+            List<FileInfo> result = directoryCache.listConfigurationFiles("");
+
+            assertThat(result).containsExactly(FileInfo.builder()
+                    .name("a.yml")
+                    .type(FileInfo.Type.UI_METHOD_CONFIGURATION)
+                    .build());
+        }
+
+        @Test
+        void notUpdatedOnFailure() throws IOException {
+            initialFiles(file("a.yml"));
+            doThrow(IOException.class).when(autoCommitWorkingDirectoryProxy).writeConfigurationFile(any(), any());
+
+            assertThatThrownBy(() -> directoryCache.writeConfigurationFile("b.yml", "")).isInstanceOf(IOException.class);
+
+            assertThat(directoryCache.listConfigurationFiles("")).containsExactly(file("a.yml"));
         }
     }
 
@@ -105,15 +164,14 @@ public class CachingWorkingDirectoryAccessorTest {
     class CreateConfigurationDirectory {
 
         @Test
-        void invalidates() throws IOException {
-            doNothing().when(autoCommitWorkingDirectoryProxy).createConfigurationDirectory(any());
-            LoadingCache<String, List<FileInfo>> mockCache = mock(LoadingCache.class);
-            directoryCache.workspaceCache = mockCache;
+        void addsDirectory() throws IOException {
+            initialFiles(file("a.yml"));
 
-            directoryCache.createConfigurationDirectory("");
+            directoryCache.createConfigurationDirectory("dir/sub");
+            List<FileInfo> result = directoryCache.listConfigurationFiles("");
 
-            verify(mockCache).invalidateAll();
-            verifyNoMoreInteractions(mockCache);
+            assertThat(result).containsExactly(file("a.yml"), directory("dir", directory("sub")));
+            verify(autoCommitWorkingDirectoryProxy).listConfigurationFiles("");
         }
     }
 
@@ -121,15 +179,24 @@ public class CachingWorkingDirectoryAccessorTest {
     class MoveConfiguration {
 
         @Test
-        void invalidates() throws IOException {
-            doNothing().when(autoCommitWorkingDirectoryProxy).moveConfiguration(any(), any());
-            LoadingCache<String, List<FileInfo>> mockCache = mock(LoadingCache.class);
-            directoryCache.workspaceCache = mockCache;
+        void movesDirectory() throws IOException {
+            initialFiles(directory("dir", file("a.yml")), file("b.yml"));
+
+            directoryCache.moveConfiguration("dir", "target/dir");
+            List<FileInfo> result = directoryCache.listConfigurationFiles("");
+
+            assertThat(result).containsExactly(file("b.yml"), directory("target", directory("dir", file("a.yml"))));
+            verify(autoCommitWorkingDirectoryProxy).listConfigurationFiles("");
+        }
+
+        @Test
+        void unknownSourceReloads() throws IOException {
+            initialFiles(file("a.yml"));
 
-            directoryCache.moveConfiguration("", "");
+            directoryCache.moveConfiguration("missing.yml", "b.yml");
+            directoryCache.listConfigurationFiles("");
 
-            verify(mockCache).invalidateAll();
-            verifyNoMoreInteractions(mockCache);
+            verify(autoCommitWorkingDirectoryProxy, times(2)).listConfigurationFiles("");
         }
     }
 
@@ -137,16 +204,95 @@ public class CachingWorkingDirectoryAccessorTest {
     class DeleteConfiguration {
 
         @Test
-        void invalidates() throws IOException {
-            doNothing().when(autoCommitWorkingDirectoryProxy).deleteConfiguration(any());
-            LoadingCache<String, List<FileInfo>> mockCache = mock(LoadingCache.class);
-            directoryCache.workspaceCache = mockCache;
+        void removesFile() throws IOException {
+            initialFiles(directory("dir", file("a.yml"), file("b.yml")));
+
+            directoryCache.deleteConfiguration("dir/a.yml");
+            List<FileInfo> result = directoryCache.listConfigurationFiles("dir");
 
-            directoryCache.deleteConfiguration("");
+            assertThat(result).containsExactly(file("b.yml"));
+            verify(autoCommitWorkingDirectoryProxy).listConfigurationFiles("");
+        }
+    }
+
+    @Nested
+    class InvalidateCache {
+
+        @Test
+        void reloads() {
+            initialFiles(file("a.yml"));
+
+            directoryCache.invalidateCache();
+            directoryCache.listConfigurationFiles("");
 
-            verify(mockCache).invalidateAll();
-            verifyNoMoreInteractions(mockCache);
+            verify(autoCommitWorkingDirectoryProxy, times(2)).listConfigurationFiles("");
         }
     }
 
+    @Nested
+    class ExternalModifications extends FileTestBase {
+
+        private static final int FILE_COUNT = 20000;
+
+        private WorkingDirectoryAccessor delegate;
+
+        private CachingWorkingDirectoryAccessor accessor;
+
+        private Path filesDirectory;
+
+        @BeforeEach
+        void beforeEach() throws IOException {
+            tempDirectory = Files.createTempDirectory("ocelot");
+            filesDirectory = tempDirectory.resolve("files");
+            for (int i = 0; i < FILE_COUNT; i++) {
+                createTestFiles("files/dir-" + (i % 100) + "/file-" + i + ".yml=key: " + i);
+            }
+
+            delegate = spy(new WorkingDirectoryAccessor(mock(Lock.class), mock(Lock.class), tempDirectory));
+            accessor = new CachingWorkingDirectoryAccessor(delegate, filesDirectory);
+            accessor.startWatching();
+        }
+
+        @AfterEach
+        void afterEach() throws IOException {
+            accessor.close();
+            FileUtils.deleteDirectory(tempDirectory.toFile());
+        }
+
+        private List<FileInfo> listDirectory(String directory) {
+            return accessor.listConfigurationFiles(directory);
+        }
+
+        @Test
+        void listsWithSingleWalk() throws IOException {
+            assertThat(listDirectory("")).hasSize(100);
+
+            for (int i = 0; i < 100; i++) {
+                accessor.writeConfigurationFile("dir-" + i + "/new.yml", "key: value");
+                assertThat(listDirectory("dir-" + i)).hasSize(FILE_COUNT / 100 + 1);
+            }
+            accessor.deleteConfiguration("dir-0");
+            accessor.moveConfiguration("dir-1", "moved/dir-1");
+
+            assertThat(listDirectory("")).hasSize(99);
+            assertThat(listDirectory("moved/dir-1")).hasSize(FILE_COUNT / 100 + 1);
+            verify(delegate).listConfigurationFiles("");
+        }
+
+        @Test
+        void detectsExternalModifications() throws IOException {
+            assertThat(listDirectory("dir-0")).hasSize(FILE_COUNT / 100);
+
+            Files.write(filesDirectory.resolve("dir-0/external.yml"), "key: value".getBytes(StandardCharsets.UTF_8));
+            Files.delete(filesDirectory.resolve("dir-1/file-1.yml"));
+            Files.createDirectories(filesDirectory.resolve("external/sub"));
+            Files.write(filesDirectory.resolve("external/sub/file.yml"), "key: value".getBytes(StandardCharsets.UTF_8));
+
+            await().atMost(30, TimeUnit.SECONDS).untilAsserted(() -> {
+                assertThat(listDirectory("dir-0")).contains(file("external.yml"));
+                assertThat(listDirectory("dir-1")).doesNotContain(file("file-1.yml"));
+                assertThat(listDirectory("external")).containsExactly(directory("sub", file("file.yml")));
+            });
+        }
+    }
 }
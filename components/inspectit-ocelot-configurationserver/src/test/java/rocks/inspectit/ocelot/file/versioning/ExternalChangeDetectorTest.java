@@ -1,5 +1,7 @@
 package rocks.inspectit.ocelot.file.versioning;
 
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -8,11 +10,21 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
+import rocks.inspectit.ocelot.config.model.ExternalChangeDetectionSettings;
+import rocks.inspectit.ocelot.config.model.InspectitServerSettings;
 import rocks.inspectit.ocelot.events.ConfigurationPromotionEvent;
 import rocks.inspectit.ocelot.events.WorkspaceChangedEvent;
 import rocks.inspectit.ocelot.file.FileManager;
 import rocks.inspectit.ocelot.file.accessor.git.RevisionAccess;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import static org.assertj.core.api.Java6Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
@@ -40,13 +52,34 @@ public class ExternalChangeDetectorTest {
         when(liveRevision.getRevisionId()).thenReturn("initialLive");
         when(workspaceRevision.getRevisionId()).thenReturn("initialWork");
 
-        detector = new ExternalChangeDetector(fileManager, publisher);
+    }
+
+    @AfterEach
+    void shutdown() throws IOException {
+        detector.shutdown();
+    }
+
+    private void startDetector(InspectitServerSettings settings) {
+        detector = new ExternalChangeDetector(fileManager, publisher, settings);
         detector.init();
     }
 
+    private InspectitServerSettings pollingOnly(Duration pollInterval) {
+        ExternalChangeDetectionSettings detectionSettings = ExternalChangeDetectionSettings.builder()
+                .watchRefs(false)
+                .pollInterval(pollInterval)
+                .build();
+        return InspectitServerSettings.builder().externalChangeDetection(detectionSettings).build();
+    }
+
     @Nested
     class CheckForUpdates {
 
+        @BeforeEach
+        void beforeEach() {
+            startDetector(pollingOnly(Duration.ofHours(1)));
+        }
+
         @Test
         public void noChange() {
             detector.checkForUpdates();
@@ -98,4 +131,115 @@ public class ExternalChangeDetectorTest {
         }
 
     }
+
+    @Nested
+    class Polling {
+
+        @Test
+        public void externalChangeDetectedByPoll() {
+            when(workspaceRevision.getRevisionId()).thenReturn("initialWork", "newWorkspace");
+
+            startDetector(pollingOnly(Duration.ofMillis(50)));
+
+            verify(publisher, timeout(5000)).publishEvent(any(WorkspaceChangedEvent.class));
+        }
+    }
+
+    @Nested
+    class ScheduleCheck {
+
+        @Test
+        public void changeDuringRunningCheckChecked() throws InterruptedException {
+            startDetector(pollingOnly(Duration.ofHours(1)));
+            CountDownLatch checkStarted = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            when(fileManager.getLiveRevision()).thenAnswer(invocation -> {
+                checkStarted.countDown();
+                release.await();
+                return liveRevision;
+            });
+
+            detector.scheduleCheck();
+            assertThat(checkStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            // the ref changes while the check is running
+            detector.scheduleCheck();
+            release.countDown();
+
+            // one call during the initialization and two checks afterwards
+            verify(fileManager, timeout(5000).times(3)).getWorkspaceRevision();
+        }
+    }
+
+    @Nested
+    class RefWatching {
+
+        private Path workingDirectory;
+
+        private Path headsDirectory;
+
+        @BeforeEach
+        void beforeEach() throws IOException {
+            workingDirectory = Files.createTempDirectory("ocelot");
+            headsDirectory = workingDirectory.resolve(".git/refs/heads");
+            Files.createDirectories(headsDirectory);
+
+            ExternalChangeDetectionSettings detectionSettings = ExternalChangeDetectionSettings.builder()
+                    .debounceDelay(Duration.ofSeconds(1))
+                    .pollInterval(Duration.ofHours(1))
+                    .build();
+            startDetector(InspectitServerSettings.builder()
+                    .workingDirectory(workingDirectory.toString())
+                    .externalChangeDetection(detectionSettings)
+                    .build());
+        }
+
+        @AfterEach
+        void afterEach() throws IOException {
+            FileUtils.deleteDirectory(workingDirectory.toFile());
+        }
+
+        private void write(Path file) throws IOException {
+            Files.write(file, "0000000000000000000000000000000000000000".getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Test
+        public void branchRefChanged() throws IOException {
+            when(workspaceRevision.getRevisionId()).thenReturn("newWorkspace");
+
+            write(headsDirectory.resolve("workspace"));
+
+            ArgumentCaptor<WorkspaceChangedEvent> eventCaptor = ArgumentCaptor.forClass(WorkspaceChangedEvent.class);
+            verify(publisher, timeout(5000)).publishEvent(eventCaptor.capture());
+            assertThat(eventCaptor.getValue().getWorkspaceRevision()).isSameAs(workspaceRevision);
+        }
+
+        @Test
+        public void packedRefsChanged() throws IOException {
+            when(liveRevision.getRevisionId()).thenReturn("newLive");
+
+            write(workingDirectory.resolve(".git/packed-refs"));
+
+            verify(publisher, timeout(5000)).publishEvent(any(ConfigurationPromotionEvent.class));
+        }
+
+        @Test
+        public void changesAreDebounced() throws IOException {
+            for (int i = 0; i < 5; i++) {
+                write(headsDirectory.resolve("workspace"));
+                write(headsDirectory.resolve("live"));
+            }
+
+            // one call during the initialization and a single check afterwards
+            verify(fileManager, timeout(5000).times(2)).getWorkspaceRevision();
+            verify(fileManager, after(1500).times(2)).getWorkspaceRevision();
+        }
+
+        @Test
+        public void irrelevantFileChanged() throws IOException {
+            write(workingDirectory.resolve(".git/index"));
+
+            verify(fileManager, after(2000).times(1)).getWorkspaceRevision();
+            verifyNoMoreInteractions(publisher);
+        }
+    }
 }
@@ -0,0 +1,177 @@
+package rocks.inspectit.ocelot.file.versioning;
+
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.internal.storage.dfs.DfsRepositoryDescription;
+import org.eclipse.jgit.internal.storage.dfs.InMemoryRepository;
+import org.eclipse.jgit.lib.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import rocks.inspectit.ocelot.file.accessor.AbstractFileAccessor;
+import rocks.inspectit.ocelot.file.versioning.model.SimpleDiffEntry;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Generates a repository with a long workspace history and measures the time required for determining the modifying
+ * authors of all files of the workspace diff.
+ * <p>
+ * The number of generated commits can be changed via the system property {@code inspectit.loadtest.commits}.
+ * The test is not part of the regular test run, it is executed via the {@code loadTest} task.
+ */
+@Slf4j
+@Tag("load")
+public class ModifyingAuthorsResolverLoadTest {
+
+    private static final int COMMIT_COUNT = Integer.getInteger("inspectit.loadtest.commits", 5000);
+
+    private static final int DIRECTORY_COUNT = 20;
+
+    private static final int MODIFIED_FILES = 400;
+
+    private static final int ADDED_FILES = 50;
+
+    private static final int DELETED_FILES = 50;
+
+    private static final int AUTHOR_COUNT = 7;
+
+    private InMemoryRepository repository;
+
+    private ObjectInserter inserter;
+
+    /**
+     * The blob ids of the files of the current commit by directory and file name.
+     */
+    private Map<String, Map<String, ObjectId>> files;
+
+    /**
+     * The tree ids of the directories of the current commit.
+     */
+    private Map<String, ObjectId> directoryTrees;
+
+    private long time;
+
+    @BeforeEach
+    void init() {
+        repository = new InMemoryRepository(new DfsRepositoryDescription("load-test"));
+        inserter = repository.newObjectInserter();
+        files = new TreeMap<>();
+        directoryTrees = new TreeMap<>();
+        time = 1_600_000_000_000L;
+    }
+
+    @AfterEach
+    void close() {
+        inserter.close();
+        repository.close();
+    }
+
+    private static String fileName(int index) {
+        return "file-" + index + ".yml";
+    }
+
+    private static String directory(int index) {
+        return "dir-" + (index % DIRECTORY_COUNT);
+    }
+
+    private static String diffFile(int index) {
+        return "/" + directory(index) + "/" + fileName(index);
+    }
+
+    private void putFile(int index, String content) throws IOException {
+        ObjectId blobId = inserter.insert(Constants.OBJ_BLOB, content.getBytes(StandardCharsets.UTF_8));
+        files.computeIfAbsent(directory(index), directory -> new TreeMap<>()).put(fileName(index), blobId);
+        directoryTrees.remove(directory(index));
+    }
+
+    private void removeFile(int index) {
+        files.get(directory(index)).remove(fileName(index));
+        directoryTrees.remove(directory(index));
+    }
+
+    /**
+     * Commits the current files. Only the trees of changed directories are written again.
+     */
+    private ObjectId commit(String author, ObjectId parent) throws IOException {
+        TreeFormatter filesTree = new TreeFormatter();
+        for (Map.Entry<String, Map<String, ObjectId>> directory : files.entrySet()) {
+            ObjectId directoryTree = directoryTrees.get(directory.getKey());
+            if (directoryTree == null) {
+                TreeFormatter formatter = new TreeFormatter();
+                directory.getValue().forEach((name, blobId) -> formatter.append(name, FileMode.REGULAR_FILE, blobId));
+                directoryTree = inserter.insert(formatter);
+                directoryTrees.put(directory.getKey(), directoryTree);
+            }
+            filesTree.append(directory.getKey(), FileMode.TREE, directoryTree);
+        }
+        TreeFormatter rootTree = new TreeFormatter();
+        rootTree.append(AbstractFileAccessor.CONFIGURATION_FILES_SUBFOLDER, FileMode.TREE, inserter.insert(filesTree));
+
+        PersonIdent person = new PersonIdent(author, author + "@example.com", time++, 0);
+        CommitBuilder commit = new CommitBuilder();
+        commit.setTreeId(inserter.insert(rootTree));
+        if (parent != null) {
+            commit.setParentId(parent);
+        }
+        commit.setAuthor(person);
+        commit.setCommitter(person);
+        commit.setMessage("commit");
+        return inserter.insert(commit);
+    }
+
+    @Test
+    void resolveLongHistory() throws IOException {
+        Map<String, Set<String>> expectedAuthors = new HashMap<>();
+        List<SimpleDiffEntry> entries = new ArrayList<>();
+
+        // the base commit contains the modified and the deleted files
+        for (int i = 0; i < MODIFIED_FILES; i++) {
+            putFile(i, "initial-" + i);
+            entries.add(SimpleDiffEntry.builder().file(diffFile(i)).type(DiffEntry.ChangeType.MODIFY).build());
+        }
+        for (int i = MODIFIED_FILES + ADDED_FILES; i < MODIFIED_FILES + ADDED_FILES + DELETED_FILES; i++) {
+            putFile(i, "initial-" + i);
+            entries.add(SimpleDiffEntry.builder().file(diffFile(i)).type(DiffEntry.ChangeType.DELETE).build());
+        }
+        ObjectId baseCommit = commit("initial_user", null);
+
+        ObjectId newCommit = baseCommit;
+        for (int commit = 0; commit < COMMIT_COUNT; commit++) {
+            String author = "user_" + (commit % AUTHOR_COUNT);
+            int fileIndex;
+            if (commit < ADDED_FILES) {
+                fileIndex = MODIFIED_FILES + commit;
+                putFile(fileIndex, "added-" + commit);
+                entries.add(SimpleDiffEntry.builder().file(diffFile(fileIndex)).type(DiffEntry.ChangeType.ADD).build());
+            } else if (commit < ADDED_FILES + DELETED_FILES) {
+                fileIndex = MODIFIED_FILES + commit;
+                removeFile(fileIndex);
+                // only the most recent deletion is relevant
+                expectedAuthors.remove(diffFile(fileIndex));
+            } else {
+                fileIndex = commit % MODIFIED_FILES;
+                putFile(fileIndex, "modified-" + commit);
+            }
+            expectedAuthors.computeIfAbsent(diffFile(fileIndex), file -> new HashSet<>()).add(author);
+            newCommit = commit(author, newCommit);
+        }
+        inserter.flush();
+
+        ModifyingAuthorsResolver resolver = new ModifyingAuthorsResolver(repository);
+
+        long start = System.nanoTime();
+        Map<String, List<String>> authors = resolver.resolve(entries, baseCommit, newCommit);
+        log.info("Resolving the authors of {} files in a history of {} commits took {}ms", entries.size(), COMMIT_COUNT, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        assertThat(authors).hasSize(MODIFIED_FILES + ADDED_FILES + DELETED_FILES);
+        expectedAuthors.forEach((file, expected) -> assertThat(authors.get(file)).describedAs(file)
+                .containsExactlyInAnyOrderElementsOf(expected));
+    }
+}
@@ -0,0 +1,161 @@
+package rocks.inspectit.ocelot.rest.agent;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.util.ReflectionTestUtils;
+import rocks.inspectit.ocelot.IntegrationTestBase;
+import rocks.inspectit.ocelot.agentcommunication.AgentCommandManager;
+import rocks.inspectit.ocelot.commons.models.command.impl.PingCommand;
+import rocks.inspectit.ocelot.config.model.AgentCommandSettings;
+import rocks.inspectit.ocelot.config.model.InspectitServerSettings;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Simulates a large number of local agents which are long-polling for commands at the same time.
+ * Verifies that the waiting agents do not occupy request threads of the server and measures the latency between
+ * adding a command and the agent receiving it.
+ * <p>
+ * The number of simulated agents can be increased via the system property {@code inspectit.loadtest.agents}.
+ * The test is not part of the regular test run, it is executed via the {@code loadTest} task.
+ */
+@Slf4j
+@Tag("load")
+public class AgentCommandLongPollingLoadTest extends IntegrationTestBase {
+
+    private static final int AGENT_COUNT = Integer.getInteger("inspectit.loadtest.agents", 300);
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    InspectitServerSettings serverSettings;
+
+    @Autowired
+    AgentCommandManager commandManager;
+
+    private ExecutorService agents;
+
+    @BeforeEach
+    void setupAgents() {
+        serverSettings.setAgentCommand(AgentCommandSettings.builder().agentPollingTimeout(Duration.ofSeconds(60)).build());
+        agents = Executors.newFixedThreadPool(AGENT_COUNT);
+    }
+
+    @AfterEach
+    void shutdownAgents() {
+        agents.shutdownNow();
+        serverSettings.setAgentCommand(AgentCommandSettings.builder().build());
+    }
+
+    /**
+     * Performs a command request like an agent does.
+     *
+     * @return the HTTP status code of the response
+     */
+    private int fetchCommand(String agentId, boolean waitForCommand) throws IOException {
+        URL url = new URL("http://localhost:" + port + "/api/v1/agent/command" + (waitForCommand ? "?wait-for-command=true" : ""));
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            connection.setRequestMethod("POST");
+            connection.setRequestProperty("x-ocelot-agent-id", agentId);
+            connection.setReadTimeout(120000);
+            int status = connection.getResponseCode();
+            if (status == HttpURLConnection.HTTP_OK) {
+                try (InputStream body = connection.getInputStream()) {
+                    while (body.read() != -1) {
+                        // consume the command
+                    }
+                }
+            }
+            return status;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * @return the number of request threads of the server which are currently executing code of the configuration server
+     */
+    private long countBusyRequestThreads() {
+        return Thread.getAllStackTraces()
+                .entrySet()
+                .stream()
+                .filter(thread -> thread.getKey().getName().startsWith("http-nio-"))
+                .filter(thread -> Arrays.stream(thread.getValue())
+                        .anyMatch(frame -> frame.getClassName().startsWith("rocks.inspectit.ocelot.")))
+                .count();
+    }
+
+    @Test
+    void idleAgentsDoNotOccupyRequestThreads() throws Exception {
+        List<Future<Long>> receiveTimes = new ArrayList<>();
+        for (int i = 0; i < AGENT_COUNT; i++) {
+            String agentId = "agent-" + i;
+            receiveTimes.add(agents.submit(() -> {
+                int status = fetchCommand(agentId, true);
+                assertThat(status).isEqualTo(HttpURLConnection.HTTP_OK);
+                return System.nanoTime();
+            }));
+        }
+
+        await().atMost(30, TimeUnit.SECONDS).untilAsserted(() -> assertThat(getWaitingAgentCount()).isEqualTo(AGENT_COUNT));
+        await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> assertThat(countBusyRequestThreads()).isZero());
+
+        long start = System.nanoTime();
+        int status = fetchCommand("non-waiting-agent", false);
+        long nonWaitingLatency = System.nanoTime() - start;
+        log.info("{} agents are waiting for commands, the server has {} threads in total, a non-waiting request took {}ms", AGENT_COUNT, Thread.activeCount(), TimeUnit.NANOSECONDS.toMillis(nonWaitingLatency));
+        assertThat(status).isEqualTo(HttpURLConnection.HTTP_NO_CONTENT);
+
+        long[] sendTimes = new long[AGENT_COUNT];
+        for (int i = 0; i < AGENT_COUNT; i++) {
+            sendTimes[i] = System.nanoTime();
+            commandManager.addCommand("agent-" + i, new PingCommand());
+        }
+
+        List<Long> latenciesMillis = new ArrayList<>();
+        for (int i = 0; i < AGENT_COUNT; i++) {
+            long receiveTime = receiveTimes.get(i).get(30, TimeUnit.SECONDS);
+            latenciesMillis.add(TimeUnit.NANOSECONDS.toMillis(receiveTime - sendTimes[i]));
+        }
+        Collections.sort(latenciesMillis);
+        log.info("Command delivery latency for {} agents: p50={}ms, p99={}ms, max={}ms", AGENT_COUNT, latenciesMillis.get(AGENT_COUNT / 2), latenciesMillis.get(AGENT_COUNT * 99 / 100), latenciesMillis.get(AGENT_COUNT - 1));
+        assertThat(getWaitingAgentCount()).isZero();
+    }
+
+    @Test
+    void pollingTimeoutCompletesWithoutCommand() throws Exception {
+        serverSettings.getAgentCommand().setAgentPollingTimeout(Duration.ofSeconds(1));
+
+        long start = System.nanoTime();
+        int status = fetchCommand("timeout-agent", true);
+        long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(status).isEqualTo(HttpURLConnection.HTTP_NO_CONTENT);
+        assertThat(duration).isBetween(900L, 10000L);
+        await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> assertThat(getWaitingAgentCount()).isZero());
+    }
+
+    private int getWaitingAgentCount() {
+        Object commandQueues = ReflectionTestUtils.getField(commandManager, "commandQueues");
+        return (int) ReflectionTestUtils.invokeMethod(commandQueues, "getWaitingAgentCount");
+    }
+}
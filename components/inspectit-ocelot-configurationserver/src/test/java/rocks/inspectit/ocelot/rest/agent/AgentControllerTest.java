@@ -8,6 +8,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
 import rocks.inspectit.ocelot.agentcommunication.AgentCallbackManager;
 import rocks.inspectit.ocelot.agentcommunication.AgentCommandManager;
 import rocks.inspectit.ocelot.agentconfiguration.AgentConfiguration;
@@ -95,12 +96,14 @@ public class AgentControllerTest {
             String agentTestId = "test-id";
             headers.put("x-ocelot-agent-id", agentTestId);
             Command expectedCommand = null;
-            doReturn(expectedCommand).when(agentCommandManager).getCommand(agentTestId, false);
+            doReturn(expectedCommand).when(agentCommandManager).getCommand(agentTestId);
 
-            ResponseEntity<Command> result = controller.fetchCommand(headers, false, null);
+            DeferredResult<ResponseEntity<Command>> result = controller.fetchCommand(headers, false, null);
 
-            assertThat(result.getBody()).isEqualTo(expectedCommand);
-            verify(agentCommandManager).getCommand(agentTestId, false);
+            assertThat(result.hasResult()).isTrue();
+            assertThat(((ResponseEntity<?>) result.getResult()).getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+            assertThat(((ResponseEntity<?>) result.getResult()).getBody()).isEqualTo(expectedCommand);
+            verify(agentCommandManager).getCommand(agentTestId);
         }
 
         @Test
@@ -110,17 +113,41 @@ public class AgentControllerTest {
             headers.put("x-ocelot-agent-id", agentTestId);
             Command expectedCommand = new PingCommand();
             UUID mockID = expectedCommand.getCommandId();
-            doReturn(expectedCommand).when(agentCommandManager).getCommand(agentTestId, false);
+            doReturn(expectedCommand).when(agentCommandManager).getCommand(agentTestId);
             CommandResponse mockResponse = mock(CommandResponse.class);
 
             doReturn(mockID).when(mockResponse).getCommandId();
             doNothing().when(agentCallbackManager).handleCommandResponse(expectedCommand.getCommandId(), mockResponse);
 
-            ResponseEntity<Command> result = controller.fetchCommand(headers, false, mockResponse);
+            DeferredResult<ResponseEntity<Command>> result = controller.fetchCommand(headers, false, mockResponse);
 
-            assertThat(result.getBody()).isEqualTo(expectedCommand);
-            verify(agentCommandManager).getCommand(agentTestId, false);
+            assertThat(result.hasResult()).isTrue();
+            assertThat(((ResponseEntity<?>) result.getResult()).getBody()).isEqualTo(expectedCommand);
+            verify(agentCommandManager).getCommand(agentTestId);
             verify(agentCallbackManager).handleCommandResponse(mockID, mockResponse);
         }
+
+        @Test
+        public void agentWaitingForCommand() {
+            HashMap<String, String> headers = new HashMap<>();
+            String agentTestId = "test-id";
+            headers.put("x-ocelot-agent-id", agentTestId);
+            DeferredResult<ResponseEntity<Command>> pendingResult = new DeferredResult<>();
+            doReturn(pendingResult).when(agentCommandManager).awaitCommand(agentTestId);
+
+            DeferredResult<ResponseEntity<Command>> result = controller.fetchCommand(headers, true, null);
+
+            assertThat(result).isSameAs(pendingResult);
+            verify(agentCommandManager).awaitCommand(agentTestId);
+            verifyNoMoreInteractions(agentCommandManager);
+        }
+
+        @Test
+        public void missingAgentId() {
+            DeferredResult<ResponseEntity<Command>> result = controller.fetchCommand(new HashMap<>(), true, null);
+
+            assertThat(((ResponseEntity<?>) result.getResult()).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+            verifyNoInteractions(agentCommandManager);
+        }
     }
 }
@@ -0,0 +1,154 @@
+package rocks.inspectit.ocelot.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import rocks.inspectit.ocelot.events.WorkspaceChangedEvent;
+import rocks.inspectit.ocelot.file.FileManager;
+import rocks.inspectit.ocelot.file.accessor.git.RevisionAccess;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Simulates a workspace containing a large number of YAML configuration files and measures the time required for
+ * building the search index, searching it and updating it after a few files changed. For comparison, the time of
+ * naively scanning all files is logged as well.
+ * <p>
+ * The number of simulated files can be changed via the system property {@code inspectit.loadtest.files}.
+ * The test is not part of the regular test run, it is executed via the {@code loadTest} task.
+ */
+@Slf4j
+@Tag("load")
+public class FileContentSearchEngineLoadTest {
+
+    private static final int FILE_COUNT = Integer.getInteger("inspectit.loadtest.files", 10000);
+
+    private static final int CHANGED_FILES = 10;
+
+    private static final int SEARCH_ROUNDS = 20;
+
+    private FileContentSearchEngine searchEngine;
+
+    private FileManager fileManager;
+
+    private Map<String, String> contents;
+
+    private Map<String, String> fileIds;
+
+    @BeforeEach
+    void init() {
+        searchEngine = new FileContentSearchEngine();
+        fileManager = mock(FileManager.class);
+        ReflectionTestUtils.setField(searchEngine, "fileManager", fileManager);
+
+        contents = new LinkedHashMap<>();
+        fileIds = new LinkedHashMap<>();
+        for (int i = 0; i < FILE_COUNT; i++) {
+            String path = "services/service-" + (i % 100) + "/config-" + i + ".yml";
+            contents.put(path, createYaml(i));
+            fileIds.put(path, "blob-" + i);
+        }
+    }
+
+    private static String createYaml(int index) {
+        return "inspectit:\n" +
+                "  service-name: service-" + (index % 100) + "\n" +
+                "  instrumentation:\n" +
+                "    scopes:\n" +
+                "      's_scope_" + index + "':\n" +
+                "        type:\n" +
+                "          name: com.example.service.Controller" + index + "\n" +
+                "          matcher-mode: STARTS_WITH\n" +
+                "    rules:\n" +
+                "      'r_rule_" + index + "':\n" +
+                "        scopes:\n" +
+                "          's_scope_" + index + "': true\n" +
+                "        metrics:\n" +
+                "          '[method/duration]':\n" +
+                "            value: 'duration'\n" +
+                "  metrics:\n" +
+                "    frequency: " + (index % 60 + 1) + "s\n";
+    }
+
+    private RevisionAccess mockRevision(String revisionId) {
+        RevisionAccess revision = mock(RevisionAccess.class);
+        when(revision.getRevisionId()).thenReturn(revisionId);
+        when(revision.getConfigurationFileIds()).thenReturn(new LinkedHashMap<>(fileIds));
+        when(revision.readConfigurationFile(anyString())).thenAnswer(invocation -> Optional.ofNullable(contents.get(invocation.<String>getArgument(0))));
+        return revision;
+    }
+
+    @Test
+    void searchLargeWorkspace() {
+        RevisionAccess firstRevision = mockRevision("rev1");
+        when(fileManager.getWorkspaceRevision()).thenReturn(firstRevision);
+
+        long start = System.nanoTime();
+        searchEngine.workspaceChanged(new WorkspaceChangedEvent(this, firstRevision));
+        log.info("Indexing {} files took {}ms", FILE_COUNT, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        measureSearch("Controller" + (FILE_COUNT - 1), 1);
+        measureSearch("service-42\n", FILE_COUNT / 100);
+        measureSearch("matcher-mode", FILE_COUNT);
+        measureSearch("does-not-exist", 0);
+
+        for (int i = 0; i < CHANGED_FILES; i++) {
+            String path = "services/service-" + i + "/config-" + i + ".yml";
+            contents.put(path, contents.get(path) + "  changed-" + i + ": true\n");
+            fileIds.put(path, "blob-changed-" + i);
+        }
+        RevisionAccess secondRevision = mockRevision("rev2");
+        when(fileManager.getWorkspaceRevision()).thenReturn(secondRevision);
+
+        start = System.nanoTime();
+        searchEngine.workspaceChanged(new WorkspaceChangedEvent(this, secondRevision));
+        log.info("Updating the index after {} files changed took {}ms", CHANGED_FILES, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        verify(secondRevision, times(CHANGED_FILES)).readConfigurationFile(anyString());
+        assertThat(searchEngine.search("changed-", Integer.MAX_VALUE, false)).hasSize(CHANGED_FILES);
+    }
+
+    private void measureSearch(String query, int expectedMatches) {
+        List<SearchResult> results = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < SEARCH_ROUNDS; i++) {
+            results = searchEngine.search(query, Integer.MAX_VALUE, true);
+        }
+        long indexDuration = (System.nanoTime() - start) / SEARCH_ROUNDS;
+
+        int naiveMatches = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < SEARCH_ROUNDS; i++) {
+            naiveMatches = scanAllFiles(query);
+        }
+        long scanDuration = (System.nanoTime() - start) / SEARCH_ROUNDS;
+
+        log.info("Searching '{}' took {}us using the index and {}us scanning all files ({} matches)", query.trim(), TimeUnit.NANOSECONDS.toMicros(indexDuration), TimeUnit.NANOSECONDS.toMicros(scanDuration), results.size());
+        assertThat(results).hasSize(expectedMatches);
+        assertThat(naiveMatches).isEqualTo(expectedMatches);
+    }
+
+    private int scanAllFiles(String query) {
+        Pattern pattern = Pattern.compile(Pattern.quote(query), Pattern.CASE_INSENSITIVE);
+        int matches = 0;
+        for (String content : contents.values()) {
+            Matcher matcher = pattern.matcher(content);
+            while (matcher.find()) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+}
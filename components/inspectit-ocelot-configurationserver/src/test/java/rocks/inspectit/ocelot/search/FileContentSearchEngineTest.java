@@ -6,13 +6,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import rocks.inspectit.ocelot.file.FileInfo;
+import rocks.inspectit.ocelot.events.WorkspaceChangedEvent;
 import rocks.inspectit.ocelot.file.FileManager;
 import rocks.inspectit.ocelot.file.accessor.git.RevisionAccess;
 
-import java.util.Arrays;
-import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.tuple;
@@ -27,6 +28,14 @@ public class FileContentSearchEngineTest {
     @Mock
     FileManager fileManager;
 
+    private static Map<String, String> fileIds(String... pathsAndIds) {
+        Map<String, String> fileIds = new LinkedHashMap<>();
+        for (int i = 0; i < pathsAndIds.length; i += 2) {
+            fileIds.put(pathsAndIds[i], pathsAndIds[i + 1]);
+        }
+        return fileIds;
+    }
+
     @Nested
     class SearchLines {
 
@@ -34,12 +43,9 @@ public class FileContentSearchEngineTest {
         void findSingleStringPerLine() {
             RevisionAccess mockAccess = mock(RevisionAccess.class);
             when(fileManager.getWorkspaceRevision()).thenReturn(mockAccess);
-            FileInfo fileInfo1 = FileInfo.builder().name("file_test1").type(FileInfo.Type.FILE).build();
-            FileInfo fileInfo2 = FileInfo.builder().name("file_test2").type(FileInfo.Type.FILE).build();
-            List<FileInfo> testFiles = Arrays.asList(fileInfo1, fileInfo2);
-            when(mockAccess.listConfigurationFiles("")).thenReturn(testFiles);
-            doReturn(java.util.Optional.of("i am the test1 content"), java.util.Optional.of("i am the test2 content")).when(mockAccess)
-                    .readConfigurationFile(any());
+            when(mockAccess.getConfigurationFileIds()).thenReturn(fileIds("file_test1", "1", "file_test2", "2"));
+            doReturn(Optional.of("i am the test1 content")).when(mockAccess).readConfigurationFile("file_test1");
+            doReturn(Optional.of("i am the test2 content")).when(mockAccess).readConfigurationFile("file_test2");
 
             List<SearchResult> output = searchEngine.search("test1", 100, false);
 
@@ -51,10 +57,8 @@ public class FileContentSearchEngineTest {
         void findMultipleStringsInLine() {
             RevisionAccess mockAccess = mock(RevisionAccess.class);
             when(fileManager.getWorkspaceRevision()).thenReturn(mockAccess);
-            FileInfo fileInfo = FileInfo.builder().name("file_test1").type(FileInfo.Type.FILE).build();
-            List<FileInfo> testFiles = Collections.singletonList(fileInfo);
-            when(mockAccess.listConfigurationFiles("")).thenReturn(testFiles);
-            when(mockAccess.readConfigurationFile(any())).thenReturn(java.util.Optional.of("test1test1test1"));
+            when(mockAccess.getConfigurationFileIds()).thenReturn(fileIds("file_test1", "1"));
+            when(mockAccess.readConfigurationFile(any())).thenReturn(Optional.of("test1test1test1"));
 
             List<SearchResult> output = searchEngine.search("test1", 100, false);
 
@@ -66,10 +70,8 @@ public class FileContentSearchEngineTest {
         void queryOverLine() {
             RevisionAccess mockAccess = mock(RevisionAccess.class);
             when(fileManager.getWorkspaceRevision()).thenReturn(mockAccess);
-            FileInfo fileInfo = FileInfo.builder().name("file_test1").type(FileInfo.Type.FILE).build();
-            List<FileInfo> testFiles = Collections.singletonList(fileInfo);
-            when(mockAccess.listConfigurationFiles("")).thenReturn(testFiles);
-            when(mockAccess.readConfigurationFile(any())).thenReturn(java.util.Optional.of("foo\nbar"));
+            when(mockAccess.getConfigurationFileIds()).thenReturn(fileIds("file_test1", "1"));
+            when(mockAccess.readConfigurationFile(any())).thenReturn(Optional.of("foo\nbar"));
 
             List<SearchResult> output = searchEngine.search("foo\nbar", 100, false);
 
@@ -81,10 +83,8 @@ public class FileContentSearchEngineTest {
         void withLimit() {
             RevisionAccess mockAccess = mock(RevisionAccess.class);
             when(fileManager.getWorkspaceRevision()).thenReturn(mockAccess);
-            FileInfo fileInfo = FileInfo.builder().name("file_test1").type(FileInfo.Type.FILE).build();
-            List<FileInfo> testFiles = Collections.singletonList(fileInfo);
-            when(mockAccess.listConfigurationFiles("")).thenReturn(testFiles);
-            when(mockAccess.readConfigurationFile(any())).thenReturn(java.util.Optional.of("testtesttest"));
+            when(mockAccess.getConfigurationFileIds()).thenReturn(fileIds("file_test1", "1"));
+            when(mockAccess.readConfigurationFile(any())).thenReturn(Optional.of("testtesttest"));
 
             List<SearchResult> output = searchEngine.search("test", 1, false);
 
@@ -96,10 +96,8 @@ public class FileContentSearchEngineTest {
         void stringNotPresent() {
             RevisionAccess mockAccess = mock(RevisionAccess.class);
             when(fileManager.getWorkspaceRevision()).thenReturn(mockAccess);
-            FileInfo fileInfo = FileInfo.builder().name("file_test1").type(FileInfo.Type.FILE).build();
-            List<FileInfo> testFiles = Collections.singletonList(fileInfo);
-            when(mockAccess.listConfigurationFiles("")).thenReturn(testFiles);
-            when(mockAccess.readConfigurationFile(any())).thenReturn(java.util.Optional.of("test1 \n abc \n test1"));
+            when(mockAccess.getConfigurationFileIds()).thenReturn(fileIds("file_test1", "1"));
+            when(mockAccess.readConfigurationFile(any())).thenReturn(Optional.of("test1 \n abc \n test1"));
 
             List<SearchResult> output = searchEngine.search("foo", 100, false);
 
@@ -110,10 +108,8 @@ public class FileContentSearchEngineTest {
         void matchingStringNotInFirstLine() {
             RevisionAccess mockAccess = mock(RevisionAccess.class);
             when(fileManager.getWorkspaceRevision()).thenReturn(mockAccess);
-            FileInfo fileInfo = FileInfo.builder().name("file_test1").type(FileInfo.Type.FILE).build();
-            List<FileInfo> testFiles = Collections.singletonList(fileInfo);
-            when(mockAccess.listConfigurationFiles("")).thenReturn(testFiles);
-            when(mockAccess.readConfigurationFile(any())).thenReturn(java.util.Optional.of("test2\ntest1\ntest2 next line\nand another one\nits here: test2"));
+            when(mockAccess.getConfigurationFileIds()).thenReturn(fileIds("file_test1", "1"));
+            when(mockAccess.readConfigurationFile(any())).thenReturn(Optional.of("test2\ntest1\ntest2 next line\nand another one\nits here: test2"));
 
             List<SearchResult> output = searchEngine.search("test2", 100, false);
 
@@ -132,10 +128,8 @@ public class FileContentSearchEngineTest {
         void retrieveFromFirstLine() {
             RevisionAccess mockAccess = mock(RevisionAccess.class);
             when(fileManager.getWorkspaceRevision()).thenReturn(mockAccess);
-            FileInfo fileInfo1 = FileInfo.builder().name("file_test1").type(FileInfo.Type.FILE).build();
-            List<FileInfo> testFiles = Collections.singletonList(fileInfo1);
-            when(mockAccess.listConfigurationFiles("")).thenReturn(testFiles);
-            doReturn(java.util.Optional.of("i am the test1 content")).when(mockAccess).readConfigurationFile(any());
+            when(mockAccess.getConfigurationFileIds()).thenReturn(fileIds("file_test1", "1"));
+            doReturn(Optional.of("i am the test1 content")).when(mockAccess).readConfigurationFile(any());
 
             List<SearchResult> output = searchEngine.search("test1", 100, true);
 
@@ -147,10 +141,8 @@ public class FileContentSearchEngineTest {
         void retrieveFromMiddleLine() {
             RevisionAccess mockAccess = mock(RevisionAccess.class);
             when(fileManager.getWorkspaceRevision()).thenReturn(mockAccess);
-            FileInfo fileInfo1 = FileInfo.builder().name("file_test1").type(FileInfo.Type.FILE).build();
-            List<FileInfo> testFiles = Collections.singletonList(fileInfo1);
-            when(mockAccess.listConfigurationFiles("")).thenReturn(testFiles);
-            doReturn(java.util.Optional.of("i \n am \n the test1 \n content")).when(mockAccess)
+            when(mockAccess.getConfigurationFileIds()).thenReturn(fileIds("file_test1", "1"));
+            doReturn(Optional.of("i \n am \n the test1 \n content")).when(mockAccess)
                     .readConfigurationFile(any());
 
             List<SearchResult> output = searchEngine.search("test1", 100, true);
@@ -159,4 +151,80 @@ public class FileContentSearchEngineTest {
                     .containsExactly(tuple("file_test1", " the test1 ", 2, 5, 2, 10));
         }
     }
+
+    @Nested
+    class IndexUpdates {
+
+        @Test
+        void shortQuery() {
+            RevisionAccess mockAccess = mock(RevisionAccess.class);
+            when(fileManager.getWorkspaceRevision()).thenReturn(mockAccess);
+            when(mockAccess.getConfigurationFileIds()).thenReturn(fileIds("file_test1", "1", "file_test2", "2"));
+            doReturn(Optional.of("a: 1")).when(mockAccess).readConfigurationFile("file_test1");
+            doReturn(Optional.of("b: 2")).when(mockAccess).readConfigurationFile("file_test2");
+
+            List<SearchResult> output = searchEngine.search("B", 100, false);
+
+            assertThat(output).extracting(SearchResult::getFile, SearchResult::getStartLine, SearchResult::getStartColumn, SearchResult::getEndLine, SearchResult::getEndColumn)
+                    .containsExactly(tuple("file_test2", 0, 0, 0, 1));
+        }
+
+        @Test
+        void caseInsensitiveMatchesInTreeOrder() {
+            RevisionAccess mockAccess = mock(RevisionAccess.class);
+            when(fileManager.getWorkspaceRevision()).thenReturn(mockAccess);
+            when(mockAccess.getConfigurationFileIds()).thenReturn(fileIds("b/file", "1", "a/file", "2"));
+            doReturn(Optional.of("Service: MY-SERVICE")).when(mockAccess).readConfigurationFile("b/file");
+            doReturn(Optional.of("service: my-service")).when(mockAccess).readConfigurationFile("a/file");
+
+            List<SearchResult> output = searchEngine.search("My-Service", 100, false);
+
+            assertThat(output).extracting(SearchResult::getFile).containsExactly("b/file", "a/file");
+        }
+
+        @Test
+        void onlyChangedFilesAreReadAgain() {
+            RevisionAccess firstRevision = mock(RevisionAccess.class);
+            when(firstRevision.getRevisionId()).thenReturn("rev1");
+            when(firstRevision.getConfigurationFileIds()).thenReturn(fileIds("file_test1", "1", "file_test2", "2"));
+            doReturn(Optional.of("old content")).when(firstRevision).readConfigurationFile("file_test1");
+            doReturn(Optional.of("unchanged content")).when(firstRevision).readConfigurationFile("file_test2");
+            RevisionAccess secondRevision = mock(RevisionAccess.class);
+            when(secondRevision.getRevisionId()).thenReturn("rev2");
+            when(secondRevision.getConfigurationFileIds()).thenReturn(fileIds("file_test1", "3", "file_test2", "2"));
+            doReturn(Optional.of("new content")).when(secondRevision).readConfigurationFile("file_test1");
+            when(fileManager.getWorkspaceRevision()).thenReturn(secondRevision);
+
+            searchEngine.workspaceChanged(new WorkspaceChangedEvent(this, firstRevision));
+            List<SearchResult> output = searchEngine.search("content", 100, false);
+
+            assertThat(output).extracting(SearchResult::getFile).containsExactly("file_test1", "file_test2");
+            assertThat(searchEngine.search("old", 100, false)).isEmpty();
+            assertThat(searchEngine.search("new", 100, false)).extracting(SearchResult::getFile)
+                    .containsExactly("file_test1");
+            verify(secondRevision).readConfigurationFile("file_test1");
+            verify(secondRevision, never()).readConfigurationFile("file_test2");
+            // the index is only updated once per revision
+            verify(secondRevision).getConfigurationFileIds();
+        }
+
+        @Test
+        void removedFile() {
+            RevisionAccess firstRevision = mock(RevisionAccess.class);
+            when(firstRevision.getRevisionId()).thenReturn("rev1");
+            when(firstRevision.getConfigurationFileIds()).thenReturn(fileIds("file_test1", "1", "file_test2", "2"));
+            doReturn(Optional.of("content one")).when(firstRevision).readConfigurationFile("file_test1");
+            doReturn(Optional.of("content two")).when(firstRevision).readConfigurationFile("file_test2");
+            RevisionAccess secondRevision = mock(RevisionAccess.class);
+            when(secondRevision.getRevisionId()).thenReturn("rev2");
+            when(secondRevision.getConfigurationFileIds()).thenReturn(fileIds("file_test2", "2"));
+            when(fileManager.getWorkspaceRevision()).thenReturn(secondRevision);
+
+            searchEngine.workspaceChanged(new WorkspaceChangedEvent(this, firstRevision));
+            List<SearchResult> output = searchEngine.search("content", 100, false);
+
+            assertThat(output).extracting(SearchResult::getFile).containsExactly("file_test2");
+            verifyNoMoreInteractions(ignoreStubs(secondRevision));
+        }
+    }
 }
@@ -79,4 +79,24 @@ public class InfluxExporterSettings {
      */
     @Min(1)
     private int bufferSize;
+
+    /**
+     * If enabled, the metrics are written in chunks directly into the compressed request body on a dedicated exporter
+     * thread, instead of building a batch of all metrics in memory. Failed writes are not buffered in this mode.
+     */
+    private boolean streaming;
+
+    /**
+     * The maximum number of counter series for which the previous value is kept when using {@link #countersAsDifferences}
+     * in the streaming mode. If reached, new counter series are not written until known series have been evicted.
+     */
+    @Min(1)
+    private int maxDifferenceSeries;
+
+    /**
+     * The duration after which the previous value of a counter series is evicted if the series has not been exported
+     * anymore, when using {@link #countersAsDifferences} in the streaming mode.
+     */
+    @DurationMin(millis = 1)
+    private Duration differenceSeriesIdleTimeout;
 }
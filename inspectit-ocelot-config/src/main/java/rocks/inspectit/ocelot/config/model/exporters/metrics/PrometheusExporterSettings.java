@@ -7,6 +7,7 @@ import rocks.inspectit.ocelot.config.model.exporters.ExporterEnabledState;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
+import java.time.Duration;
 
 /**
  * Settings for the OpenCensus Prometheus metrics exporter.
@@ -32,4 +33,10 @@ public class PrometheusExporterSettings {
     @Min(1)
     @Max(65535)
     private int port;
+
+    /**
+     * The minimum interval between two metric collections. Scrapes within this interval are served the metrics of the
+     * previous collection. A duration of zero disables the cache.
+     */
+    private Duration cacheDuration = Duration.ZERO;
 }
@@ -0,0 +1,30 @@
+package rocks.inspectit.ocelot.config.model.metrics;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+import java.time.Duration;
+
+/**
+ * Settings for recording exemplars, which link the buckets of histogram views to the traces the recorded measurements
+ * originate from.
+ */
+@Data
+@NoArgsConstructor
+public class ExemplarSettings {
+
+    /**
+     * If true, measurements recorded within a sampled span are recorded with an exemplar referencing this span.
+     */
+    private boolean enabled;
+
+    /**
+     * The minimum duration between two exemplars of the same measure, value range and tag combination.
+     * The number of tag combinations tracked per measure is bounded by the series limits of its histogram views,
+     * all further tag combinations share the sample interval.
+     * Only used by the {@link MetricsSettings.Backend#OPENCENSUS} backend.
+     */
+    @NotNull
+    private Duration sampleInterval;
+}
@@ -6,11 +6,13 @@ import lombok.val;
 import org.springframework.util.CollectionUtils;
 import rocks.inspectit.ocelot.config.model.metrics.definition.MetricDefinitionSettings;
 import rocks.inspectit.ocelot.config.model.metrics.jmx.JmxMetricsRecorderSettings;
+import rocks.inspectit.ocelot.config.model.metrics.threads.ThreadMetricsRecorderSettings;
 import rocks.inspectit.ocelot.config.validation.AdditionalValidation;
 import rocks.inspectit.ocelot.config.validation.AdditionalValidations;
 import rocks.inspectit.ocelot.config.validation.ViolationBuilder;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import java.time.Duration;
@@ -23,6 +25,17 @@ import java.util.Map;
 @AdditionalValidations
 public class MetricsSettings {
 
+    public enum Backend {
+        /**
+         * Measurements are recorded into OpenCensus views, which are converted to OpenTelemetry metrics on export.
+         */
+        OPENCENSUS,
+        /**
+         * Measurements are recorded directly into OpenTelemetry instruments.
+         */
+        OPENTELEMETRY
+    }
+
     /**
      * Master switch for disabling metrics capturing and exporting.
      * If disabled the following happens:
@@ -38,6 +51,35 @@ public class MetricsSettings {
      */
     private Duration frequency;
 
+    /**
+     * The default maximum number of series (=tag combinations) per view.
+     * Can be overridden for individual views via {@link rocks.inspectit.ocelot.config.model.metrics.definition.ViewDefinitionSettings#getMaxSeries()}.
+     * If this is null, only views defining a maximum number of series are limited.
+     */
+    @Min(1)
+    private Integer maxSeriesPerView;
+
+    /**
+     * The duration for which the OpenCensus metrics converted for one metrics exporter are reused by the other
+     * metrics exporters, so that the OpenCensus views are only read and converted once per collection cycle.
+     */
+    @NotNull
+    private Duration opencensusSnapshotStaleness;
+
+    /**
+     * The backend used for aggregating the measurements of the metrics defined via {@link #definitions}.
+     * The backend is chosen at startup, changing it requires a restart.
+     */
+    @NotNull
+    private Backend backend = Backend.OPENCENSUS;
+
+    /**
+     * Settings for linking the buckets of histogram views to traces.
+     */
+    @Valid
+    @NotNull
+    private ExemplarSettings exemplars;
+
     @NotNull
     private Map<@NotBlank String, @NotNull @Valid MetricDefinitionSettings> definitions = Collections.emptyMap();
 
@@ -63,7 +105,7 @@ public class MetricsSettings {
      * Settings for {@link rocks.inspectit.ocelot.core.metrics.system.ThreadMetricsRecorder}
      */
     @Valid
-    private StandardPollingMetricsRecorderSettings threads;
+    private ThreadMetricsRecorderSettings threads;
 
     /**
      * Settings for {@link rocks.inspectit.ocelot.core.metrics.system.GCMetricsRecorder}
@@ -77,6 +119,12 @@ public class MetricsSettings {
     @Valid
     private StandardPollingMetricsRecorderSettings memory;
 
+    /**
+     * Settings for {@link rocks.inspectit.ocelot.core.metrics.system.ProcfsMetricsRecorder}
+     */
+    @Valid
+    private StandardPollingMetricsRecorderSettings procfs;
+
     /**
      * Settings for {@link rocks.inspectit.ocelot.core.metrics.system.JmxMetricsRecorder}
      */
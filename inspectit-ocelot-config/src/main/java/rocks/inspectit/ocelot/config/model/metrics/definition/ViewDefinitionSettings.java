@@ -96,6 +96,15 @@ public class ViewDefinitionSettings {
     @Builder.Default
     private int maxBufferedPoints = 16384;
 
+    /**
+     * The maximum number of series (=tag combinations) this view may contain.
+     * If this number is reached, recordings with new tag combinations are recorded into a single overflow series.
+     * If this is null, {@link rocks.inspectit.ocelot.config.model.metrics.MetricsSettings#getMaxSeriesPerView()} is used.
+     * If both are null, the number of series of this view is not limited.
+     */
+    @Min(1)
+    private Integer maxSeries;
+
     /**
      * Defines if this view should by default include all common tags.
      * Individual tags can still be disabled via {@link #tags}.
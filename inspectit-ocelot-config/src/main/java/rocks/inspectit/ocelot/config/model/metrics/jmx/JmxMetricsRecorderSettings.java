@@ -3,6 +3,8 @@ package rocks.inspectit.ocelot.config.model.metrics.jmx;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import java.time.Duration;
 import java.util.Map;
@@ -58,4 +60,30 @@ public class JmxMetricsRecorderSettings {
      */
     private Map<String, Boolean> objectNames;
 
+    /**
+     * The number of threads used to fetch the attributes of the MBeans in parallel.
+     * If 0, the MBeans are scraped sequentially by the recorder without any timeouts.
+     */
+    @Min(0)
+    private int threads;
+
+    /**
+     * The maximum time to wait for the attributes of a single MBean. MBeans which did not respond in time are skipped
+     * and not scraped again until their pending request has completed. If not set, the time is not limited.
+     */
+    private Duration mbeanTimeout;
+
+    /**
+     * The maximum duration of scraping all MBeans without a matching schedule. MBeans which could not be scraped within
+     * this time are skipped. If not set, the duration is not limited.
+     */
+    private Duration timeBudget;
+
+    /**
+     * Individual scrape frequencies and time budgets for the MBeans matching the object name patterns used as keys.
+     * If multiple patterns match an MBean, the first one is used.
+     */
+    @Valid
+    private Map<String, JmxScrapeScheduleSettings> schedules;
+
 }
@@ -0,0 +1,27 @@
+package rocks.inspectit.ocelot.config.model.metrics.jmx;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+
+/**
+ * Settings for scraping the MBeans matching an object name pattern with a different frequency or time budget than
+ * the remaining MBeans.
+ */
+@Data
+@NoArgsConstructor
+public class JmxScrapeScheduleSettings {
+
+    /**
+     * The frequency with which the matching MBeans are scraped. It is rounded up to a multiple of the frequency of the
+     * JMX recorder. If not set, the frequency of the JMX recorder is used.
+     */
+    private Duration frequency;
+
+    /**
+     * The maximum duration of scraping the matching MBeans. MBeans which could not be scraped within this time are
+     * skipped. If not set, the duration is not limited.
+     */
+    private Duration timeBudget;
+}
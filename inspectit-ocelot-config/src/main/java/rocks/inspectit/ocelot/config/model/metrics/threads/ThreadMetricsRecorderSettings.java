@@ -0,0 +1,25 @@
+package rocks.inspectit.ocelot.config.model.metrics.threads;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import rocks.inspectit.ocelot.config.model.metrics.StandardPollingMetricsRecorderSettings;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Settings for the thread metrics recorder.
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class ThreadMetricsRecorderSettings extends StandardPollingMetricsRecorderSettings {
+
+    /**
+     * The maximum number of thread pools for which the thread states are reported individually when the
+     * {@code pool.states} metric is enabled. Threads of all other pools are reported using the pool name {@code other}.
+     */
+    @Min(1)
+    private int maxPools = 20;
+
+}
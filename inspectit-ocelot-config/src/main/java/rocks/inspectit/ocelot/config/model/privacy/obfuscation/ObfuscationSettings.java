@@ -4,6 +4,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import java.util.Collections;
 import java.util.List;
@@ -24,4 +25,10 @@ public class ObfuscationSettings {
     @NotNull
     private List<ObfuscationPattern> patterns = Collections.emptyList();
 
+    /**
+     * The maximum number of keys for which the result of the key check is cached. The least recently used keys are evicted first.
+     */
+    @Min(1)
+    private int keyCacheSize = 1000;
+
 }
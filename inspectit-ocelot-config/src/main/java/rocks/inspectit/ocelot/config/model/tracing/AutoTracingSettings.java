@@ -3,6 +3,7 @@ package rocks.inspectit.ocelot.config.model.tracing;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import javax.validation.constraints.Min;
 import java.time.Duration;
 
 /**
@@ -28,4 +29,11 @@ public class AutoTracingSettings {
      * If a span requests sampling after the timer has shutdown, it will restart it.
      */
     private Duration shutdownDelay;
+
+    /**
+     * The maximum number of stack trace samples and instrumented method calls recorded for a single auto-trace.
+     * When this limit is reached, no further samples are taken for the trace and instrumented methods are traced as normal spans.
+     */
+    @Min(1)
+    private int maxEventsPerTrace;
 }
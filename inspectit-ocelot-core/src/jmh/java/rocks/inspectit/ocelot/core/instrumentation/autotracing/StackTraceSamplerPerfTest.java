@@ -0,0 +1,122 @@
+package rocks.inspectit.ocelot.core.instrumentation.autotracing;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of capturing and recording stack trace samples as done by the {@link StackTraceSampler}.
+ * <p>
+ * The {@link #sampleThreads(Blackhole)} benchmark captures one sample of all parked threads, so the cost per thread
+ * is the score divided by the thread count. The {@link #recordTrace(Blackhole)} benchmark records a trace consisting of
+ * 1000 samples; run it with -PjmhProfiler=gc to see the memory allocated per trace.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class StackTraceSamplerPerfTest {
+
+    private static final int SAMPLES_PER_TRACE = 1000;
+
+    @Param(value = {"1", "10", "50"})
+    private int threadCount;
+
+    @Param(value = {"50", "250"})
+    private int stackDepth;
+
+    private List<Thread> threads;
+
+    private CountDownLatch finished;
+
+    private long[] threadIds;
+
+    private SampledTrace[] traces;
+
+    private StackTrace[] recordedSamples;
+
+    @Setup
+    public void init() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(threadCount);
+        finished = new CountDownLatch(1);
+        threads = new ArrayList<>();
+        threadIds = new long[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            Thread thread = new Thread(() -> recurse(stackDepth, started));
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+            threadIds[i] = thread.getId();
+        }
+        started.await();
+
+        // a few distinct call paths which share most of their frames, like consecutive samples of the same thread
+        recordedSamples = new StackTrace[8];
+        for (int i = 0; i < recordedSamples.length; i++) {
+            recordedSamples[i] = createSyntheticStackTrace(stackDepth, i);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void createTraces() {
+        traces = new SampledTrace[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            // the traces are never exported, so neither a root span nor a root stack trace is required
+            traces[i] = new SampledTrace(null, () -> null, Integer.MAX_VALUE);
+        }
+    }
+
+    @TearDown
+    public void stopThreads() throws InterruptedException {
+        finished.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    @Benchmark
+    public void sampleThreads(Blackhole blackhole) {
+        StackTrace[] stackTraces = StackTrace.createFor(threadIds);
+        for (int i = 0; i < stackTraces.length; i++) {
+            if (stackTraces[i] != null) {
+                traces[i].addStackTrace(stackTraces[i], i);
+            }
+        }
+        blackhole.consume(traces);
+    }
+
+    @Benchmark
+    public void recordTrace(Blackhole blackhole) {
+        SampledTrace trace = traces[0];
+        for (int i = 0; i < SAMPLES_PER_TRACE; i++) {
+            trace.addStackTrace(recordedSamples[i % recordedSamples.length], i);
+        }
+        blackhole.consume(trace.getSampledCallPathCount());
+    }
+
+    private void recurse(int depth, CountDownLatch started) {
+        if (depth > 0) {
+            recurse(depth - 1, started);
+        } else {
+            started.countDown();
+            try {
+                finished.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static StackTrace createSyntheticStackTrace(int depth, int variant) {
+        StackTraceElement[] frames = new StackTraceElement[depth];
+        for (int i = 0; i < depth; i++) {
+            // the top frames differ between the variants, the remaining ones are shared
+            String method = i < 3 ? "method" + i + "_" + variant : "method" + i;
+            frames[i] = new StackTraceElement("rocks.inspectit.Sample", method, "Sample.java", i);
+        }
+        return new StackTrace(frames);
+    }
+}
@@ -0,0 +1,74 @@
+package rocks.inspectit.ocelot.core.instrumentation.hook.actions.span;
+
+import org.openjdk.jmh.annotations.*;
+import rocks.inspectit.ocelot.core.instrumentation.context.InspectitContextImpl;
+import rocks.inspectit.ocelot.core.instrumentation.hook.actions.IHookAction;
+import rocks.inspectit.ocelot.core.instrumentation.config.model.propagation.PropagationMetaData;
+import rocks.inspectit.ocelot.core.privacy.obfuscation.IObfuscatory;
+import rocks.inspectit.ocelot.core.privacy.obfuscation.impl.PatternObfuscatory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Measures the overhead of writing span attributes with obfuscation enabled.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class WriteSpanAttributesActionPerfTest {
+
+    private static final int ATTRIBUTE_COUNT = 10;
+
+    @Param(value = {"1", "20"})
+    private int patternCount;
+
+    @Param(value = {"false", "true"})
+    private boolean checkData;
+
+    private WriteSpanAttributesAction action;
+
+    private IHookAction.ExecutionContext executionContext;
+
+    private InspectitContextImpl inspectitContext;
+
+    @Setup
+    public void init() {
+        List<PatternObfuscatory.PatternEntry> entries = new ArrayList<>();
+        for (int i = 0; i < patternCount; i++) {
+            entries.add(PatternObfuscatory.PatternEntry.builder()
+                    .pattern(Pattern.compile(".*secret-" + i + ".*", Pattern.CASE_INSENSITIVE))
+                    .checkKey(true)
+                    .checkData(checkData)
+                    .build());
+        }
+        IObfuscatory obfuscatory = new PatternObfuscatory(entries);
+
+        WriteSpanAttributesAction.WriteSpanAttributesActionBuilder builder = WriteSpanAttributesAction.builder()
+                .obfuscatorySupplier(() -> obfuscatory);
+        for (int i = 0; i < ATTRIBUTE_COUNT; i++) {
+            String value = "some-attribute-value-" + i;
+            builder.attributeAccessor("attribute-" + i, (context) -> value);
+        }
+        action = builder.build();
+
+        inspectitContext = InspectitContextImpl.createFromCurrent(Collections.emptyMap(), PropagationMetaData.builder()
+                .build(), false);
+        inspectitContext.setSpanScope(() -> {
+        });
+        executionContext = new IHookAction.ExecutionContext(null, null, null, null, null, inspectitContext, null);
+    }
+
+    @TearDown
+    public void close() {
+        inspectitContext.close();
+    }
+
+    @Benchmark
+    public void writeAttributes() {
+        action.execute(executionContext);
+    }
+}
@@ -0,0 +1,130 @@
+package rocks.inspectit.ocelot.core.metrics;
+
+import io.opencensus.stats.*;
+import io.opencensus.tags.TagContext;
+import io.opencensus.tags.TagKey;
+import io.opencensus.tags.TagValue;
+import io.opencensus.tags.Tags;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import org.openjdk.jmh.annotations.*;
+import rocks.inspectit.ocelot.config.model.metrics.ExemplarSettings;
+import rocks.inspectit.ocelot.config.model.metrics.definition.MetricDefinitionSettings;
+import rocks.inspectit.ocelot.config.model.metrics.definition.ViewDefinitionSettings;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of recording a measure with a histogram view via OpenCensus within a sampled span without
+ * the {@link ExemplarSampler}, with exemplars disabled and with exemplars enabled.
+ * The recording with disabled exemplars is expected to be as fast as the recording without the sampler.
+ * Use -PjmhProfiler=gc to compare the allocation rate as well.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ExemplarSamplerPerfTest {
+
+    private static final String MEASURE_NAME = "perf/exemplars";
+
+    private static final List<Double> BUCKET_BOUNDARIES = Arrays.asList(1.0, 5.0, 10.0, 50.0, 100.0, 500.0, 1000.0);
+
+    private static final TagKey SERVICE_TAG = TagKey.create("service");
+
+    private Measure.MeasureDouble measure;
+
+    private StatsRecorder statsRecorder;
+
+    private TagContext tagContext;
+
+    private ExemplarSampler disabledSampler;
+
+    private ExemplarSampler enabledSampler;
+
+    @Setup
+    public void setup() {
+        measure = Measure.MeasureDouble.create(MEASURE_NAME, "description", "ms");
+        Stats.getViewManager()
+                .registerView(View.create(View.Name.create("perf/exemplars/histogram"), "description", measure, Aggregation.Distribution
+                        .create(BucketBoundaries.create(BUCKET_BOUNDARIES)), Collections.singletonList(SERVICE_TAG)));
+        statsRecorder = Stats.getStatsRecorder();
+        tagContext = Tags.getTagger().emptyBuilder().putLocal(SERVICE_TAG, TagValue.create("service")).build();
+
+        MetricDefinitionSettings definition = MetricDefinitionSettings.builder()
+                .view("perf/exemplars/histogram", ViewDefinitionSettings.builder()
+                        .aggregation(ViewDefinitionSettings.Aggregation.HISTOGRAM)
+                        .bucketBoundaries(BUCKET_BOUNDARIES)
+                        .build())
+                .build();
+
+        ExemplarSettings disabled = new ExemplarSettings();
+        disabled.setEnabled(false);
+        disabledSampler = new ExemplarSampler();
+        disabledSampler.updateSettings(disabled);
+        disabledSampler.updateMeasure(MEASURE_NAME, definition, null);
+
+        ExemplarSettings enabled = new ExemplarSettings();
+        enabled.setEnabled(true);
+        enabled.setSampleInterval(Duration.ofSeconds(1));
+        enabledSampler = new ExemplarSampler();
+        enabledSampler.updateSettings(enabled);
+        enabledSampler.updateMeasure(MEASURE_NAME, definition, null);
+    }
+
+    /**
+     * Makes a sampled span current for the benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class SampledSpan {
+
+        private io.opentelemetry.context.Scope scope;
+
+        @Setup
+        public void setup() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            String traceId = String.format("%016x%016x", random.nextLong(), random.nextLong());
+            String spanId = String.format("%016x", random.nextLong());
+            scope = Span.wrap(SpanContext.create(traceId, spanId, TraceFlags.getSampled(), TraceState.getDefault()))
+                    .makeCurrent();
+        }
+
+        @TearDown
+        public void tearDown() {
+            scope.close();
+        }
+    }
+
+    private void record(ExemplarSampler sampler) {
+        double value = ThreadLocalRandom.current().nextDouble(1000);
+        MeasureMap measureMap = statsRecorder.newMeasureMap().put(measure, value);
+        if (sampler != null && sampler.isEnabled()) {
+            sampler.putSpanContextAttachment(measureMap, MEASURE_NAME, value, tagContext);
+        }
+        measureMap.record(tagContext);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void noSampler(SampledSpan span) {
+        record(null);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void exemplarsDisabled(SampledSpan span) {
+        record(disabledSampler);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void exemplarsEnabled(SampledSpan span) {
+        record(enabledSampler);
+    }
+}
@@ -0,0 +1,141 @@
+package rocks.inspectit.ocelot.core.metrics.opentelemetry;
+
+import io.opencensus.stats.*;
+import io.opencensus.tags.TagContext;
+import io.opencensus.tags.TagKey;
+import io.opencensus.tags.TagValue;
+import io.opencensus.tags.Tags;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.SdkMeterProviderBuilder;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.export.CollectionRegistration;
+import io.opentelemetry.sdk.metrics.export.MetricReader;
+import org.openjdk.jmh.annotations.*;
+import rocks.inspectit.ocelot.config.model.metrics.definition.ViewDefinitionSettings;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the recording throughput of a measure with a sum and a histogram view when recorded via OpenCensus and
+ * when recorded directly into OpenTelemetry instruments via the {@link OpenTelemetryViewManager}.
+ * Use -PjmhProfiler=gc to compare the allocation rate as well.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class OpenTelemetryViewManagerPerfTest {
+
+    private static final int SERIES_COUNT = 100;
+
+    private static final List<Double> BUCKET_BOUNDARIES = Arrays.asList(1.0, 5.0, 10.0, 50.0, 100.0, 500.0, 1000.0);
+
+    private static final TagKey SERVICE_TAG = TagKey.create("service");
+
+    private static final TagKey METHOD_TAG = TagKey.create("method");
+
+    private static final TagKey UNUSED_TAG = TagKey.create("unused");
+
+    private Measure.MeasureDouble openCensusMeasure;
+
+    private StatsRecorder statsRecorder;
+
+    private OpenTelemetryViewManager openTelemetryViewManager;
+
+    private SdkMeterProvider meterProvider;
+
+    /**
+     * The tag contexts to record with, which also contain a tag not used by the views.
+     */
+    private TagContext[] tagContexts;
+
+    @Setup
+    public void setup() {
+        List<TagKey> viewTags = Arrays.asList(SERVICE_TAG, METHOD_TAG);
+
+        openCensusMeasure = Measure.MeasureDouble.create("perf/opencensus", "description", "ms");
+        ViewManager viewManager = Stats.getViewManager();
+        viewManager.registerView(View.create(View.Name.create("perf/opencensus/sum"), "description", openCensusMeasure, Aggregation.Sum
+                .create(), viewTags));
+        viewManager.registerView(View.create(View.Name.create("perf/opencensus/histogram"), "description", openCensusMeasure, Aggregation.Distribution
+                .create(BucketBoundaries.create(BUCKET_BOUNDARIES)), viewTags));
+        statsRecorder = Stats.getStatsRecorder();
+
+        openTelemetryViewManager = new OpenTelemetryViewManager();
+        openTelemetryViewManager.createOrUpdateView("perf/opentelemetry", false, "ms", "perf/opentelemetry/sum", ViewDefinitionSettings
+                .builder()
+                .description("description")
+                .aggregation(ViewDefinitionSettings.Aggregation.SUM)
+                .build(), viewTags, null);
+        openTelemetryViewManager.createOrUpdateView("perf/opentelemetry", false, "ms", "perf/opentelemetry/histogram", ViewDefinitionSettings
+                .builder()
+                .description("description")
+                .aggregation(ViewDefinitionSettings.Aggregation.HISTOGRAM)
+                .bucketBoundaries(BUCKET_BOUNDARIES)
+                .build(), viewTags, null);
+        SdkMeterProviderBuilder builder = SdkMeterProvider.builder().registerMetricReader(new IdleMetricReader());
+        openTelemetryViewManager.registerViews(builder);
+        meterProvider = builder.build();
+        openTelemetryViewManager.setMeterProvider(meterProvider);
+
+        tagContexts = new TagContext[SERIES_COUNT];
+        for (int i = 0; i < SERIES_COUNT; i++) {
+            tagContexts[i] = Tags.getTagger()
+                    .emptyBuilder()
+                    .putLocal(SERVICE_TAG, TagValue.create("service-" + (i % 10)))
+                    .putLocal(METHOD_TAG, TagValue.create("method-" + i))
+                    .putLocal(UNUSED_TAG, TagValue.create("unused"))
+                    .build();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        meterProvider.shutdown();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void openCensus() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        statsRecorder.newMeasureMap()
+                .put(openCensusMeasure, random.nextDouble(1000))
+                .record(tagContexts[random.nextInt(SERIES_COUNT)]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void openTelemetry() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        openTelemetryViewManager.recordMeasurement("perf/opentelemetry", random.nextDouble(1000), tagContexts[random.nextInt(SERIES_COUNT)]);
+    }
+
+    /**
+     * A reader which never collects, so that the instruments of the meter provider aggregate the recordings.
+     */
+    private static class IdleMetricReader implements MetricReader {
+
+        @Override
+        public void register(CollectionRegistration registration) {
+        }
+
+        @Override
+        public AggregationTemporality getAggregationTemporality(InstrumentType instrumentType) {
+            return AggregationTemporality.CUMULATIVE;
+        }
+
+        @Override
+        public CompletableResultCode forceFlush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package rocks.inspectit.ocelot.core.opentelemetry.metrics;
+
+import io.opencensus.common.Timestamp;
+import io.opencensus.metrics.LabelKey;
+import io.opencensus.metrics.LabelValue;
+import io.opencensus.metrics.export.*;
+import io.opentelemetry.sdk.resources.Resource;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the CPU time required per collection cycle when three metric readers (e.g. Prometheus, OTLP and logging)
+ * collect 10k OpenCensus series, either converting the OpenCensus metrics separately or sharing one snapshot.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class SharedOpenCensusMetricProducerPerfTest {
+
+    private static final int METRIC_COUNT = 10;
+
+    private static final int SERIES_PER_METRIC = 1000;
+
+    private static final int READER_COUNT = 3;
+
+    private static final Duration STALENESS = Duration.ofSeconds(1);
+
+    private Collection<Metric> metrics;
+
+    /**
+     * The simulated time, which is advanced by each collection cycle.
+     */
+    private long time;
+
+    private SharedOpenCensusMetricProducer sharedProducer;
+
+    @Setup
+    public void setup() {
+        metrics = createMetrics();
+        sharedProducer = new SharedOpenCensusMetricProducer(() -> metrics, Resource.getDefault(), STALENESS, () -> time);
+    }
+
+    private static Collection<Metric> createMetrics() {
+        List<Metric> result = new ArrayList<>();
+        List<LabelKey> labelKeys = Collections.singletonList(LabelKey.create("series", ""));
+        Timestamp timestamp = Timestamp.create(1, 0);
+        for (int i = 0; i < METRIC_COUNT; i++) {
+            MetricDescriptor descriptor = MetricDescriptor.create("metric-" + i, "description", "ms", MetricDescriptor.Type.GAUGE_DOUBLE, labelKeys);
+            List<TimeSeries> timeSeries = new ArrayList<>();
+            for (int j = 0; j < SERIES_PER_METRIC; j++) {
+                Point point = Point.create(Value.doubleValue(j), timestamp);
+                timeSeries.add(TimeSeries.createWithOnePoint(Collections.singletonList(LabelValue.create("series-" + j)), point, null));
+            }
+            result.add(Metric.create(descriptor, timeSeries));
+        }
+        return result;
+    }
+
+    /**
+     * Each reader converts the OpenCensus metrics on its own, as done by the OpenCensus shim.
+     */
+    @Benchmark
+    public void separateConversion(Blackhole blackhole) {
+        for (int reader = 0; reader < READER_COUNT; reader++) {
+            for (Metric metric : metrics) {
+                blackhole.consume(OpenCensusMetricAdapter.convert(Resource.getDefault(), metric));
+            }
+        }
+    }
+
+    /**
+     * All readers collect the snapshot of the shared producer, which converts the metrics once per cycle.
+     */
+    @Benchmark
+    public void sharedSnapshot(Blackhole blackhole) {
+        time += STALENESS.toNanos() + 1;
+        for (int reader = 0; reader < READER_COUNT; reader++) {
+            blackhole.consume(sharedProducer.collectAllMetrics());
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package rocks.inspectit.ocelot.core.exporter;
 
+import io.opencensus.stats.View;
+import io.opencensus.stats.ViewManager;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -7,17 +9,26 @@ import org.springframework.util.StringUtils;
 import rocks.inspectit.ocelot.config.model.InspectitConfig;
 import rocks.inspectit.ocelot.config.model.exporters.ExporterEnabledState;
 import rocks.inspectit.ocelot.config.model.exporters.metrics.InfluxExporterSettings;
+import rocks.inspectit.ocelot.config.model.metrics.MetricsSettings;
 import rocks.inspectit.ocelot.core.metrics.percentiles.PercentileViewManager;
+import rocks.inspectit.ocelot.core.selfmonitoring.SelfMonitoringService;
 import rocks.inspectit.ocelot.core.service.DynamicallyActivatableService;
 import rocks.inspectit.opencensus.influx.InfluxExporter;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 /**
  * Uses the {@link InfluxExporter} to directly push metrics into a given InfluxDB version 1.x .
+ * If the streaming mode is enabled, the {@link StreamingInfluxExporter} is used instead, running on a dedicated thread.
  */
 @Slf4j
 @Component
@@ -41,16 +52,42 @@ public class InfluxExporterService extends DynamicallyActivatableService {
     @Autowired
     private PercentileViewManager percentileViewManager;
 
+    @Autowired
+    private ViewManager viewManager;
+
+    @Autowired
+    private SelfMonitoringService selfMonitoringService;
+
     /**
      * The currently active influx exporter, null if none is active.
      */
     private InfluxExporter activeExporter;
 
+    /**
+     * The currently active streaming influx exporter, null if none is active.
+     */
+    private StreamingInfluxExporter activeStreamingExporter;
+
+    /**
+     * The dedicated executor of the {@link #activeStreamingExporter}, so that large exports do not block the shared executor.
+     */
+    private ScheduledExecutorService streamingExecutor;
+
     /**
      * A task regularly invoking activeExporter.export() at the configured interval.
      */
     private Future exporterTask;
 
+    /**
+     * The exported views used to build {@link #viewsToMeasures}.
+     */
+    private Set<View> exportedViews;
+
+    /**
+     * Maps the names of the exported views to the names of their measures.
+     */
+    private Map<String, String> viewsToMeasures = Collections.emptyMap();
+
     public InfluxExporterService() {
         super("exporters.metrics.influx", "metrics.enabled");
     }
@@ -84,7 +121,34 @@ public class InfluxExporterService extends DynamicallyActivatableService {
             password = DUMMY_PASSWORD;
             LOGGER.warning(String.format("You are using the InfluxDB exporter without specifying 'user' and 'password'. Since v1.15.0, 'user' and 'password' are mandatory. Will be using the dummy user '%s' and dummy password '%s'.", DUMMY_USER, DUMMY_PASSWORD));
         }
+        if (configuration.getMetrics().getBackend() == MetricsSettings.Backend.OPENTELEMETRY) {
+            log.warn("The InfluxDB Exporter only exports metrics recorded via OpenCensus. The views of the OPENTELEMETRY metrics backend, except for QUANTILES views, are not written to InfluxDB!");
+        }
         log.info("Starting InfluxDB Exporter to '{}:{}' on '{}'", influx.getDatabase(), influx.getRetentionPolicy(), endpoint);
+        if (influx.isStreaming()) {
+            activeStreamingExporter = StreamingInfluxExporter.builder()
+                    .url(endpoint)
+                    .database(influx.getDatabase())
+                    .retention(influx.getRetentionPolicy())
+                    .user(user)
+                    .password(password)
+                    .createDatabase(influx.isCreateDatabase())
+                    .exportDifference(influx.isCountersAsDifferences())
+                    .measurementNameProvider(getMeasurementNameProvider())
+                    .maxDifferenceSeries(influx.getMaxDifferenceSeries())
+                    .differenceSeriesIdleTimeout(influx.getDifferenceSeriesIdleTimeout())
+                    .selfMonitoringService(selfMonitoringService)
+                    .build();
+            streamingExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+                thread.setDaemon(true);
+                thread.setName("inspectit-influx-exporter");
+                return thread;
+            });
+            exporterTask = streamingExecutor.scheduleWithFixedDelay(activeStreamingExporter::export, 0, influx.getExportInterval()
+                    .toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        }
         activeExporter = InfluxExporter.builder()
                 .url(endpoint)
                 .database(influx.getDatabase())
@@ -113,6 +177,44 @@ public class InfluxExporterService extends DynamicallyActivatableService {
             activeExporter.close();
             activeExporter = null;
         }
+        if (streamingExecutor != null) {
+            streamingExecutor.shutdown();
+            try {
+                streamingExecutor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            streamingExecutor = null;
+        }
+        if (activeStreamingExporter != null) {
+            // perform a final export to ensure all metrics are written
+            activeStreamingExporter.export();
+            activeStreamingExporter = null;
+        }
         return true;
     }
+
+    /**
+     * Resolves the names of measures for percentile series and OpenCensus views.
+     */
+    private Function<String, String> getMeasurementNameProvider() {
+        return metricName -> {
+            String measureName = percentileViewManager.getMeasureNameForSeries(metricName);
+            if (measureName != null) {
+                return measureName;
+            }
+            return getViewsToMeasures().get(metricName);
+        };
+    }
+
+    private synchronized Map<String, String> getViewsToMeasures() {
+        Set<View> currentViews = viewManager.getAllExportedViews();
+        if (currentViews != exportedViews) {
+            viewsToMeasures = currentViews.stream()
+                    .collect(Collectors.toMap(view -> view.getName().asString(), view -> view.getMeasure()
+                            .getName(), (first, second) -> first));
+            exportedViews = currentViews;
+        }
+        return viewsToMeasures;
+    }
 }
@@ -4,9 +4,14 @@ import io.opentelemetry.exporter.prometheus.PrometheusHttpServer;
 import io.opentelemetry.exporter.prometheus.PrometheusHttpServerBuilder;
 import io.opentelemetry.sdk.metrics.export.MetricReader;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import rocks.inspectit.ocelot.config.model.InspectitConfig;
 import rocks.inspectit.ocelot.config.model.exporters.metrics.PrometheusExporterSettings;
+import rocks.inspectit.ocelot.core.opentelemetry.metrics.CachingMetricReader;
+import rocks.inspectit.ocelot.core.selfmonitoring.SelfMonitoringService;
+
+import java.time.Duration;
 
 /**
  * Service for the Prometheus OpenTelemetry exporter.
@@ -16,8 +21,16 @@ import rocks.inspectit.ocelot.config.model.exporters.metrics.PrometheusExporterS
 @Slf4j
 public class PrometheusExporterService extends DynamicallyActivatableMetricsExporterService {
 
+    @Autowired
+    private SelfMonitoringService selfMonitoringService;
+
     private PrometheusHttpServerBuilder prometheusHttpServerBuilder;
 
+    /**
+     * The minimum interval between two collections, zero if the collected metrics should not be cached.
+     */
+    private Duration cacheDuration;
+
     public PrometheusExporterService() {
         super("exporters.metrics.prometheus", "metrics.enabled");
     }
@@ -39,6 +52,7 @@ public class PrometheusExporterService extends DynamicallyActivatableMetricsExpo
             String host = config.getHost();
             int port = config.getPort();
             prometheusHttpServerBuilder = PrometheusHttpServer.builder().setHost(host).setPort(port);
+            cacheDuration = config.getCacheDuration();
             boolean success = openTelemetryController.registerMetricExporterService(this);
             if (success) {
                 log.info("Starting Prometheus Exporter on {}:{}", host, port);
@@ -61,6 +75,10 @@ public class PrometheusExporterService extends DynamicallyActivatableMetricsExpo
 
     @Override
     public MetricReader getNewMetricReader() {
-        return prometheusHttpServerBuilder.build();
+        MetricReader reader = prometheusHttpServerBuilder.build();
+        if (cacheDuration != null && !cacheDuration.isZero() && !cacheDuration.isNegative()) {
+            return new CachingMetricReader(reader, cacheDuration, selfMonitoringService, getName());
+        }
+        return reader;
     }
 }
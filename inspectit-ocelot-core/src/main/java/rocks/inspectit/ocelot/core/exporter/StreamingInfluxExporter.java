@@ -0,0 +1,472 @@
+package rocks.inspectit.ocelot.core.exporter;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.opencensus.metrics.LabelKey;
+import io.opencensus.metrics.LabelValue;
+import io.opencensus.metrics.export.*;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import rocks.inspectit.ocelot.core.opentelemetry.metrics.SharedOpenCensusMetricProducer;
+import rocks.inspectit.ocelot.core.selfmonitoring.SelfMonitoringService;
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the OpenCensus metrics to an InfluxDB 1.x using the line protocol.
+ * <p>
+ * In contrast to the {@link rocks.inspectit.opencensus.influx.InfluxExporter}, no batch containing all points is built
+ * in memory. Instead, each line is written directly into the gzip-compressed body of the write request, which is
+ * transferred in chunks. The request is only opened as soon as the first line has to be written.
+ * <p>
+ * If counters are exported as differences, the previous value of each counter series is kept. Series which have not
+ * been exported for the idle timeout are evicted. The number of kept series is bounded, once the limit is reached, new
+ * series are not tracked and not written until other series have been evicted. Such rejected series are logged and
+ * recorded as self-monitoring metric. Series without a previous value, i.e. new or evicted series, are not written,
+ * their current value is only kept as baseline for the next export. The previous values are only updated if the write
+ * request was successful, so that the increase is not lost in case of a failed write.
+ */
+@Slf4j
+public class StreamingInfluxExporter {
+
+    /**
+     * The size of the chunks in which the request body is transferred.
+     */
+    @VisibleForTesting
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * The field name used if the metric name equals the name of its measure.
+     */
+    private static final String DEFAULT_FIELD_NAME = "value";
+
+    /**
+     * The tag used for the upper bound of histogram buckets.
+     */
+    private static final String BUCKET_TAG = "bucket";
+
+    private static final Pattern INVALID_NAME_CHARACTERS = Pattern.compile("[^A-Za-z0-9_]");
+
+    private static final Pattern TAG_SPECIAL_CHARACTERS = Pattern.compile("([ ,=])");
+
+    /**
+     * The self-monitoring measure for the number of counter series which have not been written by the last export
+     * because the maximum number of difference series has been reached.
+     */
+    private static final String REJECTED_SERIES_MEASURE = "exporters/influx/rejected-series";
+
+    /**
+     * The minimum interval between two warnings about rejected counter series.
+     */
+    private static final long REJECTED_SERIES_WARNING_INTERVAL_MILLIS = Duration.ofMinutes(10).toMillis();
+
+    private final URL writeUrl;
+
+    private final URL queryUrl;
+
+    private final String database;
+
+    /**
+     * The value of the authorization header, null if no user is specified.
+     */
+    private final String authorization;
+
+    private final boolean createDatabase;
+
+    /**
+     * True, if the database has been created or did not have to be created.
+     */
+    private boolean databaseCreated;
+
+    /**
+     * Resolves the name of the measure of a metric, returns null if unknown.
+     */
+    private final Function<String, String> measurementNameProvider;
+
+    private final Supplier<Collection<Metric>> metricsSupplier;
+
+    /**
+     * The clock returning the current time in milliseconds, used for the timestamps of the points.
+     */
+    private final Supplier<Long> clock;
+
+    /**
+     * The previous values of the counter series, null if counters are exported as absolute values.
+     */
+    private final DifferenceState differences;
+
+    /**
+     * The service used for recording the rejected counter series, null if they should not be recorded.
+     */
+    private final SelfMonitoringService selfMonitoringService;
+
+    /**
+     * The earliest timestamp at which rejected counter series are logged again.
+     */
+    private long nextRejectedSeriesWarning;
+
+    @Builder
+    private StreamingInfluxExporter(String url, String database, String retention, String user, String password, boolean createDatabase, boolean exportDifference, Function<String, String> measurementNameProvider, int maxDifferenceSeries, Duration differenceSeriesIdleTimeout, Supplier<Collection<Metric>> metricsSupplier, Supplier<Long> clock, SelfMonitoringService selfMonitoringService) {
+        try {
+            String baseUrl = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+            writeUrl = new URL(baseUrl + "/write?db=" + encode(database) + "&rp=" + encode(retention) + "&precision=ms");
+            queryUrl = new URL(baseUrl + "/query");
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid InfluxDB endpoint: " + url, e);
+        }
+        this.database = database;
+        this.createDatabase = createDatabase;
+        this.measurementNameProvider = measurementNameProvider != null ? measurementNameProvider : name -> null;
+        this.metricsSupplier = metricsSupplier != null ? metricsSupplier : SharedOpenCensusMetricProducer::readOpenCensusMetrics;
+        this.clock = clock != null ? clock : System::currentTimeMillis;
+        if (user != null) {
+            String credentials = user + ":" + (password != null ? password : "");
+            authorization = "Basic " + Base64.getEncoder()
+                    .encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+        } else {
+            authorization = null;
+        }
+        differences = exportDifference ? new DifferenceState(maxDifferenceSeries, differenceSeriesIdleTimeout.toMillis()) : null;
+        this.selfMonitoringService = selfMonitoringService;
+    }
+
+    /**
+     * Writes the current values of all metrics to the InfluxDB.
+     */
+    public synchronized void export() {
+        long timestamp = clock.get();
+        try {
+            if (createDatabase && !databaseCreated) {
+                createDatabase();
+            }
+            int lines;
+            try (WriteRequest request = new WriteRequest()) {
+                writeMetrics(request, timestamp);
+                lines = request.lines;
+            }
+            if (differences != null) {
+                differences.commit();
+            }
+            log.debug("Exported {} lines to InfluxDB", lines);
+        } catch (Exception e) {
+            log.error("Error writing metrics to InfluxDB", e);
+        } finally {
+            if (differences != null) {
+                differences.discardPending();
+                differences.evictIdle(timestamp);
+                reportRejectedSeries(differences.getAndResetRejectedSeries(), timestamp);
+            }
+        }
+    }
+
+    private void reportRejectedSeries(int rejectedSeries, long timestamp) {
+        if (selfMonitoringService != null) {
+            selfMonitoringService.recordMeasurement(REJECTED_SERIES_MEASURE, rejectedSeries);
+        }
+        if (rejectedSeries > 0 && timestamp >= nextRejectedSeriesWarning) {
+            nextRejectedSeriesWarning = timestamp + REJECTED_SERIES_WARNING_INTERVAL_MILLIS;
+            log.warn("{} counter series have not been written to InfluxDB, as the limit of {} series exported as differences has been reached. Increase 'max-difference-series' to export all counters.", rejectedSeries, differences.maxSeries);
+        }
+    }
+
+    @VisibleForTesting
+    int getDifferenceSeriesCount() {
+        return differences == null ? 0 : differences.size();
+    }
+
+    private void writeMetrics(WriteRequest request, long timestamp) throws IOException {
+        for (Metric metric : metricsSupplier.get()) {
+            MetricDescriptor descriptor = metric.getMetricDescriptor();
+            String metricName = descriptor.getName();
+            String measureName = measurementNameProvider.apply(metricName);
+            if (measureName == null) {
+                measureName = metricName;
+            }
+            String measurement = sanitizeName(measureName);
+            String field = getFieldName(metricName, measureName);
+            boolean cumulative = isCumulative(descriptor.getType());
+
+            for (TimeSeries timeSeries : metric.getTimeSeriesList()) {
+                List<Point> points = timeSeries.getPoints();
+                if (points.isEmpty()) {
+                    continue;
+                }
+                String series = getSeriesKey(measurement, descriptor.getLabelKeys(), timeSeries.getLabelValues());
+                Object value = points.get(points.size() - 1)
+                        .getValue()
+                        .match(doubleValue -> doubleValue, longValue -> longValue, distribution -> distribution, summary -> null, other -> null);
+                if (value instanceof Number) {
+                    writeValue(request, series, field, (Number) value, cumulative, timestamp);
+                } else if (value instanceof Distribution) {
+                    writeDistribution(request, series, field, (Distribution) value, cumulative, timestamp);
+                }
+            }
+        }
+    }
+
+    private void writeDistribution(WriteRequest request, String series, String field, Distribution distribution, boolean cumulative, long timestamp) throws IOException {
+        writeValue(request, series, field + "_count", distribution.getCount(), cumulative, timestamp);
+        writeValue(request, series, field + "_sum", distribution.getSum(), cumulative, timestamp);
+
+        List<Double> boundaries = distribution.getBucketOptions() == null ? Collections.emptyList() : distribution.getBucketOptions()
+                .match(Distribution.BucketOptions.ExplicitOptions::getBucketBoundaries, other -> Collections.emptyList());
+        List<Distribution.Bucket> buckets = distribution.getBuckets();
+        for (int i = 0; i < buckets.size(); i++) {
+            String upperBound = i < boundaries.size() ? String.valueOf(boundaries.get(i)) : "+Inf";
+            String bucketSeries = series + "," + BUCKET_TAG + "=" + escapeTag(upperBound);
+            writeValue(request, bucketSeries, field + "_bucket", buckets.get(i).getCount(), cumulative, timestamp);
+        }
+    }
+
+    private void writeValue(WriteRequest request, String series, String field, Number value, boolean cumulative, long timestamp) throws IOException {
+        Number toWrite = value;
+        if (cumulative && differences != null) {
+            toWrite = differences.getDifference(series + " " + field, value, timestamp);
+            if (toWrite == null) {
+                return;
+            }
+        }
+        String formattedValue;
+        if (toWrite instanceof Long) {
+            formattedValue = toWrite + "i";
+        } else {
+            double doubleValue = toWrite.doubleValue();
+            if (Double.isNaN(doubleValue) || Double.isInfinite(doubleValue)) {
+                return;
+            }
+            formattedValue = String.valueOf(doubleValue);
+        }
+        request.writeLine(series + " " + field + "=" + formattedValue + " " + timestamp);
+    }
+
+    private void createDatabase() throws IOException {
+        HttpURLConnection connection = openConnection(queryUrl);
+        connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(("q=" + encode("CREATE DATABASE \"" + database + "\"")).getBytes(StandardCharsets.UTF_8));
+        }
+        checkResponse(connection);
+        databaseCreated = true;
+    }
+
+    private HttpURLConnection openConnection(URL url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        if (authorization != null) {
+            connection.setRequestProperty("Authorization", authorization);
+        }
+        return connection;
+    }
+
+    private static void checkResponse(HttpURLConnection connection) throws IOException {
+        int status = connection.getResponseCode();
+        if (status / 100 != 2) {
+            String message = "";
+            InputStream errorStream = connection.getErrorStream();
+            if (errorStream != null) {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(errorStream, StandardCharsets.UTF_8))) {
+                    message = reader.readLine();
+                }
+            }
+            throw new IOException("InfluxDB responded with status " + status + ": " + message);
+        }
+    }
+
+    private static boolean isCumulative(MetricDescriptor.Type type) {
+        return type == MetricDescriptor.Type.CUMULATIVE_INT64 || type == MetricDescriptor.Type.CUMULATIVE_DOUBLE || type == MetricDescriptor.Type.CUMULATIVE_DISTRIBUTION;
+    }
+
+    /**
+     * Derives the field name of a metric, which is the metric name without the measure name prefix,
+     * e.g. the metric "http/in/count" of the measure "http/in" results in the field "count".
+     */
+    @VisibleForTesting
+    static String getFieldName(String metricName, String measureName) {
+        if (metricName.startsWith(measureName) && metricName.length() > measureName.length()) {
+            String fieldName = metricName.substring(measureName.length());
+            if (fieldName.startsWith("/")) {
+                fieldName = fieldName.substring(1);
+            }
+            if (!fieldName.isEmpty()) {
+                return sanitizeName(fieldName);
+            }
+        }
+        return DEFAULT_FIELD_NAME;
+    }
+
+    @VisibleForTesting
+    static String sanitizeName(String name) {
+        return INVALID_NAME_CHARACTERS.matcher(name).replaceAll("_");
+    }
+
+    @VisibleForTesting
+    static String escapeTag(String value) {
+        return TAG_SPECIAL_CHARACTERS.matcher(value.replace("\\", "\\\\")).replaceAll("\\\\$1");
+    }
+
+    private static String getSeriesKey(String measurement, List<LabelKey> keys, List<LabelValue> values) {
+        StringBuilder series = new StringBuilder(measurement);
+        for (int i = 0; i < keys.size() && i < values.size(); i++) {
+            String value = values.get(i).getValue();
+            // influx does not allow empty tag values
+            if (value != null && !value.isEmpty()) {
+                series.append(',').append(escapeTag(keys.get(i).getKey())).append('=').append(escapeTag(value));
+            }
+        }
+        return series.toString();
+    }
+
+    private static String encode(String value) throws UnsupportedEncodingException {
+        return URLEncoder.encode(value, "UTF-8");
+    }
+
+    /**
+     * A write request whose body is streamed in chunks. The connection is opened lazily with the first line, so that
+     * no request is sent if there is nothing to write.
+     */
+    private class WriteRequest implements Closeable {
+
+        private HttpURLConnection connection;
+
+        private Writer writer;
+
+        private int lines;
+
+        private void writeLine(String line) throws IOException {
+            if (writer == null) {
+                connection = openConnection(writeUrl);
+                connection.setRequestProperty("Content-Type", "text/plain; charset=utf-8");
+                connection.setRequestProperty("Content-Encoding", "gzip");
+                connection.setChunkedStreamingMode(CHUNK_SIZE);
+                writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(connection.getOutputStream(), CHUNK_SIZE), StandardCharsets.UTF_8), CHUNK_SIZE);
+            }
+            writer.write(line);
+            writer.write('\n');
+            lines++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+                checkResponse(connection);
+            }
+        }
+    }
+
+    /**
+     * The previous values of counter series, bounded in size.
+     * New values are kept as pending until they are committed after a successful write.
+     * Once the maximum number of series is reached, new series are rejected instead of evicting known series. As all
+     * series are exported in the same order, evicting the least recently used series would evict each series before
+     * it is exported again, so that no series would be written anymore.
+     */
+    private static class DifferenceState {
+
+        private final int maxSeries;
+
+        private final long idleTimeoutMillis;
+
+        /**
+         * The previous values by series and field.
+         */
+        private final Map<String, Entry> entries = new HashMap<>();
+
+        /**
+         * The entries with a pending value of the current export.
+         */
+        private final List<Entry> pending = new ArrayList<>();
+
+        /**
+         * The number of series rejected since the last call of {@link #getAndResetRejectedSeries()}.
+         */
+        private int rejectedSeries;
+
+        private DifferenceState(int maxSeries, long idleTimeoutMillis) {
+            this.maxSeries = maxSeries;
+            this.idleTimeoutMillis = idleTimeoutMillis;
+        }
+
+        /**
+         * Returns the difference of the given value to the previous value of the given series.
+         * If the series has no previous value, e.g. because it is new or has been evicted, the given value is only
+         * kept as baseline, as the increase since the last export is unknown.
+         *
+         * @return the difference with the type of the given value, null if the value has not changed, the series
+         * has no previous value or the series is rejected because the maximum number of series has been reached
+         */
+        private Number getDifference(String key, Number value, long timestamp) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                if (entries.size() >= maxSeries) {
+                    rejectedSeries++;
+                    return null;
+                }
+                entry = new Entry();
+                entries.put(key, entry);
+            }
+            entry.lastSeen = timestamp;
+            entry.pendingValue = value;
+            pending.add(entry);
+
+            Number previous = entry.value;
+            if (previous == null) {
+                return null;
+            }
+            if (value instanceof Long) {
+                long difference = value.longValue() - previous.longValue();
+                return difference == 0 ? null : difference;
+            } else {
+                double difference = value.doubleValue() - previous.doubleValue();
+                return difference == 0 ? null : difference;
+            }
+        }
+
+        private void commit() {
+            for (Entry entry : pending) {
+                entry.value = entry.pendingValue;
+            }
+            pending.clear();
+        }
+
+        private void discardPending() {
+            pending.clear();
+        }
+
+        private void evictIdle(long timestamp) {
+            entries.values().removeIf(entry -> timestamp - entry.lastSeen > idleTimeoutMillis);
+        }
+
+        private int getAndResetRejectedSeries() {
+            int result = rejectedSeries;
+            rejectedSeries = 0;
+            return result;
+        }
+
+        private int size() {
+            return entries.size();
+        }
+
+        private static class Entry {
+
+            /**
+             * The value which has been written successfully the last time, null if not written yet.
+             */
+            private Number value;
+
+            private Number pendingValue;
+
+            private long lastSeen;
+        }
+    }
+}
@@ -61,26 +61,60 @@ public class SampledTrace {
     private Span rootSpan;
 
     /**
-     * The list storing the sequence of events.
-     * E.g. whenever a stack-trace sample is recorded or an instrumented method is entered or exited,
-     * a corresponding event is appended to this list.
+     * The buffer storing the sequence of stack-trace samples.
+     * It is only written by the thread taking the samples.
+     */
+    private TraceEventBuffer<StackTraceSampledEvent> samples;
+
+    /**
+     * The buffer storing the sequence of method entry and exit events of instrumented methods.
+     * It is only written by the thread for which this trace is recorded.
      * <p>
-     * This means that the order of the events in this List corresponds to the order in time in which the events occurred!
+     * Together with {@link #samples} this defines the sequence of events, which are merged in {@link #getEvents()}.
+     * Each sample remembers how many method events have been recorded before it, so the merged order corresponds
+     * to the order in time in which the events occurred!
+     */
+    private TraceEventBuffer<TraceEvent> methodEvents;
+
+    /**
+     * The trie in which all sampled stack traces are interned.
+     * Each {@link StackTraceSampledEvent} only references a node of this trie instead of a full stack trace.
+     */
+    private StackTraceTrie callPaths;
+
+    /**
+     * The maximum number of stack-trace samples and method entries recorded for this trace.
+     * Method exits are always recorded for recorded entries, so that the trace stays consistent.
+     */
+    private int maxEvents;
+
+    /**
+     * The number of recorded method entries, which are counted towards {@link #maxEvents} together with the samples.
+     * It is only written by the thread for which this trace is recorded.
      */
-    private ArrayList<TraceEvent> events;
+    private volatile int methodEntryCount;
 
-    public SampledTrace(Span rootSpan, Supplier<StackTrace> rootStackTraceProvider) {
+    /**
+     * Flag, whether any events have been dropped because {@link #maxEvents} was reached.
+     */
+    private volatile boolean isTruncated;
+
+    public SampledTrace(Span rootSpan, Supplier<StackTrace> rootStackTraceProvider, int maxEvents) {
         this.rootStackTraceProvider = rootStackTraceProvider;
         this.rootSpan = rootSpan;
-        events = new ArrayList<>();
+        this.maxEvents = maxEvents;
+        samples = new TraceEventBuffer<>();
+        methodEvents = new TraceEventBuffer<>();
+        callPaths = new StackTraceTrie();
         isFinished = false;
         isPaused = false;
+        isTruncated = false;
     }
 
     /**
      * Marks this trace as finished, meaning that no future data will be recorded.
      */
-    public synchronized void finish() {
+    public void finish() {
         isFinished = true;
     }
 
@@ -102,21 +136,54 @@ public class SampledTrace {
         isPaused = paused;
     }
 
+    /**
+     * Checks if more events can be recorded for this trace. Only samples and method entries are counted, method exits
+     * are always recorded for recorded entries.
+     * If this is not the case, instrumented methods should not be recorded via {@link #newSpanStarted(PlaceholderSpan, String, String)},
+     * but be traced as normal spans instead, and no more stack traces should be sampled.
+     *
+     * @return true, if the maximum number of events has not been reached yet
+     */
+    public boolean hasCapacity() {
+        return samples.size() + methodEntryCount < maxEvents;
+    }
+
+    /**
+     * @return true, if any events of this trace have been dropped because the maximum number of events was reached.
+     */
+    public boolean isTruncated() {
+        return isTruncated;
+    }
+
+    /**
+     * Marks this trace as truncated, used when samples are not taken anymore because the maximum number of events has
+     * been reached.
+     */
+    public void markTruncated() {
+        isTruncated = true;
+    }
+
     /**
      * Called when a new stack trace has been recorded.
+     * Must only be called by a single thread, which is the one taking the samples.
      *
      * @param stackTrace the new stack trace
      * @param timestamp  the (approximate) timestamp when the stack trace was recorded
      */
-    public synchronized void addStackTrace(StackTrace stackTrace, long timestamp) {
+    public void addStackTrace(StackTrace stackTrace, long timestamp) {
         if (!isFinished) {
-            events.add(new StackTraceSampledEvent(stackTrace, timestamp));
+            if (hasCapacity()) {
+                samples.add(new StackTraceSampledEvent(callPaths.intern(stackTrace), timestamp, methodEvents.size()));
+            } else {
+                isTruncated = true;
+            }
         }
     }
 
     /**
      * Should be called when an instrumented method is called within this trace.
      * This ensures that the method is correctly placed between the sampled method calls.
+     * Must only be called by the thread for which this trace is recorded.
      *
      * @param span       the placeholder for the newly started method
      * @param className  the class declaring the method which was invoked (used to locate it within stack traces)
@@ -124,10 +191,11 @@ public class SampledTrace {
      *
      * @return a callback which must be invoked as soon as the method finishes.
      */
-    public synchronized MethodExitNotifier newSpanStarted(PlaceholderSpan span, String className, String methodName) {
+    public MethodExitNotifier newSpanStarted(PlaceholderSpan span, String className, String methodName) {
         if (!isFinished) {
             MethodEntryEvent entryEvent = new MethodEntryEvent(span, null, span.getStartNanoTime(), className, methodName, null);
-            events.add(entryEvent);
+            methodEvents.add(entryEvent);
+            methodEntryCount++;
             return (exitTime) -> addExit(entryEvent, exitTime);
         }
         return (time) -> {
@@ -137,6 +205,7 @@ public class SampledTrace {
     /**
      * Should be called when an instrumented method is called within this trace, which however does continue an existing span instead of creating a new one.
      * This ensures that the method is correctly placed between the sampled method calls.
+     * Must only be called by the thread for which this trace is recorded.
      *
      * @param span       the span which was continued
      * @param startTime  the entry timestamp of the method call
@@ -145,22 +214,58 @@ public class SampledTrace {
      *
      * @return a callback which must be invoked as soon as the method finishes.
      */
-    public synchronized MethodExitNotifier spanContinued(Span span, long startTime, String className, String methodName) {
+    public MethodExitNotifier spanContinued(Span span, long startTime, String className, String methodName) {
         if (!isFinished) {
-            MethodEntryEvent entryEvent = new MethodEntryEvent(null, span, startTime, className, methodName, null);
-            events.add(entryEvent);
-            return (exitTime) -> addExit(entryEvent, exitTime);
+            if (hasCapacity()) {
+                MethodEntryEvent entryEvent = new MethodEntryEvent(null, span, startTime, className, methodName, null);
+                methodEvents.add(entryEvent);
+                methodEntryCount++;
+                return (exitTime) -> addExit(entryEvent, exitTime);
+            }
+            isTruncated = true;
         }
         return (time) -> {
-        }; //Return NOOP if already finished
+        }; //Return NOOP if already finished or no more events can be recorded
     }
 
-    private synchronized void addExit(MethodEntryEvent entryEvent, long timestamp) {
+    private void addExit(MethodEntryEvent entryEvent, long timestamp) {
         if (!isFinished) {
-            events.add(new MethodExitEvent(entryEvent, timestamp));
+            methodEvents.add(new MethodExitEvent(entryEvent, timestamp));
         }
     }
 
+    /**
+     * Merges the recorded samples and method events into a single sequence.
+     *
+     * @return the list of all events in the order they were recorded
+     */
+    private List<TraceEvent> getEvents() {
+        List<StackTraceSampledEvent> sampleList = samples.toList();
+        List<TraceEvent> methodEventList = methodEvents.toList();
+
+        List<TraceEvent> events = new ArrayList<>(sampleList.size() + methodEventList.size());
+        int methodIndex = 0;
+        for (StackTraceSampledEvent sample : sampleList) {
+            int end = Math.min(sample.getPrecedingMethodEvents(), methodEventList.size());
+            while (methodIndex < end) {
+                events.add(methodEventList.get(methodIndex++));
+            }
+            events.add(sample);
+        }
+        while (methodIndex < methodEventList.size()) {
+            events.add(methodEventList.get(methodIndex++));
+        }
+        return events;
+    }
+
+    /**
+     * @return the number of distinct call paths which have been sampled for this trace.
+     */
+    @VisibleForTesting
+    int getSampledCallPathCount() {
+        return callPaths.size();
+    }
+
     /**
      * Reconstructs the trace from the series of stack trace samples and method entry / exit events.
      * The reconstructed trace is exported via open-census.
@@ -181,7 +286,7 @@ public class SampledTrace {
     Iterable<Invocation> generateInvocations() {
         StackTrace rootTrace = rootStackTraceProvider.get();
         int rootDepth = rootTrace.size() - 1;
-        Iterable<Invocation> invocations = InvocationResolver.convertEventsToInvocations(events, rootDepth);
+        Iterable<Invocation> invocations = InvocationResolver.convertEventsToInvocations(getEvents(), rootDepth);
         return invocations;
     }
 
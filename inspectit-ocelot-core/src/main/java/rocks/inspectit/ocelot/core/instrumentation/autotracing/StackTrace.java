@@ -5,10 +5,6 @@ import com.google.common.annotations.VisibleForTesting;
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadInfo;
 import java.lang.management.ThreadMXBean;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * A wrapper for an Array of {@link StackTraceElement}s as returned by {@link Thread#getStackTrace}.
@@ -37,7 +33,7 @@ public class StackTrace {
         cleanup();
     }
 
-    private StackTrace(StackTraceElement[] data, int size) {
+    StackTrace(StackTraceElement[] data, int size) {
         this.data = data;
         this.size = size;
     }
@@ -55,26 +51,25 @@ public class StackTrace {
 
     /**
      * Returns a stacktrace for each of the specified Threads.
-     * When more than one thread is requested, {@link Thread#getAllStackTraces()} will be used.
+     * All stack traces are captured with a single {@link ThreadMXBean#getThreadInfo(long[], int)} call.
      * The reason is that this way only one safepoint needs to be reached instead of N (where N is the number of Threads)
+     * <p>
+     * Stack traces are captured starting at the top frame, so a stack which is deeper than {@link #MAX_DEPTH} does not contain its root frames.
+     * As such a stack trace cannot be aligned with the root of a sampled trace, it is not returned.
      *
-     * @param threads
+     * @param threadIds the ids of the threads to capture
      *
-     * @return
+     * @return an array containing the stack trace of the thread at the same index, or null if no stack trace could be captured.
      */
-    public static Map<Thread, StackTrace> createFor(Collection<Thread> threads) {
-        long[] ids = threads.stream().mapToLong(Thread::getId).toArray();
-        Map<Long, Thread> idsToThreads = threads.stream().collect(Collectors.toMap(Thread::getId, thread -> thread));
-
-        ThreadInfo[] threadInfos = THREAD_BEAN.getThreadInfo(ids, MAX_DEPTH);
-
-        Map<Thread, StackTrace> result = new HashMap<>();
+    public static StackTrace[] createFor(long[] threadIds) {
+        ThreadInfo[] threadInfos = THREAD_BEAN.getThreadInfo(threadIds, MAX_DEPTH);
 
+        StackTrace[] result = new StackTrace[threadIds.length];
         for (int i = 0; i < threadInfos.length; i++) {
-            Thread thread = idsToThreads.get(ids[i]);
-            StackTraceElement[] stackTrace = threadInfos[i].getStackTrace();
-            if (stackTrace != null && stackTrace.length > 0) {
-                result.put(thread, new StackTrace(stackTrace));
+            // the thread info is null if the thread has terminated in the meantime
+            StackTraceElement[] stackTrace = threadInfos[i] == null ? null : threadInfos[i].getStackTrace();
+            if (stackTrace != null && stackTrace.length > 0 && stackTrace.length < MAX_DEPTH) {
+                result[i] = new StackTrace(stackTrace);
             }
         }
         return result;
@@ -17,16 +17,15 @@ import rocks.inspectit.ocelot.core.config.InspectitConfigChangedEvent;
 import rocks.inspectit.ocelot.core.config.InspectitEnvironment;
 import rocks.inspectit.ocelot.core.instrumentation.hook.MethodReflectionInformation;
 import rocks.inspectit.ocelot.core.opentelemetry.OpenTelemetryControllerImpl;
+import rocks.inspectit.ocelot.core.selfmonitoring.SelfMonitoringService;
 import rocks.inspectit.ocelot.core.utils.HighPrecisionTimer;
 import rocks.inspectit.ocelot.core.utils.OpenTelemetryUtils;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.*;
-import java.util.stream.Collectors;
 
 /**
  * Component for executing stack-trace-sampling (=auto-tracing).
@@ -67,6 +66,9 @@ public class StackTraceSampler {
     @Autowired
     private ScheduledExecutorService executor;
 
+    @Autowired
+    private SelfMonitoringService selfMonitoring;
+
     /**
      * The task periodicalyl executed for ptocessing the {@link #tracesToExport} queue.
      */
@@ -83,6 +85,14 @@ public class StackTraceSampler {
      */
     private ConcurrentHashMap<Thread, SampledTrace> activeSamplings = new ConcurrentHashMap<>();
 
+    /**
+     * Buffers reused by {@link #doSample()} for collecting the threads to sample and their traces.
+     * They are only accessed by the timer thread and grow as needed.
+     */
+    private long[] sampledThreadIds = new long[16];
+
+    private SampledTrace[] sampledTraces = new SampledTrace[16];
+
     /**
      * The timer used to trigger the capturing of stack-trace samples.
      */
@@ -231,7 +241,8 @@ public class StackTraceSampler {
             return rootSpan.makeCurrent();
         } else {
             Throwable stackTrace = new Throwable(); //the constructor collects the current stack-trace
-            SampledTrace sampledTrace = new SampledTrace(rootSpan, () -> StackTrace.createFromThrowable(stackTrace));
+            int maxEvents = env.getCurrentConfig().getTracing().getAutoTracing().getMaxEventsPerTrace();
+            SampledTrace sampledTrace = new SampledTrace(rootSpan, () -> StackTrace.createFromThrowable(stackTrace), maxEvents);
             Thread selfThread = Thread.currentThread();
             activeSamplings.put(selfThread, sampledTrace);
             sampleTimer.start();
@@ -246,6 +257,10 @@ public class StackTraceSampler {
     }
 
     private AutoCloseable createSamplingAwareSpan(String name, SpanContext remoteParent, SpanKind kind, MethodReflectionInformation actualMethod, SampledTrace activeSampling) {
+        if (!activeSampling.hasCapacity()) {
+            // the trace has reached its maximum size, so the span is not placed between the samples but traced normally
+            return createNormalSpan(name, remoteParent, null, kind).makeCurrent();
+        }
         SpanContext parent = remoteParent;
         if (remoteParent == null) {
             parent = Span.current().getSpanContext();
@@ -287,27 +302,40 @@ public class StackTraceSampler {
      * Returns true, if any sampling was performed
      */
     private boolean doSample() {
-        //copy the map to avoid concurrent modifications due to the starting and ending of sampling traces
-        Map<Thread, SampledTrace> samplingsCopy = new HashMap<>(activeSamplings);
-
-        Set<Thread> threadsToSample = samplingsCopy.keySet()
-                .stream()
-                .filter(trace -> !samplingsCopy.get(trace).isPaused())
-                .collect(Collectors.toSet());
+        // iterating the concurrent map is weakly consistent, so we do not need to copy it to be safe against the concurrent starting and ending of sampling traces
+        int count = 0;
+        for (Map.Entry<Thread, SampledTrace> sampling : activeSamplings.entrySet()) {
+            SampledTrace trace = sampling.getValue();
+            if (!trace.hasCapacity()) {
+                // the trace is full, so taking a stack trace (which requires a safepoint) would be wasted
+                trace.markTruncated();
+            } else if (!trace.isPaused()) {
+                if (count == sampledTraces.length) {
+                    sampledThreadIds = Arrays.copyOf(sampledThreadIds, count * 2);
+                    sampledTraces = Arrays.copyOf(sampledTraces, count * 2);
+                }
+                sampledThreadIds[count] = sampling.getKey().getId();
+                sampledTraces[count] = trace;
+                count++;
+            }
+        }
+        if (count == 0) {
+            return false;
+        }
 
         long timestamp = clock.nanoTime();
-        Map<Thread, StackTrace> stackTraces = StackTrace.createFor(threadsToSample);
+        StackTrace[] stackTraces = StackTrace.createFor(Arrays.copyOf(sampledThreadIds, count));
 
         boolean anySampled = false;
-
-        for (Thread thread : threadsToSample) {
-            SampledTrace trace = samplingsCopy.get(thread);
-            StackTrace stackTrace = stackTraces.get(thread);
+        for (int i = 0; i < count; i++) {
+            StackTrace stackTrace = stackTraces[i];
             if (stackTrace != null) { //recheck for concurrent finishSampling() calls
                 anySampled = true;
-                trace.addStackTrace(stackTrace, timestamp); //has no effect if the trace was finished concurrently
+                sampledTraces[i].addStackTrace(stackTrace, timestamp); //has no effect if the trace was finished concurrently
             }
         }
+        // do not keep finished traces reachable until the next sample
+        Arrays.fill(sampledTraces, 0, count, null);
 
         return anySampled;
     }
@@ -321,7 +349,11 @@ public class StackTraceSampler {
     private void doExportTraces() {
         while (!tracesToExport.isEmpty()) {
             try {
-                tracesToExport.poll().export();
+                SampledTrace trace = tracesToExport.poll();
+                trace.export();
+                if (trace.isTruncated()) {
+                    selfMonitoring.recordMeasurement("auto-tracing/truncated-traces", 1L);
+                }
             } catch (Exception e) {
                 log.error("Error exporting sampled trace", e);
             }
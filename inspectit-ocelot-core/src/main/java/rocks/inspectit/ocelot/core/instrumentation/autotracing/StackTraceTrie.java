@@ -0,0 +1,144 @@
+package rocks.inspectit.ocelot.core.instrumentation.autotracing;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A trie of call paths used for interning the stack traces sampled within a single {@link SampledTrace}.
+ * Consecutive samples of a thread usually share almost all of their frames.
+ * Therefore, instead of storing a full {@link StackTrace} per sample, each sample only stores a reference to the
+ * {@link Node} representing its top-most frame. The path from this node up to the root of the trie is the sampled stack trace.
+ * <p>
+ * The {@link StackTrace} of a node is only materialized when it is actually needed, which is when the trace is exported.
+ * <p>
+ * This class is not thread-safe: nodes are expected to be added by a single thread at a time.
+ */
+public class StackTraceTrie {
+
+    /**
+     * The root of the trie, which does not represent any frame.
+     */
+    private final Node root = new Node(null, null);
+
+    /**
+     * The number of nodes (=distinct call paths) within this trie, excluding the root.
+     */
+    private int size = 0;
+
+    /**
+     * Inserts the call path of the given stack trace into this trie.
+     *
+     * @param stackTrace the stack trace to intern
+     *
+     * @return the node representing the top-most frame of the given stack trace.
+     */
+    public Node intern(StackTrace stackTrace) {
+        Node current = root;
+        for (int i = 0; i < stackTrace.size(); i++) {
+            StackTraceElement frame = stackTrace.get(i);
+            Node child = current.getChild(frame);
+            if (child == null) {
+                child = current.addChild(frame);
+                size++;
+            }
+            current = child;
+        }
+        return current;
+    }
+
+    /**
+     * @return the number of distinct call paths stored in this trie.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * A single frame within the trie, representing the call path from the root to this frame.
+     */
+    public static class Node {
+
+        /**
+         * The frame represented by this node, null for the root of the trie.
+         */
+        private final StackTraceElement frame;
+
+        /**
+         * The node representing the caller of this frame, null for the root of the trie.
+         */
+        private final Node parent;
+
+        /**
+         * The depth of this node, which is equal to the size of the stack trace it represents.
+         */
+        private final int depth;
+
+        /**
+         * Most frames only ever have a single callee, therefore we store the first child directly
+         * and only allocate {@link #otherChildren} for nodes with multiple distinct callees.
+         */
+        private Node firstChild;
+
+        private Map<StackTraceElement, Node> otherChildren;
+
+        /**
+         * The lazily materialized stack trace of this node, see {@link #toStackTrace()}.
+         */
+        private StackTrace stackTrace;
+
+        private Node(StackTraceElement frame, Node parent) {
+            this.frame = frame;
+            this.parent = parent;
+            depth = parent == null ? 0 : parent.depth + 1;
+        }
+
+        private Node getChild(StackTraceElement childFrame) {
+            if (firstChild == null) {
+                return null;
+            }
+            if (firstChild.frame.equals(childFrame)) {
+                return firstChild;
+            }
+            return otherChildren == null ? null : otherChildren.get(childFrame);
+        }
+
+        private Node addChild(StackTraceElement childFrame) {
+            Node child = new Node(childFrame, this);
+            if (firstChild == null) {
+                firstChild = child;
+            } else {
+                if (otherChildren == null) {
+                    otherChildren = new HashMap<>();
+                }
+                otherChildren.put(childFrame, child);
+            }
+            return child;
+        }
+
+        /**
+         * @return the size of the stack trace represented by this node.
+         */
+        public int getDepth() {
+            return depth;
+        }
+
+        /**
+         * Materializes the stack trace represented by this node.
+         * The result is cached, so samples sharing the same node also share the same {@link StackTrace} instance.
+         *
+         * @return the stack trace from the root of the trie up to this node.
+         */
+        public StackTrace toStackTrace() {
+            if (stackTrace == null) {
+                StackTraceElement[] frames = new StackTraceElement[depth];
+                Node current = this;
+                for (int i = 0; i < depth; i++) {
+                    frames[i] = current.frame;
+                    current = current.parent;
+                }
+                stackTrace = new StackTrace(frames, depth);
+            }
+            return stackTrace;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package rocks.inspectit.ocelot.core.instrumentation.autotracing;
+
+import rocks.inspectit.ocelot.core.instrumentation.autotracing.events.TraceEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An append-only buffer for {@link TraceEvent}s which is written by a single thread.
+ * <p>
+ * Events are stored in fixed-size chunks, so appending never copies already recorded events.
+ * The number of recorded events is published via a volatile field after each append.
+ * This allows other threads (e.g. the one exporting the trace) to read all events appended so far without any locking.
+ *
+ * @param <T> the type of the stored events
+ */
+class TraceEventBuffer<T extends TraceEvent> {
+
+    private static final int CHUNK_SIZE = 64;
+
+    private static class Chunk {
+
+        private final TraceEvent[] events = new TraceEvent[CHUNK_SIZE];
+
+        private Chunk next;
+    }
+
+    private final Chunk head = new Chunk();
+
+    /**
+     * The chunk to which the next event is appended, only accessed by the writing thread.
+     */
+    private Chunk tail = head;
+
+    /**
+     * The number of events in the {@link #tail} chunk, only accessed by the writing thread.
+     */
+    private int tailSize = 0;
+
+    /**
+     * The total number of events, written only by the writing thread after the event has been stored.
+     */
+    private volatile int size = 0;
+
+    /**
+     * Appends an event. Must only be called by the single thread writing to this buffer.
+     *
+     * @param event the event to append
+     */
+    void add(T event) {
+        if (tailSize == CHUNK_SIZE) {
+            Chunk newTail = new Chunk();
+            tail.next = newTail;
+            tail = newTail;
+            tailSize = 0;
+        }
+        tail.events[tailSize++] = event;
+        size = size + 1; //publishes the event to other threads
+    }
+
+    /**
+     * @return the number of events which have been appended so far.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Copies all events which have been appended so far into a list.
+     *
+     * @return the events in the order they were appended
+     */
+    @SuppressWarnings("unchecked")
+    List<T> toList() {
+        int count = size;
+        List<T> result = new ArrayList<>(count);
+        Chunk current = head;
+        while (result.size() < count) {
+            int end = Math.min(CHUNK_SIZE, count - result.size());
+            for (int i = 0; i < end; i++) {
+                result.add((T) current.events[i]);
+            }
+            current = current.next;
+        }
+        return result;
+    }
+}
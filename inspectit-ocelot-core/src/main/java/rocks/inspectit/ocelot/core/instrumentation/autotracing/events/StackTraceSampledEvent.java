@@ -2,6 +2,7 @@ package rocks.inspectit.ocelot.core.instrumentation.autotracing.events;
 
 import lombok.Value;
 import rocks.inspectit.ocelot.core.instrumentation.autotracing.StackTrace;
+import rocks.inspectit.ocelot.core.instrumentation.autotracing.StackTraceTrie;
 
 /**
  * This event represents a captured stack-trace of the target thread at a given timestamp.
@@ -10,13 +11,24 @@ import rocks.inspectit.ocelot.core.instrumentation.autotracing.StackTrace;
 public class StackTraceSampledEvent implements TraceEvent {
 
     /**
-     * The captured stack trace.
+     * The captured call path, interned in the {@link StackTraceTrie} of the trace this event belongs to.
      */
-    private StackTrace stackTrace;
+    private StackTraceTrie.Node callPath;
 
     /**
      * The time at which the stack trace was captured.
      */
     private long timestamp;
 
+    /**
+     * The number of method entry and exit events which have been recorded for the trace before this sample.
+     * Samples and method events are recorded by different threads into separate buffers,
+     * this index is used to merge them in the order in which they were recorded.
+     */
+    private int precedingMethodEvents;
+
+    @Override
+    public StackTrace getStackTrace() {
+        return callPath.toStackTrace();
+    }
 }
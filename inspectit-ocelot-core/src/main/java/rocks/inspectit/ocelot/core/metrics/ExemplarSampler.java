@@ -0,0 +1,227 @@
+package rocks.inspectit.ocelot.core.metrics;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.opencensus.contrib.exemplar.util.ExemplarUtils;
+import io.opencensus.stats.MeasureMap;
+import io.opencensus.tags.TagContext;
+import io.opencensus.trace.SpanId;
+import io.opencensus.trace.TraceId;
+import io.opencensus.trace.TraceOptions;
+import io.opencensus.trace.Tracestate;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import rocks.inspectit.ocelot.config.model.metrics.ExemplarSettings;
+import rocks.inspectit.ocelot.config.model.metrics.definition.MetricDefinitionSettings;
+import rocks.inspectit.ocelot.config.model.metrics.definition.ViewDefinitionSettings;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Attaches the context of the current span to measurements recorded via OpenCensus, so that the histogram views
+ * keep exemplars referencing the traces of the measurements.
+ * <p>
+ * OpenCensus keeps the latest exemplar of each bucket of each series. To bound the overhead of creating the
+ * attachments, the measurements of a measure are grouped into value ranges of powers of two and each value range
+ * only accepts an exemplar once per sample interval. This way, rare measurements, e.g. slow outliers falling into the
+ * upper buckets, still receive an exemplar, while most measurements of frequent value ranges are recorded without one.
+ * <p>
+ * The value ranges are kept separately for each series, so that a frequently recorded series does not prevent the
+ * exemplars of other series. The number of series per measure is bounded by the series limits of its histogram views,
+ * or by {@link #MAX_SERIES} if one of them is not limited. All further series share the value ranges of one overflow
+ * series, similar to the overflow series of the views.
+ */
+class ExemplarSampler {
+
+    /**
+     * The number of value ranges of a measure: one for values below 1 and one for each power of two up to 2^64.
+     */
+    @VisibleForTesting
+    static final int VALUE_RANGES = 65;
+
+    /**
+     * The maximum number of series per measure if one of its histogram views has no series limit.
+     */
+    @VisibleForTesting
+    static final int MAX_SERIES = 10000;
+
+    private static final TraceOptions SAMPLED = TraceOptions.builder().setIsSampled(true).build();
+
+    private static final Tracestate EMPTY_TRACESTATE = Tracestate.builder().build();
+
+    /**
+     * The clock used for the sample interval, returning nanoseconds.
+     */
+    private final Supplier<Long> clock;
+
+    /**
+     * Maps the names of all measures with histogram views to the timestamps of the last exemplars of their series.
+     */
+    private final ConcurrentHashMap<String, MeasureExemplarTimestamps> lastExemplarTimestamps = new ConcurrentHashMap<>();
+
+    /**
+     * True, if exemplars are recorded.
+     */
+    private volatile boolean enabled;
+
+    /**
+     * The minimum duration between two exemplars of the same value range in nanoseconds.
+     */
+    private volatile long sampleIntervalNanos;
+
+    ExemplarSampler() {
+        this(System::nanoTime);
+    }
+
+    @VisibleForTesting
+    ExemplarSampler(Supplier<Long> clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * @return true, if exemplars are currently recorded
+     */
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Applies the given settings.
+     *
+     * @param settings the current exemplar settings
+     */
+    void updateSettings(ExemplarSettings settings) {
+        if (settings.isEnabled()) {
+            sampleIntervalNanos = settings.getSampleInterval().toNanos();
+        }
+        enabled = settings.isEnabled();
+    }
+
+    /**
+     * Updates whether measurements of the given measure are considered for exemplars, which is only the case if the
+     * measure has at least one enabled histogram view. The number of series tracked for the measure is bounded by the
+     * series limits of its histogram views plus one for their overflow series.
+     *
+     * @param measureName      the name of the measure
+     * @param definition       the definition of the measure and its views
+     * @param defaultMaxSeries the series limit of views which do not define their own limit, null if unlimited
+     */
+    void updateMeasure(String measureName, MetricDefinitionSettings definition, Integer defaultMaxSeries) {
+        List<Integer> histogramLimits = definition.getViews()
+                .values()
+                .stream()
+                .filter(view -> view.isEnabled() && view.getAggregation() == ViewDefinitionSettings.Aggregation.HISTOGRAM)
+                .map(view -> view.getMaxSeries() != null ? view.getMaxSeries() : defaultMaxSeries)
+                .collect(Collectors.toList());
+        if (histogramLimits.isEmpty()) {
+            lastExemplarTimestamps.remove(measureName);
+            return;
+        }
+        boolean unlimited = histogramLimits.stream().anyMatch(limit -> limit == null || limit <= 0);
+        int maxSeries = unlimited ? MAX_SERIES : histogramLimits.stream().mapToInt(Integer::intValue).max().getAsInt() + 1;
+        MeasureExemplarTimestamps existing = lastExemplarTimestamps.get(measureName);
+        if (existing == null || existing.maxSeries != maxSeries) {
+            lastExemplarTimestamps.put(measureName, new MeasureExemplarTimestamps(maxSeries));
+        }
+    }
+
+    /**
+     * @param measureName the name of the measure
+     *
+     * @return the number of series of the given measure whose exemplars are rate limited separately
+     */
+    @VisibleForTesting
+    int getSeriesCount(String measureName) {
+        MeasureExemplarTimestamps timestamps = lastExemplarTimestamps.get(measureName);
+        return timestamps == null ? 0 : timestamps.series.size();
+    }
+
+    /**
+     * Attaches the context of the current span to the given measure map, in case the current span is sampled and the
+     * value range of the given value has not received an exemplar within the sample interval for the series of the
+     * given tags.
+     *
+     * @param measureMap  the measure map the value is recorded with
+     * @param measureName the name of the measure
+     * @param value       the recorded value
+     * @param tags        the tags the value is recorded with
+     */
+    void putSpanContextAttachment(MeasureMap measureMap, String measureName, double value, TagContext tags) {
+        MeasureExemplarTimestamps timestamps = lastExemplarTimestamps.get(measureName);
+        if (timestamps == null) {
+            return;
+        }
+        SpanContext spanContext = Span.current().getSpanContext();
+        // the series is only looked up for sampled spans
+        if (spanContext.isSampled() && tryAcquire(timestamps.getSeries(tags), getValueRange(value))) {
+            ExemplarUtils.putSpanContextAttachments(measureMap, toOpenCensus(spanContext));
+        }
+    }
+
+    private boolean tryAcquire(AtomicLongArray timestamps, int index) {
+        long now = clock.get();
+        long last = timestamps.get(index);
+        return (last == 0 || now - last >= sampleIntervalNanos) && timestamps.compareAndSet(index, last, now);
+    }
+
+    /**
+     * Returns the value range of the given value, which is 0 for values below 1 and n for values in [2^(n-1), 2^n).
+     *
+     * @param value the value
+     *
+     * @return the index of the value range
+     */
+    @VisibleForTesting
+    static int getValueRange(double value) {
+        if (!(value >= 1)) {
+            return 0;
+        }
+        if (value >= 0x1p63) {
+            return VALUE_RANGES - 1;
+        }
+        return Long.SIZE - Long.numberOfLeadingZeros((long) value);
+    }
+
+    private static io.opencensus.trace.SpanContext toOpenCensus(SpanContext spanContext) {
+        return io.opencensus.trace.SpanContext.create(TraceId.fromLowerBase16(spanContext.getTraceId()), SpanId.fromLowerBase16(spanContext
+                .getSpanId()), SAMPLED, EMPTY_TRACESTATE);
+    }
+
+    /**
+     * The timestamps of the last exemplars of each value range of the series of a measure.
+     * A timestamp of 0 means that the value range has not received an exemplar yet.
+     */
+    private static class MeasureExemplarTimestamps {
+
+        /**
+         * The maximum number of series which are tracked separately.
+         */
+        private final int maxSeries;
+
+        private final ConcurrentHashMap<TagContext, AtomicLongArray> series = new ConcurrentHashMap<>();
+
+        /**
+         * The timestamps shared by all series which exceed the {@link #maxSeries}.
+         */
+        private final AtomicLongArray overflowSeries = new AtomicLongArray(VALUE_RANGES);
+
+        private MeasureExemplarTimestamps(int maxSeries) {
+            this.maxSeries = maxSeries;
+        }
+
+        private AtomicLongArray getSeries(TagContext tags) {
+            AtomicLongArray timestamps = series.get(tags);
+            if (timestamps != null) {
+                return timestamps;
+            }
+            // concurrent recordings of new series may exceed the limit by a few series
+            if (series.size() >= maxSeries) {
+                return overflowSeries;
+            }
+            return series.computeIfAbsent(tags, key -> new AtomicLongArray(VALUE_RANGES));
+        }
+    }
+}
@@ -2,9 +2,8 @@ package rocks.inspectit.ocelot.core.metrics;
 
 import com.google.common.annotations.VisibleForTesting;
 import io.opencensus.stats.*;
-import io.opencensus.tags.TagContext;
-import io.opencensus.tags.TagKey;
-import io.opencensus.tags.Tags;
+import io.opencensus.tags.*;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +15,7 @@ import rocks.inspectit.ocelot.config.model.metrics.definition.MetricDefinitionSe
 import rocks.inspectit.ocelot.config.model.metrics.definition.ViewDefinitionSettings;
 import rocks.inspectit.ocelot.core.config.InspectitConfigChangedEvent;
 import rocks.inspectit.ocelot.core.config.InspectitEnvironment;
+import rocks.inspectit.ocelot.core.metrics.opentelemetry.OpenTelemetryViewManager;
 import rocks.inspectit.ocelot.core.metrics.percentiles.PercentileViewManager;
 import rocks.inspectit.ocelot.core.tags.CommonTagsManager;
 
@@ -32,6 +32,8 @@ import java.util.stream.Collectors;
 @Slf4j
 public class MeasuresAndViewsManager {
 
+    private static final TagValue OVERFLOW_TAG_VALUE = TagValue.create(ViewSeriesLimit.OVERFLOW_TAG_VALUE);
+
     @Autowired
     private ViewManager viewManager;
 
@@ -44,6 +46,9 @@ public class MeasuresAndViewsManager {
     @Autowired
     private PercentileViewManager percentileViewManager;
 
+    @Autowired
+    private OpenTelemetryViewManager openTelemetryViewManager;
+
     @Autowired
     private InspectitEnvironment env;
 
@@ -58,6 +63,28 @@ public class MeasuresAndViewsManager {
      */
     private final Map<String, MetricDefinitionSettings> currentMetricDefinitionSettings = new HashMap<>();
 
+    /**
+     * Maps the names of measures to the series limits of their views.
+     * Only views having a limit and at least one tag which is not a common tag are limited.
+     */
+    private final ConcurrentHashMap<String, MeasureSeriesLimits> seriesLimits = new ConcurrentHashMap<>();
+
+    /**
+     * The {@link MetricsSettings#getMaxSeriesPerView()} which was used to build the current {@link #seriesLimits}.
+     */
+    private Integer currentMaxSeriesPerView;
+
+    /**
+     * The {@link MetricsSettings#getBackend()} which is used for the views.
+     * The backend is chosen on the first update of the metric definitions and cannot be changed afterwards.
+     */
+    private volatile MetricsSettings.Backend backend;
+
+    /**
+     * Attaches the current span to the measurements of histogram views recorded via OpenCensus.
+     */
+    private final ExemplarSampler exemplarSampler = new ExemplarSampler();
+
     /**
      * If a measure with the given name is defined via {@link MetricsSettings#getDefinitions()},
      * it is returned by this method.
@@ -117,21 +144,119 @@ public class MeasuresAndViewsManager {
         tryRecordingMeasurement(measureName, value, Tags.getTagger().getCurrentTagContext());
     }
 
+    /**
+     * Records a measurement for the given measure with the given tags, if the measure exists.
+     * If the tags would exceed the series limit of any view of the measure, the limited tags of this view
+     * are replaced with {@link ViewSeriesLimit#OVERFLOW_TAG_VALUE}.
+     * Depending on the {@link MetricsSettings#getBackend()}, the measurement is either recorded via OpenCensus
+     * or directly into the OpenTelemetry instruments of the {@link OpenTelemetryViewManager}.
+     * If exemplars are enabled, measurements recorded via OpenCensus within a sampled span may be recorded with the
+     * context of this span, see {@link ExemplarSampler}.
+     *
+     * @param measureName the name of the measure
+     * @param value       the measurement value for this measure
+     * @param tags        the tags to record the measurement with
+     */
     public void tryRecordingMeasurement(String measureName, Number value, TagContext tags) {
+        TagContext limitedTags = applySeriesLimits(measureName, tags);
+        if (isOpenTelemetryBackend()) {
+            openTelemetryViewManager.recordMeasurement(measureName, value, limitedTags);
+            percentileViewManager.recordMeasurement(measureName, value.doubleValue(), limitedTags);
+            return;
+        }
         val measure = getMeasure(measureName);
         if (measure.isPresent()) {
             val m = measure.get();
             if (m instanceof Measure.MeasureLong) {
                 MeasureMap result = statsRecorder.newMeasureMap();
                 result.put((Measure.MeasureLong) m, value.longValue());
-                result.record(tags);
+                if (exemplarSampler.isEnabled()) {
+                    exemplarSampler.putSpanContextAttachment(result, measureName, value.doubleValue(), limitedTags);
+                }
+                result.record(limitedTags);
             } else if (m instanceof Measure.MeasureDouble) {
                 MeasureMap result = statsRecorder.newMeasureMap();
                 result.put((Measure.MeasureDouble) m, value.doubleValue());
-                result.record(tags);
+                if (exemplarSampler.isEnabled()) {
+                    exemplarSampler.putSpanContextAttachment(result, measureName, value.doubleValue(), limitedTags);
+                }
+                result.record(limitedTags);
             }
         }
-        percentileViewManager.recordMeasurement(measureName, value.doubleValue(), tags);
+        percentileViewManager.recordMeasurement(measureName, value.doubleValue(), limitedTags);
+    }
+
+    /**
+     * Checks the given tags against the series limits of all views of the given measure.
+     * If a view has reached its limit and the tags represent a new series for it,
+     * the limited tags of this view are replaced with {@link ViewSeriesLimit#OVERFLOW_TAG_VALUE}.
+     * <p>
+     * As OpenCensus records a measurement into all views of a measure with the same tags, tags which are also aggregated
+     * by views without a limit or by views which have not reached their limit are kept, so that these views are not affected.
+     * Therefore, a view can exceed its limit if its tags are also used by such views.
+     *
+     * @param measureName the name of the measure
+     * @param tags        the tags of the recording
+     *
+     * @return the tags to use for recording the measurement
+     */
+    private TagContext applySeriesLimits(String measureName, TagContext tags) {
+        MeasureSeriesLimits measureLimits = seriesLimits.get(measureName);
+        if (measureLimits == null) {
+            return tags;
+        }
+        List<ViewSeriesLimit> limits = measureLimits.getLimits();
+        // only allocated if a limit has been reached
+        boolean[] overflowed = null;
+        for (int i = 0; i < limits.size(); i++) {
+            if (!limits.get(i).tryAdd(tags)) {
+                if (overflowed == null) {
+                    overflowed = new boolean[limits.size()];
+                }
+                overflowed[i] = true;
+            }
+        }
+        if (overflowed == null) {
+            return tags;
+        }
+        TagContextBuilder overflowTags = Tags.getTagger().toBuilder(tags);
+        for (int i = 0; i < limits.size(); i++) {
+            if (overflowed[i]) {
+                for (TagKey key : limits.get(i).getLimitedTags()) {
+                    if (!isAggregatedByViewWithinLimit(key, measureLimits, overflowed)) {
+                        overflowTags.putLocal(key, OVERFLOW_TAG_VALUE);
+                    }
+                }
+            }
+        }
+        return overflowTags.build();
+    }
+
+    private boolean isAggregatedByViewWithinLimit(TagKey key, MeasureSeriesLimits measureLimits, boolean[] overflowed) {
+        if (measureLimits.getUnlimitedTags().contains(key)) {
+            return true;
+        }
+        List<ViewSeriesLimit> limits = measureLimits.getLimits();
+        for (int i = 0; i < limits.size(); i++) {
+            if (!overflowed[i] && limits.get(i).isLimited(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isOpenTelemetryBackend() {
+        return backend == MetricsSettings.Backend.OPENTELEMETRY;
+    }
+
+    /**
+     * @return the series limits of all views which are currently limited
+     */
+    public Collection<ViewSeriesLimit> getSeriesLimits() {
+        return seriesLimits.values()
+                .stream()
+                .flatMap(measureLimits -> measureLimits.getLimits().stream())
+                .collect(Collectors.toList());
     }
 
     /**
@@ -144,6 +269,13 @@ public class MeasuresAndViewsManager {
     public void updateMetricDefinitions() {
         MetricsSettings metricsSettings = env.getCurrentConfig().getMetrics();
         if (metricsSettings.isEnabled()) {
+            if (backend == null) {
+                backend = metricsSettings.getBackend();
+            } else if (backend != metricsSettings.getBackend()) {
+                log.warn("Cannot switch the metrics backend from {} to {} at runtime, a restart is required!", backend, metricsSettings
+                        .getBackend());
+            }
+            exemplarSampler.updateSettings(metricsSettings.getExemplars());
             val newMetricDefinitions = metricsSettings.getDefinitions();
 
             newMetricDefinitions.forEach((name, def) -> {
@@ -153,6 +285,13 @@ public class MeasuresAndViewsManager {
                     addOrUpdateAndCacheMeasureWithViews(name, defWithDefaults);
                 }
             });
+            if (!Objects.equals(metricsSettings.getMaxSeriesPerView(), currentMaxSeriesPerView)) {
+                currentMaxSeriesPerView = metricsSettings.getMaxSeriesPerView();
+                currentMetricDefinitionSettings.forEach((name, definition) -> {
+                    updateSeriesLimits(name, definition);
+                    exemplarSampler.updateMeasure(name, definition, currentMaxSeriesPerView);
+                });
+            }
         }
         //TODO: delete removed measures and views as soon as this is possible in Open-Census
     }
@@ -213,6 +352,10 @@ public class MeasuresAndViewsManager {
 
             //TODO: delete views which where created by this class but have been removed from the given metric as soon as OpenCensus supports it
             currentMetricDefinitionSettings.put(measureName, definition);
+            updateSeriesLimits(measureName, definition);
+            exemplarSampler.updateMeasure(measureName, definition, env.getCurrentConfig()
+                    .getMetrics()
+                    .getMaxSeriesPerView());
             cachedMeasures.put(measureName, measure);
 
         } catch (Exception e) {
@@ -220,6 +363,53 @@ public class MeasuresAndViewsManager {
         }
     }
 
+    /**
+     * Creates or updates the series limits for the views of the given measure.
+     * Series already known for a view are kept, as long as the limited tags of the view do not change.
+     *
+     * @param measureName the name of the measure
+     * @param definition  the definition of the measure and its views
+     */
+    private void updateSeriesLimits(String measureName, MetricDefinitionSettings definition) {
+        Integer defaultMaxSeries = env.getCurrentConfig().getMetrics().getMaxSeriesPerView();
+        Set<TagKey> commonTagKeys = new HashSet<>(commonTags.getCommonTagKeys());
+        Map<String, ViewSeriesLimit> existingLimits = Optional.ofNullable(seriesLimits.get(measureName))
+                .map(MeasureSeriesLimits::getLimits)
+                .orElse(Collections.emptyList())
+                .stream()
+                .collect(Collectors.toMap(ViewSeriesLimit::getViewName, limit -> limit));
+
+        List<ViewSeriesLimit> newLimits = new ArrayList<>();
+        Set<TagKey> unlimitedTags = new HashSet<>();
+        definition.getViews().forEach((viewName, view) -> {
+            if (view.isEnabled()) {
+                List<TagKey> limitedTags = getTagKeysForView(view).stream()
+                        .filter(tag -> !commonTagKeys.contains(tag))
+                        .sorted(Comparator.comparing(TagKey::getName))
+                        .collect(Collectors.toList());
+                Integer maxSeries = view.getMaxSeries() != null ? view.getMaxSeries() : defaultMaxSeries;
+                if (limitedTags.isEmpty()) {
+                    return;
+                }
+                if (maxSeries == null || maxSeries <= 0) {
+                    unlimitedTags.addAll(limitedTags);
+                    return;
+                }
+                ViewSeriesLimit existing = existingLimits.get(viewName);
+                if (existing != null) {
+                    newLimits.add(existing.copyWith(limitedTags, maxSeries));
+                } else {
+                    newLimits.add(new ViewSeriesLimit(viewName, limitedTags, maxSeries));
+                }
+            }
+        });
+        if (newLimits.isEmpty()) {
+            seriesLimits.remove(measureName);
+        } else {
+            seriesLimits.put(measureName, new MeasureSeriesLimits(newLimits, unlimitedTags));
+        }
+    }
+
     private Measure createNewMeasure(String measureName, MetricDefinitionSettings fullDefinition) {
         Measure measure;
         switch (fullDefinition.getType()) {
@@ -259,6 +449,10 @@ public class MeasuresAndViewsManager {
      * @param registeredViews a map of which views are already registered at the OpenCensus API. Maps the view names to the views.
      */
     private void addAndRegisterOrUpdateView(String viewName, Measure measure, ViewDefinitionSettings def, Map<String, View> registeredViews) {
+        if (isOpenTelemetryBackend()) {
+            addOrUpdateOpenTelemetryView(viewName, measure, def);
+            return;
+        }
         View view = registeredViews.get(viewName);
         if (view != null) {
             updateOpenCensusView(viewName, def, view);
@@ -290,6 +484,24 @@ public class MeasuresAndViewsManager {
                         .toMillis(), tagsAsStrings, def.getMaxBufferedPoints());
     }
 
+    private void addOrUpdateOpenTelemetryView(String viewName, Measure measure, ViewDefinitionSettings def) {
+        if (def.getAggregation() == ViewDefinitionSettings.Aggregation.QUANTILES) {
+            if (openTelemetryViewManager.isViewRegistered(measure.getName(), viewName)) {
+                log.warn("Cannot switch aggregation type for View '{}' to QUANTILES", viewName);
+            } else {
+                addOrUpdatePercentileView(measure, viewName, def);
+            }
+        } else if (percentileViewManager.isViewRegistered(measure.getName(), viewName)) {
+            log.warn("Cannot switch aggregation type for View '{}' from QUANTILES to {}", viewName, def.getAggregation());
+        } else {
+            Integer maxSeries = def.getMaxSeries() != null ? def.getMaxSeries() : env.getCurrentConfig()
+                    .getMetrics()
+                    .getMaxSeriesPerView();
+            openTelemetryViewManager.createOrUpdateView(measure.getName(), measure instanceof Measure.MeasureLong, measure
+                    .getUnit(), viewName, def, getTagKeysForView(def), maxSeries);
+        }
+    }
+
     private void registerNewView(String viewName, Measure measure, ViewDefinitionSettings def) {
         Set<TagKey> viewTags = getTagKeysForView(def);
         View view = View.create(
@@ -376,4 +588,21 @@ public class MeasuresAndViewsManager {
                 throw new RuntimeException("Unhandled aggregation type: " + view.getAggregation());
         }
     }
+
+    /**
+     * The series limits of the views of a single measure.
+     */
+    @Value
+    private static class MeasureSeriesLimits {
+
+        /**
+         * The limits of all limited views of the measure.
+         */
+        List<ViewSeriesLimit> limits;
+
+        /**
+         * The non-common tags of the views of the measure which are not limited.
+         */
+        Set<TagKey> unlimitedTags;
+    }
 }
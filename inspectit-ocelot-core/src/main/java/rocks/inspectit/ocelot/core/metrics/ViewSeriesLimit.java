@@ -0,0 +1,168 @@
+package rocks.inspectit.ocelot.core.metrics;
+
+import io.opencensus.tags.InternalUtils;
+import io.opencensus.tags.Tag;
+import io.opencensus.tags.TagContext;
+import io.opencensus.tags.TagKey;
+import lombok.Getter;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounds the number of series (=tag combinations) of a single view.
+ * <p>
+ * Only the tags of the view which are not common tags are considered, as the common tags are the same for all recordings.
+ * As soon as the limit has been reached, recordings with a new tag combination are rejected by {@link #tryAdd(TagContext)}.
+ * These recordings are then recorded with the limited tags set to {@link #OVERFLOW_TAG_VALUE} instead,
+ * so that they are aggregated into a single overflow series. Tags which are also aggregated by other views of the same
+ * measure which have not reached their limit are kept, see {@link MeasuresAndViewsManager#tryRecordingMeasurement(String, Number, TagContext)}.
+ */
+public class ViewSeriesLimit {
+
+    /**
+     * The tag value used for the limited tags of recordings which exceeded the series limit.
+     */
+    public static final String OVERFLOW_TAG_VALUE = "_overflow_";
+
+    /**
+     * The name of the view.
+     */
+    @Getter
+    private final String viewName;
+
+    /**
+     * The tags of the view which are subject to the limit.
+     */
+    @Getter
+    private final List<TagKey> limitedTags;
+
+    /**
+     * The maximum number of distinct tag combinations of the {@link #limitedTags}.
+     */
+    @Getter
+    private final int maxSeries;
+
+    /**
+     * Maps the {@link #limitedTags} to their index in the series keys.
+     */
+    private final Map<TagKey, Integer> tagIndices = new HashMap<>();
+
+    /**
+     * The known series, each represented through the values of the {@link #limitedTags}.
+     * If only a single tag is limited, its value is used directly as key, so that no key has to be allocated per recording.
+     */
+    private final Set<Object> series = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The number of recordings which have been redirected into the overflow series since the last call of {@link #getAndResetOverflowedRecordings()}.
+     */
+    private final LongAdder overflowedRecordings = new LongAdder();
+
+    /**
+     * @param viewName    the name of the view
+     * @param limitedTags the tags of the view which are subject to the limit
+     * @param maxSeries   the maximum number of series
+     */
+    ViewSeriesLimit(String viewName, Collection<TagKey> limitedTags, int maxSeries) {
+        this.viewName = viewName;
+        this.limitedTags = new ArrayList<>(limitedTags);
+        this.maxSeries = maxSeries;
+        for (TagKey tag : this.limitedTags) {
+            tagIndices.put(tag, tagIndices.size());
+        }
+        // the overflow series is always known, so that it does not count against the limit
+        if (this.limitedTags.size() == 1) {
+            series.add(OVERFLOW_TAG_VALUE);
+        } else {
+            series.add(Collections.nCopies(this.limitedTags.size(), OVERFLOW_TAG_VALUE));
+        }
+    }
+
+    /**
+     * Creates a new limit for the same view which keeps the series known by this limit, as they still exist in the view.
+     * If the limited tags have changed, the known series are discarded.
+     *
+     * @param newLimitedTags the tags of the view which are subject to the limit
+     * @param newMaxSeries   the new maximum number of series
+     *
+     * @return the new limit
+     */
+    ViewSeriesLimit copyWith(Collection<TagKey> newLimitedTags, int newMaxSeries) {
+        ViewSeriesLimit result = new ViewSeriesLimit(viewName, newLimitedTags, newMaxSeries);
+        if (limitedTags.equals(result.limitedTags)) {
+            result.series.addAll(series);
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether a recording with the given tags may be recorded without exceeding the limit.
+     * This is the case if the tag combination is already known or the limit has not been reached yet.
+     * In the latter case, the tag combination is remembered as known series.
+     *
+     * @param tags the tags of the recording
+     *
+     * @return true, if the recording may be recorded with the given tags, false if it has to go into the overflow series
+     */
+    boolean tryAdd(TagContext tags) {
+        Object key = getSeriesKey(tags);
+        if (series.contains(key)) {
+            return true;
+        }
+        synchronized (this) {
+            if (series.contains(key) || (getSeriesCount() < maxSeries && series.add(key))) {
+                return true;
+            }
+        }
+        overflowedRecordings.increment();
+        return false;
+    }
+
+    /**
+     * @return the number of series of this view, excluding the overflow series
+     */
+    public int getSeriesCount() {
+        return series.size() - 1;
+    }
+
+    /**
+     * @return the number of recordings which have been redirected into the overflow series since the last call of this method
+     */
+    public long getAndResetOverflowedRecordings() {
+        return overflowedRecordings.sumThenReset();
+    }
+
+    /**
+     * @param tag a tag key
+     *
+     * @return true, if the given tag is subject to this limit
+     */
+    boolean isLimited(TagKey tag) {
+        return tagIndices.containsKey(tag);
+    }
+
+    private Object getSeriesKey(TagContext tags) {
+        if (limitedTags.size() == 1) {
+            TagKey limitedTag = limitedTags.get(0);
+            for (Iterator<Tag> it = InternalUtils.getTags(tags); it.hasNext(); ) {
+                Tag tag = it.next();
+                if (tag.getKey().equals(limitedTag)) {
+                    return tag.getValue().asString();
+                }
+            }
+            return "";
+        }
+        String[] values = new String[limitedTags.size()];
+        Arrays.fill(values, "");
+        for (Iterator<Tag> it = InternalUtils.getTags(tags); it.hasNext(); ) {
+            Tag tag = it.next();
+            Integer index = tagIndices.get(tag.getKey());
+            if (index != null) {
+                values[index] = tag.getValue().asString();
+            }
+        }
+        return Arrays.asList(values);
+    }
+}
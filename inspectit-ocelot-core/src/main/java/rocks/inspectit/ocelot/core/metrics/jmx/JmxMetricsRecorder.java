@@ -3,11 +3,16 @@ package rocks.inspectit.ocelot.core.metrics.jmx;
 import static java.lang.Boolean.TRUE;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.math.LongMath;
 import io.opencensus.common.Scope;
 import io.opencensus.stats.Measure;
 import io.opencensus.tags.TagContextBuilder;
 import io.opencensus.tags.TagKey;
+import io.opencensus.tags.TagValue;
 import io.opencensus.tags.Tagger;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -22,8 +27,10 @@ import rocks.inspectit.ocelot.core.tags.CommonTagsManager;
 import rocks.inspectit.ocelot.core.tags.TagUtils;
 
 import javax.management.ObjectName;
+import java.math.RoundingMode;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -47,6 +54,18 @@ public class JmxMetricsRecorder extends AbstractPollingMetricsRecorder implement
      */
     private static final char METRIC_SEPARATOR = '/';
 
+    /**
+     * Self-monitoring measure for the duration of scraping the MBeans of a schedule.
+     */
+    private static final String SCRAPE_DURATION_MEASURE_NAME = "jmx/scrape/duration";
+
+    /**
+     * Self-monitoring measure for the number of MBeans which have been skipped due to timeouts or exceeded time budgets.
+     */
+    private static final String SKIPPED_MBEANS_MEASURE_NAME = "jmx/scrape/skipped-mbeans";
+
+    private static final String SCHEDULE_TAG_KEY = "schedule";
+
     /**
      * Tagger.
      */
@@ -62,6 +81,13 @@ public class JmxMetricsRecorder extends AbstractPollingMetricsRecorder implement
      */
     private boolean lowerCaseMetricName;
 
+    /**
+     * Cache of the metric names and tags of the scraped attributes, so they do not need to be recomputed on every scrape.
+     * Entries of attributes which have not been scraped for a while (e.g. because the mbean was unregistered) are evicted.
+     * The cache is replaced on configuration updates while it is read by the scraping thread.
+     */
+    private volatile Cache<JmxScraper.MBeanAttributeKey, JmxMetric> metrics = createMetricsCache(Duration.ofMinutes(1));
+
     @Autowired
     public JmxMetricsRecorder(Tagger tagger) {
         super("metrics.jmx");
@@ -86,6 +112,7 @@ public class JmxMetricsRecorder extends AbstractPollingMetricsRecorder implement
         // create a new scraper, called on every update of every jmx setting
         jmxScraper = createScraper(configuration.getMetrics().getJmx(), this);
         lowerCaseMetricName = configuration.getMetrics().getJmx().isLowerCaseMetricName();
+        metrics = createMetricsCache(configuration.getMetrics().getJmx().getFrequency());
 
         // call super to handle scheduling
         return super.doEnable(configuration);
@@ -99,6 +126,14 @@ public class JmxMetricsRecorder extends AbstractPollingMetricsRecorder implement
         try (Scope commonTagScope = commonTags.withCommonTagScope()) {
             jmxScraper.doScrape();
         }
+        for (JmxScraper.ScrapeSchedule schedule : jmxScraper.getSchedules()) {
+            if (schedule.isDue()) {
+                Map<String, String> tags = Collections.singletonMap(SCHEDULE_TAG_KEY, schedule.getName());
+                selfMonitoringService.recordMeasurement(SCRAPE_DURATION_MEASURE_NAME, schedule.getScrapeDuration()
+                        .toMillis(), tags);
+                selfMonitoringService.recordMeasurement(SKIPPED_MBEANS_MEASURE_NAME, schedule.getSkippedMBeans(), tags);
+            }
+        }
     }
 
     /**
@@ -109,6 +144,16 @@ public class JmxMetricsRecorder extends AbstractPollingMetricsRecorder implement
         return metricsSettings.getJmx().getFrequency();
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Scraping the MBeans may take a long time, therefore the recorder runs on the shared executor.
+     */
+    @Override
+    protected boolean isLightweight() {
+        return false;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -121,28 +166,61 @@ public class JmxMetricsRecorder extends AbstractPollingMetricsRecorder implement
      * {@inheritDoc}
      */
     @Override
-    public void recordBean(String domain, LinkedHashMap<String, String> beanProperties, LinkedList<String> attrKeys, String attrName, String attrType, String attrDescription, Object value) {
+    protected boolean doDisable() {
+        boolean disabled = super.doDisable();
+        if (jmxScraper != null) {
+            jmxScraper.close();
+        }
+        return disabled;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordBean(JmxScraper.MBeanAttributeKey attribute, String attrType, String attrDescription, Object value) {
         // get the metric value first, if we have no value here skip
         metricValue(value).ifPresent(metricValue -> {
-            String metricName = metricName(domain, beanProperties, attrKeys, attrName);
-            Measure.MeasureDouble measure = measureManager.getMeasureDouble(metricName).orElseGet(() -> {
-                Map<String, Boolean> tags = beanProperties.keySet()
-                        .stream()
-                        .skip(1)
-                        .collect(Collectors.toMap(Function.identity(), k -> true));
-
-                return registerMeasure(metricName, attrDescription, tags);
-            });
+            JmxMetric metric;
+            try {
+                metric = metrics.get(attribute, () -> createMetric(attribute.getDomain(), attribute.getBeanProperties(), attribute
+                        .getAttrKeys(), attribute.getAttrName(), attrDescription));
+            } catch (ExecutionException e) {
+                log.warn("Could not create the metric for the JMX attribute {}.", attribute.getAttrName(), e);
+                return;
+            }
 
             TagContextBuilder tagContextBuilder = tagger.currentBuilder();
-            beanProperties.entrySet()
+            for (int i = 0; i < metric.getTagKeys().size(); i++) {
+                tagContextBuilder.putLocal(metric.getTagKeys().get(i), metric.getTagValues().get(i));
+            }
+
+            measureManager.tryRecordingMeasurement(metric.getMeasureName(), metricValue, tagContextBuilder.build());
+        });
+    }
+
+    /**
+     * Computes the metric name and the tags of a scraped attribute and registers the corresponding measure if required.
+     */
+    private JmxMetric createMetric(String domain, LinkedHashMap<String, String> beanProperties, LinkedList<String> attrKeys, String attrName, String attrDescription) {
+        String metricName = metricName(domain, beanProperties, attrKeys, attrName);
+        Measure.MeasureDouble measure = measureManager.getMeasureDouble(metricName).orElseGet(() -> {
+            Map<String, Boolean> tags = beanProperties.keySet()
                     .stream()
                     .skip(1)
-                    .forEach(entry -> tagContextBuilder.putLocal(TagKey.create(entry.getKey()), TagUtils.createTagValue(entry
-                            .getKey(), entry.getValue())));
+                    .collect(Collectors.toMap(Function.identity(), k -> true));
 
-            measureManager.tryRecordingMeasurement(measure.getName(), metricValue, tagContextBuilder.build());
+            return registerMeasure(metricName, attrDescription, tags);
         });
+
+        List<TagKey> tagKeys = new ArrayList<>();
+        List<TagValue> tagValues = new ArrayList<>();
+        beanProperties.entrySet().stream().skip(1).forEach(entry -> {
+            tagKeys.add(TagKey.create(entry.getKey()));
+            tagValues.add(TagUtils.createTagValue(entry.getKey(), entry.getValue()));
+        });
+
+        return new JmxMetric(measure.getName(), tagKeys, tagValues);
     }
 
     private Measure.MeasureDouble registerMeasure(String metricName, String attrDescription, Map<String, Boolean> tags) {
@@ -227,7 +305,67 @@ public class JmxMetricsRecorder extends AbstractPollingMetricsRecorder implement
             });
         }
 
-        return new JmxScraper(whitelistedObjectNames, blacklistedObjectNames, receiver, jmx.isForcePlatformServer());
+        List<JmxScraper.ScrapeSchedule> schedules = new ArrayList<>();
+        if (null != jmx.getSchedules()) {
+            jmx.getSchedules().forEach((objectNameRepresentation, schedule) -> {
+                try {
+                    ObjectName objectName = new ObjectName(objectNameRepresentation);
+                    int interval = getScrapeInterval(schedule.getFrequency(), jmx.getFrequency());
+                    schedules.add(new JmxScraper.ScrapeSchedule(objectNameRepresentation, objectName, interval, schedule.getTimeBudget()));
+                } catch (Exception e) {
+                    log.warn("Error creating the object name from the schedule {}.", objectNameRepresentation, e);
+                }
+            });
+        }
+        JmxScraper.ScrapeSchedule defaultSchedule = new JmxScraper.ScrapeSchedule(JmxScraper.DEFAULT_SCHEDULE_NAME, null, 1, jmx.getTimeBudget());
+
+        return new JmxScraper(whitelistedObjectNames, blacklistedObjectNames, receiver, jmx.isForcePlatformServer(), schedules, defaultSchedule, createFetchExecutor(jmx.getThreads()), jmx.getMbeanTimeout());
+    }
+
+    /**
+     * @return the number of scrapes of the recorder after which the MBeans of a schedule with the given frequency are scraped
+     */
+    private static int getScrapeInterval(Duration scheduleFrequency, Duration recorderFrequency) {
+        if (scheduleFrequency == null || recorderFrequency == null || recorderFrequency.toMillis() <= 0) {
+            return 1;
+        }
+        return (int) Math.max(1, LongMath.divide(scheduleFrequency.toMillis(), recorderFrequency.toMillis(), RoundingMode.CEILING));
+    }
+
+    /**
+     * Creates the bounded pool for fetching the MBean attributes, whose idle threads are terminated.
+     *
+     * @return the executor or null if the attributes should be fetched by the recorder itself
+     */
+    private static ExecutorService createFetchExecutor(int threads) {
+        if (threads <= 0) {
+            return null;
+        }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+            thread.setDaemon(true);
+            thread.setName("inspectit-jmx-scraper");
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static Cache<JmxScraper.MBeanAttributeKey, JmxMetric> createMetricsCache(Duration frequency) {
+        return CacheBuilder.newBuilder().expireAfterAccess(frequency.toMillis() * 10, TimeUnit.MILLISECONDS).build();
+    }
+
+    /**
+     * The precomputed measure name and tags of a scraped attribute value.
+     */
+    @Value
+    private static class JmxMetric {
+
+        String measureName;
+
+        List<TagKey> tagKeys;
+
+        List<TagValue> tagValues;
     }
 
 }
@@ -2,6 +2,9 @@ package rocks.inspectit.ocelot.core.metrics.jmx;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.CollectionUtils;
 
@@ -10,10 +13,12 @@ import javax.management.openmbean.CompositeData;
 import javax.management.openmbean.CompositeType;
 import javax.management.openmbean.TabularData;
 import javax.management.openmbean.TabularType;
+import javax.management.relation.MBeanServerNotificationFilter;
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.*;
 
 /**
  * <b>IMPORTANT:</b> This class was fully taken from https://github.com/prometheus/jmx_exporter v0.12 and modified.
@@ -24,6 +29,9 @@ import java.util.concurrent.ExecutionException;
  *     <li>Knows how to scrape the set of MBean servers.</li>
  *     <li>Added cache for the JmxMBeanPropertyCache as now we need a cache per MBean server</li>
  *     <li>Added force platform server option</li>
+ *     <li>Added scrape plan cache maintained via MBean registration notifications</li>
+ *     <li>Added parallel fetching of the MBean attributes with per-MBean timeouts, timed out fetches are interrupted</li>
+ *     <li>Added scrape schedules with individual scrape intervals and time budgets per object name pattern</li>
  * </ul>
  */
 @Slf4j
@@ -35,22 +43,13 @@ class JmxScraper {
     public interface MBeanReceiver {
 
         /**
-         * @param domain          Domain of the mbean object.
-         * @param beanProperties  Properties of the mbean.
-         * @param attrKeys        All attribute keys
-         * @param attrName        Attribute name
+         * @param attribute       The scraped attribute, the same instance is passed on every scrape of the attribute
+         *                        as long as the mbean is not re-registered
          * @param attrType        Attribute type
          * @param attrDescription Attribute description
          * @param value           Scraped value
          */
-        void recordBean(
-                String domain,
-                LinkedHashMap<String, String> beanProperties,
-                LinkedList<String> attrKeys,
-                String attrName,
-                String attrType,
-                String attrDescription,
-                Object value);
+        void recordBean(MBeanAttributeKey attribute, String attrType, String attrDescription, Object value);
     }
 
     /**
@@ -66,9 +65,19 @@ class JmxScraper {
     private final List<ObjectName> whitelistObjectNames, blacklistObjectNames;
 
     /**
-     * Map of cache for the jmx bean properties per mbean server.
+     * The name of the schedule of all MBeans not matching any other schedule.
      */
-    private final Cache<MBeanServerConnection, JmxMBeanPropertyCache> jmxMBeanPropertyCacheMap = CacheBuilder.newBuilder().weakKeys().build();
+    static final String DEFAULT_SCHEDULE_NAME = "default";
+
+    /**
+     * Attribute types which can never be converted to a metric value.
+     */
+    private static final Set<String> NON_SCRAPABLE_TYPES = new HashSet<>(Arrays.asList(String.class.getName(), ObjectName.class.getName(), "void"));
+
+    /**
+     * Map of the scrape plans per mbean server.
+     */
+    private final Cache<MBeanServer, ServerScrapePlan> scrapePlans = CacheBuilder.newBuilder().weakKeys().build();
 
     /**
      * Force the creation of the platform MBean server before first scrape.
@@ -76,7 +85,22 @@ class JmxScraper {
     private final boolean forcePlatformServer;
 
     /**
-     * Default constructor.
+     * The schedules of the MBeans. The last schedule matches all MBeans.
+     */
+    private final List<ScrapeSchedule> schedules;
+
+    /**
+     * The executor fetching the attributes of the MBeans, null if they are fetched by the scraping thread.
+     */
+    private final ExecutorService fetchExecutor;
+
+    /**
+     * The maximum time to wait for the attributes of a single MBean.
+     */
+    private final long mbeanTimeoutNanos;
+
+    /**
+     * Default constructor. All MBeans are scraped sequentially on every scrape.
      *
      * @param whitelistObjectNames Whitelist object names. If empty or <code>null</code> it will be considered that everything is scraped.
      * @param blacklistObjectNames Blacklist object names.
@@ -84,9 +108,28 @@ class JmxScraper {
      * @param forcePlatformServer  Force the creation of the platform MBean server before first scrape.
      */
     public JmxScraper(List<ObjectName> whitelistObjectNames, List<ObjectName> blacklistObjectNames, MBeanReceiver receiver, boolean forcePlatformServer) {
+        this(whitelistObjectNames, blacklistObjectNames, receiver, forcePlatformServer, Collections.emptyList(), new ScrapeSchedule(DEFAULT_SCHEDULE_NAME, null, 1, null), null, null);
+    }
+
+    /**
+     * @param whitelistObjectNames Whitelist object names. If empty or <code>null</code> it will be considered that everything is scraped.
+     * @param blacklistObjectNames Blacklist object names.
+     * @param receiver             Listener for the scraped values.
+     * @param forcePlatformServer  Force the creation of the platform MBean server before first scrape.
+     * @param schedules            The schedules of the MBeans matching their object names, the first matching one is used.
+     * @param defaultSchedule      The schedule of all MBeans not matching any of the schedules.
+     * @param fetchExecutor        The executor for fetching the attributes of the MBeans in parallel, is shut down on {@link #close()}.
+     *                             If <code>null</code>, the attributes are fetched sequentially by the scraping thread.
+     * @param mbeanTimeout         The maximum time to wait for the attributes of a single MBean. If <code>null</code>, the time is not limited.
+     */
+    public JmxScraper(List<ObjectName> whitelistObjectNames, List<ObjectName> blacklistObjectNames, MBeanReceiver receiver, boolean forcePlatformServer, List<ScrapeSchedule> schedules, ScrapeSchedule defaultSchedule, ExecutorService fetchExecutor, Duration mbeanTimeout) {
         this.receiver = receiver;
         this.blacklistObjectNames = blacklistObjectNames;
         this.forcePlatformServer = forcePlatformServer;
+        this.schedules = new ArrayList<>(schedules);
+        this.schedules.add(defaultSchedule);
+        this.fetchExecutor = fetchExecutor;
+        this.mbeanTimeoutNanos = mbeanTimeout == null ? Long.MAX_VALUE : mbeanTimeout.toNanos();
 
         // handle whitelist empty situation
         if (CollectionUtils.isEmpty(whitelistObjectNames)) {
@@ -99,26 +142,70 @@ class JmxScraper {
 
     /**
      * Scrapes all {@link MBeanServer}s returned by the {@link MBeanServerFactory#findMBeanServer(String)}.
+     * Only the MBeans whose schedule is due are scraped, the statistics of the scrape are available via {@link #getSchedules()}.
      * <p>
-     * Values are passed to the receiver in a single thread.
+     * Values are passed to the receiver in the calling thread.
      */
     public void doScrape() {
         // always start by forcing the platform server
         this.forcePlatformServerIfNeeded();
 
+        long startNanos = System.nanoTime();
+        for (ScrapeSchedule schedule : schedules) {
+            schedule.startScrape(startNanos);
+        }
+
         ArrayList<MBeanServer> mBeanServers = MBeanServerFactory.findMBeanServer(null);
         for (MBeanServer server : mBeanServers) {
             try {
-                JmxMBeanPropertyCache jmxMBeanPropertyCache = resolveJmxMBeanPropertyCache(server);
-                doScrape(server, jmxMBeanPropertyCache);
+                ServerScrapePlan scrapePlan = resolveScrapePlan(server);
+                doScrape(server, scrapePlan);
             } catch (Exception e) {
                 log.warn("Error scraping the MBeanServer with registered domains: {}.", server.getDomains(), e);
             }
         }
     }
 
-    private JmxMBeanPropertyCache resolveJmxMBeanPropertyCache(MBeanServer server) throws ExecutionException {
-        return jmxMBeanPropertyCacheMap.get(server, JmxMBeanPropertyCache::new);
+    /**
+     * Unsubscribes from the registration notifications of all scraped {@link MBeanServer}s and shuts down the fetch executor.
+     * Must be called when this scraper is not used anymore.
+     */
+    public void close() {
+        scrapePlans.asMap().forEach((server, scrapePlan) -> scrapePlan.unsubscribe(server));
+        scrapePlans.invalidateAll();
+        if (fetchExecutor != null) {
+            fetchExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the schedules of the MBeans, the last one is the default schedule
+     */
+    public List<ScrapeSchedule> getSchedules() {
+        return Collections.unmodifiableList(schedules);
+    }
+
+    /**
+     * @return the first schedule matching the given MBean
+     */
+    private ScrapeSchedule resolveSchedule(ObjectName mbeanName) {
+        for (ScrapeSchedule schedule : schedules) {
+            if (schedule.matches(mbeanName)) {
+                return schedule;
+            }
+        }
+        // the default schedule matches all mbeans
+        return schedules.get(schedules.size() - 1);
+    }
+
+    private ServerScrapePlan resolveScrapePlan(MBeanServer server) throws ExecutionException {
+        return scrapePlans.get(server, () -> {
+            ServerScrapePlan scrapePlan = new ServerScrapePlan();
+            // subscribe first, so that no registration between the query and the subscription is missed
+            scrapePlan.subscribe(server);
+            scrapePlan.refresh(server);
+            return scrapePlan;
+        });
     }
 
     /**
@@ -134,47 +221,109 @@ class JmxScraper {
     }
 
     /**
-     * Get a list of mbeans from the {@link MBeanServerConnection} and scrape their values.
-     * <p>
-     * Values are passed to the receiver in a single thread.
+     * Scrapes the values of all due mbeans contained in the scrape plan of the given {@link MBeanServerConnection}.
+     * The attributes are fetched in parallel if a fetch executor is available, the values are passed to the receiver
+     * in the calling thread.
      */
-    public void doScrape(MBeanServerConnection mBeanServerConnection, JmxMBeanPropertyCache jmxMBeanPropertyCache) throws Exception {
-        // Query MBean names, see https://github.com/prometheus/jmx_exporter #89 for reasons queryMBeans() is used instead of queryNames()
-        Set<ObjectName> mBeanNames = new HashSet<ObjectName>();
-        for (ObjectName name : whitelistObjectNames) {
-            for (ObjectInstance instance : mBeanServerConnection.queryMBeans(name, null)) {
-                mBeanNames.add(instance.getObjectName());
+    private void doScrape(MBeanServerConnection mBeanServerConnection, ServerScrapePlan scrapePlan) throws Exception {
+        if (!scrapePlan.isSubscribed()) {
+            // without registration notifications we have to query the mbeans on every scrape
+            scrapePlan.refresh(mBeanServerConnection);
+        }
+
+        List<MBeanFetch> fetches = new ArrayList<>();
+        for (Map.Entry<ObjectName, ScrapeSchedule> mBean : scrapePlan.getMBeans().entrySet()) {
+            ScrapeSchedule schedule = mBean.getValue();
+            if (schedule.isDue()) {
+                ObjectName objectName = mBean.getKey();
+                if (scrapePlan.startFetch(objectName)) {
+                    MBeanFetch fetch = new MBeanFetch(mBeanServerConnection, scrapePlan, objectName, schedule, mbeanTimeoutNanos);
+                    fetches.add(fetch);
+                    submit(fetch);
+                } else {
+                    // the mbean did not respond to the previous fetch yet
+                    logScrape(objectName.toString(), scrapePlan.isHung(objectName) ? "skipped, mbean is hung" : "skipped, previous fetch is still pending");
+                    schedule.skippedMBeans++;
+                }
+            }
+        }
+
+        for (int i = 0; i < fetches.size(); i++) {
+            MBeanFetch fetch = fetches.get(i);
+            boolean completed;
+            try {
+                completed = fetch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fetches.subList(i, fetches.size()).forEach(MBeanFetch::cancel);
+                return;
+            }
+            ScrapeSchedule schedule = fetch.getSchedule();
+            if (!completed) {
+                boolean timedOut = fetch.isTimedOut();
+                if (fetch.cancel() && timedOut) {
+                    scrapePlan.markHung(fetch.getObjectName());
+                }
+                logScrape(fetch.getObjectName().toString(), "skipped, no response in time");
+                schedule.skippedMBeans++;
+            } else if (fetch.isSkipped()) {
+                logScrape(fetch.getObjectName().toString(), "skipped, time budget exceeded");
+                schedule.skippedMBeans++;
+            } else if (fetch.getAttributes() != null) {
+                processBeanValues(fetch.getMBeanPlan(), fetch.getAttributes());
             }
+            schedule.lastFetchNanos = System.nanoTime();
         }
+    }
 
-        for (ObjectName name : blacklistObjectNames) {
-            for (ObjectInstance instance : mBeanServerConnection.queryMBeans(name, null)) {
-                mBeanNames.remove(instance.getObjectName());
+    private void submit(MBeanFetch fetch) {
+        if (fetchExecutor == null) {
+            fetch.run();
+        } else {
+            try {
+                fetchExecutor.execute(fetch);
+            } catch (RejectedExecutionException e) {
+                // the scraper has been closed
+                fetch.skip();
             }
         }
+    }
 
-        // Now that we have *only* the whitelisted mBeans, remove any old ones from the cache:
-        jmxMBeanPropertyCache.onlyKeepMBeans(mBeanNames);
+    /**
+     * Checks whether the given mbean is whitelisted and not blacklisted.
+     */
+    private boolean isScraped(ObjectName mbeanName) {
+        boolean whitelisted = whitelistObjectNames.stream().anyMatch(pattern -> pattern == null || pattern.apply(mbeanName));
+        return whitelisted && blacklistObjectNames.stream().noneMatch(pattern -> pattern.apply(mbeanName));
+    }
 
-        for (ObjectName objectName : mBeanNames) {
-            scrapeBean(mBeanServerConnection, objectName, jmxMBeanPropertyCache);
+    /**
+     * Passes the fetched attribute values of a single mbean to the receiver.
+     */
+    private void processBeanValues(MBeanScrapePlan mBeanPlan, AttributeList attributes) {
+        ObjectName mbeanName = mBeanPlan.getObjectName();
+        for (Attribute attribute : attributes.asList()) {
+            MBeanAttributeInfo attr = mBeanPlan.getAttributeInfos().get(attribute.getName());
+            logScrape(mbeanName, attr, "process");
+            processBeanValue(mBeanPlan.getAttributeKeys()
+                    .get(attr.getName()), attr.getType(), attr.getDescription(), attribute.getValue());
         }
     }
 
     /**
-     * Scrapes one object name that belongs to the given {@link MBeanServerConnection}.
+     * Creates the scrape plan of a single mbean, which requires a {@link MBeanServerConnection#getMBeanInfo(ObjectName)} call.
      *
-     * @param beanConn
-     * @param mbeanName
-     * @param jmxMBeanPropertyCache
+     * @return the plan or null if the mbean info could not be loaded
      */
-    private void scrapeBean(MBeanServerConnection beanConn, ObjectName mbeanName, JmxMBeanPropertyCache jmxMBeanPropertyCache) {
+    private MBeanScrapePlan createMBeanPlan(MBeanServerConnection beanConn, ObjectName mbeanName, JmxMBeanPropertyCache jmxMBeanPropertyCache) throws InstanceNotFoundException {
         MBeanInfo info;
         try {
             info = beanConn.getMBeanInfo(mbeanName);
+        } catch (InstanceNotFoundException e) {
+            throw e;
         } catch (IOException | JMException e) {
             logScrape(mbeanName.toString(), "getMBeanInfo Fail: " + e);
-            return;
+            return null;
         }
         MBeanAttributeInfo[] attrInfos = info.getAttributes();
 
@@ -185,27 +334,570 @@ class JmxScraper {
                 logScrape(mbeanName, attr, "not readable");
                 continue;
             }
+            if (!isScrapableType(attr.getType())) {
+                logScrape(mbeanName, attr, attr.getType() + " is not exported");
+                continue;
+            }
             name2AttrInfo.put(attr.getName(), attr);
         }
-        final AttributeList attributes;
-        try {
-            attributes = beanConn.getAttributes(mbeanName, name2AttrInfo.keySet().toArray(new String[0]));
-        } catch (Exception e) {
-            logScrape(mbeanName, name2AttrInfo.keySet(), "Fail: " + e);
-            return;
+        LinkedHashMap<String, String> keyProperties = jmxMBeanPropertyCache.getKeyPropertyList(mbeanName);
+        Map<String, MBeanAttributeKey> attributeKeys = new HashMap<>();
+        for (String attrName : name2AttrInfo.keySet()) {
+            attributeKeys.put(attrName, new MBeanAttributeKey(mbeanName.getDomain(), keyProperties, new LinkedList<>(), attrName));
         }
-        for (Attribute attribute : attributes.asList()) {
-            MBeanAttributeInfo attr = name2AttrInfo.get(attribute.getName());
-            logScrape(mbeanName, attr, "process");
-            processBeanValue(
-                    mbeanName.getDomain(),
-                    jmxMBeanPropertyCache.getKeyPropertyList(mbeanName),
-                    new LinkedList<String>(),
-                    attr.getName(),
-                    attr.getType(),
-                    attr.getDescription(),
-                    attribute.getValue()
-            );
+        return new MBeanScrapePlan(mbeanName, keyProperties, name2AttrInfo.keySet()
+                .toArray(new String[0]), name2AttrInfo, attributeKeys);
+    }
+
+    /**
+     * Checks if values of the given attribute type can result in a value processed by {@link #processBeanValue}.
+     * Arrays are not supported and strings or object names can never be converted to a metric value,
+     * so such attributes do not need to be fetched at all.
+     */
+    private static boolean isScrapableType(String attrType) {
+        return attrType == null || !(attrType.startsWith("[") || NON_SCRAPABLE_TYPES.contains(attrType));
+    }
+
+    /**
+     * The scrape plan of a single {@link MBeanServer}.
+     * It contains the names of all whitelisted and not blacklisted mbeans and lazily created {@link MBeanScrapePlan}s for them.
+     * <p>
+     * The set of mbeans is kept up to date by listening to the registration notifications of the {@link MBeanServerDelegate}.
+     * If the subscription is not possible, the set of mbeans is queried on every scrape.
+     */
+    private class ServerScrapePlan implements NotificationListener {
+
+        /**
+         * The property cache used for parsing the key properties of the mbeans.
+         */
+        private final JmxMBeanPropertyCache jmxMBeanPropertyCache = new JmxMBeanPropertyCache();
+
+        /**
+         * The names of all mbeans to scrape and their schedules.
+         */
+        private final Map<ObjectName, ScrapeSchedule> mBeans = new ConcurrentHashMap<>();
+
+        /**
+         * The names of the mbeans whose attributes are currently fetched.
+         */
+        private final Set<ObjectName> pendingFetches = ConcurrentHashMap.newKeySet();
+
+        /**
+         * The names of the mbeans whose pending fetch exceeded the mbean timeout and did not end after being
+         * interrupted. These mbeans are skipped until the pending fetch has completed.
+         */
+        private final Set<ObjectName> hungMBeans = ConcurrentHashMap.newKeySet();
+
+        /**
+         * The plans of the mbeans which have already been scraped.
+         */
+        private final Map<ObjectName, MBeanScrapePlan> mBeanPlans = new ConcurrentHashMap<>();
+
+        private volatile boolean subscribed = false;
+
+        void subscribe(MBeanServer server) {
+            MBeanServerNotificationFilter filter = new MBeanServerNotificationFilter();
+            filter.enableAllObjectNames();
+            try {
+                server.addNotificationListener(MBeanServerDelegate.DELEGATE_NAME, this, filter, null);
+                subscribed = true;
+            } catch (Exception e) {
+                log.debug("Could not subscribe to the MBean registrations of the MBeanServer with registered domains: {}.", server.getDomains(), e);
+            }
+        }
+
+        void unsubscribe(MBeanServer server) {
+            if (subscribed) {
+                try {
+                    server.removeNotificationListener(MBeanServerDelegate.DELEGATE_NAME, this);
+                } catch (Exception e) {
+                    log.debug("Could not unsubscribe from the MBean registrations.", e);
+                }
+                subscribed = false;
+            }
+        }
+
+        boolean isSubscribed() {
+            return subscribed;
+        }
+
+        /**
+         * Queries the names of all whitelisted and not blacklisted mbeans.
+         */
+        void refresh(MBeanServerConnection mBeanServerConnection) throws IOException {
+            // Query MBean names, see https://github.com/prometheus/jmx_exporter #89 for reasons queryMBeans() is used instead of queryNames()
+            Set<ObjectName> latestNames = new HashSet<ObjectName>();
+            for (ObjectName name : whitelistObjectNames) {
+                for (ObjectInstance instance : mBeanServerConnection.queryMBeans(name, null)) {
+                    latestNames.add(instance.getObjectName());
+                }
+            }
+
+            for (ObjectName name : blacklistObjectNames) {
+                for (ObjectInstance instance : mBeanServerConnection.queryMBeans(name, null)) {
+                    latestNames.remove(instance.getObjectName());
+                }
+            }
+
+            for (ObjectName name : latestNames) {
+                mBeans.computeIfAbsent(name, JmxScraper.this::resolveSchedule);
+            }
+            // Now that we have *only* the whitelisted mBeans, remove any old ones from the plan
+            mBeans.keySet().retainAll(latestNames);
+            mBeanPlans.keySet().retainAll(latestNames);
+            jmxMBeanPropertyCache.onlyKeepMBeans(latestNames);
+        }
+
+        Map<ObjectName, ScrapeSchedule> getMBeans() {
+            return mBeans;
+        }
+
+        /**
+         * Marks the fetch of the given mbean as pending.
+         *
+         * @return false, if a fetch of the mbean is already pending
+         */
+        boolean startFetch(ObjectName mbeanName) {
+            return pendingFetches.add(mbeanName);
+        }
+
+        synchronized void fetchCompleted(ObjectName mbeanName) {
+            pendingFetches.remove(mbeanName);
+            if (hungMBeans.remove(mbeanName)) {
+                log.info("MBean {} responded again and is scraped again.", mbeanName);
+            }
+        }
+
+        /**
+         * Marks the given mbean as hung in case its fetch is still pending, so that it is skipped until the fetch has
+         * completed.
+         */
+        synchronized void markHung(ObjectName mbeanName) {
+            if (pendingFetches.contains(mbeanName) && hungMBeans.add(mbeanName)) {
+                log.warn("MBean {} did not respond in time and is skipped until it responds. It occupies one of the fetching threads as long as it does not respond.", mbeanName);
+            }
+        }
+
+        boolean isHung(ObjectName mbeanName) {
+            return hungMBeans.contains(mbeanName);
+        }
+
+        /**
+         * Returns the plan for the given mbean, creating it if it does not exist yet.
+         *
+         * @return the plan or null if it could not be created
+         */
+        MBeanScrapePlan getMBeanPlan(MBeanServerConnection mBeanServerConnection, ObjectName mbeanName) {
+            MBeanScrapePlan mBeanPlan = mBeanPlans.get(mbeanName);
+            if (mBeanPlan == null) {
+                try {
+                    mBeanPlan = createMBeanPlan(mBeanServerConnection, mbeanName, jmxMBeanPropertyCache);
+                } catch (InstanceNotFoundException e) {
+                    remove(mbeanName);
+                    return null;
+                }
+                // only cache the plan if the mbean was not unregistered concurrently
+                if (mBeanPlan != null && mBeans.containsKey(mbeanName)) {
+                    mBeanPlans.put(mbeanName, mBeanPlan);
+                }
+            }
+            return mBeanPlan;
+        }
+
+        void remove(ObjectName mbeanName) {
+            mBeans.remove(mbeanName);
+            mBeanPlans.remove(mbeanName);
+            jmxMBeanPropertyCache.getKeyPropertiesPerBean().remove(mbeanName);
+        }
+
+        @Override
+        public void handleNotification(Notification notification, Object handback) {
+            if (notification instanceof MBeanServerNotification) {
+                ObjectName mbeanName = ((MBeanServerNotification) notification).getMBeanName();
+                if (MBeanServerNotification.REGISTRATION_NOTIFICATION.equals(notification.getType())) {
+                    if (isScraped(mbeanName)) {
+                        mBeans.put(mbeanName, resolveSchedule(mbeanName));
+                    }
+                } else if (MBeanServerNotification.UNREGISTRATION_NOTIFICATION.equals(notification.getType())) {
+                    remove(mbeanName);
+                }
+            }
+        }
+    }
+
+    /**
+     * Fetches the attributes of a single mbean, which may be done by a thread of the fetch executor.
+     * The results are published to the scraping thread via {@link #await()}.
+     * The timeout of the fetch starts with its submission, so that the fetches of a scrape time out concurrently.
+     */
+    private static class MBeanFetch implements Runnable {
+
+        private final MBeanServerConnection mBeanServerConnection;
+
+        private final ServerScrapePlan scrapePlan;
+
+        @Getter
+        private final ObjectName objectName;
+
+        @Getter
+        private final ScrapeSchedule schedule;
+
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        /**
+         * The time at which the fetch times out, {@link Long#MAX_VALUE} if the time is not limited.
+         */
+        private final long timeoutNanos;
+
+        /**
+         * Set if the scraping thread does not wait for the result anymore.
+         */
+        private volatile boolean abandoned = false;
+
+        /**
+         * The thread currently fetching the attributes, null if the fetch is not running.
+         */
+        private Thread runner;
+
+        /**
+         * True, if the runner has been interrupted because the fetch was cancelled.
+         */
+        private boolean interrupted = false;
+
+        /**
+         * True, if the fetch was skipped because the time budget of the schedule was exceeded before it started.
+         */
+        @Getter
+        private boolean skipped = false;
+
+        @Getter
+        private MBeanScrapePlan mBeanPlan;
+
+        @Getter
+        private AttributeList attributes;
+
+        MBeanFetch(MBeanServerConnection mBeanServerConnection, ServerScrapePlan scrapePlan, ObjectName objectName, ScrapeSchedule schedule, long mbeanTimeoutNanos) {
+            this.mBeanServerConnection = mBeanServerConnection;
+            this.scrapePlan = scrapePlan;
+            this.objectName = objectName;
+            this.schedule = schedule;
+            timeoutNanos = mbeanTimeoutNanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + mbeanTimeoutNanos;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (!start()) {
+                    skipped = true;
+                    return;
+                }
+                mBeanPlan = scrapePlan.getMBeanPlan(mBeanServerConnection, objectName);
+                if (mBeanPlan != null) {
+                    attributes = mBeanServerConnection.getAttributes(objectName, mBeanPlan.getAttributeNames());
+                }
+            } catch (InstanceNotFoundException e) {
+                scrapePlan.remove(objectName);
+            } catch (Exception e) {
+                logScrape(objectName.toString(), "Fail: " + e);
+            } finally {
+                finish();
+                scrapePlan.fetchCompleted(objectName);
+                completed.countDown();
+            }
+        }
+
+        /**
+         * @return false, if the fetch must not be started because it has been abandoned or the budget is exceeded
+         */
+        private synchronized boolean start() {
+            if (abandoned || schedule.isBudgetExceeded()) {
+                return false;
+            }
+            runner = Thread.currentThread();
+            return true;
+        }
+
+        private synchronized void finish() {
+            if (runner != null && interrupted) {
+                // clear the interrupt of the cancellation, so that it does not affect the next task of the thread
+                Thread.interrupted();
+            }
+            runner = null;
+        }
+
+        /**
+         * Completes the fetch without fetching the attributes.
+         */
+        void skip() {
+            skipped = true;
+            scrapePlan.fetchCompleted(objectName);
+            completed.countDown();
+        }
+
+        /**
+         * Abandons the fetch, as the scraping thread does not wait for its result anymore. A fetch which has not
+         * started yet is skipped, a running fetch is interrupted.
+         *
+         * @return true, if the fetch was running and has been interrupted
+         */
+        synchronized boolean cancel() {
+            abandoned = true;
+            if (runner != null && !interrupted) {
+                interrupted = true;
+                runner.interrupt();
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * @return true, if the mbean timeout of this fetch has elapsed
+         */
+        boolean isTimedOut() {
+            return timeoutNanos != Long.MAX_VALUE && System.nanoTime() - timeoutNanos >= 0;
+        }
+
+        /**
+         * Waits for the fetch to complete, at most until its timeout or the time budget of the schedule elapsed.
+         *
+         * @return true, if the fetch has completed
+         */
+        boolean await() throws InterruptedException {
+            long remainingTimeout = timeoutNanos == Long.MAX_VALUE ? Long.MAX_VALUE : timeoutNanos - System.nanoTime();
+            long remainingBudget = schedule.getRemainingBudgetNanos();
+            return completed.await(Math.max(0, Math.min(remainingTimeout, remainingBudget)), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * The schedule of the MBeans matching an object name pattern. The MBeans are scraped on every {@link #interval}-th
+     * scrape and the fetching of their attributes is limited by the time budget of the schedule.
+     * The schedule also holds the statistics of the last scrape.
+     */
+    static class ScrapeSchedule {
+
+        /**
+         * The name of the schedule.
+         */
+        @Getter
+        private final String name;
+
+        /**
+         * The pattern of the matching MBeans, null if all MBeans are matched.
+         */
+        private final ObjectName objectName;
+
+        /**
+         * The MBeans are scraped on every n-th scrape.
+         */
+        private final int interval;
+
+        /**
+         * The maximum duration of scraping the MBeans, {@link Long#MAX_VALUE} if the duration is not limited.
+         */
+        private final long timeBudgetNanos;
+
+        /**
+         * The number of scrapes since the creation of the schedule.
+         */
+        private long scrapeCount = 0;
+
+        /**
+         * True, if the MBeans are scraped in the current scrape.
+         */
+        private boolean due = false;
+
+        private long startNanos;
+
+        /**
+         * The time at which the time budget of the current scrape is exceeded, read by the fetching threads.
+         */
+        private volatile long deadlineNanos;
+
+        /**
+         * The time at which the last fetch of the current scrape was processed.
+         */
+        private long lastFetchNanos;
+
+        /**
+         * The number of MBeans skipped in the current scrape.
+         */
+        private int skippedMBeans;
+
+        /**
+         * @param name       the name of the schedule
+         * @param objectName the object name pattern of the MBeans, null to match all MBeans
+         * @param interval   the MBeans are scraped on every n-th scrape
+         * @param timeBudget the maximum duration of scraping the MBeans, null if not limited
+         */
+        ScrapeSchedule(String name, ObjectName objectName, int interval, Duration timeBudget) {
+            this.name = name;
+            this.objectName = objectName;
+            this.interval = Math.max(1, interval);
+            timeBudgetNanos = timeBudget == null ? Long.MAX_VALUE : timeBudget.toNanos();
+        }
+
+        boolean matches(ObjectName mbeanName) {
+            return objectName == null || objectName.apply(mbeanName);
+        }
+
+        private void startScrape(long startNanos) {
+            due = scrapeCount++ % interval == 0;
+            this.startNanos = startNanos;
+            lastFetchNanos = startNanos;
+            skippedMBeans = 0;
+            if (timeBudgetNanos == Long.MAX_VALUE) {
+                deadlineNanos = Long.MAX_VALUE;
+            } else {
+                deadlineNanos = startNanos + timeBudgetNanos;
+            }
+        }
+
+        private long getRemainingBudgetNanos() {
+            return deadlineNanos == Long.MAX_VALUE ? Long.MAX_VALUE : deadlineNanos - System.nanoTime();
+        }
+
+        private boolean isBudgetExceeded() {
+            return getRemainingBudgetNanos() <= 0;
+        }
+
+        /**
+         * @return true, if the MBeans of this schedule were scraped in the last scrape
+         */
+        boolean isDue() {
+            return due;
+        }
+
+        /**
+         * @return the number of MBeans which have been skipped in the last scrape
+         */
+        int getSkippedMBeans() {
+            return skippedMBeans;
+        }
+
+        /**
+         * @return the duration from the start of the last scrape until the last MBean of this schedule was processed
+         */
+        Duration getScrapeDuration() {
+            return Duration.ofNanos(lastFetchNanos - startNanos);
+        }
+    }
+
+    /**
+     * The cached scrape plan of a single mbean.
+     */
+    @Value
+    private static class MBeanScrapePlan {
+
+        /**
+         * The name of the mbean.
+         */
+        ObjectName objectName;
+
+        /**
+         * The key properties of the mbean in the order they were added to the object name.
+         */
+        LinkedHashMap<String, String> keyProperties;
+
+        /**
+         * The names of the readable attributes which can be converted to metric values.
+         */
+        String[] attributeNames;
+
+        /**
+         * The infos of the attributes contained in {@link #attributeNames}.
+         */
+        Map<String, MBeanAttributeInfo> attributeInfos;
+
+        /**
+         * The keys of the attributes contained in {@link #attributeNames}, which are reused on every scrape.
+         */
+        Map<String, MBeanAttributeKey> attributeKeys;
+    }
+
+    /**
+     * Identifies a single scraped value of an mbean attribute. The keys of the attributes of an mbean are created once
+     * with its scrape plan, so the receiver can use them as cache keys without recomputing the hash code on every scrape.
+     */
+    @Getter
+    public static final class MBeanAttributeKey {
+
+        /**
+         * Domain of the mbean object.
+         */
+        private final String domain;
+
+        /**
+         * Properties of the mbean.
+         */
+        private final LinkedHashMap<String, String> beanProperties;
+
+        /**
+         * The keys of the composite values containing the value.
+         */
+        private final LinkedList<String> attrKeys;
+
+        /**
+         * Attribute name.
+         */
+        private final String attrName;
+
+        @Getter(AccessLevel.NONE)
+        private final int hashCode;
+
+        /**
+         * The keys of the items of composite values of this attribute, created on the first scrape of the items.
+         */
+        @Getter(AccessLevel.NONE)
+        private volatile Map<String, MBeanAttributeKey> compositeItemKeys;
+
+        public MBeanAttributeKey(String domain, LinkedHashMap<String, String> beanProperties, LinkedList<String> attrKeys, String attrName) {
+            this.domain = domain;
+            this.beanProperties = beanProperties;
+            this.attrKeys = attrKeys;
+            this.attrName = attrName;
+            hashCode = Objects.hash(domain, beanProperties, attrKeys, attrName);
+        }
+
+        /**
+         * @param itemName the name of an item of a composite value of this attribute
+         *
+         * @return the key of the item
+         */
+        MBeanAttributeKey getCompositeItemKey(String itemName) {
+            Map<String, MBeanAttributeKey> itemKeys = compositeItemKeys;
+            if (itemKeys == null) {
+                itemKeys = new ConcurrentHashMap<>();
+                compositeItemKeys = itemKeys;
+            }
+            return itemKeys.computeIfAbsent(itemName, name -> {
+                LinkedList<String> itemAttrKeys = new LinkedList<>(attrKeys);
+                itemAttrKeys.add(attrName);
+                return new MBeanAttributeKey(domain, beanProperties, itemAttrKeys, name);
+            });
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MBeanAttributeKey)) {
+                return false;
+            }
+            MBeanAttributeKey other = (MBeanAttributeKey) o;
+            return hashCode == other.hashCode && Objects.equals(domain, other.domain) && Objects.equals(attrName, other.attrName) && Objects
+                    .equals(attrKeys, other.attrKeys) && Objects.equals(beanProperties, other.beanProperties);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public String toString() {
+            return domain + beanProperties + attrKeys + attrName;
         }
     }
 
@@ -215,43 +907,22 @@ class JmxScraper {
      * so this function tries to do a best-effort pass of getting the values/names
      * out in a way it can be processed elsewhere easily.
      */
-    private void processBeanValue(
-            String domain,
-            LinkedHashMap<String, String> beanProperties,
-            LinkedList<String> attrKeys,
-            String attrName,
-            String attrType,
-            String attrDescription,
-            Object value) {
+    private void processBeanValue(MBeanAttributeKey key, String attrType, String attrDescription, Object value) {
         if (value == null) {
-            logScrape(domain + beanProperties + attrName, "null");
+            logScrape(key, "null");
         } else if (value instanceof Number || value instanceof String || value instanceof Boolean) {
-            logScrape(domain + beanProperties + attrName, value.toString());
-            this.receiver.recordBean(
-                    domain,
-                    beanProperties,
-                    attrKeys,
-                    attrName,
-                    attrType,
-                    attrDescription,
-                    value);
+            if (log.isTraceEnabled()) {
+                logScrape(key, value.toString());
+            }
+            this.receiver.recordBean(key, attrType, attrDescription, value);
         } else if (value instanceof CompositeData) {
-            logScrape(domain + beanProperties + attrName, "compositedata");
+            logScrape(key, "compositedata");
             CompositeData composite = (CompositeData) value;
             CompositeType type = composite.getCompositeType();
-            attrKeys = new LinkedList<String>(attrKeys);
-            attrKeys.add(attrName);
-            for (String key : type.keySet()) {
-                String typ = type.getType(key).getTypeName();
-                Object valu = composite.get(key);
-                processBeanValue(
-                        domain,
-                        beanProperties,
-                        attrKeys,
-                        key,
-                        typ,
-                        type.getDescription(),
-                        valu);
+            for (String itemName : type.keySet()) {
+                String typ = type.getType(itemName).getTypeName();
+                Object valu = composite.get(itemName);
+                processBeanValue(key.getCompositeItemKey(itemName), typ, type.getDescription(), valu);
             }
         } else if (value instanceof TabularData) {
             // I don't pretend to have a good understanding of TabularData.
@@ -259,7 +930,7 @@ class JmxScraper {
             // meant to be used according to the docs. I've only seen them
             // used as 'key' 'value' pairs even when 'value' is itself a
             // CompositeData of multiple values.
-            logScrape(domain + beanProperties + attrName, "tabulardata");
+            logScrape(key, "tabulardata");
             TabularData tds = (TabularData) value;
             TabularType tt = tds.getTabularType();
 
@@ -269,12 +940,12 @@ class JmxScraper {
             Set<String> valueKeys = new TreeSet<String>(type.keySet());
             valueKeys.removeAll(rowKeys);
 
-            LinkedList<String> extendedAttrKeys = new LinkedList<String>(attrKeys);
-            extendedAttrKeys.add(attrName);
+            LinkedList<String> extendedAttrKeys = new LinkedList<String>(key.getAttrKeys());
+            extendedAttrKeys.add(key.getAttrName());
             for (Object valu : tds.values()) {
                 if (valu instanceof CompositeData) {
                     CompositeData composite = (CompositeData) valu;
-                    LinkedHashMap<String, String> l2s = new LinkedHashMap<String, String>(beanProperties);
+                    LinkedHashMap<String, String> l2s = new LinkedHashMap<String, String>(key.getBeanProperties());
                     for (String idx : rowKeys) {
                         Object obj = composite.get(idx);
                         if (obj != null) {
@@ -292,38 +963,37 @@ class JmxScraper {
                         String name = valueIdx;
                         if (valueIdx.toLowerCase().equals("value")) {
                             // Skip appending 'value' to the name
-                            attrNames = attrKeys;
-                            name = attrName;
+                            attrNames = key.getAttrKeys();
+                            name = key.getAttrName();
                         }
-                        processBeanValue(
-                                domain,
-                                l2s,
-                                attrNames,
-                                name,
-                                typ,
-                                type.getDescription(),
-                                composite.get(valueIdx));
+                        // the rows differ between the scrapes, so their keys cannot be reused
+                        processBeanValue(new MBeanAttributeKey(key.getDomain(), l2s, attrNames, name), typ, type.getDescription(), composite
+                                .get(valueIdx));
                     }
                 } else {
-                    logScrape(domain, "not a correct tabulardata format");
+                    logScrape(key.getDomain(), "not a correct tabulardata format");
                 }
             }
         } else if (value.getClass().isArray()) {
-            logScrape(domain, "arrays are unsupported");
+            logScrape(key.getDomain(), "arrays are unsupported");
         } else {
-            logScrape(domain + beanProperties, attrType + " is not exported");
+            logScrape(key, attrType + " is not exported");
         }
     }
 
     /**
      * For debugging.
      */
-    private static void logScrape(ObjectName mbeanName, Set<String> names, String msg) {
-        logScrape(mbeanName + "_" + names, msg);
+    private static void logScrape(ObjectName mbeanName, MBeanAttributeInfo attr, String msg) {
+        if (log.isTraceEnabled()) {
+            logScrape(mbeanName + "'_'" + attr.getName(), msg);
+        }
     }
 
-    private static void logScrape(ObjectName mbeanName, MBeanAttributeInfo attr, String msg) {
-        logScrape(mbeanName + "'_'" + attr.getName(), msg);
+    private static void logScrape(MBeanAttributeKey key, String msg) {
+        if (log.isTraceEnabled()) {
+            logScrape(key.toString(), msg);
+        }
     }
 
     private static void logScrape(String name, String msg) {
@@ -331,19 +1001,8 @@ class JmxScraper {
     }
 
     private static class StdoutWriter implements MBeanReceiver {
-        public void recordBean(
-                String domain,
-                LinkedHashMap<String, String> beanProperties,
-                LinkedList<String> attrKeys,
-                String attrName,
-                String attrType,
-                String attrDescription,
-                Object value) {
-            System.out.println(domain +
-                    beanProperties +
-                    attrKeys +
-                    attrName +
-                    ": " + value);
+        public void recordBean(MBeanAttributeKey attribute, String attrType, String attrDescription, Object value) {
+            System.out.println(attribute + ": " + value);
         }
     }
 
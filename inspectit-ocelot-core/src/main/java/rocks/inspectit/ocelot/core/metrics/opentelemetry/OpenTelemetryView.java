@@ -0,0 +1,297 @@
+package rocks.inspectit.ocelot.core.metrics.opentelemetry;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.opencensus.tags.TagKey;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.api.metrics.*;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import rocks.inspectit.ocelot.config.model.metrics.definition.ViewDefinitionSettings;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.regex.Pattern;
+
+/**
+ * A view of a measure which is recorded directly into an OpenTelemetry instrument.
+ * The instrument is chosen based on the aggregation of the view:
+ * <ul>
+ * <li>COUNT: a long counter which is incremented by one for each measurement</li>
+ * <li>SUM: a long or double counter, depending on the type of the measure</li>
+ * <li>HISTOGRAM: a double histogram, the bucket boundaries are configured via {@link #getBucketBoundaries()}</li>
+ * <li>LAST_VALUE: an observable gauge reporting the last recorded value of each series</li>
+ * </ul>
+ * The tag values of the recordings are mapped to {@link Attributes}, which are cached per series.
+ */
+@Slf4j
+class OpenTelemetryView {
+
+    /**
+     * The characters which are not allowed in instrument names.
+     */
+    private static final Pattern INVALID_INSTRUMENT_NAME_CHARACTERS = Pattern.compile("[^A-Za-z0-9_.\\-]");
+
+    /**
+     * The maximum length of instrument names.
+     */
+    private static final int MAX_INSTRUMENT_NAME_LENGTH = 63;
+
+    /**
+     * The maximum number of cached {@link Attributes}, the cache is reset when exceeding this limit.
+     * The number of series of a view is usually bound by the series limit of the view.
+     */
+    private static final int MAX_CACHED_ATTRIBUTES = 10000;
+
+    /**
+     * The maximum number of series whose last value is kept by LAST_VALUE views without a series limit.
+     */
+    private static final int MAX_LAST_VALUES = 10000;
+
+    /**
+     * The name of the view, e.g. "http/in/responsetime/sum".
+     */
+    @Getter
+    private final String viewName;
+
+    /**
+     * The name of the instrument, which is the view name adjusted to the naming rules of OpenTelemetry.
+     */
+    @Getter
+    private final String instrumentName;
+
+    private final String description;
+
+    private final String unit;
+
+    /**
+     * True, if the measure of the view is a long measure.
+     */
+    private final boolean longValues;
+
+    @Getter
+    private final ViewDefinitionSettings.Aggregation aggregation;
+
+    /**
+     * The bucket boundaries of the view if the aggregation is HISTOGRAM, otherwise an empty list.
+     */
+    @Getter
+    private final List<Double> bucketBoundaries;
+
+    /**
+     * The tags of the view.
+     */
+    @Getter
+    private final List<TagKey> tagKeys;
+
+    /**
+     * The attribute keys corresponding to {@link #tagKeys}.
+     */
+    private final AttributeKey<String>[] attributeKeys;
+
+    /**
+     * Maps the tag values of a series to the attributes used for recording the series.
+     * The tag values are in the order of {@link #tagKeys}.
+     */
+    private final ConcurrentHashMap<List<String>, Attributes> attributesCache = new ConcurrentHashMap<>();
+
+    /**
+     * The last recorded values by series, only used if the aggregation is LAST_VALUE.
+     * The values are kept across instruments, so that they are not lost when the meter provider is replaced.
+     */
+    private final Map<Attributes, Number> lastValues = new ConcurrentHashMap<>();
+
+    /**
+     * The maximum number of series kept in {@link #lastValues}, the values of further series are dropped.
+     * This is the series limit of the view plus one for the overflow series or {@link #MAX_LAST_VALUES} if the view is
+     * not limited.
+     */
+    private final int maxLastValues;
+
+    /**
+     * True, if the values of a series have been dropped because of {@link #maxLastValues}, so that the warning is
+     * only logged once.
+     */
+    private volatile boolean lastValuesDropped;
+
+    /**
+     * Records a value with the given attributes into the instrument of this view.
+     * Null as long as the view has not been bound to a meter.
+     */
+    private volatile BiConsumer<Number, Attributes> recorder;
+
+    /**
+     * The observable gauge reporting the {@link #lastValues}, only used if the aggregation is LAST_VALUE.
+     * Null as long as the view has not been bound to a meter.
+     */
+    private AutoCloseable gauge;
+
+    @SuppressWarnings("unchecked")
+    OpenTelemetryView(String viewName, String description, String unit, boolean longValues, ViewDefinitionSettings.Aggregation aggregation, List<Double> bucketBoundaries, List<TagKey> tagKeys, Integer maxSeries) {
+        this.viewName = viewName;
+        this.description = description;
+        this.unit = unit;
+        this.longValues = longValues;
+        this.aggregation = aggregation;
+        this.bucketBoundaries = aggregation == ViewDefinitionSettings.Aggregation.HISTOGRAM ? bucketBoundaries : Collections.emptyList();
+        this.tagKeys = tagKeys;
+        maxLastValues = maxSeries != null && maxSeries > 0 ? maxSeries + 1 : MAX_LAST_VALUES;
+        instrumentName = toInstrumentName(viewName);
+        attributeKeys = tagKeys.stream().map(tag -> AttributeKey.stringKey(tag.getName())).toArray(AttributeKey[]::new);
+    }
+
+    /**
+     * Creates the instrument of this view using the given meter.
+     * Recordings are dropped until this method has been called.
+     * The callback of a previously created gauge is closed before creating the new instrument.
+     *
+     * @param meter the meter to create the instrument with
+     */
+    void bind(Meter meter) {
+        closeGauge();
+        switch (aggregation) {
+            case COUNT:
+                LongCounter countCounter = meter.counterBuilder(instrumentName)
+                        .setDescription(description)
+                        .setUnit("1")
+                        .build();
+                recorder = (value, attributes) -> countCounter.add(1, attributes);
+                break;
+            case SUM:
+                if (longValues) {
+                    LongCounter longCounter = meter.counterBuilder(instrumentName)
+                            .setDescription(description)
+                            .setUnit(unit)
+                            .build();
+                    recorder = (value, attributes) -> longCounter.add(value.longValue(), attributes);
+                } else {
+                    DoubleCounter doubleCounter = meter.counterBuilder(instrumentName)
+                            .ofDoubles()
+                            .setDescription(description)
+                            .setUnit(unit)
+                            .build();
+                    recorder = (value, attributes) -> doubleCounter.add(value.doubleValue(), attributes);
+                }
+                break;
+            case HISTOGRAM:
+                DoubleHistogram histogram = meter.histogramBuilder(instrumentName)
+                        .setDescription(description)
+                        .setUnit(unit)
+                        .build();
+                recorder = (value, attributes) -> histogram.record(value.doubleValue(), attributes);
+                break;
+            case LAST_VALUE:
+                if (longValues) {
+                    gauge = meter.gaugeBuilder(instrumentName)
+                            .ofLongs()
+                            .setDescription(description)
+                            .setUnit(unit)
+                            .buildWithCallback(measurement -> lastValues.forEach((attributes, value) -> measurement.record(value.longValue(), attributes)));
+                } else {
+                    gauge = meter.gaugeBuilder(instrumentName)
+                            .setDescription(description)
+                            .setUnit(unit)
+                            .buildWithCallback(measurement -> lastValues.forEach((attributes, value) -> measurement.record(value.doubleValue(), attributes)));
+                }
+                recorder = this::recordLastValue;
+                break;
+            default:
+                throw new RuntimeException("Unhandled aggregation type: " + aggregation);
+        }
+    }
+
+    private void recordLastValue(Number value, Attributes attributes) {
+        if (lastValues.size() < maxLastValues || lastValues.containsKey(attributes)) {
+            lastValues.put(attributes, value);
+        } else if (!lastValuesDropped) {
+            lastValuesDropped = true;
+            log.warn("View '{}' exceeds {} series, the last values of further series are dropped. Use 'max-series' to limit the series of the view.", viewName, maxLastValues);
+        }
+    }
+
+    /**
+     * Stops recording into the instrument of this view, e.g. because the view has been replaced.
+     * In case of a gauge, its callback is closed, so that it no longer reports the last values of this view.
+     */
+    void unbind() {
+        recorder = null;
+        closeGauge();
+    }
+
+    private void closeGauge() {
+        if (gauge != null) {
+            try {
+                gauge.close();
+            } catch (Exception e) {
+                log.debug("Could not close the gauge of view {}", viewName, e);
+            }
+            gauge = null;
+        }
+    }
+
+    /**
+     * Records a value for the series with the given tag values.
+     *
+     * @param value     the value to record
+     * @param tagValues the tag values of the series in the order of {@link #getTagKeys()}, null for tags which are not
+     *                  present. The array is not retained, so that it can be reused by the caller.
+     */
+    void record(Number value, String[] tagValues) {
+        BiConsumer<Number, Attributes> currentRecorder = recorder;
+        if (currentRecorder != null) {
+            currentRecorder.accept(value, getAttributes(tagValues));
+        }
+    }
+
+    @VisibleForTesting
+    Attributes getAttributes(String[] tagValues) {
+        Attributes attributes = attributesCache.get(Arrays.asList(tagValues));
+        if (attributes == null) {
+            if (attributesCache.size() >= MAX_CACHED_ATTRIBUTES) {
+                attributesCache.clear();
+            }
+            // the given array may be reused by the caller, so the cached series has to use a copy
+            attributes = attributesCache.computeIfAbsent(Arrays.asList(tagValues.clone()), this::createAttributes);
+        }
+        return attributes;
+    }
+
+    private Attributes createAttributes(List<String> tagValues) {
+        AttributesBuilder builder = Attributes.builder();
+        for (int i = 0; i < attributeKeys.length; i++) {
+            String value = tagValues.get(i);
+            if (value != null) {
+                builder.put(attributeKeys[i], value);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Derives the name of an instrument from the given view name.
+     * OpenTelemetry only allows alphanumeric characters, '_', '.' and '-' in instrument names. All other characters
+     * are replaced by '_', e.g. the name "http/in/count" becomes "http_in_count", which equals the name of the view
+     * when exported via Prometheus. Names exceeding 63 characters are truncated, so that different view names may
+     * result in the same instrument name.
+     *
+     * @param viewName the name of the view
+     *
+     * @return the name to use for the instrument
+     */
+    @VisibleForTesting
+    static String toInstrumentName(String viewName) {
+        String name = INVALID_INSTRUMENT_NAME_CHARACTERS.matcher(viewName).replaceAll("_");
+        if (name.isEmpty() || !Character.isLetter(name.charAt(0))) {
+            name = "m_" + name;
+        }
+        if (name.length() > MAX_INSTRUMENT_NAME_LENGTH) {
+            name = name.substring(0, MAX_INSTRUMENT_NAME_LENGTH);
+        }
+        return name;
+    }
+}
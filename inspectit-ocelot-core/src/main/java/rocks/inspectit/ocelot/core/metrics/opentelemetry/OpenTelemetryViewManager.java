@@ -0,0 +1,241 @@
+package rocks.inspectit.ocelot.core.metrics.opentelemetry;
+
+import io.opencensus.tags.InternalUtils;
+import io.opencensus.tags.Tag;
+import io.opencensus.tags.TagContext;
+import io.opencensus.tags.TagKey;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.MeterProvider;
+import io.opentelemetry.sdk.metrics.Aggregation;
+import io.opentelemetry.sdk.metrics.InstrumentSelector;
+import io.opentelemetry.sdk.metrics.SdkMeterProviderBuilder;
+import io.opentelemetry.sdk.metrics.View;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import rocks.inspectit.ocelot.bootstrap.Instances;
+import rocks.inspectit.ocelot.config.model.metrics.definition.ViewDefinitionSettings;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Allows the creation of views which are recorded directly into OpenTelemetry instruments, bypassing the
+ * OpenCensus stats and the conversion of the OpenCensus views on export.
+ * Similar to the {@link rocks.inspectit.ocelot.core.metrics.percentiles.PercentileViewManager}, observations must be
+ * reported via {@link #recordMeasurement(String, Number, TagContext)}.
+ * <p>
+ * The instruments are created on the {@link MeterProvider} set via {@link #setMeterProvider(MeterProvider)}, which has
+ * to be called whenever the meter provider is replaced. As the bucket boundaries of histograms can only be configured
+ * when building the meter provider, {@link #registerViews(SdkMeterProviderBuilder)} has to be invoked on the builder.
+ */
+@Slf4j
+@Component
+public class OpenTelemetryViewManager {
+
+    /**
+     * The name of the meter used for creating the instruments.
+     */
+    public static final String METER_NAME = "rocks.inspectit.ocelot";
+
+    /**
+     * Maps the names of measures to their views.
+     * The {@link MeasureViews} are immutable and replaced on changes.
+     */
+    private final ConcurrentHashMap<String, MeasureViews> measuresToViewsMap = new ConcurrentHashMap<>();
+
+    /**
+     * The meter used for creating the instruments, null as long as no meter provider has been set.
+     */
+    private Meter meter;
+
+    /**
+     * Records a measurement observation for a given measure.
+     *
+     * @param measureName the name of the measure, e.g. http/responsetime
+     * @param value       the observation to record
+     * @param tags        the TagContext to use
+     */
+    public void recordMeasurement(String measureName, Number value, TagContext tags) {
+        MeasureViews measureViews = measuresToViewsMap.get(measureName);
+        if (measureViews != null) {
+            measureViews.record(value, tags);
+        }
+    }
+
+    /**
+     * Creates a new view if no view with the given name exists for the given measure.
+     * If a view with the given name already exists for the given measure, it is replaced.
+     * In case the bucket boundaries of a histogram change, a rebuild of the meter provider is requested.
+     * The view is not created in case its instrument name equals the instrument name of another view, e.g. because
+     * the view names only differ in characters which are not allowed in instrument names or after the 63rd character.
+     *
+     * @param measureName the name of the measure, e.g. "http/responsetime"
+     * @param longValues  true, if the measure is a long measure
+     * @param unit        the unit of the measure
+     * @param viewName    the name of the view, e.g. "http/responsetime/sum"
+     * @param def         the definition of the view with defaults populated
+     * @param tags        the tags to use for the view
+     * @param maxSeries   the series limit of the view, null if the view is not limited
+     */
+    public synchronized void createOrUpdateView(String measureName, boolean longValues, String unit, String viewName, ViewDefinitionSettings def, Collection<TagKey> tags, Integer maxSeries) {
+        List<TagKey> tagKeys = new ArrayList<>(tags);
+        tagKeys.sort(Comparator.comparing(TagKey::getName));
+        OpenTelemetryView view = new OpenTelemetryView(viewName, def.getDescription(), unit, longValues, def.getAggregation(), def
+                .getBucketBoundaries(), tagKeys, maxSeries);
+
+        Optional<OpenTelemetryView> conflictingView = measuresToViewsMap.values()
+                .stream()
+                .flatMap(measureViews -> measureViews.views.stream())
+                .filter(otherView -> !otherView.getViewName().equals(viewName) && otherView.getInstrumentName()
+                        .equals(view.getInstrumentName()))
+                .findFirst();
+        if (conflictingView.isPresent()) {
+            log.warn("Cannot create view '{}' as its instrument name '{}' is already used by view '{}'", viewName, view.getInstrumentName(), conflictingView
+                    .get()
+                    .getViewName());
+            return;
+        }
+
+        MeasureViews existing = measuresToViewsMap.get(measureName);
+        List<OpenTelemetryView> views = new ArrayList<>();
+        OpenTelemetryView replacedView = null;
+        if (existing != null) {
+            for (OpenTelemetryView existingView : existing.views) {
+                if (existingView.getViewName().equals(viewName)) {
+                    replacedView = existingView;
+                } else {
+                    views.add(existingView);
+                }
+            }
+        }
+        views.add(view);
+
+        if (replacedView != null) {
+            // close the gauge of the replaced view, so that it does not report its last values anymore
+            replacedView.unbind();
+        }
+        if (meter != null) {
+            view.bind(meter);
+            boolean bucketsChanged = replacedView == null ? !view.getBucketBoundaries()
+                    .isEmpty() : !replacedView.getBucketBoundaries().equals(view.getBucketBoundaries());
+            if (bucketsChanged) {
+                // the meter provider has to be rebuilt to apply the bucket boundaries
+                Instances.openTelemetryController.notifyMetricsSettingsChanged();
+            }
+        }
+        measuresToViewsMap.put(measureName, new MeasureViews(views));
+    }
+
+    /**
+     * Returns whether a view with the given name is registered for the given measure.
+     *
+     * @param measureName the name of the measure
+     * @param viewName    the name of the view
+     *
+     * @return true, if the view exists
+     */
+    public boolean isViewRegistered(String measureName, String viewName) {
+        MeasureViews measureViews = measuresToViewsMap.get(measureName);
+        return measureViews != null && measureViews.views.stream()
+                .anyMatch(view -> view.getViewName().equals(viewName));
+    }
+
+    /**
+     * Registers the OpenTelemetry views required for the currently existing views at the given builder.
+     * This configures the bucket boundaries of all histograms.
+     *
+     * @param builder the builder of the meter provider
+     */
+    public synchronized void registerViews(SdkMeterProviderBuilder builder) {
+        measuresToViewsMap.values()
+                .stream()
+                .flatMap(measureViews -> measureViews.views.stream())
+                .filter(view -> !view.getBucketBoundaries().isEmpty())
+                .forEach(view -> builder.registerView(InstrumentSelector.builder()
+                        .setMeterName(METER_NAME)
+                        .setName(view.getInstrumentName())
+                        .build(), View.builder()
+                        .setAggregation(Aggregation.explicitBucketHistogram(view.getBucketBoundaries()))
+                        .build()));
+    }
+
+    /**
+     * Sets the meter provider used for creating the instruments and recreates the instruments of all views.
+     *
+     * @param meterProvider the meter provider which is currently active
+     */
+    public synchronized void setMeterProvider(MeterProvider meterProvider) {
+        meter = meterProvider.get(METER_NAME);
+        measuresToViewsMap.values()
+                .stream()
+                .flatMap(measureViews -> measureViews.views.stream())
+                .forEach(view -> view.bind(meter));
+    }
+
+    /**
+     * The views of a single measure.
+     * Holds the union of the tags of all views, so that the tags of a recording only have to be resolved once.
+     */
+    private static class MeasureViews {
+
+        private final List<OpenTelemetryView> views;
+
+        /**
+         * Maps the tags used by any of the views to their index within the tag values resolved for a recording.
+         */
+        private final Map<TagKey, Integer> tagIndices = new HashMap<>();
+
+        /**
+         * For each view, the indices of its tags within the array of all tag values.
+         */
+        private final int[][] viewTagIndices;
+
+        /**
+         * Per thread, the arrays for the tag values of each view followed by the array for all tag values, which are
+         * reused across recordings.
+         */
+        private final ThreadLocal<String[][]> tagValueBuffers = ThreadLocal.withInitial(this::createTagValueBuffers);
+
+        private MeasureViews(List<OpenTelemetryView> views) {
+            this.views = views;
+            viewTagIndices = new int[views.size()][];
+            for (int i = 0; i < views.size(); i++) {
+                List<TagKey> viewTags = views.get(i).getTagKeys();
+                viewTagIndices[i] = new int[viewTags.size()];
+                for (int j = 0; j < viewTags.size(); j++) {
+                    viewTagIndices[i][j] = tagIndices.computeIfAbsent(viewTags.get(j), key -> tagIndices.size());
+                }
+            }
+        }
+
+        private String[][] createTagValueBuffers() {
+            String[][] buffers = new String[views.size() + 1][];
+            for (int i = 0; i < views.size(); i++) {
+                buffers[i] = new String[viewTagIndices[i].length];
+            }
+            buffers[views.size()] = new String[tagIndices.size()];
+            return buffers;
+        }
+
+        private void record(Number value, TagContext tags) {
+            String[][] buffers = tagValueBuffers.get();
+            String[] allTagValues = buffers[views.size()];
+            Arrays.fill(allTagValues, null);
+            for (Iterator<Tag> iterator = InternalUtils.getTags(tags); iterator.hasNext(); ) {
+                Tag tag = iterator.next();
+                Integer index = tagIndices.get(tag.getKey());
+                if (index != null) {
+                    allTagValues[index] = tag.getValue().asString();
+                }
+            }
+            for (int i = 0; i < views.size(); i++) {
+                int[] indices = viewTagIndices[i];
+                String[] viewTagValues = buffers[i];
+                for (int j = 0; j < indices.length; j++) {
+                    viewTagValues[j] = allTagValues[indices[j]];
+                }
+                views.get(i).record(value, viewTagValues);
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package rocks.inspectit.ocelot.core.metrics.system;
 
+import com.google.common.collect.ObjectArrays;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import rocks.inspectit.ocelot.config.model.InspectitConfig;
@@ -24,10 +25,10 @@ public abstract class AbstractMetricsRecorder extends DynamicallyActivatableServ
      * Constructor.
      * This class already handles the dependency to the master switch.
      *
-     * @param configDependency the configuration dependency of the recorder.
+     * @param configDependencies the configuration dependencies of the recorder.
      */
-    public AbstractMetricsRecorder(String configDependency) {
-        super("metrics.enabled", configDependency);
+    public AbstractMetricsRecorder(String... configDependencies) {
+        super(ObjectArrays.concat("metrics.enabled", configDependencies));
     }
 
     @Override
@@ -14,6 +14,7 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * Base class for all metrics recorders which perform polling to acquire the measurement data.
+ * Lightweight recorders are scheduled by the {@link MetricsRecorderScheduler}, all others on the shared executor.
  */
 @Slf4j
 public abstract class AbstractPollingMetricsRecorder extends AbstractMetricsRecorder {
@@ -24,10 +25,21 @@ public abstract class AbstractPollingMetricsRecorder extends AbstractMetricsReco
     @Autowired
     protected SelfMonitoringService selfMonitoringService;
 
+    @Autowired
+    protected MetricsRecorderScheduler metricsScheduler;
+
+    /**
+     * The polling task on the shared executor, null if the recorder is scheduled by the {@link #metricsScheduler}.
+     */
     private ScheduledFuture<?> pollingTask;
 
-    public AbstractPollingMetricsRecorder(String configDependency) {
-        super(configDependency);
+    /**
+     * The registration at the {@link #metricsScheduler}, null if the recorder is scheduled on the shared executor.
+     */
+    private MetricsRecorderScheduler.Registration schedulerRegistration;
+
+    public AbstractPollingMetricsRecorder(String... configDependencies) {
+        super(configDependencies);
     }
 
 
@@ -47,10 +59,25 @@ public abstract class AbstractPollingMetricsRecorder extends AbstractMetricsReco
      */
     protected abstract Duration getFrequency(MetricsSettings config);
 
+    /**
+     * Lightweight recorders are scheduled by the {@link MetricsRecorderScheduler} together with all other lightweight
+     * recorders of the same frequency. Recorders whose measurements may take a long time, e.g. because they query
+     * external components, should return false so that they do not delay the other recorders.
+     *
+     * @return true, if the measurements of this recorder are fast
+     */
+    protected boolean isLightweight() {
+        return true;
+    }
+
     @Override
     protected boolean doEnable(InspectitConfig configuration) {
         log.info("Enabling {}.", getClass().getSimpleName());
         val conf = configuration.getMetrics();
+        if (isLightweight()) {
+            schedulerRegistration = metricsScheduler.schedule(getClass().getSimpleName(), getFrequency(conf), () -> takeMeasurement(conf));
+            return true;
+        }
         pollingTask = executor.scheduleWithFixedDelay(() -> {
             try (val scope = selfMonitoringService.withDurationSelfMonitoring(getClass().getSimpleName())) {
                 try (val tags = commonTags.withCommonTagScope()) {
@@ -66,7 +93,14 @@ public abstract class AbstractPollingMetricsRecorder extends AbstractMetricsReco
     @Override
     protected boolean doDisable() {
         log.info("Disabling {}.", getClass().getSimpleName());
-        pollingTask.cancel(true);
+        if (schedulerRegistration != null) {
+            schedulerRegistration.cancel();
+            schedulerRegistration = null;
+        }
+        if (pollingTask != null) {
+            pollingTask.cancel(true);
+            pollingTask = null;
+        }
         return true;
     }
 
@@ -1,10 +1,11 @@
 package rocks.inspectit.ocelot.core.metrics.system;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.sun.management.GarbageCollectionNotificationInfo;
-import com.sun.management.GcInfo;
 import io.opencensus.tags.TagContext;
 import io.opencensus.tags.TagKey;
 import io.opencensus.tags.Tagger;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,13 +21,21 @@ import javax.management.Notification;
 import javax.management.NotificationEmitter;
 import javax.management.NotificationListener;
 import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
 import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryPoolMXBean;
-import java.lang.management.MemoryUsage;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Records the GC metrics based on the notifications of the garbage collectors.
+ * <p>
+ * As the notifications are handled on the JMX notification thread right after each GC, the handling avoids
+ * allocations: the required values are read directly from the {@link CompositeData} of the notification instead of
+ * converting it into a {@link GarbageCollectionNotificationInfo}, only the memory usages of the young and old
+ * generation pools are read and the tag contexts are cached per combination of gc name, action and cause.
+ */
 @Service
 @Slf4j
 public class GCMetricsRecorder extends AbstractMetricsRecorder {
@@ -57,6 +66,20 @@ public class GCMetricsRecorder extends AbstractMetricsRecorder {
 
     private static final String MEMORY_ALLOCATED_METRIC_FULL_NAME = METRIC_NAME_PREFIX + "memory/allocated";
 
+    private static final String PHASE_HISTOGRAM_METRIC_NAME = "phase.histogram";
+
+    private static final String PHASE_DURATION_METRIC_FULL_NAME = METRIC_NAME_PREFIX + "phase/duration";
+
+    private static final String PAUSE_PHASE = "pause";
+
+    private static final String CONCURRENT_PHASE = "concurrent";
+
+    /**
+     * The maximum number of cached tag contexts. The number of combinations of gc name, action and cause is usually
+     * small, the limit only protects against unexpected values.
+     */
+    private static final int MAX_CACHED_TAG_CONTEXTS = 100;
+
     private static final boolean MANAGEMENT_EXTENSIONS_PRESENT = isManagementExtensionsPresent();
 
     private final NotificationListener notificationListener = this::handleNotification;
@@ -67,9 +90,30 @@ public class GCMetricsRecorder extends AbstractMetricsRecorder {
 
     private final TagKey causeTagKey = TagKey.create("cause");
 
-    private String youngGenPoolName;
+    private final TagKey gcTagKey = TagKey.create("gc");
+
+    private final TagKey phaseTagKey = TagKey.create("phase");
+
+    /**
+     * The key of the young generation pool in the memory usage tables of the notifications, null if there is none.
+     */
+    private Object[] youngGenPoolKey;
 
-    private String oldGenPoolName;
+    /**
+     * The key of the old generation pool in the memory usage tables of the notifications, null if there is none.
+     */
+    private Object[] oldGenPoolKey;
+
+    /**
+     * The tag contexts for the GC times, containing the common tags and the gc name, phase, action and cause.
+     * Only accessed while holding the lock on the map.
+     */
+    private final Map<GcTags, TagContext> tagContexts = new HashMap<>();
+
+    /**
+     * The common tag context the {@link #tagContexts} are based on.
+     */
+    private TagContext tagContextsCommonTags;
 
     private long youngGenSizeAfter = 0L;
 
@@ -122,10 +166,10 @@ public class GCMetricsRecorder extends AbstractMetricsRecorder {
     private void initPoolProperties() {
         for (MemoryPoolMXBean mbean : ManagementFactory.getMemoryPoolMXBeans()) {
             if (isYoungGenPool(mbean.getName())) {
-                youngGenPoolName = mbean.getName();
+                youngGenPoolKey = new Object[]{mbean.getName()};
             }
             if (isOldGenPool(mbean.getName())) {
-                oldGenPoolName = mbean.getName();
+                oldGenPoolKey = new Object[]{mbean.getName()};
             }
         }
     }
@@ -135,45 +179,61 @@ public class GCMetricsRecorder extends AbstractMetricsRecorder {
             return;
         }
         try (val sm = selfMonitoringService.withDurationSelfMonitoring(getClass().getSimpleName())) {
-
-            String type = notification.getType();
-            if (type.equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
-                CompositeData cd = (CompositeData) notification.getUserData();
-                GarbageCollectionNotificationInfo notificationInfo = GarbageCollectionNotificationInfo.from(cd);
-
-                recordGcTimes(notificationInfo);
-
-                GcInfo gcInfo = notificationInfo.getGcInfo();
-
-                Map<String, MemoryUsage> before = gcInfo.getMemoryUsageBeforeGc();
-                Map<String, MemoryUsage> after = gcInfo.getMemoryUsageAfterGc();
-
-                recordOldGenSizes(notificationInfo, before, after);
-
-                recordYoungGenSizes(before, after);
+            if (notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+                recordGarbageCollection((CompositeData) notification.getUserData());
             }
         } catch (Exception e) {
             log.error("Error handling GC event", e);
         }
+    }
+
+    /**
+     * Records the metrics of a single garbage collection.
+     *
+     * @param notificationInfo the {@link GarbageCollectionNotificationInfo} in its composite data form
+     */
+    @VisibleForTesting
+    void recordGarbageCollection(CompositeData notificationInfo) {
+        String gcName = (String) notificationInfo.get("gcName");
+        String gcAction = (String) notificationInfo.get("gcAction");
+        String gcCause = (String) notificationInfo.get("gcCause");
+        CompositeData gcInfo = (CompositeData) notificationInfo.get("gcInfo");
+
+        recordGcTimes(gcName, gcAction, gcCause, (Long) gcInfo.get("duration"));
+
+        TabularData before = (TabularData) gcInfo.get("memoryUsageBeforeGc");
+        TabularData after = (TabularData) gcInfo.get("memoryUsageAfterGc");
 
+        recordOldGenSizes(gcName, before, after);
+
+        recordYoungGenSizes(before, after);
     }
 
-    private void recordGcTimes(GarbageCollectionNotificationInfo notificationInfo) {
-        if (isConcurrentPhase(notificationInfo.getGcCause())) {
-            if (config.getEnabled().getOrDefault(CONCURRENT_PHASE_TIME_METRIC_NAME, false)) {
-                recordConcurrentPhaseTime(notificationInfo);
+    private void recordGcTimes(String gcName, String gcAction, String gcCause, long duration) {
+        boolean concurrentPhase = isConcurrentPhase(gcCause);
+        Map<String, Boolean> enabled = config.getEnabled();
+        boolean recordTime = enabled.getOrDefault(concurrentPhase ? CONCURRENT_PHASE_TIME_METRIC_NAME : PAUSE_METRIC_NAME, false);
+        boolean recordHistogram = enabled.getOrDefault(PHASE_HISTOGRAM_METRIC_NAME, false);
+        if (recordTime || recordHistogram) {
+            TagContext tags = getTagContext(gcName, gcAction, gcCause);
+            if (recordTime) {
+                measureManager.tryRecordingMeasurement(concurrentPhase ? CONCURRENT_PHASE_TIME_METRIC_FULL_NAME : PAUSE_METRIC_FULL_NAME, duration, tags);
             }
-        } else {
-            if (config.getEnabled().getOrDefault(PAUSE_METRIC_NAME, false)) {
-                recordGCPause(notificationInfo);
+            if (recordHistogram) {
+                measureManager.tryRecordingMeasurement(PHASE_DURATION_METRIC_FULL_NAME, duration, tags);
             }
         }
     }
 
-    private void recordOldGenSizes(GarbageCollectionNotificationInfo notificationInfo, Map<String, MemoryUsage> before, Map<String, MemoryUsage> after) {
-        if (oldGenPoolName != null) {
-            long oldBefore = before.get(oldGenPoolName).getUsed();
-            long oldAfter = after.get(oldGenPoolName).getUsed();
+    private void recordOldGenSizes(String gcName, TabularData before, TabularData after) {
+        if (oldGenPoolKey != null) {
+            CompositeData oldUsageAfter = getMemoryUsage(after, oldGenPoolKey);
+            CompositeData oldUsageBefore = getMemoryUsage(before, oldGenPoolKey);
+            if (oldUsageBefore == null || oldUsageAfter == null) {
+                return;
+            }
+            long oldBefore = (Long) oldUsageBefore.get("used");
+            long oldAfter = (Long) oldUsageAfter.get("used");
             if (config.getEnabled().getOrDefault(MEMORY_PROMOTED_METRIC_NAME, false)) {
                 long delta = oldAfter - oldBefore;
                 if (delta > 0L) {
@@ -184,21 +244,26 @@ public class GCMetricsRecorder extends AbstractMetricsRecorder {
             // Some GC implementations such as G1 can reduce the old gen size as part of a minor GC. To track the
             // live data size we record the value if we see a reduction in the old gen heap size or
             // after a major GC.
-            if (oldAfter < oldBefore || GcGenerationAge.fromName(notificationInfo.getGcName()) == GcGenerationAge.OLD) {
+            if (oldAfter < oldBefore || GcGenerationAge.fromName(gcName) == GcGenerationAge.OLD) {
                 if (config.getEnabled().getOrDefault(LIVE_DATA_SIZE_METRIC_NAME, false)) {
                     recordLiveDataSize(oldAfter);
                 }
                 if (config.getEnabled().getOrDefault(MAX_DATA_SIZE_METRIC_NAME, false)) {
-                    recordMaxDataSize(Math.max(after.get(oldGenPoolName).getMax(), 0L));
+                    recordMaxDataSize(Math.max((Long) oldUsageAfter.get("max"), 0L));
                 }
             }
         }
     }
 
-    private void recordYoungGenSizes(Map<String, MemoryUsage> before, Map<String, MemoryUsage> after) {
-        if (youngGenPoolName != null) {
-            long youngBefore = before.get(youngGenPoolName).getUsed();
-            long youngAfter = after.get(youngGenPoolName).getUsed();
+    private void recordYoungGenSizes(TabularData before, TabularData after) {
+        if (youngGenPoolKey != null) {
+            CompositeData youngUsageBefore = getMemoryUsage(before, youngGenPoolKey);
+            CompositeData youngUsageAfter = getMemoryUsage(after, youngGenPoolKey);
+            if (youngUsageBefore == null || youngUsageAfter == null) {
+                return;
+            }
+            long youngBefore = (Long) youngUsageBefore.get("used");
+            long youngAfter = (Long) youngUsageAfter.get("used");
             long delta = youngBefore - youngGenSizeAfter;
             youngGenSizeAfter = youngAfter;
             if (delta > 0L && config.getEnabled().getOrDefault(MEMORY_ALLOCATED_METRIC_NAME, false)) {
@@ -207,22 +272,45 @@ public class GCMetricsRecorder extends AbstractMetricsRecorder {
         }
     }
 
-    private void recordConcurrentPhaseTime(GarbageCollectionNotificationInfo notificationInfo) {
-        TagContext tags = tagger.toBuilder(commonTags.getCommonTagContext())
-                .putLocal(actionTagKey, TagUtils.createTagValue(actionTagKey.getName(), notificationInfo.getGcAction()))
-                .putLocal(causeTagKey, TagUtils.createTagValue(causeTagKey.getName(), notificationInfo.getGcCause()))
-                .build();
-        measureManager.tryRecordingMeasurement(CONCURRENT_PHASE_TIME_METRIC_FULL_NAME, notificationInfo.getGcInfo()
-                .getDuration(), tags);
+    /**
+     * Returns the {@link java.lang.management.MemoryUsage} of a single pool in its composite data form.
+     *
+     * @param memoryUsages the memory usages by pool name
+     * @param poolKey      the key of the pool
+     *
+     * @return the memory usage or null if the pool is not contained
+     */
+    private static CompositeData getMemoryUsage(TabularData memoryUsages, Object[] poolKey) {
+        CompositeData entry = memoryUsages.get(poolKey);
+        return entry == null ? null : (CompositeData) entry.get("value");
     }
 
-    private void recordGCPause(GarbageCollectionNotificationInfo notificationInfo) {
-        TagContext tags = tagger.toBuilder(commonTags.getCommonTagContext())
-                .putLocal(actionTagKey, TagUtils.createTagValue(actionTagKey.getName(), notificationInfo.getGcAction()))
-                .putLocal(causeTagKey, TagUtils.createTagValue(causeTagKey.getName(), notificationInfo.getGcCause()))
-                .build();
-        measureManager.tryRecordingMeasurement(PAUSE_METRIC_FULL_NAME, notificationInfo.getGcInfo()
-                .getDuration(), tags);
+    /**
+     * Returns the cached tag context for the given gc name, action and cause. The cached tag contexts are reset if the
+     * common tags have changed.
+     */
+    private TagContext getTagContext(String gcName, String gcAction, String gcCause) {
+        TagContext commonTagContext = commonTags.getCommonTagContext();
+        GcTags key = new GcTags(gcName, gcAction, gcCause);
+        synchronized (tagContexts) {
+            if (commonTagContext != tagContextsCommonTags) {
+                tagContexts.clear();
+                tagContextsCommonTags = commonTagContext;
+            }
+            TagContext tags = tagContexts.get(key);
+            if (tags == null) {
+                tags = tagger.toBuilder(commonTagContext)
+                        .putLocal(gcTagKey, TagUtils.createTagValue(gcTagKey.getName(), gcName))
+                        .putLocal(phaseTagKey, TagUtils.createTagValue(phaseTagKey.getName(), isConcurrentPhase(gcCause) ? CONCURRENT_PHASE : PAUSE_PHASE))
+                        .putLocal(actionTagKey, TagUtils.createTagValue(actionTagKey.getName(), gcAction))
+                        .putLocal(causeTagKey, TagUtils.createTagValue(causeTagKey.getName(), gcCause))
+                        .build();
+                if (tagContexts.size() < MAX_CACHED_TAG_CONTEXTS) {
+                    tagContexts.put(key, tags);
+                }
+            }
+            return tags;
+        }
     }
 
     private void recordPromotedBytes(long bytes) {
@@ -261,6 +349,19 @@ public class GCMetricsRecorder extends AbstractMetricsRecorder {
     private boolean isYoungGenPool(String name) {
         return name.endsWith("Eden Space");
     }
+
+    /**
+     * The key of the cached tag contexts.
+     */
+    @Value
+    private static class GcTags {
+
+        String gcName;
+
+        String gcAction;
+
+        String gcCause;
+    }
 }
 
 /**
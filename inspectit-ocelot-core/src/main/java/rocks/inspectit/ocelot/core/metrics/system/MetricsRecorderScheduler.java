@@ -0,0 +1,180 @@
+package rocks.inspectit.ocelot.core.metrics.system;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.opencensus.common.Scope;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import rocks.inspectit.ocelot.core.selfmonitoring.SelfMonitoringService;
+import rocks.inspectit.ocelot.core.tags.CommonTagsManager;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Schedules the measurements of the {@link AbstractPollingMetricsRecorder}s on a dedicated low-priority thread, so that
+ * the recorders are not delayed by the tasks of the shared executor and vice versa.
+ * <p>
+ * Recorders with the same frequency are coalesced into a single tick, which enters the common tag scope only once.
+ * If a measurement takes longer than the frequency of its recorder, an overrun is reported through self-monitoring.
+ */
+@Component
+@Slf4j
+public class MetricsRecorderScheduler {
+
+    /**
+     * The self-monitoring measure counting the measurements which took longer than the frequency of their recorder.
+     */
+    @VisibleForTesting
+    static final String OVERRUNS_MEASURE_NAME = "metrics-recorder/overruns";
+
+    private static final String RECORDER_TAG_KEY = "component-name";
+
+    private final ScheduledExecutorService executor;
+
+    private final CommonTagsManager commonTags;
+
+    private final SelfMonitoringService selfMonitoringService;
+
+    /**
+     * The active ticks by their period in milliseconds.
+     */
+    private final Map<Long, Tick> ticks = new HashMap<>();
+
+    @Autowired
+    public MetricsRecorderScheduler(CommonTagsManager commonTags, SelfMonitoringService selfMonitoringService) {
+        this(Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            thread.setName("inspectit-metrics-recorder");
+            return thread;
+        }), commonTags, selfMonitoringService);
+    }
+
+    @VisibleForTesting
+    MetricsRecorderScheduler(ScheduledExecutorService executor, CommonTagsManager commonTags, SelfMonitoringService selfMonitoringService) {
+        this.executor = executor;
+        this.commonTags = commonTags;
+        this.selfMonitoringService = selfMonitoringService;
+    }
+
+    /**
+     * Schedules the given measurement with the given frequency. The measurement is taken once immediately and
+     * afterwards together with all other measurements of the same frequency.
+     *
+     * @param name        the name of the recorder, used for self-monitoring
+     * @param frequency   the frequency of the measurement
+     * @param measurement the measurement to take, invoked in a scope where the common tags are set
+     *
+     * @return the registration, which has to be cancelled when the recorder is disabled
+     */
+    public synchronized Registration schedule(String name, Duration frequency, Runnable measurement) {
+        long periodMillis = frequency.toMillis();
+        ScheduledMeasurement scheduledMeasurement = new ScheduledMeasurement(name, periodMillis, measurement);
+
+        Tick tick = ticks.get(periodMillis);
+        if (tick == null) {
+            Tick newTick = new Tick();
+            newTick.measurements.add(scheduledMeasurement);
+            newTick.future = executor.scheduleWithFixedDelay(() -> runMeasurements(newTick.measurements), 0, periodMillis, TimeUnit.MILLISECONDS);
+            ticks.put(periodMillis, newTick);
+        } else {
+            tick.measurements.add(scheduledMeasurement);
+            executor.execute(() -> runMeasurements(Collections.singletonList(scheduledMeasurement)));
+        }
+
+        return () -> cancel(scheduledMeasurement);
+    }
+
+    private synchronized void cancel(ScheduledMeasurement scheduledMeasurement) {
+        scheduledMeasurement.cancelled = true;
+        Tick tick = ticks.get(scheduledMeasurement.periodMillis);
+        if (tick != null && tick.measurements.remove(scheduledMeasurement) && tick.measurements.isEmpty()) {
+            tick.future.cancel(false);
+            ticks.remove(scheduledMeasurement.periodMillis);
+        }
+    }
+
+    private void runMeasurements(List<ScheduledMeasurement> measurements) {
+        try (Scope tags = commonTags.withCommonTagScope()) {
+            for (ScheduledMeasurement measurement : measurements) {
+                if (!measurement.cancelled) {
+                    runMeasurement(measurement);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error taking measurements", e);
+        }
+    }
+
+    private void runMeasurement(ScheduledMeasurement measurement) {
+        long start = System.nanoTime();
+        try (Scope scope = selfMonitoringService.withDurationSelfMonitoring(measurement.name)) {
+            measurement.measurement.run();
+        } catch (Exception e) {
+            log.error("Error taking measurement of {}", measurement.name, e);
+        }
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (durationMillis > measurement.periodMillis) {
+            if (!measurement.overrunReported) {
+                log.warn("Taking the measurement of {} took {}ms, which is longer than its frequency of {}ms.", measurement.name, durationMillis, measurement.periodMillis);
+                measurement.overrunReported = true;
+            }
+            selfMonitoringService.recordMeasurement(OVERRUNS_MEASURE_NAME, 1L, Collections.singletonMap(RECORDER_TAG_KEY, measurement.name));
+        }
+    }
+
+    @PreDestroy
+    void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The registration of a scheduled measurement.
+     */
+    public interface Registration {
+
+        /**
+         * Stops taking the measurement. A measurement which is currently in progress is not interrupted.
+         */
+        void cancel();
+    }
+
+    /**
+     * The measurements sharing the same period.
+     */
+    private static class Tick {
+
+        private final List<ScheduledMeasurement> measurements = new CopyOnWriteArrayList<>();
+
+        private ScheduledFuture<?> future;
+    }
+
+    private static class ScheduledMeasurement {
+
+        private final String name;
+
+        private final long periodMillis;
+
+        private final Runnable measurement;
+
+        private volatile boolean cancelled;
+
+        /**
+         * True, if an overrun has already been logged, so that a permanently slow measurement does not flood the log.
+         */
+        private boolean overrunReported;
+
+        private ScheduledMeasurement(String name, long periodMillis, Runnable measurement) {
+            this.name = name;
+            this.periodMillis = periodMillis;
+            this.measurement = measurement;
+        }
+    }
+}
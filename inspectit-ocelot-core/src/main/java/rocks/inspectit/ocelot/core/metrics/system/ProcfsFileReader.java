@@ -0,0 +1,202 @@
+package rocks.inspectit.ocelot.core.metrics.system;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads small files of the procfs and cgroup filesystems and parses numbers from their content.
+ * The content is read into a buffer which is reused for all files, the parsing works directly on the bytes without
+ * creating strings or using regular expressions. Instances are not thread-safe.
+ */
+class ProcfsFileReader {
+
+    /**
+     * Returned by all parsing methods if the requested value is not present.
+     */
+    static final long UNAVAILABLE = Long.MIN_VALUE;
+
+    /**
+     * Returned by {@link #getLong(int)} and {@link #getField(int)} if the value is the keyword "max", which is used by
+     * cgroup v2 for unlimited resources.
+     */
+    static final long UNLIMITED = Long.MAX_VALUE;
+
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+
+    /**
+     * The number of bytes of the last read file.
+     */
+    private int length;
+
+    /**
+     * Reads the given file into the buffer.
+     *
+     * @param file the file to read
+     *
+     * @return false, if the file could not be read
+     */
+    boolean read(Path file) {
+        length = 0;
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer, length, buffer.length - length)) != -1) {
+                length += read;
+                if (length == buffer.length) {
+                    byte[] larger = new byte[buffer.length * 2];
+                    System.arraycopy(buffer, 0, larger, 0, length);
+                    buffer = larger;
+                }
+            }
+            return true;
+        } catch (IOException | SecurityException e) {
+            length = 0;
+            return false;
+        }
+    }
+
+    /**
+     * Parses the number starting at the given offset of the last read file, leading whitespace is skipped.
+     *
+     * @param offset the offset to start at
+     *
+     * @return the parsed number, {@link #UNLIMITED} for "max" or {@link #UNAVAILABLE} if there is no number
+     */
+    long getLong(int offset) {
+        int pos = skipWhitespace(offset);
+        if (pos >= length) {
+            return UNAVAILABLE;
+        }
+        if (pos + 2 < length && buffer[pos] == 'm' && buffer[pos + 1] == 'a' && buffer[pos + 2] == 'x') {
+            return UNLIMITED;
+        }
+        boolean negative = buffer[pos] == '-';
+        if (negative) {
+            pos++;
+        }
+        if (pos >= length || !isDigit(buffer[pos])) {
+            return UNAVAILABLE;
+        }
+        long value = 0;
+        while (pos < length && isDigit(buffer[pos])) {
+            value = value * 10 + (buffer[pos] - '0');
+            pos++;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses the number of the whitespace separated field with the given index of the first line of the last read file,
+     * e.g. "200000 100000" of a cgroup cpu.max file.
+     *
+     * @param index the zero-based index of the field
+     *
+     * @return the parsed number, {@link #UNLIMITED} for "max" or {@link #UNAVAILABLE} if there is no such field
+     */
+    long getField(int index) {
+        return getField(0, index);
+    }
+
+    /**
+     * Parses a field of /proc/[pid]/stat. As the second field contains the name of the executable, which may contain
+     * spaces, the fields are counted after its closing parenthesis.
+     *
+     * @param fieldNumber the one-based number of the field as documented in proc(5), has to be at least 3
+     *
+     * @return the parsed number or {@link #UNAVAILABLE} if there is no such field
+     */
+    long getStatField(int fieldNumber) {
+        for (int pos = length - 1; pos >= 0; pos--) {
+            if (buffer[pos] == ')') {
+                return getField(pos + 1, fieldNumber - 3);
+            }
+        }
+        return UNAVAILABLE;
+    }
+
+    /**
+     * Parses the value of the line starting with the given key, e.g. "VmRSS:   1024 kB" of /proc/self/status or
+     * "nr_throttled 12" of a cgroup cpu.stat file. The key may be followed by a colon.
+     *
+     * @param key the key as ASCII bytes, see {@link #key(String)}
+     *
+     * @return the parsed number or {@link #UNAVAILABLE} if there is no such key
+     */
+    long getKeyValue(byte[] key) {
+        int lineStart = 0;
+        while (lineStart < length) {
+            if (startsWith(lineStart, key)) {
+                int pos = lineStart + key.length;
+                if (pos < length && buffer[pos] == ':') {
+                    pos++;
+                }
+                if (pos < length && (buffer[pos] == ' ' || buffer[pos] == '\t')) {
+                    return getLong(pos);
+                }
+            }
+            lineStart = nextLine(lineStart);
+        }
+        return UNAVAILABLE;
+    }
+
+    /**
+     * Encodes the given key for {@link #getKeyValue(byte[])}, so that this is only done once.
+     */
+    static byte[] key(String key) {
+        return key.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private long getField(int offset, int index) {
+        int pos = offset;
+        for (int i = 0; i < index; i++) {
+            pos = skipWhitespace(pos);
+            while (pos < length && !isWhitespace(buffer[pos])) {
+                pos++;
+            }
+            if (pos >= length || buffer[pos] == '\n') {
+                return UNAVAILABLE;
+            }
+        }
+        return getLong(pos);
+    }
+
+    private boolean startsWith(int offset, byte[] key) {
+        if (offset + key.length > length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (buffer[offset + i] != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int nextLine(int offset) {
+        int pos = offset;
+        while (pos < length && buffer[pos] != '\n') {
+            pos++;
+        }
+        return pos + 1;
+    }
+
+    private int skipWhitespace(int offset) {
+        int pos = offset;
+        while (pos < length && (buffer[pos] == ' ' || buffer[pos] == '\t')) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n';
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+}
@@ -0,0 +1,325 @@
+package rocks.inspectit.ocelot.core.metrics.system;
+
+import com.google.common.annotations.VisibleForTesting;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Service;
+import rocks.inspectit.ocelot.config.model.metrics.MetricsSettings;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Records process metrics of the JVM and the resource limits of its container on Linux by reading the procfs and
+ * cgroup (v1 or v2) filesystems. The recorder is only active if the required files are available.
+ * <p>
+ * The cgroup files are read from the directory of the JVM's cgroup, which is resolved via /proc/self/cgroup relative
+ * to the mount point of the cgroup filesystem. In case this directory does not exist, e.g. because the JVM runs in a
+ * container which has the cgroup of the container mounted as root without having its own cgroup namespace, the files
+ * are read from the root of the cgroup filesystem.
+ */
+@Service
+@Slf4j
+public class ProcfsMetricsRecorder extends AbstractPollingMetricsRecorder {
+
+    private static final String CPU_TIME_METRIC_NAME = "cpu.time";
+
+    private static final String CPU_TIME_METRIC_FULL_NAME = "process/cpu/time";
+
+    private static final String MEMORY_RSS_METRIC_NAME = "memory.rss";
+
+    private static final String MEMORY_RSS_METRIC_FULL_NAME = "process/memory/rss";
+
+    private static final String IO_READ_METRIC_NAME = "io.read";
+
+    private static final String IO_READ_METRIC_FULL_NAME = "process/io/read";
+
+    private static final String IO_WRITE_METRIC_NAME = "io.write";
+
+    private static final String IO_WRITE_METRIC_FULL_NAME = "process/io/write";
+
+    private static final String CPU_LIMIT_METRIC_NAME = "container.cpu.limit";
+
+    private static final String CPU_LIMIT_METRIC_FULL_NAME = "container/cpu/limit";
+
+    private static final String CPU_THROTTLED_PERIODS_METRIC_NAME = "container.cpu.throttled.periods";
+
+    private static final String CPU_THROTTLED_PERIODS_METRIC_FULL_NAME = "container/cpu/throttled/periods";
+
+    private static final String CPU_THROTTLED_TIME_METRIC_NAME = "container.cpu.throttled.time";
+
+    private static final String CPU_THROTTLED_TIME_METRIC_FULL_NAME = "container/cpu/throttled/time";
+
+    private static final String MEMORY_LIMIT_METRIC_NAME = "container.memory.limit";
+
+    private static final String MEMORY_LIMIT_METRIC_FULL_NAME = "container/memory/limit";
+
+    private static final String MEMORY_USAGE_METRIC_NAME = "container.memory.usage";
+
+    private static final String MEMORY_USAGE_METRIC_FULL_NAME = "container/memory/usage";
+
+    /**
+     * The number of clock ticks per second used by /proc/[pid]/stat, which is 100 on all common Linux platforms.
+     */
+    private static final long USER_HZ = 100;
+
+    /**
+     * The fields of utime and stime in /proc/[pid]/stat.
+     */
+    private static final int STAT_UTIME_FIELD = 14;
+
+    private static final int STAT_STIME_FIELD = 15;
+
+    /**
+     * cgroup v1 reports an unlimited memory limit as the largest page-aligned long, all limits above are unlimited.
+     */
+    private static final long CGROUP_V1_UNLIMITED_MEMORY = 1L << 62;
+
+    private static final byte[] VM_RSS_KEY = ProcfsFileReader.key("VmRSS");
+
+    private static final byte[] READ_BYTES_KEY = ProcfsFileReader.key("read_bytes");
+
+    private static final byte[] WRITE_BYTES_KEY = ProcfsFileReader.key("write_bytes");
+
+    private static final byte[] NR_THROTTLED_KEY = ProcfsFileReader.key("nr_throttled");
+
+    private static final byte[] THROTTLED_USEC_KEY = ProcfsFileReader.key("throttled_usec");
+
+    private static final byte[] THROTTLED_TIME_KEY = ProcfsFileReader.key("throttled_time");
+
+    private final Path procSelf;
+
+    /**
+     * The mount point of the cgroup filesystem.
+     */
+    private final Path cgroupRoot;
+
+    /**
+     * The directory of the JVM's cgroup of the cpu controller.
+     */
+    private Path cpuCgroup;
+
+    /**
+     * The directory of the JVM's cgroup of the memory controller.
+     */
+    private Path memoryCgroup;
+
+    /**
+     * Reused for all files, only accessed by the polling thread.
+     */
+    private final ProcfsFileReader reader = new ProcfsFileReader();
+
+    /**
+     * True, if the cgroup filesystem is cgroup v2.
+     */
+    private boolean cgroupV2;
+
+    /**
+     * The names of the metrics whose files are available.
+     */
+    private Set<String> availableMetrics;
+
+    public ProcfsMetricsRecorder() {
+        this(Paths.get("/proc/self"), Paths.get("/sys/fs/cgroup"));
+    }
+
+    @VisibleForTesting
+    ProcfsMetricsRecorder(Path procSelf, Path cgroupRoot) {
+        super("metrics.procfs");
+        this.procSelf = procSelf;
+        this.cgroupRoot = cgroupRoot;
+    }
+
+    @Override
+    protected void init() {
+        super.init();
+        cgroupV2 = Files.exists(cgroupRoot.resolve("cgroup.controllers"));
+        List<String> cgroups = readCgroups();
+        if (cgroupV2) {
+            cpuCgroup = resolveCgroup(cgroups, cgroupRoot, null);
+            memoryCgroup = cpuCgroup;
+        } else {
+            cpuCgroup = resolveCgroup(cgroups, cgroupRoot.resolve("cpu"), "cpu");
+            memoryCgroup = resolveCgroup(cgroups, cgroupRoot.resolve("memory"), "memory");
+        }
+        availableMetrics = new HashSet<>();
+        addIfReadable(CPU_TIME_METRIC_NAME, procSelf.resolve("stat"));
+        addIfReadable(MEMORY_RSS_METRIC_NAME, procSelf.resolve("status"));
+        addIfReadable(IO_READ_METRIC_NAME, procSelf.resolve("io"));
+        addIfReadable(IO_WRITE_METRIC_NAME, procSelf.resolve("io"));
+        addIfReadable(CPU_LIMIT_METRIC_NAME, getCpuLimitFile());
+        addIfReadable(CPU_THROTTLED_PERIODS_METRIC_NAME, getCpuStatFile());
+        addIfReadable(CPU_THROTTLED_TIME_METRIC_NAME, getCpuStatFile());
+        addIfReadable(MEMORY_LIMIT_METRIC_NAME, getMemoryLimitFile());
+        addIfReadable(MEMORY_USAGE_METRIC_NAME, getMemoryUsageFile());
+        if (availableMetrics.isEmpty()) {
+            log.debug("No procfs or cgroup files are available, the procfs metrics will not be recorded.");
+        }
+    }
+
+    private List<String> readCgroups() {
+        try {
+            return Files.readAllLines(procSelf.resolve("cgroup"), StandardCharsets.UTF_8);
+        } catch (IOException | SecurityException e) {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Resolves the directory of the JVM's cgroup based on the content of /proc/self/cgroup, e.g. the line
+     * "0::/system.slice/app.service" for cgroup v2 or "4:cpu,cpuacct:/docker/1a2b" for cgroup v1.
+     *
+     * @param cgroups        the lines of /proc/self/cgroup
+     * @param controllerRoot the directory the hierarchy is mounted at
+     * @param controller     the cgroup v1 controller of the hierarchy, null for cgroup v2
+     *
+     * @return the directory of the cgroup or the given root if it cannot be resolved or does not exist
+     */
+    @VisibleForTesting
+    static Path resolveCgroup(List<String> cgroups, Path controllerRoot, String controller) {
+        for (String line : cgroups) {
+            String[] parts = line.split(":", 3);
+            if (parts.length < 3) {
+                continue;
+            }
+            boolean matches = controller == null ? "0".equals(parts[0]) && parts[1].isEmpty() : Arrays.asList(parts[1].split(","))
+                    .contains(controller);
+            if (matches) {
+                String relativePath = StringUtils.removeStart(parts[2].trim(), "/");
+                if (relativePath.isEmpty()) {
+                    return controllerRoot;
+                }
+                Path cgroup = controllerRoot.resolve(relativePath);
+                return Files.isDirectory(cgroup) ? cgroup : controllerRoot;
+            }
+        }
+        return controllerRoot;
+    }
+
+    private void addIfReadable(String metricName, Path file) {
+        if (Files.isReadable(file)) {
+            availableMetrics.add(metricName);
+        }
+    }
+
+    @Override
+    protected boolean checkEnabledForConfig(MetricsSettings ms) {
+        return ms.getProcfs()
+                .getEnabled()
+                .entrySet()
+                .stream()
+                .anyMatch(entry -> Boolean.TRUE.equals(entry.getValue()) && availableMetrics.contains(entry.getKey()));
+    }
+
+    @Override
+    protected Duration getFrequency(MetricsSettings config) {
+        return config.getProcfs().getFrequency();
+    }
+
+    @Override
+    protected void takeMeasurement(MetricsSettings config) {
+        Map<String, Boolean> enabled = config.getProcfs().getEnabled();
+        if (isEnabled(enabled, CPU_TIME_METRIC_NAME)) {
+            recordCpuTime();
+        }
+        if (isEnabled(enabled, MEMORY_RSS_METRIC_NAME) && reader.read(procSelf.resolve("status"))) {
+            recordIfAvailable(MEMORY_RSS_METRIC_FULL_NAME, reader.getKeyValue(VM_RSS_KEY), 1024);
+        }
+        boolean ioRead = isEnabled(enabled, IO_READ_METRIC_NAME);
+        boolean ioWrite = isEnabled(enabled, IO_WRITE_METRIC_NAME);
+        if ((ioRead || ioWrite) && reader.read(procSelf.resolve("io"))) {
+            if (ioRead) {
+                recordIfAvailable(IO_READ_METRIC_FULL_NAME, reader.getKeyValue(READ_BYTES_KEY), 1);
+            }
+            if (ioWrite) {
+                recordIfAvailable(IO_WRITE_METRIC_FULL_NAME, reader.getKeyValue(WRITE_BYTES_KEY), 1);
+            }
+        }
+        if (isEnabled(enabled, CPU_LIMIT_METRIC_NAME)) {
+            recordCpuLimit();
+        }
+        boolean throttledPeriods = isEnabled(enabled, CPU_THROTTLED_PERIODS_METRIC_NAME);
+        boolean throttledTime = isEnabled(enabled, CPU_THROTTLED_TIME_METRIC_NAME);
+        if ((throttledPeriods || throttledTime) && reader.read(getCpuStatFile())) {
+            if (throttledPeriods) {
+                recordIfAvailable(CPU_THROTTLED_PERIODS_METRIC_FULL_NAME, reader.getKeyValue(NR_THROTTLED_KEY), 1);
+            }
+            if (throttledTime) {
+                if (cgroupV2) {
+                    recordIfAvailable(CPU_THROTTLED_TIME_METRIC_FULL_NAME, reader.getKeyValue(THROTTLED_USEC_KEY) / 1000, 1);
+                } else {
+                    recordIfAvailable(CPU_THROTTLED_TIME_METRIC_FULL_NAME, reader.getKeyValue(THROTTLED_TIME_KEY) / 1_000_000, 1);
+                }
+            }
+        }
+        if (isEnabled(enabled, MEMORY_LIMIT_METRIC_NAME) && reader.read(getMemoryLimitFile())) {
+            long limit = reader.getLong(0);
+            if (limit != ProcfsFileReader.UNLIMITED && limit < CGROUP_V1_UNLIMITED_MEMORY) {
+                recordIfAvailable(MEMORY_LIMIT_METRIC_FULL_NAME, limit, 1);
+            }
+        }
+        if (isEnabled(enabled, MEMORY_USAGE_METRIC_NAME) && reader.read(getMemoryUsageFile())) {
+            recordIfAvailable(MEMORY_USAGE_METRIC_FULL_NAME, reader.getLong(0), 1);
+        }
+    }
+
+    private void recordCpuTime() {
+        if (reader.read(procSelf.resolve("stat"))) {
+            long utime = reader.getStatField(STAT_UTIME_FIELD);
+            long stime = reader.getStatField(STAT_STIME_FIELD);
+            if (utime >= 0 && stime >= 0) {
+                measureManager.tryRecordingMeasurement(CPU_TIME_METRIC_FULL_NAME, (utime + stime) * 1000 / USER_HZ);
+            }
+        }
+    }
+
+    private void recordCpuLimit() {
+        long quota;
+        long period;
+        if (!reader.read(getCpuLimitFile())) {
+            return;
+        }
+        if (cgroupV2) {
+            quota = reader.getField(0);
+            period = reader.getField(1);
+        } else {
+            quota = reader.getLong(0);
+            period = reader.read(cpuCgroup.resolve("cpu.cfs_period_us")) ? reader.getLong(0) : ProcfsFileReader.UNAVAILABLE;
+        }
+        // the quota is "max" for cgroup v2 and -1 for cgroup v1 if the cpu is not limited
+        if (quota > 0 && quota != ProcfsFileReader.UNLIMITED && period > 0) {
+            measureManager.tryRecordingMeasurement(CPU_LIMIT_METRIC_FULL_NAME, (double) quota / period);
+        }
+    }
+
+    private void recordIfAvailable(String metricName, long value, long factor) {
+        if (value >= 0) {
+            measureManager.tryRecordingMeasurement(metricName, value * factor);
+        }
+    }
+
+    private boolean isEnabled(Map<String, Boolean> enabled, String metricName) {
+        return enabled.getOrDefault(metricName, false) && availableMetrics.contains(metricName);
+    }
+
+    private Path getCpuLimitFile() {
+        return cpuCgroup.resolve(cgroupV2 ? "cpu.max" : "cpu.cfs_quota_us");
+    }
+
+    private Path getCpuStatFile() {
+        return cpuCgroup.resolve("cpu.stat");
+    }
+
+    private Path getMemoryLimitFile() {
+        return memoryCgroup.resolve(cgroupV2 ? "memory.max" : "memory.limit_in_bytes");
+    }
+
+    private Path getMemoryUsageFile() {
+        return memoryCgroup.resolve(cgroupV2 ? "memory.current" : "memory.usage_in_bytes");
+    }
+}
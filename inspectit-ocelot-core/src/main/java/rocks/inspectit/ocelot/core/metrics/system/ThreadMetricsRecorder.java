@@ -1,9 +1,12 @@
 package rocks.inspectit.ocelot.core.metrics.system;
 
+import com.google.common.annotations.VisibleForTesting;
 import io.opencensus.tags.TagContext;
+import io.opencensus.tags.TagContextBuilder;
 import io.opencensus.tags.TagKey;
 import io.opencensus.tags.Tagger;
 import lombok.val;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import rocks.inspectit.ocelot.config.model.metrics.MetricsSettings;
@@ -13,8 +16,8 @@ import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadInfo;
 import java.lang.management.ThreadMXBean;
 import java.time.Duration;
-import java.util.Arrays;
-import java.util.Objects;
+import java.util.*;
+import java.util.regex.Pattern;
 
 @Service
 public class ThreadMetricsRecorder extends AbstractPollingMetricsRecorder {
@@ -29,18 +32,67 @@ public class ThreadMetricsRecorder extends AbstractPollingMetricsRecorder {
 
     private static final String STATE_METRIC_NAME = "states";
 
+    private static final String POOL_STATE_METRIC_NAME = "pool.states";
+
+    private static final String POOL_STATE_METRIC_FULL_NAME = "jvm/threads/pool/states";
+
     private static final String STATE_TAG_NAME = "state";
 
+    private static final String POOL_TAG_NAME = "pool";
+
+    /**
+     * The pool name used for all threads which do not belong to one of the reported pools.
+     */
+    @VisibleForTesting
+    static final String OTHER_POOL_NAME = "other";
+
+    /**
+     * The pool name used for threads without a name.
+     */
+    private static final String UNKNOWN_POOL_NAME = "unknown";
+
+    /**
+     * Matches the thread number at the end of a thread name, e.g. the "-12" of "http-nio-8080-exec-12".
+     */
+    private static final Pattern THREAD_NUMBER_SUFFIX = Pattern.compile("[\\s\\-_#.:]*\\d+$");
+
+    private static final Thread.State[] STATES = Thread.State.values();
+
     private TagKey stateTag;
 
+    private TagKey poolTag;
+
     private ThreadMXBean threadBean;
 
     @Autowired
     private Tagger tagger;
 
+    /**
+     * The common tag context the cached tag contexts have been built on.
+     */
+    private TagContext cachedCommonTagContext;
+
+    /**
+     * The tag contexts of the states metric, indexed by the ordinal of the thread state.
+     */
+    private TagContext[] stateTagContexts;
+
+    /**
+     * The tag contexts of the pool states metric by pool name, indexed by the ordinal of the thread state.
+     * Contains the tag contexts of the pools reported by the last measurement.
+     */
+    private Map<String, TagContext[]> poolStateTagContexts = new HashMap<>();
+
+    /**
+     * The pool names of the threads of the last measurement by thread name, so that the pool name of a thread only
+     * has to be derived once.
+     */
+    private Map<String, String> poolNamesByThreadName = new HashMap<>();
+
     public ThreadMetricsRecorder() {
         super("metrics.threads");
         stateTag = TagKey.create(STATE_TAG_NAME);
+        poolTag = TagKey.create(POOL_TAG_NAME);
         threadBean = ManagementFactory.getThreadMXBean();
     }
 
@@ -56,8 +108,10 @@ public class ThreadMetricsRecorder extends AbstractPollingMetricsRecorder {
         if (enabled.getOrDefault(LIVE_METRIC_NAME, false)) {
             measureManager.tryRecordingMeasurement(METRIC_NAME_PREFIX + LIVE_METRIC_NAME, threadBean.getThreadCount());
         }
-        if (enabled.getOrDefault(STATE_METRIC_NAME, false)) {
-            recordStateMetric();
+        boolean statesEnabled = enabled.getOrDefault(STATE_METRIC_NAME, false);
+        boolean poolStatesEnabled = enabled.getOrDefault(POOL_STATE_METRIC_NAME, false);
+        if (statesEnabled || poolStatesEnabled) {
+            recordStateMetrics(statesEnabled, poolStatesEnabled, config.getThreads().getMaxPools());
         }
     }
 
@@ -71,19 +125,158 @@ public class ThreadMetricsRecorder extends AbstractPollingMetricsRecorder {
         return ms.getThreads().getEnabled().containsValue(true);
     }
 
-    private void recordStateMetric() {
-        String stateMeasureName = METRIC_NAME_PREFIX + STATE_METRIC_NAME;
-        for (Thread.State state : Thread.State.values()) {
-            TagContext tags = tagger.currentBuilder()
-                    .putLocal(stateTag, TagUtils.createTagValue(stateTag.getName(), state.name()))
-                    .build();
-            long count = Arrays.stream(threadBean.getThreadInfo(threadBean.getAllThreadIds()))
-                    .filter(Objects::nonNull)
-                    .map(ThreadInfo::getThreadState)
-                    .filter(s -> s == state)
-                    .count();
-            measureManager.tryRecordingMeasurement(stateMeasureName, count, tags);
+    /**
+     * Records the thread state metrics based on a single snapshot of all live threads. The snapshot is taken without
+     * stack traces and lock information, so that the JVM has to do as little work as possible while all threads are
+     * suspended.
+     */
+    private void recordStateMetrics(boolean statesEnabled, boolean poolStatesEnabled, int maxPools) {
+        ThreadInfo[] threadInfos = threadBean.getThreadInfo(threadBean.getAllThreadIds());
+
+        long[] stateCounts = new long[STATES.length];
+        Map<String, long[]> poolStateCounts = new HashMap<>();
+        Map<String, String> currentPoolNames = poolStatesEnabled ? new HashMap<>() : Collections.emptyMap();
+        for (ThreadInfo threadInfo : threadInfos) {
+            // the thread is not alive anymore
+            if (threadInfo == null) {
+                continue;
+            }
+            int state = threadInfo.getThreadState().ordinal();
+            stateCounts[state]++;
+            if (poolStatesEnabled) {
+                String threadName = threadInfo.getThreadName();
+                String poolName = poolNamesByThreadName.get(threadName);
+                if (poolName == null) {
+                    poolName = getPoolName(threadName);
+                }
+                currentPoolNames.put(threadName, poolName);
+                poolStateCounts.computeIfAbsent(poolName, pool -> new long[STATES.length])[state]++;
+            }
+        }
+        // only keep the names of live threads, as the names of short-living threads may be unique
+        poolNamesByThreadName = currentPoolNames;
+
+        updateTagContexts();
+        if (statesEnabled) {
+            String stateMeasureName = METRIC_NAME_PREFIX + STATE_METRIC_NAME;
+            for (int state = 0; state < STATES.length; state++) {
+                measureManager.tryRecordingMeasurement(stateMeasureName, stateCounts[state], stateTagContexts[state]);
+            }
+        }
+        if (poolStatesEnabled) {
+            recordPoolStateMetrics(limitPools(poolStateCounts, maxPools));
+        } else {
+            poolStateTagContexts.clear();
+        }
+    }
+
+    /**
+     * Records the thread counts of the given pools. Pools which have been reported by the last measurement but are
+     * not contained in the given pools anymore are reported with a count of 0 once and forgotten afterwards, so that
+     * their last value does not remain at the count of the last measurement in which they were reported.
+     */
+    private void recordPoolStateMetrics(Map<String, long[]> poolStateCounts) {
+        Map<String, TagContext[]> reportedPools = new HashMap<>();
+        poolStateCounts.forEach((pool, counts) -> {
+            TagContext[] tagContexts = poolStateTagContexts.get(pool);
+            if (tagContexts == null) {
+                tagContexts = createStateTagContexts(pool);
+            }
+            reportedPools.put(pool, tagContexts);
+            for (int state = 0; state < STATES.length; state++) {
+                measureManager.tryRecordingMeasurement(POOL_STATE_METRIC_FULL_NAME, counts[state], tagContexts[state]);
+            }
+        });
+        poolStateTagContexts.forEach((pool, tagContexts) -> {
+            if (!reportedPools.containsKey(pool)) {
+                for (int state = 0; state < STATES.length; state++) {
+                    measureManager.tryRecordingMeasurement(POOL_STATE_METRIC_FULL_NAME, 0, tagContexts[state]);
+                }
+            }
+        });
+        poolStateTagContexts = reportedPools;
+    }
+
+    /**
+     * Rebuilds the cached tag contexts in case the common tags have changed.
+     */
+    private void updateTagContexts() {
+        TagContext commonTagContext = commonTags.getCommonTagContext();
+        if (commonTagContext != cachedCommonTagContext) {
+            cachedCommonTagContext = commonTagContext;
+            stateTagContexts = createStateTagContexts(null);
+            poolStateTagContexts.clear();
+        }
+    }
+
+    /**
+     * Creates the tag contexts for all thread states.
+     *
+     * @param pool the pool name to add as tag, null if no pool tag should be added
+     *
+     * @return the tag contexts indexed by the ordinal of the thread state
+     */
+    private TagContext[] createStateTagContexts(String pool) {
+        TagContext[] tagContexts = new TagContext[STATES.length];
+        for (Thread.State state : STATES) {
+            TagContextBuilder builder = tagger.toBuilder(cachedCommonTagContext);
+            if (pool != null) {
+                builder.putLocal(poolTag, TagUtils.createTagValue(poolTag.getName(), pool));
+            }
+            tagContexts[state.ordinal()] = builder.putLocal(stateTag, TagUtils.createTagValue(stateTag.getName(), state
+                    .name())).build();
+        }
+        return tagContexts;
+    }
+
+    /**
+     * Limits the given pools to the pools with the most threads. The threads of all remaining pools are summed up
+     * using the pool name {@link #OTHER_POOL_NAME}.
+     *
+     * @param poolStateCounts the thread counts per state by pool name
+     * @param maxPools        the maximum number of pools to report individually
+     *
+     * @return the limited pools
+     */
+    @VisibleForTesting
+    static Map<String, long[]> limitPools(Map<String, long[]> poolStateCounts, int maxPools) {
+        if (poolStateCounts.size() <= maxPools) {
+            return poolStateCounts;
+        }
+        List<Map.Entry<String, long[]>> pools = new ArrayList<>(poolStateCounts.entrySet());
+        pools.sort(Comparator.comparingLong((Map.Entry<String, long[]> pool) -> Arrays.stream(pool.getValue()).sum())
+                .reversed()
+                .thenComparing(Map.Entry::getKey));
+
+        Map<String, long[]> result = new HashMap<>();
+        long[] otherCounts = new long[STATES.length];
+        for (Map.Entry<String, long[]> pool : pools) {
+            if (result.size() < maxPools && !OTHER_POOL_NAME.equals(pool.getKey())) {
+                result.put(pool.getKey(), pool.getValue());
+            } else {
+                for (int state = 0; state < STATES.length; state++) {
+                    otherCounts[state] += pool.getValue()[state];
+                }
+            }
+        }
+        result.put(OTHER_POOL_NAME, otherCounts);
+        return result;
+    }
 
+    /**
+     * Derives the name of the pool a thread belongs to by removing the thread number from the thread's name, e.g.
+     * "http-nio-8080-exec-12" belongs to the pool "http-nio-8080-exec".
+     *
+     * @param threadName the name of the thread
+     *
+     * @return the name of the thread's pool
+     */
+    @VisibleForTesting
+    static String getPoolName(String threadName) {
+        if (StringUtils.isBlank(threadName)) {
+            return UNKNOWN_POOL_NAME;
         }
+        String poolName = THREAD_NUMBER_SUFFIX.matcher(threadName).replaceFirst("");
+        return poolName.isEmpty() ? threadName : poolName;
     }
 }
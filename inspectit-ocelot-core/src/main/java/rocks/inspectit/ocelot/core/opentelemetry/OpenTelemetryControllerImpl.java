@@ -4,7 +4,6 @@ import com.google.common.annotations.VisibleForTesting;
 import io.opentelemetry.api.GlobalOpenTelemetry;
 import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.common.Attributes;
-import io.opentelemetry.opencensusshim.metrics.OpenCensusMetrics;
 import io.opentelemetry.sdk.OpenTelemetrySdk;
 import io.opentelemetry.sdk.metrics.SdkMeterProvider;
 import io.opentelemetry.sdk.metrics.SdkMeterProviderBuilder;
@@ -32,6 +31,10 @@ import rocks.inspectit.ocelot.config.model.InspectitConfig;
 import rocks.inspectit.ocelot.core.config.InspectitConfigChangedEvent;
 import rocks.inspectit.ocelot.core.config.InspectitEnvironment;
 import rocks.inspectit.ocelot.core.exporter.DynamicallyActivatableMetricsExporterService;
+import rocks.inspectit.ocelot.core.metrics.opentelemetry.OpenTelemetryViewManager;
+import rocks.inspectit.ocelot.core.opentelemetry.metrics.ExemplarFilterAdapter;
+import rocks.inspectit.ocelot.core.opentelemetry.metrics.SharedOpenCensusMetricProducer;
+import rocks.inspectit.ocelot.core.opentelemetry.metrics.SharedOpenCensusMetricReader;
 import rocks.inspectit.ocelot.core.opentelemetry.trace.CustomIdGenerator;
 import rocks.inspectit.ocelot.core.opentelemetry.trace.samplers.DynamicSampler;
 import rocks.inspectit.ocelot.core.utils.OpenCensusShimUtils;
@@ -69,6 +72,11 @@ public class OpenTelemetryControllerImpl implements IOpenTelemetryController {
      */
     private boolean metricSettingsChanged = false;
 
+    /**
+     * Whether the current {@link SdkMeterProvider} records exemplars, see {@link rocks.inspectit.ocelot.config.model.metrics.ExemplarSettings}
+     */
+    private boolean exemplarsEnabled = false;
+
     /**
      * whether {@link GlobalOpenTelemetry} has been successfully been configured and is active.
      */
@@ -106,6 +114,13 @@ public class OpenTelemetryControllerImpl implements IOpenTelemetryController {
     @Getter(AccessLevel.PACKAGE)
     private OpenTelemetryImpl openTelemetry;
 
+    /**
+     * The producer of the OpenCensus metrics which is shared by the metric readers of all exporters, so that the
+     * OpenCensus views are only read and converted once per collection cycle.
+     * It is recreated together with the {@link #meterProvider}.
+     */
+    private SharedOpenCensusMetricProducer openCensusMetricProducer;
+
     /**
      * The currently active {@link SdkMeterProvider}
      */
@@ -129,6 +144,14 @@ public class OpenTelemetryControllerImpl implements IOpenTelemetryController {
     @Getter(AccessLevel.PACKAGE)
     CustomIdGenerator idGenerator;
 
+    /**
+     * The manager of the views which are recorded directly into OpenTelemetry instruments.
+     * Its instruments are recreated whenever a new {@link SdkMeterProvider} is built.
+     */
+    @Autowired(required = false)
+    @VisibleForTesting
+    OpenTelemetryViewManager openTelemetryViewManager;
+
     /**
      * The {@link DynamicSampler} used for tracing
      */
@@ -203,6 +226,17 @@ public class OpenTelemetryControllerImpl implements IOpenTelemetryController {
             tracingSettingsChanged = true;
         }
 
+        // the staleness of the shared OpenCensus metrics snapshot is updated in place, as rebuilding the meter provider
+        // would reset the instruments of the OPENTELEMETRY metrics backend
+        if (null != openCensusMetricProducer) {
+            openCensusMetricProducer.setStaleness(configuration.getMetrics().getOpencensusSnapshotStaleness());
+        }
+
+        // check if the recording of exemplars has been enabled or disabled
+        if (exemplarsEnabled != configuration.getMetrics().getExemplars().isEnabled()) {
+            metricSettingsChanged = true;
+        }
+
         if (!active || metricSettingsChanged || tracingSettingsChanged) {
 
             // configure tracing if not configured or when tracing settings changed
@@ -432,13 +466,27 @@ public class OpenTelemetryControllerImpl implements IOpenTelemetryController {
             Resource metricServiceNameResource = Resource.create(Attributes.of(ResourceAttributes.SERVICE_NAME, env.getCurrentConfig()
                     .getServiceName()));
             SdkMeterProviderBuilder builder = SdkMeterProvider.builder().setResource(metricServiceNameResource);
+            openCensusMetricProducer = new SharedOpenCensusMetricProducer(metricServiceNameResource, env.getCurrentConfig()
+                    .getMetrics()
+                    .getOpencensusSnapshotStaleness());
+
+            // exemplars are only recorded for measurements within sampled spans and only if enabled
+            exemplarsEnabled = env.getCurrentConfig().getMetrics().getExemplars().isEnabled();
+            ExemplarFilterAdapter.setExemplarsEnabled(builder, exemplarsEnabled);
 
             // register metric reader for each service
             for (DynamicallyActivatableMetricsExporterService metricsExportService : registeredMetricExporterServices.values()) {
-                builder.registerMetricReader(OpenCensusMetrics.attachTo(metricsExportService.getNewMetricReader()));
+                builder.registerMetricReader(new SharedOpenCensusMetricReader(metricsExportService.getNewMetricReader(), openCensusMetricProducer));
             }
 
-            return builder.build();
+            if (null != openTelemetryViewManager) {
+                openTelemetryViewManager.registerViews(builder);
+            }
+            SdkMeterProvider sdkMeterProvider = builder.build();
+            if (null != openTelemetryViewManager) {
+                openTelemetryViewManager.setMeterProvider(sdkMeterProvider);
+            }
+            return sdkMeterProvider;
 
         } catch (Exception e) {
             log.error("Failed to configure MeterProvider", e);
@@ -0,0 +1,144 @@
+package rocks.inspectit.ocelot.core.opentelemetry.metrics;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import io.opencensus.common.Scope;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.export.CollectionRegistration;
+import io.opentelemetry.sdk.metrics.export.MetricProducer;
+import io.opentelemetry.sdk.metrics.export.MetricReader;
+import rocks.inspectit.ocelot.core.selfmonitoring.SelfMonitoringService;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A {@link MetricReader} which caches the metrics collected for the wrapped reader for a minimum interval. This is
+ * intended for pull-based readers like the Prometheus HTTP server, where every request would trigger a full
+ * collection otherwise.
+ * <p>
+ * The collection is single-flight: concurrent collections wait for the collection in progress and share its result.
+ * The duration and the number of collected series of each collection are recorded as self-monitoring metrics.
+ */
+public class CachingMetricReader implements MetricReader {
+
+    /**
+     * The measure used for recording the number of collected series.
+     */
+    private static final String COLLECTED_SERIES_MEASURE = "exporters/collected-series";
+
+    /**
+     * The wrapped reader.
+     */
+    private final MetricReader delegate;
+
+    /**
+     * The duration in nanoseconds for which collected metrics are served from the cache.
+     */
+    private final long cacheDurationNanos;
+
+    private final SelfMonitoringService selfMonitoringService;
+
+    /**
+     * The name of the exporter the reader belongs to, used for self-monitoring.
+     */
+    private final String exporterName;
+
+    /**
+     * The tags added to the self-monitoring metrics.
+     */
+    private final Map<String, String> selfMonitoringTags;
+
+    /**
+     * The clock used for determining the age of the cached metrics.
+     */
+    private final Supplier<Long> clock;
+
+    /**
+     * Constructor.
+     *
+     * @param delegate              the reader to wrap
+     * @param cacheDuration         the minimum interval between two collections
+     * @param selfMonitoringService the service used for recording self-monitoring metrics
+     * @param exporterName          the name of the exporter the reader belongs to
+     */
+    public CachingMetricReader(MetricReader delegate, Duration cacheDuration, SelfMonitoringService selfMonitoringService, String exporterName) {
+        this(delegate, cacheDuration, selfMonitoringService, exporterName, System::nanoTime);
+    }
+
+    @VisibleForTesting
+    CachingMetricReader(MetricReader delegate, Duration cacheDuration, SelfMonitoringService selfMonitoringService, String exporterName, Supplier<Long> clock) {
+        this.delegate = delegate;
+        this.selfMonitoringService = selfMonitoringService;
+        this.exporterName = exporterName;
+        this.clock = clock;
+        selfMonitoringTags = ImmutableMap.of("exporter", exporterName);
+        cacheDurationNanos = cacheDuration.toNanos();
+    }
+
+    @Override
+    public void register(CollectionRegistration registration) {
+        delegate.register(new CachingMetricProducer(MetricProducer.asMetricProducer(registration)));
+    }
+
+    @Override
+    public AggregationTemporality getAggregationTemporality(InstrumentType instrumentType) {
+        return delegate.getAggregationTemporality(instrumentType);
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        return delegate.forceFlush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return delegate.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        return "CachingMetricReader{delegate=" + delegate + "}";
+    }
+
+    /**
+     * Serves the metrics of the wrapped producer from the cache as long as they are not older than the cache duration.
+     */
+    private class CachingMetricProducer implements MetricProducer {
+
+        private final MetricProducer producer;
+
+        /**
+         * The timestamp when the metrics were collected the last time.
+         */
+        private long cacheTimestamp;
+
+        private Collection<MetricData> cachedMetrics;
+
+        private CachingMetricProducer(MetricProducer producer) {
+            this.producer = producer;
+        }
+
+        @Override
+        public synchronized Collection<MetricData> collectAllMetrics() {
+            long now = clock.get();
+            if (cachedMetrics == null || (now - cacheTimestamp) > cacheDurationNanos) {
+                try (Scope scope = selfMonitoringService.withDurationSelfMonitoring(exporterName)) {
+                    cachedMetrics = producer.collectAllMetrics();
+                }
+                cacheTimestamp = now;
+                selfMonitoringService.recordMeasurement(COLLECTED_SERIES_MEASURE, countSeries(cachedMetrics), selfMonitoringTags);
+            }
+            return cachedMetrics;
+        }
+
+        private long countSeries(Collection<MetricData> metrics) {
+            return metrics.stream().mapToLong(metric -> metric.getData().getPoints().size()).sum();
+        }
+    }
+}
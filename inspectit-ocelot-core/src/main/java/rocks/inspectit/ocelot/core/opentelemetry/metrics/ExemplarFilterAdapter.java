@@ -0,0 +1,24 @@
+package rocks.inspectit.ocelot.core.opentelemetry.metrics;
+
+import io.opentelemetry.sdk.metrics.SdkMeterProviderBuilder;
+import io.opentelemetry.sdk.metrics.internal.SdkMeterProviderUtil;
+import io.opentelemetry.sdk.metrics.internal.exemplar.ExemplarFilter;
+
+/**
+ * Configures the recording of exemplars by the OpenTelemetry SDK.
+ * The exemplar filter is only configurable via internal APIs of the SDK, which may change with any SDK version.
+ * Their usage is limited to this class, so that it is the only one which has to be adapted when upgrading the SDK.
+ */
+public class ExemplarFilterAdapter {
+
+    /**
+     * Sets the exemplar filter of the meter provider built by the given builder.
+     *
+     * @param builder          the builder of the meter provider
+     * @param exemplarsEnabled if true, exemplars are recorded for measurements within sampled spans, otherwise no
+     *                         exemplars are recorded
+     */
+    public static void setExemplarsEnabled(SdkMeterProviderBuilder builder, boolean exemplarsEnabled) {
+        SdkMeterProviderUtil.setExemplarFilter(builder, exemplarsEnabled ? ExemplarFilter.sampleWithTraces() : ExemplarFilter.neverSample());
+    }
+}
@@ -0,0 +1,26 @@
+package rocks.inspectit.ocelot.core.opentelemetry.metrics;
+
+import io.opencensus.metrics.export.Metric;
+import io.opentelemetry.opencensusshim.internal.metrics.MetricAdapter;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.resources.Resource;
+
+/**
+ * Converts OpenCensus metrics to OpenTelemetry {@link MetricData}.
+ * The conversion is only available via an internal API of the OpenCensus shim, which may change with any shim version.
+ * Its usage is limited to this class, so that it is the only one which has to be adapted when upgrading the shim.
+ */
+public class OpenCensusMetricAdapter {
+
+    /**
+     * Converts the given OpenCensus metric.
+     *
+     * @param resource the resource added to the converted metric
+     * @param metric   the OpenCensus metric
+     *
+     * @return the converted metric
+     */
+    public static MetricData convert(Resource resource, Metric metric) {
+        return MetricAdapter.convert(resource, metric);
+    }
+}
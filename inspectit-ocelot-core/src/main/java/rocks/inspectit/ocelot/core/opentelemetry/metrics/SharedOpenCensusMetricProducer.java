@@ -0,0 +1,128 @@
+package rocks.inspectit.ocelot.core.opentelemetry.metrics;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.opencensus.metrics.Metrics;
+import io.opencensus.metrics.export.Metric;
+import io.opencensus.metrics.export.MetricProducer;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.resources.Resource;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Reads the metrics of all registered OpenCensus {@link MetricProducer}s and converts them to OpenTelemetry
+ * {@link MetricData}.
+ * <p>
+ * A single instance is shared by the metric readers of all exporters. The converted metrics are kept as snapshot which
+ * is only recomputed once it is older than the staleness window. This way, readers collecting in the same cycle do not
+ * read and convert all OpenCensus views multiple times.
+ */
+@Slf4j
+public class SharedOpenCensusMetricProducer {
+
+    /**
+     * The function invoked to read the OpenCensus metrics.
+     */
+    private final Supplier<Collection<Metric>> openCensusMetricsSupplier;
+
+    /**
+     * The resource added to the converted metrics.
+     */
+    private final Resource resource;
+
+    /**
+     * The duration for which a snapshot is reused.
+     */
+    @Getter
+    private volatile Duration staleness;
+
+    /**
+     * The clock used for determining the age of the snapshot.
+     */
+    private final Supplier<Long> clock;
+
+    /**
+     * The timestamp when the snapshot has been computed.
+     */
+    private long snapshotTimestamp;
+
+    /**
+     * The converted metrics of the last collection.
+     */
+    private Collection<MetricData> snapshot;
+
+    /**
+     * Constructor.
+     *
+     * @param resource  the resource added to the converted metrics
+     * @param staleness the duration for which a snapshot is shared by the readers
+     */
+    public SharedOpenCensusMetricProducer(Resource resource, Duration staleness) {
+        this(SharedOpenCensusMetricProducer::readOpenCensusMetrics, resource, staleness, System::nanoTime);
+    }
+
+    @VisibleForTesting
+    SharedOpenCensusMetricProducer(Supplier<Collection<Metric>> openCensusMetricsSupplier, Resource resource, Duration staleness, Supplier<Long> clock) {
+        this.openCensusMetricsSupplier = openCensusMetricsSupplier;
+        this.resource = resource;
+        this.clock = clock;
+        this.staleness = staleness;
+    }
+
+    /**
+     * Changes the duration for which a snapshot is reused, starting with the current snapshot.
+     *
+     * @param staleness the duration for which a snapshot is shared by the readers
+     */
+    public void setStaleness(Duration staleness) {
+        this.staleness = staleness;
+    }
+
+    /**
+     * Returns the converted OpenCensus metrics. The metrics are only read and converted in case the current snapshot
+     * is older than the staleness window. Concurrent callers wait for the collection in progress instead of starting
+     * their own.
+     *
+     * @return the converted OpenCensus metrics
+     */
+    public synchronized Collection<MetricData> collectAllMetrics() {
+        long now = clock.get();
+        if (snapshot == null || (now - snapshotTimestamp) > staleness.toNanos()) {
+            snapshot = convert(openCensusMetricsSupplier.get());
+            snapshotTimestamp = now;
+        }
+        return snapshot;
+    }
+
+    private Collection<MetricData> convert(Collection<Metric> metrics) {
+        List<MetricData> result = new ArrayList<>(metrics.size());
+        for (Metric metric : metrics) {
+            try {
+                result.add(OpenCensusMetricAdapter.convert(resource, metric));
+            } catch (Exception e) {
+                log.debug("Could not convert OpenCensus metric {}", metric.getMetricDescriptor().getName(), e);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Reads the metrics of all OpenCensus {@link MetricProducer}s registered at the {@link Metrics#getExportComponent()}.
+     *
+     * @return the OpenCensus metrics
+     */
+    public static Collection<Metric> readOpenCensusMetrics() {
+        List<Metric> metrics = new ArrayList<>();
+        for (MetricProducer producer : Metrics.getExportComponent().getMetricProducerManager().getAllMetricProducer()) {
+            metrics.addAll(producer.getMetrics());
+        }
+        return metrics;
+    }
+}
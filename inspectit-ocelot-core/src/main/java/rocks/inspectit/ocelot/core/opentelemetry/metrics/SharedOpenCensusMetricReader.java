@@ -0,0 +1,90 @@
+package rocks.inspectit.ocelot.core.opentelemetry.metrics;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.export.CollectionRegistration;
+import io.opentelemetry.sdk.metrics.export.MetricProducer;
+import io.opentelemetry.sdk.metrics.export.MetricReader;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A {@link MetricReader} which adds the OpenCensus metrics to the metrics collected by the wrapped reader, similar to
+ * {@link io.opentelemetry.opencensusshim.metrics.OpenCensusMetrics#attachTo(MetricReader)}. In contrast to the shim,
+ * the OpenCensus metrics are taken from a {@link SharedOpenCensusMetricProducer} which is shared by all readers.
+ */
+public class SharedOpenCensusMetricReader implements MetricReader {
+
+    /**
+     * The wrapped reader.
+     */
+    private final MetricReader delegate;
+
+    /**
+     * The producer of the converted OpenCensus metrics.
+     */
+    private final SharedOpenCensusMetricProducer openCensusProducer;
+
+    /**
+     * Constructor.
+     *
+     * @param delegate           the reader to wrap
+     * @param openCensusProducer the shared producer of the OpenCensus metrics
+     */
+    public SharedOpenCensusMetricReader(MetricReader delegate, SharedOpenCensusMetricProducer openCensusProducer) {
+        this.delegate = delegate;
+        this.openCensusProducer = openCensusProducer;
+    }
+
+    @Override
+    public void register(CollectionRegistration registration) {
+        delegate.register(new CombinedMetricProducer(MetricProducer.asMetricProducer(registration)));
+    }
+
+    @Override
+    public AggregationTemporality getAggregationTemporality(InstrumentType instrumentType) {
+        return delegate.getAggregationTemporality(instrumentType);
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        return delegate.forceFlush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return delegate.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        return "SharedOpenCensusMetricReader{delegate=" + delegate + "}";
+    }
+
+    /**
+     * Combines the metrics of the reader's SDK registration with the shared OpenCensus metrics.
+     */
+    private class CombinedMetricProducer implements MetricProducer {
+
+        private final MetricProducer sdkProducer;
+
+        private CombinedMetricProducer(MetricProducer sdkProducer) {
+            this.sdkProducer = sdkProducer;
+        }
+
+        @Override
+        public Collection<MetricData> collectAllMetrics() {
+            Collection<MetricData> sdkMetrics = sdkProducer.collectAllMetrics();
+            Collection<MetricData> openCensusMetrics = openCensusProducer.collectAllMetrics();
+
+            List<MetricData> result = new ArrayList<>(sdkMetrics.size() + openCensusMetrics.size());
+            result.addAll(sdkMetrics);
+            result.addAll(openCensusMetrics);
+            return result;
+        }
+    }
+}
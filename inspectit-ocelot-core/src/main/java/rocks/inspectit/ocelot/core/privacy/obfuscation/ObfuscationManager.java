@@ -51,7 +51,7 @@ public class ObfuscationManager {
         ObfuscationSettings obfuscationSettings = configuration.getPrivacy().getObfuscation();
         boolean enabled = obfuscationSettings.isEnabled();
         if (enabled) {
-            this.obfuscatory = this.getPatternObfuscatory(obfuscationSettings.getPatterns());
+            this.obfuscatory = this.getPatternObfuscatory(obfuscationSettings.getPatterns(), obfuscationSettings.getKeyCacheSize());
         } else {
             this.obfuscatory = NoopObfuscatory.INSTANCE;
         }
@@ -64,9 +64,10 @@ public class ObfuscationManager {
      * Otherwise, the {@link PatternObfuscatory} instance will be created and return.
      *
      * @param obfuscationPatterns Collection of configured {@link ObfuscationPattern}s.
+     * @param keyCacheSize        The maximum number of keys for which the result of the key check is cached.
      * @return IObfuscatory
      */
-    private IObfuscatory getPatternObfuscatory(Collection<ObfuscationPattern> obfuscationPatterns) {
+    private IObfuscatory getPatternObfuscatory(Collection<ObfuscationPattern> obfuscationPatterns, int keyCacheSize) {
         List<PatternObfuscatory.PatternEntry> patternEntries = Optional.ofNullable(obfuscationPatterns)
                 .map(Collection::stream)
                 .orElse(Stream.empty())
@@ -91,7 +92,7 @@ public class ObfuscationManager {
         if (patternEntries.isEmpty()) {
             return NoopObfuscatory.INSTANCE;
         } else {
-            PatternObfuscatory patternObfuscatory = new PatternObfuscatory(patternEntries);
+            PatternObfuscatory patternObfuscatory = new PatternObfuscatory(patternEntries, keyCacheSize);
             if (selfMonitoring.isSelfMonitoringEnabled()) {
                 return new SelfMonitoringDelegatingObfuscatory(selfMonitoring, patternObfuscatory);
             } else {
@@ -0,0 +1,129 @@
+package rocks.inspectit.ocelot.core.privacy.obfuscation.impl;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Combines the patterns of multiple {@link PatternObfuscatory.PatternEntry}s into a single alternation,
+ * so that a value can be checked against all of them in one pass.
+ * <p>
+ * Each pattern is wrapped into a capturing group, which is used to find out which entry matched.
+ * As the alternatives are tried in order, the result is the first entry matching the whole value, same as when checking the patterns one by one.
+ * <p>
+ * Patterns containing back references, quotations or inline flags or using other flags than {@link Pattern#CASE_INSENSITIVE}
+ * cannot be combined safely, these are checked separately after the combined pattern.
+ * If the combined pattern cannot be compiled nevertheless, all patterns are checked separately.
+ */
+@Slf4j
+class CombinedPattern {
+
+    /**
+     * Detects numbered or named back references, which would refer to the wrong groups in the combined pattern,
+     * quotations, which could extend beyond the pattern if they are not terminated, as well as inline flags,
+     * e.g. (?x) which turns the remainder of the combined pattern into a comment after a '#'.
+     */
+    private static final Pattern NOT_COMBINABLE_CONSTRUCTS = Pattern.compile("\\\\(?:[1-9]|k<|Q)|\\(\\?[a-zA-Z-]+[:)]");
+
+    /**
+     * The combined pattern, null if no pattern could be combined.
+     */
+    private final Pattern combinedPattern;
+
+    /**
+     * The entries of the combined pattern, in the order of their alternatives.
+     */
+    private final List<PatternObfuscatory.PatternEntry> combinedEntries = new ArrayList<>();
+
+    /**
+     * The group index in the {@link #combinedPattern} of each entry in {@link #combinedEntries}.
+     */
+    private final int[] groupIndices;
+
+    /**
+     * Entries which could not be combined and are checked separately.
+     */
+    private final List<PatternObfuscatory.PatternEntry> separateEntries = new ArrayList<>();
+
+    /**
+     * @param entries the entries whose patterns should be combined, in the order in which they should be checked
+     */
+    CombinedPattern(Collection<PatternObfuscatory.PatternEntry> entries) {
+        StringBuilder combined = new StringBuilder();
+        List<Integer> groups = new ArrayList<>();
+        int nextGroup = 1;
+        for (PatternObfuscatory.PatternEntry entry : entries) {
+            Pattern pattern = entry.getPattern();
+            if (!isCombinable(pattern)) {
+                separateEntries.add(entry);
+                continue;
+            }
+            if (combined.length() > 0) {
+                combined.append('|');
+            }
+            boolean caseInsensitive = (pattern.flags() & Pattern.CASE_INSENSITIVE) != 0;
+            combined.append(caseInsensitive ? "(?i:(" : "(?-i:(").append(pattern.pattern()).append("))");
+            combinedEntries.add(entry);
+            groups.add(nextGroup);
+            // the group of the entry itself plus all groups defined by the pattern
+            nextGroup += 1 + pattern.matcher("").groupCount();
+        }
+        combinedPattern = combinedEntries.isEmpty() ? null : compile(combined.toString());
+        if (combinedPattern == null) {
+            // fall back to checking all entries separately in their original order
+            combinedEntries.clear();
+            groups.clear();
+            separateEntries.clear();
+            separateEntries.addAll(entries);
+        }
+        groupIndices = groups.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * @return the compiled pattern or null if it is invalid
+     */
+    private static Pattern compile(String combined) {
+        try {
+            return Pattern.compile(combined);
+        } catch (PatternSyntaxException e) {
+            log.warn("Could not combine the obfuscation patterns, checking them one by one.", e);
+            return null;
+        }
+    }
+
+    private static boolean isCombinable(Pattern pattern) {
+        return (pattern.flags() & ~Pattern.CASE_INSENSITIVE) == 0 && !NOT_COMBINABLE_CONSTRUCTS.matcher(pattern.pattern()).find();
+    }
+
+    /**
+     * Finds the first entry whose pattern matches the complete given value.
+     *
+     * @param value the value to check
+     *
+     * @return the first matching entry or an empty optional if no entry matches
+     */
+    Optional<PatternObfuscatory.PatternEntry> findFirstMatch(String value) {
+        if (combinedPattern != null) {
+            Matcher matcher = combinedPattern.matcher(value);
+            if (matcher.matches()) {
+                for (int i = 0; i < groupIndices.length; i++) {
+                    if (matcher.start(groupIndices[i]) != -1) {
+                        return Optional.of(combinedEntries.get(i));
+                    }
+                }
+            }
+        }
+        for (PatternObfuscatory.PatternEntry entry : separateEntries) {
+            if (entry.getPattern().matcher(value).matches()) {
+                return Optional.of(entry);
+            }
+        }
+        return Optional.empty();
+    }
+}
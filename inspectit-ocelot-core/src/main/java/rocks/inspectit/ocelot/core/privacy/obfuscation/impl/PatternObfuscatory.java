@@ -3,32 +3,58 @@ package rocks.inspectit.ocelot.core.privacy.obfuscation.impl;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import io.opentelemetry.api.trace.Span;
-import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Value;
+import rocks.inspectit.ocelot.config.model.privacy.obfuscation.ObfuscationSettings;
 import rocks.inspectit.ocelot.core.privacy.obfuscation.IObfuscatory;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
-@AllArgsConstructor
 public class PatternObfuscatory implements IObfuscatory {
 
     private static final Function<String, Object> DEFAULT_OBFUSCATION_FUNCTION = (v) -> "***";
 
     /**
-     * Patterns that need to be checked.
+     * The patterns of all entries checking keys, combined to be evaluated in one pass.
      */
-    private final Collection<PatternEntry> patternEntries;
+    private final CombinedPattern keyPatterns;
+
+    /**
+     * The patterns of all entries checking data, combined to be evaluated in one pass.
+     * Null if no entry checks data.
+     */
+    private final CombinedPattern dataPatterns;
 
     /**
      * Map holding already checked keys as key and info if the data should be obfuscated or not.
+     * The least recently used keys are evicted if the cache is full.
+     */
+    private final Cache<String, CheckedKeyObfuscationValue> checkedKeysMap;
+
+    /**
+     * Uses the default key cache size of the {@link ObfuscationSettings}.
+     *
+     * @param patternEntries Patterns that need to be checked.
      */
-    private final Cache<String, CheckedKeyObfuscationValue> checkedKeysMap = CacheBuilder.newBuilder()
-            .maximumSize(1000)
-            .build();
+    public PatternObfuscatory(Collection<PatternEntry> patternEntries) {
+        this(patternEntries, new ObfuscationSettings().getKeyCacheSize());
+    }
+
+    /**
+     * @param patternEntries Patterns that need to be checked.
+     * @param keyCacheSize   The maximum number of keys for which the result of the key check is cached.
+     */
+    public PatternObfuscatory(Collection<PatternEntry> patternEntries, int keyCacheSize) {
+        keyPatterns = new CombinedPattern(patternEntries.stream().filter(PatternEntry::isCheckKey).collect(Collectors.toList()));
+        List<PatternEntry> dataEntries = patternEntries.stream().filter(PatternEntry::isCheckData).collect(Collectors.toList());
+        dataPatterns = dataEntries.isEmpty() ? null : new CombinedPattern(dataEntries);
+        checkedKeysMap = CacheBuilder.newBuilder().maximumSize(keyCacheSize).build();
+    }
 
     /**
      * {@inheritDoc}
@@ -73,17 +99,14 @@ public class PatternObfuscatory implements IObfuscatory {
     }
 
     private Optional<Function<String, Object>> shouldObfuscateKey(String key) {
-        return patternEntries.stream()
-                .filter(p -> p.matchesKey(key))
-                .findFirst()
-                .map(PatternEntry::getObfuscationFunction);
+        return keyPatterns.findFirstMatch(key).map(PatternEntry::getObfuscationFunction);
     }
 
     private Optional<Function<String, Object>> shouldObfuscateData(String data) {
-        return patternEntries.stream()
-                .filter(p -> p.matchesData(data))
-                .findFirst()
-                .map(PatternEntry::getObfuscationFunction);
+        if (dataPatterns == null) {
+            return Optional.empty();
+        }
+        return dataPatterns.findFirstMatch(data).map(PatternEntry::getObfuscationFunction);
     }
 
     /**
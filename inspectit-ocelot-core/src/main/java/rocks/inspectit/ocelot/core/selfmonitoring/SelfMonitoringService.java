@@ -1,7 +1,6 @@
 package rocks.inspectit.ocelot.core.selfmonitoring;
 
 import io.opencensus.common.Scope;
-import io.opencensus.stats.StatsRecorder;
 import io.opencensus.tags.TagKey;
 import io.opencensus.tags.Tags;
 import lombok.Data;
@@ -35,9 +34,6 @@ public class SelfMonitoringService {
     @Autowired
     private InspectitEnvironment env;
 
-    @Autowired
-    private StatsRecorder statsRecorder;
-
     @Autowired
     private MeasuresAndViewsManager measureManager;
 
@@ -101,7 +97,7 @@ public class SelfMonitoringService {
             val measure = measureManager.getMeasureDouble(fullMeasureName);
             measure.ifPresent(m -> {
                 try (val ct = commonTags.withCommonTagScope()) {
-                    statsRecorder.newMeasureMap().put(m, value).record();
+                    measureManager.tryRecordingMeasurement(m.getName(), value);
                 }
             });
         }
@@ -135,7 +131,7 @@ public class SelfMonitoringService {
             val measure = measureManager.getMeasureLong(fullMeasureName);
             measure.ifPresent(m -> {
                 try (val ct = commonTags.withCommonTagScope(customTags)) {
-                    statsRecorder.newMeasureMap().put(m, value).record();
+                    measureManager.tryRecordingMeasurement(m.getName(), value);
                 }
             });
         }
@@ -152,12 +148,10 @@ public class SelfMonitoringService {
         public void close() {
             double durationInMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
             val measure = measureManager.getMeasureDouble(METRICS_PREFIX + DURATION_MEASURE_NAME);
-            measure.ifPresent(m -> statsRecorder.newMeasureMap()
-                    .put(m, durationInMicros)
-                    .record(Tags.getTagger()
-                            .toBuilder(commonTags.getCommonTagContext())
-                            .putLocal(COMPONENT_TAG_KEY, TagUtils.createTagValue(COMPONENT_TAG_KEY.getName(), componentName))
-                            .build()));
+            measure.ifPresent(m -> measureManager.tryRecordingMeasurement(m.getName(), durationInMicros, Tags.getTagger()
+                    .toBuilder(commonTags.getCommonTagContext())
+                    .putLocal(COMPONENT_TAG_KEY, TagUtils.createTagValue(COMPONENT_TAG_KEY.getName(), componentName))
+                    .build()));
 
             if (log.isTraceEnabled()) {
                 log.trace(String.format("%s reported %.1f\u00B5s", componentName, durationInMicros));
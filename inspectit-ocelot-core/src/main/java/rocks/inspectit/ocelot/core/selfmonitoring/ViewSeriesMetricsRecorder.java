@@ -0,0 +1,62 @@
+package rocks.inspectit.ocelot.core.selfmonitoring;
+
+import org.springframework.stereotype.Service;
+import rocks.inspectit.ocelot.config.model.InspectitConfig;
+import rocks.inspectit.ocelot.config.model.metrics.MetricsSettings;
+import rocks.inspectit.ocelot.core.metrics.ViewSeriesLimit;
+import rocks.inspectit.ocelot.core.metrics.system.AbstractPollingMetricsRecorder;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Periodically records the number of series per view and the number of recordings which exceeded the series limit
+ * of a view, based on the {@link ViewSeriesLimit}s of the {@link rocks.inspectit.ocelot.core.metrics.MeasuresAndViewsManager}.
+ * The recorder is only active if self-monitoring is enabled.
+ */
+@Service
+public class ViewSeriesMetricsRecorder extends AbstractPollingMetricsRecorder {
+
+    private static final String SERIES_MEASURE_NAME = "views/series";
+
+    private static final String OVERFLOWED_RECORDINGS_MEASURE_NAME = "views/overflowed-recordings";
+
+    private static final String VIEW_TAG_KEY = "view";
+
+    public ViewSeriesMetricsRecorder() {
+        super("metrics.frequency", "selfMonitoring.enabled");
+    }
+
+    @Override
+    protected boolean doEnable(InspectitConfig configuration) {
+        // discard the overflows which happened while the recorder was disabled, so that they are not reported late
+        for (ViewSeriesLimit limit : measureManager.getSeriesLimits()) {
+            limit.getAndResetOverflowedRecordings();
+        }
+        return super.doEnable(configuration);
+    }
+
+    @Override
+    protected void takeMeasurement(MetricsSettings config) {
+        for (ViewSeriesLimit limit : measureManager.getSeriesLimits()) {
+            Map<String, String> tags = Collections.singletonMap(VIEW_TAG_KEY, limit.getViewName());
+            selfMonitoringService.recordMeasurement(SERIES_MEASURE_NAME, limit.getSeriesCount(), tags);
+            long overflowedRecordings = limit.getAndResetOverflowedRecordings();
+            if (overflowedRecordings > 0) {
+                selfMonitoringService.recordMeasurement(OVERFLOWED_RECORDINGS_MEASURE_NAME, overflowedRecordings, tags);
+            }
+        }
+    }
+
+    @Override
+    protected Duration getFrequency(MetricsSettings config) {
+        return config.getFrequency();
+    }
+
+    @Override
+    protected boolean checkEnabledForConfig(MetricsSettings ms) {
+        // the self-monitoring settings are not part of the metrics settings, the current configuration already is the one checked
+        return selfMonitoringService.isSelfMonitoringEnabled();
+    }
+}
@@ -0,0 +1,281 @@
+package rocks.inspectit.ocelot.core.exporter;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import io.opencensus.common.Timestamp;
+import io.opencensus.metrics.LabelKey;
+import io.opencensus.metrics.LabelValue;
+import io.opencensus.metrics.export.*;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import rocks.inspectit.ocelot.core.selfmonitoring.SelfMonitoringService;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StreamingInfluxExporterTest {
+
+    private static final String WRITE_PATH = "/write";
+
+    private static final String QUERY_PATH = "/query";
+
+    private static final Timestamp START = Timestamp.create(0, 0);
+
+    private WireMockServer influx;
+
+    /**
+     * The metrics returned to the exporter.
+     */
+    private List<Metric> metrics;
+
+    private long time;
+
+    @BeforeEach
+    void setupInflux() {
+        influx = new WireMockServer(options().dynamicPort());
+        influx.start();
+        influx.stubFor(post(urlPathEqualTo(WRITE_PATH)).willReturn(aResponse().withStatus(204)));
+        influx.stubFor(post(urlPathEqualTo(QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        metrics = new ArrayList<>();
+        time = 1000;
+    }
+
+    @AfterEach
+    void stopInflux() {
+        influx.stop();
+    }
+
+    private StreamingInfluxExporter.StreamingInfluxExporterBuilder exporterBuilder() {
+        return StreamingInfluxExporter.builder()
+                .url("http://localhost:" + influx.port())
+                .database("inspectit")
+                .retention("autogen")
+                .user("user")
+                .password("password")
+                .measurementNameProvider(name -> name.startsWith("my/measure") ? "my/measure" : null)
+                .maxDifferenceSeries(100)
+                .differenceSeriesIdleTimeout(Duration.ofMinutes(1))
+                .metricsSupplier(() -> metrics)
+                .clock(() -> time);
+    }
+
+    /**
+     * @return the lines received by the influx stand-in, one list per write request
+     */
+    private List<List<String>> receivedLines() {
+        return influx.findAll(postRequestedFor(urlPathEqualTo(WRITE_PATH)))
+                .stream()
+                .map(StreamingInfluxExporterTest::decode)
+                .map(body -> Arrays.asList(body.split("\n")))
+                .collect(Collectors.toList());
+    }
+
+    private static String decode(LoggedRequest request) {
+        byte[] body = request.getBody();
+        try {
+            if (body.length > 1 && body[0] == (byte) 0x1f && body[1] == (byte) 0x8b) {
+                return IOUtils.toString(new GZIPInputStream(new ByteArrayInputStream(body)), StandardCharsets.UTF_8);
+            }
+            return new String(body, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Metric metric(String name, MetricDescriptor.Type type, Map<String, Value> seriesValues) {
+        List<TimeSeries> timeSeries = new ArrayList<>();
+        seriesValues.forEach((tagValue, value) -> timeSeries.add(TimeSeries.createWithOnePoint(Collections.singletonList(LabelValue.create(tagValue)), Point
+                .create(value, Timestamp.create(1, 0)), START)));
+        MetricDescriptor descriptor = MetricDescriptor.create(name, "description", "ms", type, Collections.singletonList(LabelKey
+                .create("my tag", "")));
+        return Metric.create(descriptor, timeSeries);
+    }
+
+    private static Metric counter(String name, double value) {
+        return metric(name, MetricDescriptor.Type.CUMULATIVE_DOUBLE, Collections.singletonMap("a,b", Value.doubleValue(value)));
+    }
+
+    @Nested
+    class Export {
+
+        @Test
+        void linesWrittenCompressed() {
+            Distribution distribution = Distribution.create(3, 60.0, 0.0, Distribution.BucketOptions.explicitOptions(Arrays.asList(10.0, 100.0)), Arrays
+                    .asList(Distribution.Bucket.create(1), Distribution.Bucket.create(2), Distribution.Bucket.create(0)));
+            metrics.add(metric("my/measure/last", MetricDescriptor.Type.GAUGE_INT64, Collections.singletonMap("x", Value.longValue(7))));
+            metrics.add(metric("other", MetricDescriptor.Type.GAUGE_DOUBLE, Collections.singletonMap("", Value.doubleValue(1.5))));
+            metrics.add(metric("my/measure/histogram", MetricDescriptor.Type.CUMULATIVE_DISTRIBUTION, Collections.singletonMap("x", Value
+                    .distributionValue(distribution))));
+            StreamingInfluxExporter exporter = exporterBuilder().build();
+
+            exporter.export();
+
+            assertThat(receivedLines()).containsExactly(Arrays.asList("my_measure,my\\ tag=x last=7i 1000", "other value=1.5 1000", "my_measure,my\\ tag=x histogram_count=3i 1000", "my_measure,my\\ tag=x histogram_sum=60.0 1000", "my_measure,my\\ tag=x,bucket=10.0 histogram_bucket=1i 1000", "my_measure,my\\ tag=x,bucket=100.0 histogram_bucket=2i 1000", "my_measure,my\\ tag=x,bucket=+Inf histogram_bucket=0i 1000"));
+            LoggedRequest request = influx.findAll(postRequestedFor(urlPathEqualTo(WRITE_PATH))).get(0);
+            assertThat(request.getHeader("Content-Encoding")).isEqualTo("gzip");
+            assertThat(request.getHeader("Authorization")).isEqualTo("Basic dXNlcjpwYXNzd29yZA==");
+            assertThat(request.queryParameter("db").firstValue()).isEqualTo("inspectit");
+            assertThat(request.queryParameter("rp").firstValue()).isEqualTo("autogen");
+            assertThat(request.queryParameter("precision").firstValue()).isEqualTo("ms");
+        }
+
+        @Test
+        void databaseCreatedOnce() {
+            metrics.add(counter("my/measure/sum", 5));
+            StreamingInfluxExporter exporter = exporterBuilder().createDatabase(true).build();
+
+            exporter.export();
+            exporter.export();
+
+            List<LoggedRequest> queries = influx.findAll(postRequestedFor(urlPathEqualTo(QUERY_PATH)));
+            assertThat(queries).hasSize(1);
+            assertThat(queries.get(0).getBodyAsString()).isEqualTo("q=CREATE+DATABASE+%22inspectit%22");
+        }
+
+        @Test
+        void noRequestWithoutLines() {
+            StreamingInfluxExporter exporter = exporterBuilder().build();
+
+            exporter.export();
+
+            assertThat(receivedLines()).isEmpty();
+        }
+
+        @Test
+        void absoluteCounterValues() {
+            StreamingInfluxExporter exporter = exporterBuilder().build();
+
+            metrics.add(counter("my/measure/sum", 5));
+            exporter.export();
+            metrics.set(0, counter("my/measure/sum", 8));
+            exporter.export();
+
+            assertThat(receivedLines()).containsExactly(Collections.singletonList("my_measure,my\\ tag=a\\,b sum=5.0 1000"), Collections
+                    .singletonList("my_measure,my\\ tag=a\\,b sum=8.0 1000"));
+        }
+    }
+
+    @Nested
+    class CountersAsDifferences {
+
+        @Test
+        void differencesWritten() {
+            StreamingInfluxExporter exporter = exporterBuilder().exportDifference(true).build();
+
+            // new counters are only kept as baseline
+            metrics.add(counter("my/measure/sum", 5));
+            exporter.export();
+            metrics.set(0, counter("my/measure/sum", 8));
+            exporter.export();
+            // unchanged counters are not written
+            exporter.export();
+
+            assertThat(receivedLines()).containsExactly(Collections.singletonList("my_measure,my\\ tag=a\\,b sum=3.0 1000"));
+        }
+
+        @Test
+        void increaseKeptOnFailedWrite() {
+            StreamingInfluxExporter exporter = exporterBuilder().exportDifference(true).build();
+            metrics.add(counter("my/measure/sum", 5));
+            exporter.export();
+
+            influx.stubFor(post(urlPathEqualTo(WRITE_PATH)).willReturn(aResponse().withStatus(500)));
+            metrics.set(0, counter("my/measure/sum", 8));
+            exporter.export();
+            influx.stubFor(post(urlPathEqualTo(WRITE_PATH)).willReturn(aResponse().withStatus(204)));
+            metrics.set(0, counter("my/measure/sum", 10));
+            exporter.export();
+
+            assertThat(receivedLines()).extracting(lines -> lines.get(0))
+                    .containsExactly("my_measure,my\\ tag=a\\,b sum=3.0 1000", "my_measure,my\\ tag=a\\,b sum=5.0 1000");
+        }
+
+        @Test
+        void idleSeriesEvicted() {
+            StreamingInfluxExporter exporter = exporterBuilder().exportDifference(true).build();
+            metrics.add(counter("my/measure/sum", 5));
+            exporter.export();
+            assertThat(exporter.getDifferenceSeriesCount()).isEqualTo(1);
+
+            metrics.clear();
+            time += Duration.ofMinutes(2).toMillis();
+            exporter.export();
+
+            assertThat(exporter.getDifferenceSeriesCount()).isZero();
+        }
+
+        @Test
+        void evictedSeriesNotWrittenAsIncrease() {
+            StreamingInfluxExporter exporter = exporterBuilder().exportDifference(true).build();
+            metrics.add(counter("my/measure/sum", 5));
+            exporter.export();
+            metrics.clear();
+            time += Duration.ofMinutes(2).toMillis();
+            exporter.export();
+
+            // the evicted series only gets a new baseline instead of being written with its absolute value
+            metrics.add(counter("my/measure/sum", 8));
+            exporter.export();
+            metrics.set(0, counter("my/measure/sum", 10));
+            exporter.export();
+
+            assertThat(receivedLines()).containsExactly(Collections.singletonList("my_measure,my\\ tag=a\\,b sum=2.0 121000"));
+        }
+
+        private Metric seriesCounter(int seriesCount, double valueOffset) {
+            Map<String, Value> seriesValues = new HashMap<>();
+            for (int i = 0; i < seriesCount; i++) {
+                seriesValues.put("series-" + i, Value.doubleValue(i + valueOffset));
+            }
+            return metric("my/measure/sum", MetricDescriptor.Type.CUMULATIVE_DOUBLE, seriesValues);
+        }
+
+        @Test
+        void seriesCountBounded() {
+            SelfMonitoringService selfMonitoringService = Mockito.mock(SelfMonitoringService.class);
+            StreamingInfluxExporter exporter = exporterBuilder().exportDifference(true)
+                    .maxDifferenceSeries(5)
+                    .selfMonitoringService(selfMonitoringService)
+                    .build();
+            metrics.add(seriesCounter(10, 1));
+            exporter.export();
+            metrics.set(0, seriesCounter(10, 2));
+            exporter.export();
+
+            // the known series are still written, the new series are rejected instead of evicting the known ones
+            assertThat(exporter.getDifferenceSeriesCount()).isEqualTo(5);
+            assertThat(receivedLines()).hasSize(1);
+            assertThat(receivedLines().get(0)).hasSize(5).allMatch(line -> line.contains(" sum=1.0 "));
+            Mockito.verify(selfMonitoringService, Mockito.times(2)).recordMeasurement("exporters/influx/rejected-series", 5L);
+        }
+    }
+
+    @Nested
+    class Names {
+
+        @Test
+        void fieldName() {
+            assertThat(StreamingInfluxExporter.getFieldName("my/measure/cool%data", "my/measure")).isEqualTo("cool_data");
+            assertThat(StreamingInfluxExporter.getFieldName("my/measure", "my/measure")).isEqualTo("value");
+            assertThat(StreamingInfluxExporter.getFieldName("other", "my/measure")).isEqualTo("value");
+        }
+
+        @Test
+        void escapeTag() {
+            assertThat(StreamingInfluxExporter.escapeTag("a b,c=d\\e")).isEqualTo("a\\ b\\,c\\=d\\\\e");
+        }
+    }
+}
@@ -34,9 +34,13 @@ public class SampledTraceTest {
         private SampledTrace traceToCreate;
 
         public SampledTraceGenerator(String... rootStackTrace) {
+            this(Integer.MAX_VALUE, rootStackTrace);
+        }
+
+        public SampledTraceGenerator(int maxEvents, String... rootStackTrace) {
             currentStack = new ArrayList<>(Arrays.asList(rootStackTrace));
             StackTrace rootTrace = createStackTrace(rootStackTrace);
-            traceToCreate = new SampledTrace(Mockito.mock(Span.class), () -> rootTrace);
+            traceToCreate = new SampledTrace(Mockito.mock(Span.class), () -> rootTrace, maxEvents);
         }
 
         protected void sample() {
@@ -317,4 +321,85 @@ public class SampledTraceTest {
 
     }
 
+
+    @Nested
+    class MaxEvents {
+
+        @Test
+        void samplesDroppedWhenFull() {
+            // two samples and one method entry, the method exit is not counted
+            SampledTrace trace = new SampledTraceGenerator(3, "RootA.myRootA", "RootA.myRootB") {
+                @Override
+                protected void generate() {
+                    anonymousCall("Top.firstMethod", () -> {
+                        sample();
+                        sample();
+                    });
+                    tracedCall("Hello.secondMethod", () -> {
+                    });
+                    anonymousCall("Top.thirdMethod", () -> {
+                        sample();
+                        sample();
+                    });
+                }
+            }.doGenerate();
+
+            assertThat(trace.isTruncated()).isTrue();
+            assertThat(trace.hasCapacity()).isFalse();
+            Iterable<Invocation> invocations = trace.generateInvocations();
+            assertThat(invocations).hasSize(2);
+            assertThat(invocations).first().satisfies(new InvocationCheck("Top.firstMethod", 0, 1));
+            assertThat(invocations).last().satisfies(new InvocationCheck("Hello.secondMethod", 2, 3));
+        }
+
+        @Test
+        void notTruncatedBelowLimit() {
+            SampledTrace trace = new SampledTraceGenerator(4, "RootA.myRootA", "RootA.myRootB") {
+                @Override
+                protected void generate() {
+                    anonymousCall("Top.firstMethod", () -> {
+                        sample();
+                        sample();
+                    });
+                }
+            }.doGenerate();
+
+            assertThat(trace.isTruncated()).isFalse();
+            assertThat(trace.hasCapacity()).isTrue();
+        }
+
+        @Test
+        void notTruncatedWithoutDroppedEvents() {
+            SampledTrace trace = new SampledTraceGenerator(2, "RootA.myRootA", "RootA.myRootB") {
+                @Override
+                protected void generate() {
+                    tracedCall("Hello.firstMethod", () -> {
+                    });
+                    tracedCall("Hello.secondMethod", () -> {
+                    });
+                }
+            }.doGenerate();
+
+            // checking the capacity, e.g. when starting a span, does not mark the trace as truncated
+            assertThat(trace.hasCapacity()).isFalse();
+            assertThat(trace.isTruncated()).isFalse();
+            assertThat(trace.generateInvocations()).hasSize(2);
+        }
+
+        @Test
+        void truncatedWhenContinuedSpanDropped() {
+            SampledTrace trace = new SampledTraceGenerator(1, "RootA.myRootA", "RootA.myRootB") {
+                @Override
+                protected void generate() {
+                    tracedCall("Hello.firstMethod", () -> {
+                    });
+                }
+            }.doGenerate();
+
+            trace.spanContinued(Mockito.mock(Span.class), 10, "Hello", "continuedMethod").methodFinished(11);
+
+            assertThat(trace.isTruncated()).isTrue();
+            assertThat(trace.generateInvocations()).hasSize(1);
+        }
+    }
 }
@@ -0,0 +1,71 @@
+package rocks.inspectit.ocelot.core.instrumentation.autotracing;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StackTraceTrieTest {
+
+    private static final StackTraceElement ROOT = new StackTraceElement("Root", "rootMethod", "Root.java", 1);
+
+    private static final StackTraceElement CALLEE = new StackTraceElement("Callee", "callee", "Callee.java", 2);
+
+    private static final StackTraceElement OTHER_CALLEE = new StackTraceElement("Callee", "other", "Callee.java", 3);
+
+    private static StackTrace createStackTrace(StackTraceElement... framesFromTop) {
+        return new StackTrace(framesFromTop.clone());
+    }
+
+    @Nested
+    class Intern {
+
+        @Test
+        void identicalStackTracesShareNode() {
+            StackTraceTrie trie = new StackTraceTrie();
+
+            StackTraceTrie.Node first = trie.intern(createStackTrace(CALLEE, ROOT));
+            StackTraceTrie.Node second = trie.intern(createStackTrace(CALLEE, ROOT));
+
+            assertThat(first).isSameAs(second);
+            assertThat(first.getDepth()).isEqualTo(2);
+            assertThat(trie.size()).isEqualTo(2);
+        }
+
+        @Test
+        void commonPrefixShared() {
+            StackTraceTrie trie = new StackTraceTrie();
+
+            trie.intern(createStackTrace(CALLEE, ROOT));
+            trie.intern(createStackTrace(OTHER_CALLEE, ROOT));
+            trie.intern(createStackTrace(ROOT));
+
+            assertThat(trie.size()).isEqualTo(3);
+        }
+    }
+
+    @Nested
+    class ToStackTrace {
+
+        @Test
+        void stackTraceMaterialized() {
+            StackTraceTrie trie = new StackTraceTrie();
+
+            StackTrace result = trie.intern(createStackTrace(OTHER_CALLEE, CALLEE, ROOT)).toStackTrace();
+
+            assertThat(result.size()).isEqualTo(3);
+            assertThat(result.get(0)).isSameAs(ROOT);
+            assertThat(result.get(1)).isSameAs(CALLEE);
+            assertThat(result.get(2)).isSameAs(OTHER_CALLEE);
+            assertThat(result.getStackTop()).isSameAs(OTHER_CALLEE);
+        }
+
+        @Test
+        void stackTraceCached() {
+            StackTraceTrie trie = new StackTraceTrie();
+            StackTraceTrie.Node node = trie.intern(createStackTrace(CALLEE, ROOT));
+
+            assertThat(node.toStackTrace()).isSameAs(node.toStackTrace());
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package rocks.inspectit.ocelot.core.metrics;
+
+import io.opencensus.contrib.exemplar.util.AttachmentValueSpanContext;
+import io.opencensus.contrib.exemplar.util.ExemplarUtils;
+import io.opencensus.metrics.data.AttachmentValue;
+import io.opencensus.stats.MeasureMap;
+import io.opencensus.tags.TagContext;
+import io.opencensus.tags.TagKey;
+import io.opencensus.tags.TagValue;
+import io.opencensus.tags.Tags;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.context.Scope;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import rocks.inspectit.ocelot.config.model.metrics.ExemplarSettings;
+import rocks.inspectit.ocelot.config.model.metrics.definition.MetricDefinitionSettings;
+import rocks.inspectit.ocelot.config.model.metrics.definition.ViewDefinitionSettings;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ExemplarSamplerTest {
+
+    private static final String TRACE_ID = "0af7651916cd43dd8448eb211c80319c";
+
+    private static final String SPAN_ID = "b7ad6b7169203331";
+
+    private static final String HISTOGRAM_METRIC = "my-histogram";
+
+    private static final String SUM_METRIC = "my-sum";
+
+    private static final TagKey SERVICE_TAG = TagKey.create("service");
+
+    private static final TagContext TAGS = tags("my-service");
+
+    @Mock
+    MeasureMap measureMap;
+
+    private final AtomicLong clock = new AtomicLong(1);
+
+    private final ExemplarSampler sampler = new ExemplarSampler(clock::get);
+
+    @BeforeEach
+    void setup() {
+        ExemplarSettings settings = new ExemplarSettings();
+        settings.setEnabled(true);
+        settings.setSampleInterval(Duration.ofSeconds(1));
+        sampler.updateSettings(settings);
+
+        sampler.updateMeasure(HISTOGRAM_METRIC, MetricDefinitionSettings.builder()
+                .view("my-histogram/histogram", ViewDefinitionSettings.builder()
+                        .aggregation(ViewDefinitionSettings.Aggregation.HISTOGRAM)
+                        .bucketBoundaries(Arrays.asList(1.0, 10.0, 100.0))
+                        .build())
+                .build(), null);
+        sampler.updateMeasure(SUM_METRIC, MetricDefinitionSettings.builder()
+                .view("my-sum/sum", ViewDefinitionSettings.builder()
+                        .aggregation(ViewDefinitionSettings.Aggregation.SUM)
+                        .build())
+                .build(), null);
+    }
+
+    private Scope startSpan(TraceFlags flags) {
+        return Span.wrap(SpanContext.create(TRACE_ID, SPAN_ID, flags, TraceState.getDefault())).makeCurrent();
+    }
+
+    private static TagContext tags(String service) {
+        return Tags.getTagger().emptyBuilder().putLocal(SERVICE_TAG, TagValue.create(service)).build();
+    }
+
+    private void record(double value) {
+        record(value, TAGS);
+    }
+
+    private void record(double value, TagContext tags) {
+        try (Scope scope = startSpan(TraceFlags.getSampled())) {
+            sampler.putSpanContextAttachment(measureMap, HISTOGRAM_METRIC, value, tags);
+        }
+    }
+
+    @Nested
+    class PutSpanContextAttachment {
+
+        @Test
+        void attachedWithinSampledSpan() {
+            record(42);
+
+            ArgumentCaptor<AttachmentValue> attachment = ArgumentCaptor.forClass(AttachmentValue.class);
+            verify(measureMap).putAttachment(eq(ExemplarUtils.ATTACHMENT_KEY_SPAN_CONTEXT), attachment.capture());
+            io.opencensus.trace.SpanContext spanContext = ((AttachmentValueSpanContext) attachment.getValue()).getSpanContext();
+            assertThat(spanContext.getTraceId().toLowerBase16()).isEqualTo(TRACE_ID);
+            assertThat(spanContext.getSpanId().toLowerBase16()).isEqualTo(SPAN_ID);
+            assertThat(spanContext.getTraceOptions().isSampled()).isTrue();
+        }
+
+        @Test
+        void notAttachedWithoutSpan() {
+            sampler.putSpanContextAttachment(measureMap, HISTOGRAM_METRIC, 42, TAGS);
+
+            verifyNoInteractions(measureMap);
+        }
+
+        @Test
+        void notAttachedWithinUnsampledSpan() {
+            try (Scope scope = startSpan(TraceFlags.getDefault())) {
+                sampler.putSpanContextAttachment(measureMap, HISTOGRAM_METRIC, 42, TAGS);
+            }
+
+            verifyNoInteractions(measureMap);
+        }
+
+        @Test
+        void notAttachedWithoutHistogramView() {
+            try (Scope scope = startSpan(TraceFlags.getSampled())) {
+                sampler.putSpanContextAttachment(measureMap, SUM_METRIC, 42, TAGS);
+                sampler.putSpanContextAttachment(measureMap, "undefined", 42, TAGS);
+            }
+
+            verifyNoInteractions(measureMap);
+        }
+
+        @Test
+        void sampleIntervalPerValueRange() {
+            record(40);
+            record(50);
+            // a different value range
+            record(500);
+            clock.addAndGet(Duration.ofSeconds(1).toNanos());
+            record(60);
+
+            verify(measureMap, times(3)).putAttachment(eq(ExemplarUtils.ATTACHMENT_KEY_SPAN_CONTEXT), any(AttachmentValue.class));
+        }
+
+        @Test
+        void sampleIntervalPerSeries() {
+            record(40);
+            record(50);
+            // the frequent series does not prevent the exemplars of other series
+            IntStream.range(0, 100).forEach(i -> record(60, tags("other-service-" + i)));
+
+            verify(measureMap, times(101)).putAttachment(eq(ExemplarUtils.ATTACHMENT_KEY_SPAN_CONTEXT), any(AttachmentValue.class));
+            assertThat(sampler.getSeriesCount(HISTOGRAM_METRIC)).isEqualTo(101);
+        }
+
+        @Test
+        void seriesBoundedBySeriesLimit() {
+            sampler.updateMeasure(HISTOGRAM_METRIC, MetricDefinitionSettings.builder()
+                    .view("my-histogram/histogram", ViewDefinitionSettings.builder()
+                            .aggregation(ViewDefinitionSettings.Aggregation.HISTOGRAM)
+                            .maxSeries(5)
+                            .build())
+                    .build(), null);
+
+            IntStream.range(0, 10).forEach(i -> record(60, tags("other-service-" + i)));
+
+            // 5 series and the overflow series of the view are tracked, all further series share the overflow series
+            assertThat(sampler.getSeriesCount(HISTOGRAM_METRIC)).isEqualTo(6);
+            verify(measureMap, times(7)).putAttachment(eq(ExemplarUtils.ATTACHMENT_KEY_SPAN_CONTEXT), any(AttachmentValue.class));
+        }
+
+        @Test
+        void seriesBoundedWithoutSeriesLimit() {
+            IntStream.range(0, ExemplarSampler.MAX_SERIES + 10).forEach(i -> record(60, tags("other-service-" + i)));
+
+            assertThat(sampler.getSeriesCount(HISTOGRAM_METRIC)).isEqualTo(ExemplarSampler.MAX_SERIES);
+        }
+
+        @Test
+        void seriesLimitOfDefault() {
+            sampler.updateMeasure(HISTOGRAM_METRIC, MetricDefinitionSettings.builder()
+                    .view("my-histogram/histogram", ViewDefinitionSettings.builder()
+                            .aggregation(ViewDefinitionSettings.Aggregation.HISTOGRAM)
+                            .build())
+                    .build(), 2);
+
+            IntStream.range(0, 10).forEach(i -> record(60, tags("other-service-" + i)));
+
+            assertThat(sampler.getSeriesCount(HISTOGRAM_METRIC)).isEqualTo(3);
+        }
+
+        @Test
+        void measureWithoutHistogramAfterUpdate() {
+            sampler.updateMeasure(HISTOGRAM_METRIC, MetricDefinitionSettings.builder()
+                    .view("my-histogram/histogram", ViewDefinitionSettings.builder()
+                            .aggregation(ViewDefinitionSettings.Aggregation.HISTOGRAM)
+                            .enabled(false)
+                            .build())
+                    .build(), null);
+
+            record(42);
+
+            verifyNoInteractions(measureMap);
+        }
+    }
+
+    @Nested
+    class GetValueRange {
+
+        @Test
+        void valuesBelowOne() {
+            assertThat(ExemplarSampler.getValueRange(0.5)).isEqualTo(0);
+            assertThat(ExemplarSampler.getValueRange(-10)).isEqualTo(0);
+            assertThat(ExemplarSampler.getValueRange(Double.NaN)).isEqualTo(0);
+        }
+
+        @Test
+        void powersOfTwo() {
+            assertThat(ExemplarSampler.getValueRange(1)).isEqualTo(1);
+            assertThat(ExemplarSampler.getValueRange(1.99)).isEqualTo(1);
+            assertThat(ExemplarSampler.getValueRange(2)).isEqualTo(2);
+            assertThat(ExemplarSampler.getValueRange(1023)).isEqualTo(10);
+            assertThat(ExemplarSampler.getValueRange(1024)).isEqualTo(11);
+        }
+
+        @Test
+        void largeValues() {
+            assertThat(ExemplarSampler.getValueRange(1e30)).isEqualTo(ExemplarSampler.VALUE_RANGES - 1);
+            assertThat(ExemplarSampler.getValueRange(Double.POSITIVE_INFINITY)).isEqualTo(ExemplarSampler.VALUE_RANGES - 1);
+        }
+    }
+}
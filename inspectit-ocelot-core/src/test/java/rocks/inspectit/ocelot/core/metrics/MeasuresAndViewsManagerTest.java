@@ -1,9 +1,16 @@
 package rocks.inspectit.ocelot.core.metrics;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import io.opencensus.contrib.exemplar.util.ExemplarUtils;
+import io.opencensus.metrics.data.AttachmentValue;
 import io.opencensus.stats.*;
-import io.opencensus.tags.TagKey;
-import io.opencensus.tags.Tags;
+import io.opencensus.tags.*;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.context.Scope;
 import org.assertj.core.util.Maps;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
@@ -11,9 +18,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import rocks.inspectit.ocelot.config.model.metrics.ExemplarSettings;
+import rocks.inspectit.ocelot.config.model.metrics.MetricsSettings;
 import rocks.inspectit.ocelot.config.model.metrics.definition.MetricDefinitionSettings;
 import rocks.inspectit.ocelot.config.model.metrics.definition.ViewDefinitionSettings;
 import rocks.inspectit.ocelot.core.config.InspectitEnvironment;
+import rocks.inspectit.ocelot.core.metrics.opentelemetry.OpenTelemetryViewManager;
 import rocks.inspectit.ocelot.core.metrics.percentiles.PercentileViewManager;
 import rocks.inspectit.ocelot.core.tags.CommonTagsManager;
 
@@ -43,6 +53,9 @@ public class MeasuresAndViewsManagerTest {
     @Mock
     PercentileViewManager percentileViewManager;
 
+    @Mock
+    OpenTelemetryViewManager openTelemetryViewManager;
+
     private final TagKey[] commonTags = {TagKey.create("common-A"), TagKey.create("common-B")};
 
     @InjectMocks
@@ -74,6 +87,34 @@ public class MeasuresAndViewsManagerTest {
         }
     }
 
+    @Nested
+    class OpenTelemetryBackend {
+
+        @Test
+        void viewsAndRecordingsForwarded() {
+            String metricName = "my-metric";
+            MetricDefinitionSettings metricDefinition = MetricDefinitionSettings.builder()
+                    .unit("my-unit")
+                    .build();
+            when(environment.getCurrentConfig().getMetrics().isEnabled()).thenReturn(true);
+            when(environment.getCurrentConfig()
+                    .getMetrics()
+                    .getBackend()).thenReturn(MetricsSettings.Backend.OPENTELEMETRY);
+            when(environment.getCurrentConfig()
+                    .getMetrics()
+                    .getDefinitions()).thenReturn(Maps.newHashMap(metricName, metricDefinition));
+            when(viewManager.getAllExportedViews()).thenReturn(Collections.emptySet());
+
+            manager.updateMetricDefinitions();
+            manager.tryRecordingMeasurement(metricName, 42.0);
+
+            verify(openTelemetryViewManager).createOrUpdateView(eq(metricName), eq(false), eq("my-unit"), eq(metricName), any(ViewDefinitionSettings.class), any(), any());
+            verify(openTelemetryViewManager).recordMeasurement(metricName, 42.0, Tags.getTagger().getCurrentTagContext());
+            verify(viewManager, never()).registerView(any());
+            verifyNoMoreInteractions(recorder);
+        }
+    }
+
     @Nested
     class RecordingMeasurement {
 
@@ -171,6 +212,60 @@ public class MeasuresAndViewsManagerTest {
 
     }
 
+    @Nested
+    class Exemplars {
+
+        @Mock
+        MeasureMap measureMap;
+
+        private static final String METRIC = "my-histogram";
+
+        @BeforeEach
+        void enableExemplars() {
+            ExemplarSettings exemplars = new ExemplarSettings();
+            exemplars.setEnabled(true);
+            exemplars.setSampleInterval(Duration.ofSeconds(1));
+            when(environment.getCurrentConfig().getMetrics().isEnabled()).thenReturn(true);
+            when(environment.getCurrentConfig().getMetrics().getExemplars()).thenReturn(exemplars);
+            when(environment.getCurrentConfig().getMetrics().getDefinitions()).thenReturn(emptyMap());
+            manager.updateMetricDefinitions();
+
+            doReturn(measureMap).when(recorder).newMeasureMap();
+            MetricDefinitionSettings metricDefinition = MetricDefinitionSettings.builder()
+                    .unit("my-unit")
+                    .view("my-histogram/histogram", ViewDefinitionSettings.builder()
+                            .aggregation(ViewDefinitionSettings.Aggregation.HISTOGRAM)
+                            .bucketBoundaries(Arrays.asList(1.0, 10.0))
+                            .build())
+                    .build()
+                    .getCopyWithDefaultsPopulated(METRIC, Duration.ofMillis(123));
+            manager.addOrUpdateAndCacheMeasureWithViews(METRIC, metricDefinition, emptyMap(), emptyMap());
+        }
+
+        @Test
+        void spanContextAttachedWithinSampledSpan() {
+            SpanContext spanContext = SpanContext.create("0af7651916cd43dd8448eb211c80319c", "b7ad6b7169203331", TraceFlags.getSampled(), TraceState
+                    .getDefault());
+            try (Scope scope = Span.wrap(spanContext).makeCurrent()) {
+                manager.tryRecordingMeasurement(METRIC, 42.0);
+            }
+
+            InOrder inOrder = inOrder(measureMap);
+            inOrder.verify(measureMap).put(any(Measure.MeasureDouble.class), eq(42.0));
+            inOrder.verify(measureMap).putAttachment(eq(ExemplarUtils.ATTACHMENT_KEY_SPAN_CONTEXT), any(AttachmentValue.class));
+            inOrder.verify(measureMap).record(any());
+        }
+
+        @Test
+        void noAttachmentWithoutSpan() {
+            manager.tryRecordingMeasurement(METRIC, 42.0);
+
+            verify(measureMap).put(any(Measure.MeasureDouble.class), eq(42.0));
+            verify(measureMap).record(any());
+            verifyNoMoreInteractions(measureMap);
+        }
+    }
+
     @Nested
     class AddOrUpdateAndCacheMeasureWithViews {
 
@@ -476,4 +571,191 @@ public class MeasuresAndViewsManagerTest {
         }
     }
 
+    @Nested
+    class SeriesLimits {
+
+        @Mock
+        MeasureMap measureMap;
+
+        private static final String METRIC = "my-metric";
+
+        private final TagKey tagKey = TagKey.create("my-tag");
+
+        @BeforeEach
+        void defineMetric() {
+            lenient().doReturn(measureMap).when(recorder).newMeasureMap();
+
+            MetricDefinitionSettings metricDefinition = MetricDefinitionSettings.builder()
+                    .unit("my-unit")
+                    .view("my-view", ViewDefinitionSettings.builder()
+                            .aggregation(ViewDefinitionSettings.Aggregation.SUM)
+                            .tag("my-tag", true)
+                            .maxSeries(2)
+                            .build())
+                    .build()
+                    .getCopyWithDefaultsPopulated(METRIC, Duration.ofMillis(123));
+            manager.addOrUpdateAndCacheMeasureWithViews(METRIC, metricDefinition, emptyMap(), emptyMap());
+        }
+
+        private TagContext tags(String value) {
+            return Tags.getTagger().emptyBuilder().putLocal(tagKey, TagValue.create(value)).build();
+        }
+
+        private String getRecordedTagValue(TagContext tagContext) {
+            Iterator<Tag> tags = InternalUtils.getTags(tagContext);
+            while (tags.hasNext()) {
+                Tag tag = tags.next();
+                if (tag.getKey().equals(tagKey)) {
+                    return tag.getValue().asString();
+                }
+            }
+            return null;
+        }
+
+        @Test
+        void overflowingSeriesRecordedWithMarker() {
+            manager.tryRecordingMeasurement(METRIC, 1.0, tags("a"));
+            manager.tryRecordingMeasurement(METRIC, 1.0, tags("b"));
+            manager.tryRecordingMeasurement(METRIC, 1.0, tags("c"));
+            manager.tryRecordingMeasurement(METRIC, 1.0, tags("a"));
+
+            ArgumentCaptor<TagContext> recordedTags = ArgumentCaptor.forClass(TagContext.class);
+            verify(measureMap, times(4)).record(recordedTags.capture());
+            assertThat(recordedTags.getAllValues()).extracting(this::getRecordedTagValue)
+                    .containsExactly("a", "b", ViewSeriesLimit.OVERFLOW_TAG_VALUE, "a");
+            ArgumentCaptor<TagContext> percentileTags = ArgumentCaptor.forClass(TagContext.class);
+            verify(percentileViewManager, times(4)).recordMeasurement(eq(METRIC), eq(1.0), percentileTags.capture());
+            assertThat(percentileTags.getAllValues()).isEqualTo(recordedTags.getAllValues());
+        }
+
+        @Test
+        void seriesCountAndOverflowsExposed() {
+            manager.tryRecordingMeasurement(METRIC, 1.0, tags("a"));
+            manager.tryRecordingMeasurement(METRIC, 1.0, tags("b"));
+            manager.tryRecordingMeasurement(METRIC, 1.0, tags("c"));
+            manager.tryRecordingMeasurement(METRIC, 1.0, tags("d"));
+
+            assertThat(manager.getSeriesLimits()).hasSize(1);
+            ViewSeriesLimit limit = manager.getSeriesLimits().iterator().next();
+            assertThat(limit.getViewName()).isEqualTo("my-view");
+            assertThat(limit.getSeriesCount()).isEqualTo(2);
+            assertThat(limit.getAndResetOverflowedRecordings()).isEqualTo(2);
+            assertThat(limit.getAndResetOverflowedRecordings()).isZero();
+        }
+
+        @Test
+        void knownSeriesKeptOnUpdate() {
+            manager.tryRecordingMeasurement(METRIC, 1.0, tags("a"));
+            manager.tryRecordingMeasurement(METRIC, 1.0, tags("b"));
+
+            MetricDefinitionSettings updatedDefinition = MetricDefinitionSettings.builder()
+                    .unit("my-unit")
+                    .view("my-view", ViewDefinitionSettings.builder()
+                            .aggregation(ViewDefinitionSettings.Aggregation.SUM)
+                            .tag("my-tag", true)
+                            .maxSeries(3)
+                            .build())
+                    .build()
+                    .getCopyWithDefaultsPopulated(METRIC, Duration.ofMillis(123));
+            manager.addOrUpdateAndCacheMeasureWithViews(METRIC, updatedDefinition, emptyMap(), emptyMap());
+            manager.tryRecordingMeasurement(METRIC, 1.0, tags("c"));
+            manager.tryRecordingMeasurement(METRIC, 1.0, tags("d"));
+
+            ViewSeriesLimit limit = manager.getSeriesLimits().iterator().next();
+            assertThat(limit.getMaxSeries()).isEqualTo(3);
+            assertThat(limit.getSeriesCount()).isEqualTo(3);
+            assertThat(limit.getAndResetOverflowedRecordings()).isEqualTo(1);
+        }
+
+        @Test
+        void commonTagsNotLimited() {
+            when(commonTagsManager.getCommonTagKeys()).thenReturn(Arrays.asList(commonTags));
+            MetricDefinitionSettings metricDefinition = MetricDefinitionSettings.builder()
+                    .unit("my-unit")
+                    .view("common-view", ViewDefinitionSettings.builder().maxSeries(1).build())
+                    .build()
+                    .getCopyWithDefaultsPopulated("common-metric", Duration.ofMillis(123));
+            manager.addOrUpdateAndCacheMeasureWithViews("common-metric", metricDefinition, emptyMap(), emptyMap());
+
+            assertThat(manager.getSeriesLimits()).extracting(ViewSeriesLimit::getViewName)
+                    .containsExactly("my-view");
+        }
+
+        @Test
+        void notLimitedByDefault() {
+            MetricDefinitionSettings metricDefinition = MetricDefinitionSettings.builder()
+                    .unit("my-unit")
+                    .view("unlimited-view", ViewDefinitionSettings.builder().tag("my-tag", true).build())
+                    .build()
+                    .getCopyWithDefaultsPopulated("unlimited-metric", Duration.ofMillis(123));
+            manager.addOrUpdateAndCacheMeasureWithViews("unlimited-metric", metricDefinition, emptyMap(), emptyMap());
+
+            assertThat(manager.getSeriesLimits()).extracting(ViewSeriesLimit::getViewName)
+                    .containsExactly("my-view");
+        }
+
+        @Test
+        void tagsOfUnlimitedViewsKept() {
+            MetricDefinitionSettings metricDefinition = MetricDefinitionSettings.builder()
+                    .unit("my-unit")
+                    .view("my-view", ViewDefinitionSettings.builder()
+                            .aggregation(ViewDefinitionSettings.Aggregation.SUM)
+                            .tag("my-tag", true)
+                            .maxSeries(1)
+                            .build())
+                    .view("unlimited-view", ViewDefinitionSettings.builder()
+                            .aggregation(ViewDefinitionSettings.Aggregation.COUNT)
+                            .tag("my-tag", true)
+                            .build())
+                    .build()
+                    .getCopyWithDefaultsPopulated(METRIC, Duration.ofMillis(123));
+            manager.addOrUpdateAndCacheMeasureWithViews(METRIC, metricDefinition, emptyMap(), emptyMap());
+
+            manager.tryRecordingMeasurement(METRIC, 1.0, tags("a"));
+            manager.tryRecordingMeasurement(METRIC, 1.0, tags("b"));
+
+            ArgumentCaptor<TagContext> recordedTags = ArgumentCaptor.forClass(TagContext.class);
+            verify(measureMap, times(2)).record(recordedTags.capture());
+            assertThat(recordedTags.getAllValues()).extracting(this::getRecordedTagValue).containsExactly("a", "b");
+            assertThat(manager.getSeriesLimits().iterator().next().getAndResetOverflowedRecordings()).isEqualTo(1);
+        }
+
+        @Test
+        void onlyTagsOfOverflowingViewsReplaced() {
+            TagKey otherTagKey = TagKey.create("other-tag");
+            MetricDefinitionSettings metricDefinition = MetricDefinitionSettings.builder()
+                    .unit("my-unit")
+                    .view("my-view", ViewDefinitionSettings.builder()
+                            .aggregation(ViewDefinitionSettings.Aggregation.SUM)
+                            .tag("my-tag", true)
+                            .maxSeries(10)
+                            .build())
+                    .view("detailed-view", ViewDefinitionSettings.builder()
+                            .aggregation(ViewDefinitionSettings.Aggregation.SUM)
+                            .tag("my-tag", true)
+                            .tag("other-tag", true)
+                            .maxSeries(1)
+                            .build())
+                    .build()
+                    .getCopyWithDefaultsPopulated(METRIC, Duration.ofMillis(123));
+            manager.addOrUpdateAndCacheMeasureWithViews(METRIC, metricDefinition, emptyMap(), emptyMap());
+
+            manager.tryRecordingMeasurement(METRIC, 1.0, tags("a"));
+            TagContext overflowing = Tags.getTagger()
+                    .toBuilder(tags("b"))
+                    .putLocal(otherTagKey, TagValue.create("x"))
+                    .build();
+            manager.tryRecordingMeasurement(METRIC, 1.0, overflowing);
+
+            ArgumentCaptor<TagContext> recordedTags = ArgumentCaptor.forClass(TagContext.class);
+            verify(measureMap, times(2)).record(recordedTags.capture());
+            TagContext recorded = recordedTags.getAllValues().get(1);
+            assertThat(getRecordedTagValue(recorded)).isEqualTo("b");
+            assertThat(ImmutableList.copyOf(InternalUtils.getTags(recorded))).anySatisfy(tag -> {
+                assertThat(tag.getKey()).isEqualTo(otherTagKey);
+                assertThat(tag.getValue().asString()).isEqualTo(ViewSeriesLimit.OVERFLOW_TAG_VALUE);
+            });
+        }
+    }
+
 }
@@ -2,6 +2,7 @@ package rocks.inspectit.ocelot.core.metrics.jmx;
 
 import io.opencensus.stats.Measure;
 import io.opencensus.tags.*;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -13,12 +14,20 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import rocks.inspectit.ocelot.config.model.metrics.definition.MetricDefinitionSettings;
 import rocks.inspectit.ocelot.config.model.metrics.definition.ViewDefinitionSettings;
 import rocks.inspectit.ocelot.config.model.metrics.jmx.JmxMetricsRecorderSettings;
+import rocks.inspectit.ocelot.config.model.metrics.jmx.JmxScrapeScheduleSettings;
 import rocks.inspectit.ocelot.core.metrics.MeasuresAndViewsManager;
 import rocks.inspectit.ocelot.core.tags.CommonTagsManager;
 
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,6 +49,10 @@ class JmxMetricsRecorderTest {
         jmxMetricsRecorder = new JmxMetricsRecorder(tagger, measuresManager, commonTagsManager);
     }
 
+    private static JmxScraper.MBeanAttributeKey attribute(String domain, String attrName) {
+        return argThat(attribute -> attribute != null && domain.equals(attribute.getDomain()) && attrName.equals(attribute.getAttrName()));
+    }
+
     @Nested
     class RecordBean {
 
@@ -58,7 +71,7 @@ class JmxMetricsRecorderTest {
             when(measureDoubleMock.getName()).thenReturn(expectedMeasureName);
             when(tagger.currentBuilder()).thenReturn(tagContextBuilder);
 
-            jmxMetricsRecorder.recordBean("my.domain", new LinkedHashMap<>(), new LinkedList<>(), "att", null, "desc", value);
+            jmxMetricsRecorder.recordBean(new JmxScraper.MBeanAttributeKey("my.domain", new LinkedHashMap<>(), new LinkedList<>(), "att"), null, "desc", value);
 
             TagContext tagContext = tagContextBuilder.build();
             assertThat(InternalUtils.getTags(tagContext)).isEmpty();
@@ -77,7 +90,7 @@ class JmxMetricsRecorderTest {
             when(measureDoubleMock.getName()).thenReturn(expectedMeasureName);
             when(tagger.currentBuilder()).thenReturn(tagContextBuilder);
 
-            jmxMetricsRecorder.recordBean("my.domain", new LinkedHashMap<>(), new LinkedList<>(), "attbool", null, "desc", Boolean.TRUE);
+            jmxMetricsRecorder.recordBean(new JmxScraper.MBeanAttributeKey("my.domain", new LinkedHashMap<>(), new LinkedList<>(), "attbool"), null, "desc", Boolean.TRUE);
 
             TagContext tagContext = tagContextBuilder.build();
             assertThat(InternalUtils.getTags(tagContext)).isEmpty();
@@ -96,7 +109,7 @@ class JmxMetricsRecorderTest {
             when(measureDoubleMock.getName()).thenReturn(expectedMeasureName);
             when(tagger.currentBuilder()).thenReturn(tagContextBuilder);
 
-            jmxMetricsRecorder.recordBean("my.domain", new LinkedHashMap<>(), new LinkedList<>(), "attbool", null, "desc", Boolean.FALSE);
+            jmxMetricsRecorder.recordBean(new JmxScraper.MBeanAttributeKey("my.domain", new LinkedHashMap<>(), new LinkedList<>(), "attbool"), null, "desc", Boolean.FALSE);
 
             TagContext tagContext = tagContextBuilder.build();
             assertThat(InternalUtils.getTags(tagContext)).isEmpty();
@@ -117,7 +130,7 @@ class JmxMetricsRecorderTest {
                     .thenReturn(Optional.of(measureDoubleMock));
             when(tagger.currentBuilder()).thenReturn(tagContextBuilder);
 
-            jmxMetricsRecorder.recordBean("my.domain", new LinkedHashMap<>(), new LinkedList<>(), "att", null, "desc", value);
+            jmxMetricsRecorder.recordBean(new JmxScraper.MBeanAttributeKey("my.domain", new LinkedHashMap<>(), new LinkedList<>(), "att"), null, "desc", value);
 
             TagContext tagContext = tagContextBuilder.build();
             assertThat(InternalUtils.getTags(tagContext)).isEmpty();
@@ -154,7 +167,7 @@ class JmxMetricsRecorderTest {
             when(measuresManager.getMeasureDouble(expectedMeasureName)).thenReturn(Optional.of(measureDoubleMock));
             when(tagger.currentBuilder()).thenReturn(tagContextBuilder);
 
-            jmxMetricsRecorder.recordBean("my.domain", beanProps, attributes, "att", null, "desc", value);
+            jmxMetricsRecorder.recordBean(new JmxScraper.MBeanAttributeKey("my.domain", beanProps, attributes, "att"), null, "desc", value);
 
             TagContext tagContext = tagContextBuilder.build();
             assertThat(InternalUtils.getTags(tagContext)).hasSize(2)
@@ -175,14 +188,14 @@ class JmxMetricsRecorderTest {
 
         @Test
         public void valueNegative() {
-            jmxMetricsRecorder.recordBean(null, null, null, null, null, null, -1d);
+            jmxMetricsRecorder.recordBean(null, null, null, -1d);
 
             verifyNoMoreInteractions(measuresManager, commonTagsManager);
         }
 
         @Test
         public void valueNotNumber() {
-            jmxMetricsRecorder.recordBean(null, null, null, null, null, null, "something");
+            jmxMetricsRecorder.recordBean(null, null, null, "something");
 
             verifyNoMoreInteractions(measuresManager, commonTagsManager);
         }
@@ -199,7 +212,7 @@ class JmxMetricsRecorderTest {
         JmxScraper.MBeanReceiver receiver;
 
         @Captor
-        ArgumentCaptor<LinkedHashMap<String, String>> beanPropsCaptor;
+        ArgumentCaptor<JmxScraper.MBeanAttributeKey> attributeCaptor;
 
         @BeforeEach
         public void init() {
@@ -211,7 +224,7 @@ class JmxMetricsRecorderTest {
             JmxScraper scraper = JmxMetricsRecorder.createScraper(settings, receiver);
             scraper.doScrape();
 
-            verify(receiver, atLeastOnce()).recordBean(notNull(), notNull(), notNull(), notNull(), notNull(), notNull(), notNull());
+            verify(receiver, atLeastOnce()).recordBean(notNull(), notNull(), notNull(), notNull());
         }
 
         @Test
@@ -221,8 +234,8 @@ class JmxMetricsRecorderTest {
             JmxScraper scraper = JmxMetricsRecorder.createScraper(settings, receiver);
             scraper.doScrape();
 
-            verify(receiver, atLeastOnce()).recordBean(eq("java.lang"), beanPropsCaptor.capture(), notNull(), notNull(), notNull(), notNull(), notNull());
-            assertThat(beanPropsCaptor.getAllValues()).allSatisfy(map -> assertThat(map)
+            verify(receiver, atLeastOnce()).recordBean(attributeCaptor.capture(), notNull(), notNull(), notNull());
+            assertThat(attributeCaptor.getAllValues()).allSatisfy(attribute -> assertThat(attribute.getBeanProperties())
                     .hasSize(1)
                     .containsEntry("type", "ClassLoading")
             );
@@ -235,8 +248,8 @@ class JmxMetricsRecorderTest {
             JmxScraper scraper = JmxMetricsRecorder.createScraper(settings, receiver);
             scraper.doScrape();
 
-            verify(receiver, atLeastOnce()).recordBean(eq("java.lang"), beanPropsCaptor.capture(), notNull(), notNull(), notNull(), notNull(), notNull());
-            assertThat(beanPropsCaptor.getAllValues()).allSatisfy(map -> assertThat(map).doesNotContainEntry("type", "ClassLoading"));
+            verify(receiver, atLeastOnce()).recordBean(attributeCaptor.capture(), notNull(), notNull(), notNull());
+            assertThat(attributeCaptor.getAllValues()).allSatisfy(attribute -> assertThat(attribute.getBeanProperties()).doesNotContainEntry("type", "ClassLoading"));
         }
 
         @Test
@@ -249,12 +262,305 @@ class JmxMetricsRecorderTest {
             JmxScraper scraper = JmxMetricsRecorder.createScraper(settings, receiver);
             scraper.doScrape();
 
-            verify(receiver, atLeastOnce()).recordBean(eq("java.lang"), beanPropsCaptor.capture(), notNull(), notNull(), notNull(), notNull(), notNull());
-            assertThat(beanPropsCaptor.getAllValues()).allSatisfy(map -> assertThat(map)
+            verify(receiver, atLeastOnce()).recordBean(attributeCaptor.capture(), notNull(), notNull(), notNull());
+            assertThat(attributeCaptor.getAllValues()).allSatisfy(attribute -> assertThat(attribute.getBeanProperties())
                     .doesNotContainEntry("type", "Runtime")
             );
         }
 
     }
 
-}
\ No newline at end of file
+    @Nested
+    class ScrapePlan {
+
+        @Mock
+        JmxScraper.MBeanReceiver receiver;
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        ObjectName objectName;
+
+        JmxScraper scraper;
+
+        @BeforeEach
+        public void init() throws Exception {
+            objectName = new ObjectName("rocks.inspectit.test:type=ScrapePlan");
+            scraper = new JmxScraper(Collections.singletonList(new ObjectName("rocks.inspectit.test:*")), Collections.emptyList(), receiver, true);
+        }
+
+        @AfterEach
+        public void cleanup() throws Exception {
+            scraper.close();
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        }
+
+        @Test
+        public void registeredMBeanScraped() throws Exception {
+            scraper.doScrape();
+            verifyNoInteractions(receiver);
+
+            server.registerMBean(new SingleAttributeMBean(42L), objectName);
+            scraper.doScrape();
+
+            verify(receiver).recordBean(attribute("rocks.inspectit.test", "Value"), any(), any(), eq(42L));
+            verifyNoMoreInteractions(receiver);
+        }
+
+        @Test
+        public void unregisteredMBeanNotScraped() throws Exception {
+            server.registerMBean(new SingleAttributeMBean(42L), objectName);
+            scraper.doScrape();
+            verify(receiver).recordBean(attribute("rocks.inspectit.test", "Value"), any(), any(), eq(42L));
+
+            server.unregisterMBean(objectName);
+            scraper.doScrape();
+
+            verifyNoMoreInteractions(receiver);
+        }
+
+        @Test
+        public void attributeKeyReused() throws Exception {
+            server.registerMBean(new SingleAttributeMBean(42L), objectName);
+            ArgumentCaptor<JmxScraper.MBeanAttributeKey> attributeCaptor = ArgumentCaptor.forClass(JmxScraper.MBeanAttributeKey.class);
+
+            scraper.doScrape();
+            scraper.doScrape();
+
+            verify(receiver, times(2)).recordBean(attributeCaptor.capture(), any(), any(), eq(42L));
+            assertThat(attributeCaptor.getAllValues().get(0)).isSameAs(attributeCaptor.getAllValues().get(1));
+        }
+
+    }
+
+    @Nested
+    class ParallelScrape {
+
+        @Mock
+        JmxScraper.MBeanReceiver receiver;
+
+        MBeanServer server;
+
+        CountDownLatch release = new CountDownLatch(1);
+
+        JmxScraper scraper;
+
+        @BeforeEach
+        public void init() throws Exception {
+            server = MBeanServerFactory.createMBeanServer();
+            server.registerMBean(new SingleAttributeMBean(42L), new ObjectName("rocks.inspectit.parallel:type=Fast"));
+        }
+
+        @AfterEach
+        public void cleanup() {
+            release.countDown();
+            if (scraper != null) {
+                scraper.close();
+            }
+            MBeanServerFactory.releaseMBeanServer(server);
+        }
+
+        private JmxScraper createScraper(int threads, Duration mbeanTimeout, Map<String, JmxScrapeScheduleSettings> schedules) {
+            JmxMetricsRecorderSettings settings = new JmxMetricsRecorderSettings();
+            settings.setFrequency(Duration.ofSeconds(15));
+            settings.setObjectNames(Collections.singletonMap("rocks.inspectit.parallel:*", true));
+            settings.setThreads(threads);
+            settings.setMbeanTimeout(mbeanTimeout);
+            settings.setSchedules(schedules);
+            return JmxMetricsRecorder.createScraper(settings, receiver);
+        }
+
+        private JmxScraper.ScrapeSchedule getSchedule(String name) {
+            return scraper.getSchedules()
+                    .stream()
+                    .filter(schedule -> schedule.getName().equals(name))
+                    .findFirst()
+                    .orElseThrow(IllegalStateException::new);
+        }
+
+        private JmxScrapeScheduleSettings schedule(Duration frequency, Duration timeBudget) {
+            JmxScrapeScheduleSettings schedule = new JmxScrapeScheduleSettings();
+            schedule.setFrequency(frequency);
+            schedule.setTimeBudget(timeBudget);
+            return schedule;
+        }
+
+        @Test
+        public void slowMBeanSkippedUntilResponded() throws Exception {
+            SlowMBean slowMBean = new SlowMBean(release);
+            server.registerMBean(slowMBean, new ObjectName("rocks.inspectit.parallel:type=Slow"));
+            scraper = createScraper(2, Duration.ofMillis(100), null);
+
+            scraper.doScrape();
+
+            verify(receiver).recordBean(attribute("rocks.inspectit.parallel", "Value"), any(), any(), eq(42L));
+            verify(receiver, never()).recordBean(any(), any(), any(), eq(7L));
+            assertThat(getSchedule(JmxScraper.DEFAULT_SCHEDULE_NAME).getSkippedMBeans()).isEqualTo(1);
+
+            // the timed out fetch is interrupted, but the mbean does not respond to the interrupt
+            await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> assertThat(slowMBean.getInterrupts()).isEqualTo(1));
+
+            // the pending fetch is not repeated
+            scraper.doScrape();
+
+            assertThat(getSchedule(JmxScraper.DEFAULT_SCHEDULE_NAME).getSkippedMBeans()).isEqualTo(1);
+            assertThat(slowMBean.getFetches()).isEqualTo(1);
+
+            release.countDown();
+            await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> {
+                scraper.doScrape();
+                verify(receiver).recordBean(attribute("rocks.inspectit.parallel", "Value"), any(), any(), eq(7L));
+            });
+            assertThat(getSchedule(JmxScraper.DEFAULT_SCHEDULE_NAME).getSkippedMBeans()).isZero();
+        }
+
+        @Test
+        public void timeoutStartsWithSubmission() throws Exception {
+            for (int i = 0; i < 4; i++) {
+                server.registerMBean(new SlowMBean(release), new ObjectName("rocks.inspectit.parallel:type=Slow,name=" + i));
+            }
+            scraper = createScraper(2, Duration.ofMillis(300), null);
+
+            scraper.doScrape();
+
+            // the fetches time out concurrently instead of one after another
+            assertThat(getSchedule(JmxScraper.DEFAULT_SCHEDULE_NAME).getSkippedMBeans()).isGreaterThanOrEqualTo(4);
+            assertThat(getSchedule(JmxScraper.DEFAULT_SCHEDULE_NAME).getScrapeDuration()).isLessThan(Duration.ofMillis(900));
+        }
+
+        @Test
+        public void timeBudgetExceeded() throws Exception {
+            server.registerMBean(new SlowMBean(release), new ObjectName("rocks.inspectit.parallel:type=Slow,name=first"));
+            server.registerMBean(new SlowMBean(release), new ObjectName("rocks.inspectit.parallel:type=Slow,name=second"));
+            String slowPattern = "rocks.inspectit.parallel:type=Slow,*";
+            scraper = createScraper(3, Duration.ofSeconds(30), Collections.singletonMap(slowPattern, schedule(null, Duration.ofMillis(100))));
+
+            scraper.doScrape();
+
+            verify(receiver).recordBean(attribute("rocks.inspectit.parallel", "Value"), any(), any(), eq(42L));
+            verifyNoMoreInteractions(receiver);
+            assertThat(getSchedule(slowPattern).getSkippedMBeans()).isEqualTo(2);
+            assertThat(getSchedule(slowPattern).getScrapeDuration()).isLessThan(Duration.ofSeconds(30));
+            assertThat(getSchedule(JmxScraper.DEFAULT_SCHEDULE_NAME).getSkippedMBeans()).isZero();
+        }
+
+        @Test
+        public void scheduleFrequency() throws Exception {
+            server.registerMBean(new SingleAttributeMBean(7L), new ObjectName("rocks.inspectit.parallel:type=Rare"));
+            String rarePattern = "rocks.inspectit.parallel:type=Rare";
+            scraper = createScraper(2, Duration.ofSeconds(5), Collections.singletonMap(rarePattern, schedule(Duration.ofSeconds(40), null)));
+
+            for (int i = 0; i < 4; i++) {
+                scraper.doScrape();
+            }
+
+            // 40s are rounded up to every third scrape
+            verify(receiver, times(4)).recordBean(attribute("rocks.inspectit.parallel", "Value"), any(), any(), eq(42L));
+            verify(receiver, times(2)).recordBean(attribute("rocks.inspectit.parallel", "Value"), any(), any(), eq(7L));
+            assertThat(getSchedule(rarePattern).isDue()).isTrue();
+        }
+    }
+
+    /**
+     * A dynamic MBean exposing a single numeric attribute named "Value" and a string attribute named "Name".
+     */
+    private static class SingleAttributeMBean implements DynamicMBean {
+
+        private final long value;
+
+        SingleAttributeMBean(long value) {
+            this.value = value;
+        }
+
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            if ("Value".equals(attribute)) {
+                return value;
+            } else if ("Name".equals(attribute)) {
+                return "name";
+            }
+            throw new AttributeNotFoundException(attribute);
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            AttributeList result = new AttributeList();
+            for (String attribute : attributes) {
+                try {
+                    result.add(new Attribute(attribute, getAttribute(attribute)));
+                } catch (AttributeNotFoundException e) {
+                    // skip unknown attributes
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            MBeanAttributeInfo[] attributes = {new MBeanAttributeInfo("Value", "long", "the value", true, false, false), new MBeanAttributeInfo("Name", String.class.getName(), "the name", true, false, false)};
+            return new MBeanInfo(SingleAttributeMBean.class.getName(), "test mbean", attributes, null, null, null);
+        }
+    }
+
+    /**
+     * A {@link SingleAttributeMBean} with the value 7, whose attributes are only returned after the given latch has been released.
+     * Interrupts are counted but do not make the mbean respond earlier.
+     */
+    private static class SlowMBean extends SingleAttributeMBean {
+
+        private final CountDownLatch release;
+
+        private final AtomicInteger fetches = new AtomicInteger();
+
+        private final AtomicInteger interrupts = new AtomicInteger();
+
+        SlowMBean(CountDownLatch release) {
+            super(7L);
+            this.release = release;
+        }
+
+        int getFetches() {
+            return fetches.get();
+        }
+
+        int getInterrupts() {
+            return interrupts.get();
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            fetches.incrementAndGet();
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    release.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupts.incrementAndGet();
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            return super.getAttributes(attributes);
+        }
+    }
+
+}
@@ -0,0 +1,250 @@
+package rocks.inspectit.ocelot.core.metrics.opentelemetry;
+
+import io.opencensus.tags.TagContext;
+import io.opencensus.tags.TagKey;
+import io.opencensus.tags.TagValue;
+import io.opencensus.tags.Tags;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.SdkMeterProviderBuilder;
+import io.opentelemetry.sdk.metrics.data.DoublePointData;
+import io.opentelemetry.sdk.metrics.data.HistogramPointData;
+import io.opentelemetry.sdk.metrics.data.LongPointData;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.testing.exporter.InMemoryMetricReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import rocks.inspectit.ocelot.config.model.metrics.definition.ViewDefinitionSettings;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+
+public class OpenTelemetryViewManagerTest {
+
+    private static final TagKey TAG_A = TagKey.create("tag_a");
+
+    private static final TagKey TAG_B = TagKey.create("tag_b");
+
+    private OpenTelemetryViewManager viewManager;
+
+    private InMemoryMetricReader metricReader;
+
+    private SdkMeterProvider meterProvider;
+
+    @BeforeEach
+    void setup() {
+        viewManager = new OpenTelemetryViewManager();
+    }
+
+    @AfterEach
+    void shutdown() {
+        if (meterProvider != null) {
+            meterProvider.shutdown();
+        }
+    }
+
+    private void buildMeterProvider() {
+        metricReader = InMemoryMetricReader.create();
+        SdkMeterProviderBuilder builder = SdkMeterProvider.builder().registerMetricReader(metricReader);
+        viewManager.registerViews(builder);
+        meterProvider = builder.build();
+        viewManager.setMeterProvider(meterProvider);
+    }
+
+    private Optional<MetricData> getMetric(String name) {
+        Collection<MetricData> metrics = metricReader.collectAllMetrics();
+        return metrics.stream().filter(metric -> metric.getName().equals(name)).findFirst();
+    }
+
+    private ViewDefinitionSettings view(ViewDefinitionSettings.Aggregation aggregation) {
+        return ViewDefinitionSettings.builder()
+                .description("desc")
+                .aggregation(aggregation)
+                .bucketBoundaries(Arrays.asList(10.0, 100.0))
+                .build();
+    }
+
+    private TagContext tags(String a, String b) {
+        return Tags.getTagger()
+                .emptyBuilder()
+                .putLocal(TAG_A, TagValue.create(a))
+                .putLocal(TAG_B, TagValue.create(b))
+                .build();
+    }
+
+    @Nested
+    class RecordMeasurement {
+
+        @Test
+        void sumWithViewTags() {
+            viewManager.createOrUpdateView("my/measure", true, "ms", "my/view", view(ViewDefinitionSettings.Aggregation.SUM), Collections.singleton(TAG_A), null);
+            buildMeterProvider();
+
+            viewManager.recordMeasurement("my/measure", 5L, tags("a1", "b1"));
+            viewManager.recordMeasurement("my/measure", 7L, tags("a1", "b2"));
+            viewManager.recordMeasurement("my/measure", 1L, tags("a2", "b1"));
+
+            MetricData metric = getMetric("my_view").get();
+            assertThat(metric.getLongSumData().getPoints()).extracting(LongPointData::getAttributes, LongPointData::getValue)
+                    .containsExactlyInAnyOrder(tuple(Attributes.of(AttributeKey.stringKey("tag_a"), "a1"), 12L),
+                            tuple(Attributes.of(AttributeKey.stringKey("tag_a"), "a2"), 1L));
+        }
+
+        @Test
+        void histogramWithBuckets() {
+            viewManager.createOrUpdateView("my/measure", false, "ms", "my/view", view(ViewDefinitionSettings.Aggregation.HISTOGRAM), Arrays.asList(TAG_A, TAG_B), null);
+            buildMeterProvider();
+
+            viewManager.recordMeasurement("my/measure", 5.0, tags("a", "b"));
+            viewManager.recordMeasurement("my/measure", 50.0, tags("a", "b"));
+            viewManager.recordMeasurement("my/measure", 500.0, tags("a", "b"));
+
+            HistogramPointData point = getMetric("my_view").get().getHistogramData().getPoints().iterator().next();
+            assertThat(point.getBoundaries()).containsExactly(10.0, 100.0);
+            assertThat(point.getCounts()).containsExactly(1L, 1L, 1L);
+            assertThat(point.getAttributes()).isEqualTo(Attributes.of(AttributeKey.stringKey("tag_a"), "a", AttributeKey.stringKey("tag_b"), "b"));
+        }
+
+        @Test
+        void lastValueKeptAcrossMeterProviders() {
+            viewManager.createOrUpdateView("my/measure", false, "ms", "my/view", view(ViewDefinitionSettings.Aggregation.LAST_VALUE), Collections.emptyList(), null);
+            buildMeterProvider();
+
+            viewManager.recordMeasurement("my/measure", 3.0, tags("a", "b"));
+            viewManager.recordMeasurement("my/measure", 4.0, tags("a", "b"));
+            meterProvider.shutdown();
+            buildMeterProvider();
+
+            DoublePointData point = getMetric("my_view").get().getDoubleGaugeData().getPoints().iterator().next();
+            assertThat(point.getValue()).isEqualTo(4.0);
+            assertThat(point.getAttributes()).isEqualTo(Attributes.empty());
+        }
+
+        @Test
+        void lastValuesLimitedBySeriesLimit() {
+            viewManager.createOrUpdateView("my/measure", false, "ms", "my/view", view(ViewDefinitionSettings.Aggregation.LAST_VALUE), Collections.singleton(TAG_A), 1);
+            buildMeterProvider();
+
+            viewManager.recordMeasurement("my/measure", 1.0, tags("a", "b"));
+            viewManager.recordMeasurement("my/measure", 2.0, tags("overflow", "b"));
+            viewManager.recordMeasurement("my/measure", 3.0, tags("dropped", "b"));
+            viewManager.recordMeasurement("my/measure", 4.0, tags("a", "b"));
+
+            // the series limit plus the overflow series
+            assertThat(getMetric("my_view").get().getDoubleGaugeData().getPoints()).extracting(DoublePointData::getAttributes, DoublePointData::getValue)
+                    .containsExactlyInAnyOrder(tuple(Attributes.of(AttributeKey.stringKey("tag_a"), "a"), 4.0), tuple(Attributes.of(AttributeKey.stringKey("tag_a"), "overflow"), 2.0));
+        }
+
+        @Test
+        void countAndSumOfSameMeasure() {
+            viewManager.createOrUpdateView("my/measure", false, "ms", "my/count", view(ViewDefinitionSettings.Aggregation.COUNT), Collections.singleton(TAG_B), null);
+            viewManager.createOrUpdateView("my/measure", false, "ms", "my/sum", view(ViewDefinitionSettings.Aggregation.SUM), Collections.singleton(TAG_A), null);
+            buildMeterProvider();
+
+            viewManager.recordMeasurement("my/measure", 2.5, tags("a", "b"));
+            viewManager.recordMeasurement("my/measure", 1.5, tags("a", "b"));
+
+            assertThat(getMetric("my_count").get().getLongSumData().getPoints()).extracting(LongPointData::getValue)
+                    .containsExactly(2L);
+            assertThat(getMetric("my_sum").get().getDoubleSumData().getPoints()).extracting(DoublePointData::getValue)
+                    .containsExactly(4.0);
+        }
+
+        @Test
+        void recordingBeforeMeterProviderIsDropped() {
+            viewManager.createOrUpdateView("my/measure", true, "ms", "my/view", view(ViewDefinitionSettings.Aggregation.SUM), Collections.emptyList(), null);
+
+            viewManager.recordMeasurement("my/measure", 5L, tags("a", "b"));
+            buildMeterProvider();
+
+            assertThat(getMetric("my_view")).isEmpty();
+        }
+
+        @Test
+        void unknownMeasure() {
+            buildMeterProvider();
+
+            viewManager.recordMeasurement("unknown", 5L, tags("a", "b"));
+
+            assertThat(metricReader.collectAllMetrics()).isEmpty();
+        }
+    }
+
+    @Nested
+    class CreateOrUpdateView {
+
+        @Test
+        void viewReplaced() {
+            viewManager.createOrUpdateView("my/measure", true, "ms", "my/view", view(ViewDefinitionSettings.Aggregation.SUM), Collections.singleton(TAG_A), null);
+            viewManager.createOrUpdateView("my/measure", true, "ms", "my/view", view(ViewDefinitionSettings.Aggregation.SUM), Collections.singleton(TAG_B), null);
+            buildMeterProvider();
+
+            viewManager.recordMeasurement("my/measure", 5L, tags("a", "b"));
+
+            assertThat(viewManager.isViewRegistered("my/measure", "my/view")).isTrue();
+            assertThat(getMetric("my_view").get().getLongSumData().getPoints()).extracting(LongPointData::getAttributes)
+                    .containsExactly(Attributes.of(AttributeKey.stringKey("tag_b"), "b"));
+        }
+
+        @Test
+        void gaugeOfReplacedViewClosed() {
+            viewManager.createOrUpdateView("my/measure", false, "ms", "my/view", view(ViewDefinitionSettings.Aggregation.LAST_VALUE), Collections.singleton(TAG_A), null);
+            buildMeterProvider();
+            viewManager.recordMeasurement("my/measure", 3.0, tags("a", "b"));
+
+            viewManager.createOrUpdateView("my/measure", false, "ms", "my/view", view(ViewDefinitionSettings.Aggregation.LAST_VALUE), Collections.singleton(TAG_B), null);
+            viewManager.recordMeasurement("my/measure", 4.0, tags("a", "b"));
+
+            assertThat(getMetric("my_view").get().getDoubleGaugeData().getPoints()).extracting(DoublePointData::getAttributes, DoublePointData::getValue)
+                    .containsExactly(tuple(Attributes.of(AttributeKey.stringKey("tag_b"), "b"), 4.0));
+        }
+
+        @Test
+        void conflictingInstrumentNameIgnored() {
+            viewManager.createOrUpdateView("my/measure", true, "ms", "my/view", view(ViewDefinitionSettings.Aggregation.SUM), Collections.emptyList(), null);
+            viewManager.createOrUpdateView("other/measure", true, "ms", "my_view", view(ViewDefinitionSettings.Aggregation.SUM), Collections.emptyList(), null);
+
+            assertThat(viewManager.isViewRegistered("my/measure", "my/view")).isTrue();
+            assertThat(viewManager.isViewRegistered("other/measure", "my_view")).isFalse();
+        }
+
+        @Test
+        void isViewRegistered() {
+            viewManager.createOrUpdateView("my/measure", true, "ms", "my/view", view(ViewDefinitionSettings.Aggregation.SUM), Collections.emptyList(), null);
+
+            assertThat(viewManager.isViewRegistered("my/measure", "my/view")).isTrue();
+            assertThat(viewManager.isViewRegistered("my/measure", "other/view")).isFalse();
+            assertThat(viewManager.isViewRegistered("other/measure", "my/view")).isFalse();
+        }
+    }
+
+    @Nested
+    class ToInstrumentName {
+
+        @Test
+        void invalidCharactersReplaced() {
+            assertThat(OpenTelemetryView.toInstrumentName("http/in/responsetime")).isEqualTo("http_in_responsetime");
+            assertThat(OpenTelemetryView.toInstrumentName("jvm.memory-used")).isEqualTo("jvm.memory-used");
+        }
+
+        @Test
+        void leadingNonLetter() {
+            assertThat(OpenTelemetryView.toInstrumentName("[my]view")).isEqualTo("m__my_view");
+        }
+
+        @Test
+        void tooLong() {
+            String name = String.join("", Collections.nCopies(100, "a"));
+
+            assertThat(OpenTelemetryView.toInstrumentName(name)).hasSize(63);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package rocks.inspectit.ocelot.core.metrics.system;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import io.opencensus.tags.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import rocks.inspectit.ocelot.config.model.metrics.StandardMetricsSettings;
+import rocks.inspectit.ocelot.core.metrics.MeasuresAndViewsManager;
+import rocks.inspectit.ocelot.core.selfmonitoring.SelfMonitoringService;
+import rocks.inspectit.ocelot.core.tags.CommonTagsManager;
+
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class GCMetricsRecorderTest {
+
+    /**
+     * A notification of a real garbage collection, which is used for all tests.
+     */
+    private static CompositeData gcNotification;
+
+    @InjectMocks
+    GCMetricsRecorder recorder;
+
+    @Mock
+    Tagger tagger;
+
+    @Mock
+    MeasuresAndViewsManager measureManager;
+
+    @Mock
+    CommonTagsManager commonTags;
+
+    @Mock
+    SelfMonitoringService selfMonitoringService;
+
+    @BeforeAll
+    static void captureGcNotification() throws Exception {
+        AtomicReference<CompositeData> notification = new AtomicReference<>();
+        NotificationListener listener = (n, handback) -> {
+            if (n.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+                CompositeData data = (CompositeData) n.getUserData();
+                if (!"No GC".equals(data.get("gcCause"))) {
+                    notification.compareAndSet(null, data);
+                }
+            }
+        };
+        List<NotificationEmitter> emitters = ManagementFactory.getGarbageCollectorMXBeans()
+                .stream()
+                .filter(NotificationEmitter.class::isInstance)
+                .map(NotificationEmitter.class::cast)
+                .collect(Collectors.toList());
+        emitters.forEach(emitter -> emitter.addNotificationListener(listener, null, null));
+        try {
+            System.gc();
+            await().atMost(15, TimeUnit.SECONDS).until(() -> notification.get() != null);
+        } finally {
+            for (NotificationEmitter emitter : emitters) {
+                emitter.removeNotificationListener(listener);
+            }
+        }
+        gcNotification = notification.get();
+    }
+
+    @BeforeEach
+    void setup() {
+        lenient().when(commonTags.getCommonTagContext()).thenReturn(Tags.getTagger().emptyBuilder().build());
+        lenient().when(tagger.toBuilder(any())).thenAnswer(invocation -> Tags.getTagger()
+                .toBuilder(invocation.getArgument(0)));
+        ReflectionTestUtils.invokeMethod(recorder, "initPoolProperties");
+    }
+
+    private void enable(String... metrics) {
+        Map<String, Boolean> enabled = new HashMap<>();
+        for (String metric : metrics) {
+            enabled.put(metric, true);
+        }
+        StandardMetricsSettings settings = new StandardMetricsSettings();
+        settings.setEnabled(enabled);
+        ReflectionTestUtils.setField(recorder, "config", settings);
+    }
+
+    private static long getDuration() {
+        return (Long) ((CompositeData) gcNotification.get("gcInfo")).get("duration");
+    }
+
+    private static Map<String, String> toMap(TagContext tagContext) {
+        Map<String, String> result = new HashMap<>();
+        InternalUtils.getTags(tagContext)
+                .forEachRemaining(tag -> result.put(tag.getKey().getName(), tag.getValue().asString()));
+        return result;
+    }
+
+    private TagContext verifyRecorded(String measureName, int times) {
+        ArgumentCaptor<TagContext> tags = ArgumentCaptor.forClass(TagContext.class);
+        verify(measureManager, times(times)).tryRecordingMeasurement(eq(measureName), eq(getDuration()), tags.capture());
+        return tags.getValue();
+    }
+
+    @Nested
+    class RecordGarbageCollection {
+
+        @Test
+        void pauseRecordedWithTags() {
+            enable("pause");
+
+            recorder.recordGarbageCollection(gcNotification);
+
+            TagContext tags = verifyRecorded("jvm/gc/pause", 1);
+            assertThat(toMap(tags)).containsEntry("gc", (String) gcNotification.get("gcName"))
+                    .containsEntry("phase", "pause")
+                    .containsEntry("action", (String) gcNotification.get("gcAction"))
+                    .containsEntry("cause", (String) gcNotification.get("gcCause"));
+        }
+
+        @Test
+        void tagContextCached() {
+            enable("pause");
+
+            recorder.recordGarbageCollection(gcNotification);
+            recorder.recordGarbageCollection(gcNotification);
+
+            verifyRecorded("jvm/gc/pause", 2);
+            verify(tagger, times(1)).toBuilder(any());
+        }
+
+        @Test
+        void tagContextRebuiltOnCommonTagsChange() {
+            enable("pause");
+            recorder.recordGarbageCollection(gcNotification);
+
+            TagKey service = TagKey.create("service");
+            when(commonTags.getCommonTagContext()).thenReturn(Tags.getTagger()
+                    .emptyBuilder()
+                    .putLocal(service, TagValue.create("my-service"))
+                    .build());
+            recorder.recordGarbageCollection(gcNotification);
+
+            TagContext tags = verifyRecorded("jvm/gc/pause", 2);
+            assertThat(toMap(tags)).containsEntry("service", "my-service");
+            verify(tagger, times(2)).toBuilder(any());
+        }
+
+        @Test
+        void phaseHistogram() {
+            enable("phase.histogram");
+
+            recorder.recordGarbageCollection(gcNotification);
+
+            TagContext tags = verifyRecorded("jvm/gc/phase/duration", 1);
+            assertThat(toMap(tags)).containsEntry("phase", "pause");
+            verify(measureManager, never()).tryRecordingMeasurement(eq("jvm/gc/pause"), any(), any());
+        }
+
+        @Test
+        void timesDisabled() {
+            enable();
+
+            recorder.recordGarbageCollection(gcNotification);
+
+            verifyNoInteractions(tagger);
+            verify(measureManager, never()).tryRecordingMeasurement(eq("jvm/gc/pause"), any(), any());
+            verify(measureManager, never()).tryRecordingMeasurement(eq("jvm/gc/phase/duration"), any(), any());
+        }
+    }
+}
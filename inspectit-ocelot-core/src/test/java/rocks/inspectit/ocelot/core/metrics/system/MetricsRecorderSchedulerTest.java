@@ -0,0 +1,176 @@
+package rocks.inspectit.ocelot.core.metrics.system;
+
+import io.opencensus.common.Scope;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import rocks.inspectit.ocelot.core.selfmonitoring.SelfMonitoringService;
+import rocks.inspectit.ocelot.core.tags.CommonTagsManager;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MetricsRecorderSchedulerTest {
+
+    @Mock
+    ScheduledExecutorService executor;
+
+    @Mock
+    CommonTagsManager commonTags;
+
+    @Mock
+    SelfMonitoringService selfMonitoringService;
+
+    @Mock
+    ScheduledFuture tickFuture;
+
+    @Mock
+    Scope tagScope;
+
+    private MetricsRecorderScheduler scheduler;
+
+    @BeforeEach
+    void setup() {
+        scheduler = new MetricsRecorderScheduler(executor, commonTags, selfMonitoringService);
+        lenient().when(executor.scheduleWithFixedDelay(any(), anyLong(), anyLong(), any())).thenReturn(tickFuture);
+        lenient().when(commonTags.withCommonTagScope()).thenReturn(tagScope);
+        lenient().when(selfMonitoringService.withDurationSelfMonitoring(any())).thenReturn(mock(Scope.class));
+    }
+
+    /**
+     * @return the task of the tick with the given period
+     */
+    private Runnable getTick(long periodMillis) {
+        ArgumentCaptor<Runnable> tick = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).scheduleWithFixedDelay(tick.capture(), eq(0L), eq(periodMillis), eq(TimeUnit.MILLISECONDS));
+        return tick.getValue();
+    }
+
+    @Nested
+    class Schedule {
+
+        @Test
+        void equalFrequenciesCoalesced() {
+            Runnable first = mock(Runnable.class);
+            Runnable second = mock(Runnable.class);
+
+            scheduler.schedule("first", Duration.ofSeconds(15), first);
+            scheduler.schedule("second", Duration.ofSeconds(15), second);
+            getTick(15000).run();
+
+            verify(executor, times(1)).scheduleWithFixedDelay(any(), anyLong(), anyLong(), any());
+            verify(first).run();
+            verify(second).run();
+            verify(commonTags, times(1)).withCommonTagScope();
+            verify(tagScope).close();
+            verify(selfMonitoringService).withDurationSelfMonitoring("first");
+            verify(selfMonitoringService).withDurationSelfMonitoring("second");
+        }
+
+        @Test
+        void joiningRecorderMeasuredImmediately() {
+            Runnable first = mock(Runnable.class);
+            Runnable second = mock(Runnable.class);
+            scheduler.schedule("first", Duration.ofSeconds(15), first);
+
+            scheduler.schedule("second", Duration.ofSeconds(15), second);
+
+            ArgumentCaptor<Runnable> immediate = ArgumentCaptor.forClass(Runnable.class);
+            verify(executor).execute(immediate.capture());
+            immediate.getValue().run();
+            verify(second).run();
+            verifyNoInteractions(first);
+        }
+
+        @Test
+        void differentFrequencies() {
+            Runnable first = mock(Runnable.class);
+            Runnable second = mock(Runnable.class);
+
+            scheduler.schedule("first", Duration.ofSeconds(15), first);
+            scheduler.schedule("second", Duration.ofSeconds(30), second);
+            getTick(30000).run();
+
+            verify(second).run();
+            verifyNoInteractions(first);
+        }
+
+        @Test
+        void failingMeasurementDoesNotAffectOthers() {
+            Runnable failing = mock(Runnable.class);
+            doThrow(new RuntimeException()).when(failing).run();
+            Runnable other = mock(Runnable.class);
+
+            scheduler.schedule("failing", Duration.ofSeconds(15), failing);
+            scheduler.schedule("other", Duration.ofSeconds(15), other);
+            getTick(15000).run();
+
+            verify(other).run();
+        }
+
+        @Test
+        void overrunReported() {
+            scheduler.schedule("slow", Duration.ofMillis(1), () -> {
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            Runnable tick = getTick(1);
+
+            tick.run();
+            tick.run();
+
+            verify(selfMonitoringService, times(2)).recordMeasurement(MetricsRecorderScheduler.OVERRUNS_MEASURE_NAME, 1L, Collections
+                    .singletonMap("component-name", "slow"));
+        }
+
+        @Test
+        void noOverrun() {
+            scheduler.schedule("fast", Duration.ofSeconds(15), mock(Runnable.class));
+
+            getTick(15000).run();
+
+            verify(selfMonitoringService, never()).recordMeasurement(anyString(), anyLong(), anyMap());
+        }
+    }
+
+    @Nested
+    class Cancel {
+
+        @Test
+        void lastRecorderCancelsTick() {
+            scheduler.schedule("first", Duration.ofSeconds(15), mock(Runnable.class)).cancel();
+            scheduler.schedule("second", Duration.ofSeconds(15), mock(Runnable.class));
+
+            verify(tickFuture).cancel(false);
+            verify(executor, times(2)).scheduleWithFixedDelay(any(), anyLong(), anyLong(), any());
+        }
+
+        @Test
+        void tickKeptForRemainingRecorders() {
+            Runnable first = mock(Runnable.class);
+            Runnable second = mock(Runnable.class);
+
+            scheduler.schedule("first", Duration.ofSeconds(15), first);
+            scheduler.schedule("second", Duration.ofSeconds(15), second).cancel();
+            getTick(15000).run();
+
+            verify(tickFuture, never()).cancel(anyBoolean());
+            verify(first).run();
+            verifyNoInteractions(second);
+        }
+    }
+}
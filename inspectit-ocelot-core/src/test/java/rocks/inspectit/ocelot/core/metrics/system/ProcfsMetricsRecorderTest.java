@@ -0,0 +1,255 @@
+package rocks.inspectit.ocelot.core.metrics.system;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import rocks.inspectit.ocelot.config.model.metrics.MetricsSettings;
+import rocks.inspectit.ocelot.config.model.metrics.StandardPollingMetricsRecorderSettings;
+import rocks.inspectit.ocelot.core.metrics.MeasuresAndViewsManager;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProcfsMetricsRecorderTest {
+
+    private static final String[] ALL_METRICS = {"cpu.time", "memory.rss", "io.read", "io.write", "container.cpu.limit", "container.cpu.throttled.periods", "container.cpu.throttled.time", "container.memory.limit", "container.memory.usage"};
+
+    @Mock
+    MeasuresAndViewsManager measureManager;
+
+    private static Path fixture(String name) throws URISyntaxException {
+        return Paths.get(ProcfsMetricsRecorderTest.class.getResource("procfs/" + name).toURI());
+    }
+
+    private static MetricsSettings settings(boolean enabled) {
+        Map<String, Boolean> enabledMetrics = new HashMap<>();
+        for (String metric : ALL_METRICS) {
+            enabledMetrics.put(metric, enabled);
+        }
+        StandardPollingMetricsRecorderSettings procfs = new StandardPollingMetricsRecorderSettings();
+        procfs.setEnabled(enabledMetrics);
+        MetricsSettings settings = new MetricsSettings();
+        settings.setProcfs(procfs);
+        return settings;
+    }
+
+    private ProcfsMetricsRecorder createRecorder(Path procSelf, Path cgroupRoot) {
+        ProcfsMetricsRecorder recorder = new ProcfsMetricsRecorder(procSelf, cgroupRoot);
+        recorder.measureManager = measureManager;
+        recorder.init();
+        return recorder;
+    }
+
+    @Nested
+    class TakeMeasurement {
+
+        @Test
+        void processMetrics() throws Exception {
+            ProcfsMetricsRecorder recorder = createRecorder(fixture("proc"), fixture("cgroup-v2"));
+
+            recorder.takeMeasurement(settings(true));
+
+            // (250 + 130) clock ticks of 10ms
+            verify(measureManager).tryRecordingMeasurement("process/cpu/time", 3800L);
+            verify(measureManager).tryRecordingMeasurement("process/memory/rss", 204800L * 1024);
+            verify(measureManager).tryRecordingMeasurement("process/io/read", 4096L);
+            verify(measureManager).tryRecordingMeasurement("process/io/write", 8192L);
+        }
+
+        @Test
+        void cgroupV2() throws Exception {
+            ProcfsMetricsRecorder recorder = createRecorder(fixture("proc"), fixture("cgroup-v2"));
+
+            recorder.takeMeasurement(settings(true));
+
+            verify(measureManager).tryRecordingMeasurement("container/cpu/limit", 1.5);
+            verify(measureManager).tryRecordingMeasurement("container/cpu/throttled/periods", 7L);
+            verify(measureManager).tryRecordingMeasurement("container/cpu/throttled/time", 42L);
+            verify(measureManager).tryRecordingMeasurement("container/memory/limit", 536870912L);
+            verify(measureManager).tryRecordingMeasurement("container/memory/usage", 268435456L);
+        }
+
+        @Test
+        void cgroupV1() throws Exception {
+            ProcfsMetricsRecorder recorder = createRecorder(fixture("proc"), fixture("cgroup-v1"));
+
+            recorder.takeMeasurement(settings(true));
+
+            verify(measureManager).tryRecordingMeasurement("container/cpu/limit", 2.0);
+            verify(measureManager).tryRecordingMeasurement("container/cpu/throttled/periods", 3L);
+            verify(measureManager).tryRecordingMeasurement("container/cpu/throttled/time", 5000L);
+            verify(measureManager).tryRecordingMeasurement("container/memory/usage", 104857600L);
+            // the memory is not limited
+            verify(measureManager, never()).tryRecordingMeasurement(eq("container/memory/limit"), any(Number.class));
+        }
+
+        @Test
+        void unlimitedCpu(@TempDir Path cgroupRoot) throws Exception {
+            Files.write(cgroupRoot.resolve("cgroup.controllers"), "cpu memory\n".getBytes(StandardCharsets.UTF_8));
+            Files.write(cgroupRoot.resolve("cpu.max"), "max 100000\n".getBytes(StandardCharsets.UTF_8));
+            Files.write(cgroupRoot.resolve("memory.max"), "max\n".getBytes(StandardCharsets.UTF_8));
+            ProcfsMetricsRecorder recorder = createRecorder(fixture("proc"), cgroupRoot);
+
+            recorder.takeMeasurement(settings(true));
+
+            verify(measureManager, never()).tryRecordingMeasurement(eq("container/cpu/limit"), any(Number.class));
+            verify(measureManager, never()).tryRecordingMeasurement(eq("container/memory/limit"), any(Number.class));
+        }
+
+        @Test
+        void nestedCgroupV2(@TempDir Path directory) throws Exception {
+            Path procSelf = Files.createDirectories(directory.resolve("proc"));
+            Files.write(procSelf.resolve("cgroup"), "0::/system.slice/app.service\n".getBytes(StandardCharsets.UTF_8));
+            Path cgroupRoot = Files.createDirectories(directory.resolve("cgroup"));
+            Files.write(cgroupRoot.resolve("cgroup.controllers"), "cpu memory\n".getBytes(StandardCharsets.UTF_8));
+            Files.write(cgroupRoot.resolve("memory.max"), "max\n".getBytes(StandardCharsets.UTF_8));
+            Path cgroup = Files.createDirectories(cgroupRoot.resolve("system.slice/app.service"));
+            Files.write(cgroup.resolve("memory.max"), "1048576\n".getBytes(StandardCharsets.UTF_8));
+            ProcfsMetricsRecorder recorder = createRecorder(procSelf, cgroupRoot);
+
+            recorder.takeMeasurement(settings(true));
+
+            verify(measureManager).tryRecordingMeasurement("container/memory/limit", 1048576L);
+        }
+
+        @Test
+        void disabledMetrics() throws Exception {
+            ProcfsMetricsRecorder recorder = createRecorder(fixture("proc"), fixture("cgroup-v2"));
+
+            recorder.takeMeasurement(settings(false));
+
+            verifyNoInteractions(measureManager);
+        }
+    }
+
+    @Nested
+    class CheckEnabledForConfig {
+
+        @Test
+        void filesAvailable() throws Exception {
+            ProcfsMetricsRecorder recorder = createRecorder(fixture("proc"), fixture("cgroup-v1"));
+
+            assertThat(recorder.checkEnabledForConfig(settings(true))).isTrue();
+            assertThat(recorder.checkEnabledForConfig(settings(false))).isFalse();
+        }
+
+        @Test
+        void noFilesAvailable(@TempDir Path emptyDirectory) {
+            ProcfsMetricsRecorder recorder = createRecorder(emptyDirectory.resolve("proc"), emptyDirectory.resolve("cgroup"));
+
+            assertThat(recorder.checkEnabledForConfig(settings(true))).isFalse();
+        }
+
+        @Test
+        void onlyUnavailableMetricEnabled(@TempDir Path emptyDirectory) throws Exception {
+            ProcfsMetricsRecorder recorder = createRecorder(fixture("proc"), emptyDirectory);
+            MetricsSettings settings = settings(false);
+            settings.getProcfs().setEnabled(Collections.singletonMap("container.memory.limit", true));
+
+            assertThat(recorder.checkEnabledForConfig(settings)).isFalse();
+        }
+    }
+
+    @Nested
+    class ResolveCgroup {
+
+        @Test
+        void cgroupV2(@TempDir Path cgroupRoot) throws Exception {
+            Path cgroup = Files.createDirectories(cgroupRoot.resolve("system.slice/app.service"));
+
+            Path result = ProcfsMetricsRecorder.resolveCgroup(Arrays.asList("0::/system.slice/app.service"), cgroupRoot, null);
+
+            assertThat(result).isEqualTo(cgroup);
+        }
+
+        @Test
+        void cgroupV1(@TempDir Path cgroupRoot) throws Exception {
+            Path cgroup = Files.createDirectories(cgroupRoot.resolve("cpu/docker/1a2b"));
+            List<String> cgroups = Arrays.asList("5:memory:/docker/1a2b", "4:cpu,cpuacct:/docker/1a2b");
+
+            Path result = ProcfsMetricsRecorder.resolveCgroup(cgroups, cgroupRoot.resolve("cpu"), "cpu");
+
+            assertThat(result).isEqualTo(cgroup);
+        }
+
+        @Test
+        void rootIfCgroupDirectoryMissing(@TempDir Path cgroupRoot) {
+            List<String> cgroups = Arrays.asList("4:cpu,cpuacct:/docker/1a2b", "0::/docker/1a2b");
+
+            assertThat(ProcfsMetricsRecorder.resolveCgroup(cgroups, cgroupRoot, "cpu")).isEqualTo(cgroupRoot);
+            assertThat(ProcfsMetricsRecorder.resolveCgroup(cgroups, cgroupRoot, null)).isEqualTo(cgroupRoot);
+            assertThat(ProcfsMetricsRecorder.resolveCgroup(Collections.emptyList(), cgroupRoot, "memory")).isEqualTo(cgroupRoot);
+        }
+    }
+
+    @Nested
+    class FileReader {
+
+        private final ProcfsFileReader reader = new ProcfsFileReader();
+
+        private void read(Path directory, String content) throws IOException {
+            Path file = directory.resolve("file");
+            Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+            assertThat(reader.read(file)).isTrue();
+        }
+
+        @Test
+        void statFieldsAfterExecutableName() throws Exception {
+            assertThat(reader.read(fixture("proc").resolve("stat"))).isTrue();
+
+            assertThat(reader.getStatField(3)).isEqualTo(ProcfsFileReader.UNAVAILABLE);
+            assertThat(reader.getStatField(4)).isEqualTo(1);
+            assertThat(reader.getStatField(8)).isEqualTo(-1);
+            assertThat(reader.getStatField(14)).isEqualTo(250);
+            assertThat(reader.getStatField(100)).isEqualTo(ProcfsFileReader.UNAVAILABLE);
+        }
+
+        @Test
+        void keyValues(@TempDir Path directory) throws Exception {
+            read(directory, "VmRSSx:\t 1 kB\nVmRSS:\t  204800 kB\nThreads:\t42\n");
+
+            assertThat(reader.getKeyValue(ProcfsFileReader.key("VmRSS"))).isEqualTo(204800);
+            assertThat(reader.getKeyValue(ProcfsFileReader.key("Threads"))).isEqualTo(42);
+            assertThat(reader.getKeyValue(ProcfsFileReader.key("VmSwap"))).isEqualTo(ProcfsFileReader.UNAVAILABLE);
+        }
+
+        @Test
+        void fields(@TempDir Path directory) throws Exception {
+            read(directory, "max 100000\n");
+
+            assertThat(reader.getField(0)).isEqualTo(ProcfsFileReader.UNLIMITED);
+            assertThat(reader.getField(1)).isEqualTo(100000);
+            assertThat(reader.getField(2)).isEqualTo(ProcfsFileReader.UNAVAILABLE);
+        }
+
+        @Test
+        void fileLargerThanBuffer(@TempDir Path directory) throws Exception {
+            StringBuilder content = new StringBuilder();
+            for (int i = 0; i < 1000; i++) {
+                content.append("key").append(i).append(' ').append(i).append('\n');
+            }
+            read(directory, content.toString());
+
+            assertThat(reader.getKeyValue(ProcfsFileReader.key("key999"))).isEqualTo(999);
+        }
+
+        @Test
+        void missingFile(@TempDir Path directory) {
+            assertThat(reader.read(directory.resolve("missing"))).isFalse();
+            assertThat(reader.getLong(0)).isEqualTo(ProcfsFileReader.UNAVAILABLE);
+        }
+    }
+}
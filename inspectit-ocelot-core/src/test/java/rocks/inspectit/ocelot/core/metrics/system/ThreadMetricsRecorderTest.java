@@ -0,0 +1,194 @@
+package rocks.inspectit.ocelot.core.metrics.system;
+
+import com.google.common.collect.ImmutableMap;
+import io.opencensus.tags.*;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import rocks.inspectit.ocelot.config.model.metrics.MetricsSettings;
+import rocks.inspectit.ocelot.config.model.metrics.threads.ThreadMetricsRecorderSettings;
+import rocks.inspectit.ocelot.core.metrics.MeasuresAndViewsManager;
+import rocks.inspectit.ocelot.core.tags.CommonTagsManager;
+
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ThreadMetricsRecorderTest {
+
+    @InjectMocks
+    ThreadMetricsRecorder recorder;
+
+    @Mock
+    ThreadMXBean threadBean;
+
+    @Mock
+    Tagger tagger;
+
+    @Mock
+    MeasuresAndViewsManager measureManager;
+
+    @Mock
+    CommonTagsManager commonTags;
+
+    private static ThreadInfo thread(String name, Thread.State state) {
+        ThreadInfo threadInfo = mock(ThreadInfo.class);
+        lenient().when(threadInfo.getThreadName()).thenReturn(name);
+        when(threadInfo.getThreadState()).thenReturn(state);
+        return threadInfo;
+    }
+
+    private static MetricsSettings settings(Map<String, Boolean> enabled) {
+        ThreadMetricsRecorderSettings threads = new ThreadMetricsRecorderSettings();
+        threads.setEnabled(enabled);
+        threads.setMaxPools(1);
+        MetricsSettings settings = new MetricsSettings();
+        settings.setThreads(threads);
+        return settings;
+    }
+
+    private Map<String, Long> recordedCounts(String measureName, int times) {
+        ArgumentCaptor<Number> values = ArgumentCaptor.forClass(Number.class);
+        ArgumentCaptor<TagContext> tags = ArgumentCaptor.forClass(TagContext.class);
+        verify(measureManager, times(times)).tryRecordingMeasurement(eq(measureName), values.capture(), tags.capture());
+
+        Map<String, Long> result = new HashMap<>();
+        List<Number> valueList = values.getAllValues();
+        List<TagContext> tagList = tags.getAllValues();
+        for (int i = 0; i < valueList.size(); i++) {
+            String key = toMap(tagList.get(i)).values().stream().map(TagValue::asString).sorted().reduce((a, b) -> a + "|" + b).orElse("");
+            result.put(key, valueList.get(i).longValue());
+        }
+        return result;
+    }
+
+    private static Map<TagKey, TagValue> toMap(TagContext tagContext) {
+        Map<TagKey, TagValue> result = new HashMap<>();
+        InternalUtils.getTags(tagContext).forEachRemaining(tag -> result.put(tag.getKey(), tag.getValue()));
+        return result;
+    }
+
+    @Nested
+    class TakeMeasurement {
+
+        @Test
+        void singleSnapshotForAllStates() {
+            when(commonTags.getCommonTagContext()).thenReturn(Tags.getTagger().emptyBuilder().build());
+            when(tagger.toBuilder(any())).thenAnswer(invocation -> Tags.getTagger().toBuilder(invocation.getArgument(0)));
+            when(threadBean.getAllThreadIds()).thenReturn(new long[]{1, 2, 3, 4});
+            when(threadBean.getThreadInfo(any(long[].class))).thenReturn(new ThreadInfo[]{thread("main", Thread.State.RUNNABLE), thread("worker-1", Thread.State.WAITING), thread("worker-2", Thread.State.WAITING), null});
+
+            recorder.takeMeasurement(settings(ImmutableMap.of("states", true)));
+            recorder.takeMeasurement(settings(ImmutableMap.of("states", true)));
+
+            verify(threadBean, times(2)).getThreadInfo(any(long[].class));
+            verify(threadBean, never()).getThreadInfo(any(long[].class), anyBoolean(), anyBoolean());
+            Map<String, Long> counts = recordedCounts("jvm/threads/states", 12);
+            assertThat(counts).containsEntry("RUNNABLE", 1L)
+                    .containsEntry("WAITING", 2L)
+                    .containsEntry("BLOCKED", 0L)
+                    .hasSize(Thread.State.values().length);
+            // the tag contexts are only built once
+            verify(tagger, times(Thread.State.values().length)).toBuilder(any());
+        }
+
+        @Test
+        void poolStates() {
+            when(commonTags.getCommonTagContext()).thenReturn(Tags.getTagger().emptyBuilder().build());
+            when(tagger.toBuilder(any())).thenAnswer(invocation -> Tags.getTagger().toBuilder(invocation.getArgument(0)));
+            when(threadBean.getAllThreadIds()).thenReturn(new long[]{1, 2, 3});
+            when(threadBean.getThreadInfo(any(long[].class))).thenReturn(new ThreadInfo[]{thread("main", Thread.State.RUNNABLE), thread("worker-1", Thread.State.WAITING), thread("worker-2", Thread.State.RUNNABLE)});
+
+            recorder.takeMeasurement(settings(ImmutableMap.of("pool.states", true)));
+
+            Map<String, Long> counts = recordedCounts("jvm/threads/pool/states", 2 * Thread.State.values().length);
+            assertThat(counts).containsEntry("RUNNABLE|worker", 1L)
+                    .containsEntry("WAITING|worker", 1L)
+                    .containsEntry("RUNNABLE|other", 1L)
+                    .containsEntry("WAITING|other", 0L);
+        }
+
+        @Test
+        void droppedPoolReportedAsZeroOnce() {
+            when(commonTags.getCommonTagContext()).thenReturn(Tags.getTagger().emptyBuilder().build());
+            when(tagger.toBuilder(any())).thenAnswer(invocation -> Tags.getTagger().toBuilder(invocation.getArgument(0)));
+            when(threadBean.getAllThreadIds()).thenReturn(new long[]{1, 2, 3});
+            when(threadBean.getThreadInfo(any(long[].class))).thenReturn(new ThreadInfo[]{thread("main", Thread.State.RUNNABLE), thread("worker-1", Thread.State.WAITING), thread("worker-2", Thread.State.RUNNABLE)})
+                    .thenReturn(new ThreadInfo[]{thread("worker-1", Thread.State.WAITING), thread("db-1", Thread.State.RUNNABLE), thread("db-2", Thread.State.RUNNABLE)})
+                    .thenReturn(new ThreadInfo[]{thread("db-1", Thread.State.RUNNABLE), thread("db-2", Thread.State.RUNNABLE), thread("db-3", Thread.State.RUNNABLE)});
+            int states = Thread.State.values().length;
+
+            recorder.takeMeasurement(settings(ImmutableMap.of("pool.states", true)));
+            clearInvocations(measureManager);
+            recorder.takeMeasurement(settings(ImmutableMap.of("pool.states", true)));
+
+            Map<String, Long> counts = recordedCounts("jvm/threads/pool/states", 3 * states);
+            assertThat(counts).containsEntry("RUNNABLE|db", 2L)
+                    .containsEntry("WAITING|other", 1L)
+                    .containsEntry("RUNNABLE|worker", 0L)
+                    .containsEntry("WAITING|worker", 0L);
+
+            clearInvocations(measureManager);
+            recorder.takeMeasurement(settings(ImmutableMap.of("pool.states", true)));
+
+            // the worker pool is not reported anymore, the other pool is dropped as all pools are within the limit
+            counts = recordedCounts("jvm/threads/pool/states", 2 * states);
+            assertThat(counts).containsEntry("RUNNABLE|db", 3L)
+                    .containsEntry("WAITING|other", 0L)
+                    .doesNotContainKeys("RUNNABLE|worker", "WAITING|worker");
+        }
+    }
+
+    @Nested
+    class GetPoolName {
+
+        @Test
+        void threadNumberRemoved() {
+            assertThat(ThreadMetricsRecorder.getPoolName("http-nio-8080-exec-12")).isEqualTo("http-nio-8080-exec");
+            assertThat(ThreadMetricsRecorder.getPoolName("pool-3-thread-7")).isEqualTo("pool-3-thread");
+            assertThat(ThreadMetricsRecorder.getPoolName("ForkJoinPool.commonPool-worker-1")).isEqualTo("ForkJoinPool.commonPool-worker");
+            assertThat(ThreadMetricsRecorder.getPoolName("Worker #3")).isEqualTo("Worker");
+        }
+
+        @Test
+        void noThreadNumber() {
+            assertThat(ThreadMetricsRecorder.getPoolName("main")).isEqualTo("main");
+            assertThat(ThreadMetricsRecorder.getPoolName("42")).isEqualTo("42");
+            assertThat(ThreadMetricsRecorder.getPoolName("")).isEqualTo("unknown");
+        }
+    }
+
+    @Nested
+    class LimitPools {
+
+        @Test
+        void withinLimit() {
+            Map<String, long[]> pools = ImmutableMap.of("a", new long[]{1, 0, 0, 0, 0, 0});
+
+            Map<String, long[]> result = ThreadMetricsRecorder.limitPools(pools, 1);
+
+            assertThat(result).isSameAs(pools);
+        }
+
+        @Test
+        void largestPoolsKept() {
+            Map<String, long[]> pools = ImmutableMap.of("small", new long[]{1, 0, 0, 0, 0, 0}, "large", new long[]{2, 3, 0, 0, 0, 0}, "medium", new long[]{0, 2, 0, 0, 0, 0});
+
+            Map<String, long[]> result = ThreadMetricsRecorder.limitPools(pools, 2);
+
+            assertThat(result).containsOnlyKeys("large", "medium", ThreadMetricsRecorder.OTHER_POOL_NAME);
+            assertThat(result.get(ThreadMetricsRecorder.OTHER_POOL_NAME)).containsExactly(1, 0, 0, 0, 0, 0);
+        }
+    }
+}
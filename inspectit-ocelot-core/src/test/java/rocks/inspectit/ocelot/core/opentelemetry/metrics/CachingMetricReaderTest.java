@@ -0,0 +1,86 @@
+package rocks.inspectit.ocelot.core.opentelemetry.metrics;
+
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.export.MetricProducer;
+import io.opentelemetry.sdk.metrics.export.MetricReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import rocks.inspectit.ocelot.core.selfmonitoring.SelfMonitoringService;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CachingMetricReaderTest {
+
+    private static final Duration CACHE_DURATION = Duration.ofSeconds(5);
+
+    @Mock
+    MetricReader delegate;
+
+    @Mock
+    MetricProducer sdkProducer;
+
+    @Mock
+    SelfMonitoringService selfMonitoringService;
+
+    private long time;
+
+    private MetricProducer producer;
+
+    @BeforeEach
+    void setup() {
+        time = 0;
+        when(selfMonitoringService.withDurationSelfMonitoring(any())).thenReturn(() -> {
+        });
+        CachingMetricReader reader = new CachingMetricReader(delegate, CACHE_DURATION, selfMonitoringService, "prometheus", () -> time);
+
+        reader.register(sdkProducer);
+
+        ArgumentCaptor<MetricProducer> producerCaptor = ArgumentCaptor.forClass(MetricProducer.class);
+        verify(delegate).register(producerCaptor.capture());
+        producer = producerCaptor.getValue();
+    }
+
+    @Nested
+    class CollectAllMetrics {
+
+        @Test
+        void cachedWithinCacheDuration() {
+            Collection<MetricData> metrics = Collections.emptyList();
+            when(sdkProducer.collectAllMetrics()).thenReturn(metrics);
+
+            Collection<MetricData> first = producer.collectAllMetrics();
+            time += CACHE_DURATION.toNanos();
+            Collection<MetricData> second = producer.collectAllMetrics();
+
+            assertThat(first).isSameAs(metrics);
+            assertThat(second).isSameAs(metrics);
+            verify(sdkProducer).collectAllMetrics();
+            verify(selfMonitoringService).withDurationSelfMonitoring("prometheus");
+            verify(selfMonitoringService).recordMeasurement(eq("exporters/collected-series"), eq(0L), anyMap());
+        }
+
+        @Test
+        void collectedAgainAfterCacheDuration() {
+            when(sdkProducer.collectAllMetrics()).thenReturn(Collections.emptyList());
+
+            producer.collectAllMetrics();
+            time += CACHE_DURATION.toNanos() + 1;
+            producer.collectAllMetrics();
+
+            verify(sdkProducer, times(2)).collectAllMetrics();
+            verify(selfMonitoringService, times(2)).recordMeasurement(eq("exporters/collected-series"), eq(0L), anyMap());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package rocks.inspectit.ocelot.core.opentelemetry.metrics;
+
+import io.opencensus.common.Timestamp;
+import io.opencensus.metrics.LabelKey;
+import io.opencensus.metrics.LabelValue;
+import io.opencensus.metrics.export.*;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.sdk.metrics.data.HistogramPointData;
+import io.opentelemetry.sdk.metrics.data.LongPointData;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.data.MetricDataType;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.semconv.resource.attributes.ResourceAttributes;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies the conversion via the internal API of the OpenCensus shim, so that changes of this API are noticed when
+ * upgrading the shim.
+ */
+public class OpenCensusMetricAdapterTest {
+
+    private static final Resource RESOURCE = Resource.create(Attributes.of(ResourceAttributes.SERVICE_NAME, "my-service"));
+
+    @Nested
+    class Convert {
+
+        @Test
+        void cumulativeLong() {
+            MetricDescriptor descriptor = MetricDescriptor.create("my-counter", "description", "ms", MetricDescriptor.Type.CUMULATIVE_INT64, Collections.singletonList(LabelKey.create("my-tag", "")));
+            Point point = Point.create(Value.longValue(42), Timestamp.create(2, 0));
+            TimeSeries series = TimeSeries.createWithOnePoint(Collections.singletonList(LabelValue.create("my-value")), point, Timestamp.create(1, 0));
+
+            MetricData result = OpenCensusMetricAdapter.convert(RESOURCE, Metric.createWithOneTimeSeries(descriptor, series));
+
+            assertThat(result.getResource()).isEqualTo(RESOURCE);
+            assertThat(result.getName()).isEqualTo("my-counter");
+            assertThat(result.getDescription()).isEqualTo("description");
+            assertThat(result.getUnit()).isEqualTo("ms");
+            assertThat(result.getType()).isEqualTo(MetricDataType.LONG_SUM);
+            assertThat(result.getLongSumData().getPoints()).hasSize(1);
+            LongPointData resultPoint = result.getLongSumData().getPoints().iterator().next();
+            assertThat(resultPoint.getValue()).isEqualTo(42);
+            assertThat(resultPoint.getAttributes()).isEqualTo(Attributes.of(AttributeKey.stringKey("my-tag"), "my-value"));
+        }
+
+        @Test
+        void distribution() {
+            MetricDescriptor descriptor = MetricDescriptor.create("my-histogram", "description", "ms", MetricDescriptor.Type.CUMULATIVE_DISTRIBUTION, Collections.emptyList());
+            Distribution distribution = Distribution.create(3, 60, 0, Distribution.BucketOptions.explicitOptions(Arrays.asList(10.0, 50.0)), Arrays.asList(Distribution.Bucket.create(1), Distribution.Bucket.create(1), Distribution.Bucket.create(1)));
+            Point point = Point.create(Value.distributionValue(distribution), Timestamp.create(2, 0));
+            TimeSeries series = TimeSeries.createWithOnePoint(Collections.emptyList(), point, Timestamp.create(1, 0));
+
+            MetricData result = OpenCensusMetricAdapter.convert(RESOURCE, Metric.createWithOneTimeSeries(descriptor, series));
+
+            assertThat(result.getType()).isEqualTo(MetricDataType.HISTOGRAM);
+            assertThat(result.getHistogramData().getPoints()).hasSize(1);
+            HistogramPointData resultPoint = result.getHistogramData().getPoints().iterator().next();
+            assertThat(resultPoint.getBoundaries()).containsExactly(10.0, 50.0);
+            assertThat(resultPoint.getCounts()).containsExactly(1L, 1L, 1L);
+            assertThat(resultPoint.getSum()).isEqualTo(60);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package rocks.inspectit.ocelot.core.opentelemetry.metrics;
+
+import io.opencensus.common.Timestamp;
+import io.opencensus.metrics.export.*;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.semconv.resource.attributes.ResourceAttributes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SharedOpenCensusMetricProducerTest {
+
+    private static final Duration STALENESS = Duration.ofSeconds(1);
+
+    private AtomicInteger reads;
+
+    private long time;
+
+    private SharedOpenCensusMetricProducer producer;
+
+    @BeforeEach
+    void setup() {
+        reads = new AtomicInteger();
+        time = 0;
+        producer = new SharedOpenCensusMetricProducer(() -> {
+            reads.incrementAndGet();
+            return Collections.singletonList(gauge("my-metric", reads.get()));
+        }, Resource.empty(), STALENESS, () -> time);
+    }
+
+    private static Metric gauge(String name, long value) {
+        MetricDescriptor descriptor = MetricDescriptor.create(name, "description", "1", MetricDescriptor.Type.GAUGE_INT64, Collections.emptyList());
+        Point point = Point.create(Value.longValue(value), Timestamp.create(1, 0));
+        return Metric.createWithOneTimeSeries(descriptor, TimeSeries.createWithOnePoint(Collections.emptyList(), point, null));
+    }
+
+    @Nested
+    class CollectAllMetrics {
+
+        @Test
+        void convertsMetrics() {
+            Collection<MetricData> metrics = producer.collectAllMetrics();
+
+            assertThat(metrics).hasSize(1);
+            assertThat(metrics.iterator().next().getName()).isEqualTo("my-metric");
+        }
+
+        @Test
+        void resourceAdded() {
+            Resource resource = Resource.create(Attributes.of(ResourceAttributes.SERVICE_NAME, "my-service"));
+            producer = new SharedOpenCensusMetricProducer(() -> Collections.singletonList(gauge("my-metric", 1)), resource, STALENESS, () -> time);
+
+            Collection<MetricData> metrics = producer.collectAllMetrics();
+
+            assertThat(metrics.iterator().next().getResource()).isEqualTo(resource);
+        }
+
+        @Test
+        void snapshotSharedWithinStalenessWindow() {
+            Collection<MetricData> first = producer.collectAllMetrics();
+            time += STALENESS.toNanos();
+            Collection<MetricData> second = producer.collectAllMetrics();
+
+            assertThat(second).isSameAs(first);
+            assertThat(reads).hasValue(1);
+        }
+
+        @Test
+        void snapshotRecomputedAfterStalenessWindow() {
+            Collection<MetricData> first = producer.collectAllMetrics();
+            time += STALENESS.toNanos() + 1;
+            Collection<MetricData> second = producer.collectAllMetrics();
+
+            assertThat(second).isNotSameAs(first);
+            assertThat(reads).hasValue(2);
+        }
+
+        @Test
+        void stalenessChanged() {
+            Collection<MetricData> first = producer.collectAllMetrics();
+            producer.setStaleness(STALENESS.multipliedBy(2));
+            time += STALENESS.toNanos() + 1;
+            Collection<MetricData> second = producer.collectAllMetrics();
+
+            assertThat(second).isSameAs(first);
+            assertThat(producer.getStaleness()).isEqualTo(STALENESS.multipliedBy(2));
+        }
+    }
+}
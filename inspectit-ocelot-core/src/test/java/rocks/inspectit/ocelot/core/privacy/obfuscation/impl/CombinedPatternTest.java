@@ -0,0 +1,90 @@
+package rocks.inspectit.ocelot.core.privacy.obfuscation.impl;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CombinedPatternTest {
+
+    private static PatternObfuscatory.PatternEntry entry(Pattern pattern) {
+        return PatternObfuscatory.PatternEntry.builder().pattern(pattern).checkKey(true).build();
+    }
+
+    @Nested
+    class FindFirstMatch {
+
+        @Test
+        public void noEntries() {
+            CombinedPattern combined = new CombinedPattern(Collections.emptyList());
+
+            assertThat(combined.findFirstMatch("anything")).isEmpty();
+        }
+
+        @Test
+        public void firstMatchingEntryReturned() {
+            PatternObfuscatory.PatternEntry letters = entry(Pattern.compile("[a-z]+"));
+            PatternObfuscatory.PatternEntry lettersOrDigits = entry(Pattern.compile("[a-z0-9]+"));
+            PatternObfuscatory.PatternEntry digits = entry(Pattern.compile("([0-9])+"));
+            CombinedPattern combined = new CombinedPattern(Arrays.asList(letters, lettersOrDigits, digits));
+
+            assertThat(combined.findFirstMatch("abc")).contains(letters);
+            assertThat(combined.findFirstMatch("abc1")).contains(lettersOrDigits);
+            assertThat(combined.findFirstMatch("123")).contains(lettersOrDigits);
+            assertThat(combined.findFirstMatch("ABC")).isEmpty();
+        }
+
+        @Test
+        public void groupsOfPatternsDoNotShiftEntries() {
+            PatternObfuscatory.PatternEntry grouped = entry(Pattern.compile("(a)(b)(c)"));
+            PatternObfuscatory.PatternEntry digits = entry(Pattern.compile("[0-9]+"));
+            CombinedPattern combined = new CombinedPattern(Arrays.asList(grouped, digits));
+
+            assertThat(combined.findFirstMatch("abc")).contains(grouped);
+            assertThat(combined.findFirstMatch("42")).contains(digits);
+        }
+
+        @Test
+        public void caseSensitivityPerEntry() {
+            PatternObfuscatory.PatternEntry insensitive = entry(Pattern.compile(".*pass.*", Pattern.CASE_INSENSITIVE));
+            PatternObfuscatory.PatternEntry sensitive = entry(Pattern.compile(".*token.*"));
+            CombinedPattern combined = new CombinedPattern(Arrays.asList(insensitive, sensitive));
+
+            assertThat(combined.findFirstMatch("my-PASSWORD")).contains(insensitive);
+            assertThat(combined.findFirstMatch("my-token")).contains(sensitive);
+            assertThat(combined.findFirstMatch("my-TOKEN")).isEmpty();
+        }
+
+        @Test
+        public void backReferenceCheckedSeparately() {
+            PatternObfuscatory.PatternEntry letters = entry(Pattern.compile("[a-z]+"));
+            PatternObfuscatory.PatternEntry repeated = entry(Pattern.compile("([0-9])\\1"));
+            CombinedPattern combined = new CombinedPattern(Arrays.asList(letters, repeated));
+
+            assertThat(combined.findFirstMatch("11")).contains(repeated);
+            assertThat(combined.findFirstMatch("12")).isEmpty();
+        }
+
+        @Test
+        public void inlineFlagsCheckedSeparately() {
+            PatternObfuscatory.PatternEntry commented = entry(Pattern.compile("(?x)abc # c"));
+            PatternObfuscatory.PatternEntry letters = entry(Pattern.compile("xyz"));
+            CombinedPattern combined = new CombinedPattern(Arrays.asList(commented, letters));
+
+            assertThat(combined.findFirstMatch("abc")).contains(commented);
+            assertThat(combined.findFirstMatch("xyz")).contains(letters);
+        }
+
+        @Test
+        public void otherFlagsCheckedSeparately() {
+            PatternObfuscatory.PatternEntry dotAll = entry(Pattern.compile("a.b", Pattern.DOTALL));
+            CombinedPattern combined = new CombinedPattern(Collections.singletonList(dotAll));
+
+            assertThat(combined.findFirstMatch("a\nb")).contains(dotAll);
+        }
+    }
+}